@@ -0,0 +1,47 @@
+package com.abada.engine.benchmark;
+
+import com.abada.engine.core.assignment.AssignmentEvaluator;
+import com.abada.engine.core.model.assignment.UserTaskAssignment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the review task of the {@code inclusive-gateway} model: an expression assignee, an
+ * expression yielding a list of candidate users and a literal candidate group.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssignmentEvaluatorBenchmark {
+
+    private final AssignmentEvaluator evaluator = new AssignmentEvaluator();
+    private UserTaskAssignment assignment;
+    private Map<String, Object> variables;
+
+    @Setup(Level.Trial)
+    public void compileDefinition() {
+        assignment = Models.parse("inclusive-gateway").getUserTask("review").getAssignment();
+        variables = Map.of("initiator", "alice", "approvers", List.of("bob", "carol", "dave"));
+    }
+
+    @Benchmark
+    public Object evaluate() {
+        return evaluator.evaluate(assignment, variables);
+    }
+}
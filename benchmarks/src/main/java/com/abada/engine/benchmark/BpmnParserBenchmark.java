@@ -0,0 +1,48 @@
+package com.abada.engine.benchmark;
+
+import com.abada.engine.bpmn.compatibility.BpmnParseOptions;
+import com.abada.engine.parser.BpmnParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full deployment compile of one document: streaming scan, Camunda model read, validation and
+ * canonical compilation. {@code generated-500} is a chain of 500 user tasks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BpmnParserBenchmark {
+
+    @Param({"parallel-fork", "inclusive-gateway", "generated-500"})
+    public String model;
+
+    private final BpmnParser parser = new BpmnParser();
+    private byte[] source;
+
+    @Setup(Level.Trial)
+    public void load() {
+        source = model.equals("generated-500") ? Models.generated(500) : Models.bytes(model);
+    }
+
+    @Benchmark
+    public Object parseDetailed() {
+        return parser.parseDetailed(new ByteArrayInputStream(source), BpmnParseOptions.defaults());
+    }
+}
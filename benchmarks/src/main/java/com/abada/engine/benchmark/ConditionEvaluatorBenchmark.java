@@ -0,0 +1,56 @@
+package com.abada.engine.benchmark;
+
+import com.abada.engine.util.CompiledCondition;
+import com.abada.engine.util.ConditionCompiler;
+import com.abada.engine.util.ConditionEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Condition evaluation as ad-hoc callers see it ({@link ConditionEvaluator}, compiling every
+ * time) and as gateways see it (a {@link CompiledCondition} cached on the sequence flow).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConditionEvaluatorBenchmark {
+
+    @Param({"${approved}", "${amount > 1000}", "${region == 'EU' && priority >= 3}", "${order.total > 100}"})
+    public String expression;
+
+    private Map<String, Object> variables;
+    private CompiledCondition compiled;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        variables = Map.of("approved", true, "amount", 2500, "region", "EU", "priority", 3,
+                "order", Map.of("total", 250));
+        compiled = ConditionCompiler.compile(expression);
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        return ConditionEvaluator.evaluate(expression, variables);
+    }
+
+    @Benchmark
+    public boolean evaluateCompiled() {
+        return compiled.evaluate(variables);
+    }
+}
@@ -0,0 +1,137 @@
+package com.abada.engine.benchmark;
+
+import com.abada.engine.AbadaEngineApplication;
+import com.abada.engine.core.AbadaEngine;
+import com.abada.engine.core.ProcessInstance;
+import com.abada.engine.core.model.TaskInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves a burst of real engine commands the way the servlet container would, on Tomcat's default
+ * 200 platform threads or on one virtual thread per request ({@code abada.execution.virtual-threads}).
+ * Each request runs {@code startProcess}, or {@code startProcess} and then {@code completeTask}, through
+ * the full engine: Spring transactions, Hibernate and a Hikari pool of {@code connections}.
+ *
+ * <p>The database is an in-memory H2 by default. Pass {@code -p jdbcUrl=jdbc:postgresql://...} (with
+ * {@code -p jdbcUser} and {@code -p jdbcPassword}) to measure against PostgreSQL, where commands wait
+ * on the network and the thread model matters most. Add {@code -jvmArgsAppend -Djdk.tracePinnedThreads=short}
+ * to see where virtual threads pin their carrier.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EngineCommandBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"10", "50"})
+    public int connections;
+
+    @Param({"500"})
+    public int requests;
+
+    @Param({""})
+    public String jdbcUrl;
+
+    @Param({"sa"})
+    public String jdbcUser;
+
+    @Param({""})
+    public String jdbcPassword;
+
+    private ConfigurableApplicationContext context;
+    private AbadaEngine engine;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void start() {
+        boolean virtual = threads.equals("virtual");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.profiles.active", "benchmark");
+        properties.put("server.port", 0);
+        properties.put("spring.datasource.url", jdbcUrl.isEmpty()
+                ? "jdbc:h2:mem:engine-command-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false" : jdbcUrl);
+        properties.put("spring.datasource.username", jdbcUser);
+        properties.put("spring.datasource.password", jdbcPassword);
+        properties.put("spring.datasource.hikari.maximum-pool-size", connections);
+        properties.put("spring.jpa.hibernate.ddl-auto", "validate");
+        properties.put("spring.flyway.enabled", true);
+        properties.put("abada.execution.virtual-threads", virtual);
+        properties.put("otel.sdk.disabled", true);
+        properties.put("management.tracing.sampling.probability", 0.0);
+        properties.put("management.otlp.metrics.export.enabled", false);
+        // logback-spring.xml logs every statement outside prod; that would be most of what is measured
+        for (String logger : List.of("root", "com.abada.engine", "org.hibernate.SQL", "org.hibernate.type.descriptor.sql")) {
+            properties.put("logging.level." + logger, "WARN");
+        }
+        // As command-line arguments, so they win over the dev profile and datasource of application.yaml
+        context = new SpringApplicationBuilder(AbadaEngineApplication.class)
+                .run(properties.entrySet().stream().map(p -> "--" + p.getKey() + "=" + p.getValue())
+                        .toArray(String[]::new));
+        engine = context.getBean(AbadaEngine.class);
+        engine.deploy(new ByteArrayInputStream(Models.bytes("approval")));
+        executor = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        executor.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int startProcess() throws InterruptedException, ExecutionException {
+        return burst(() -> engine.startProcess("approval", "bench"));
+    }
+
+    @Benchmark
+    public int startAndCompleteTask() throws InterruptedException, ExecutionException {
+        return burst(() -> {
+            ProcessInstance instance = engine.startProcess("approval", "bench");
+            TaskInstance task = engine.getTaskManager().getTasksForProcessInstance(instance.getId()).getFirst();
+            engine.completeTask(task.getId(), "bench", List.of(), Map.of("approved", true));
+            return instance;
+        });
+    }
+
+    private int burst(Callable<ProcessInstance> command) throws InterruptedException, ExecutionException {
+        List<Future<ProcessInstance>> inFlight = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) inFlight.add(executor.submit(command));
+        for (Future<ProcessInstance> request : inFlight) request.get();
+        return inFlight.size();
+    }
+}
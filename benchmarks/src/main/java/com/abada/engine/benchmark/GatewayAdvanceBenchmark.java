@@ -0,0 +1,59 @@
+package com.abada.engine.benchmark;
+
+import com.abada.engine.core.ProcessInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Advances a fresh token from the start event to the review task: through a four-way parallel
+ * fork and join, or through an inclusive split with three conditional flows and a default. Both
+ * end by resolving the review task's assignment expressions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayAdvanceBenchmark {
+
+    @Param({"parallel-fork", "inclusive-gateway"})
+    public String model;
+
+    private ProcessInstance instance;
+    private List<String> start;
+
+    @Setup(Level.Trial)
+    public void compileDefinition() {
+        instance = new ProcessInstance(Models.parse(model));
+        instance.putAllVariables(Map.of("initiator", "alice", "approvers", List.of("bob", "carol"),
+                "amount", 2500, "region", "EU", "priority", 3, "express", true));
+        start = List.of(instance.getDefinition().getStartEventId());
+    }
+
+    @Setup(Level.Invocation)
+    public void resetTokens() {
+        instance.setActiveTokens(start);
+        instance.setJoinExpectedTokens(null);
+        instance.setJoinArrivedTokens(null);
+    }
+
+    @Benchmark
+    public Object advance() {
+        return instance.advance();
+    }
+}
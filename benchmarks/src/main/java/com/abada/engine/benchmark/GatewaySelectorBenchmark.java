@@ -0,0 +1,55 @@
+package com.abada.engine.benchmark;
+
+import com.abada.engine.core.GatewaySelector;
+import com.abada.engine.core.model.GatewayMeta;
+import com.abada.engine.core.model.ParsedProcessDefinition;
+import com.abada.engine.core.model.SequenceFlow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Flow selection at the inclusive split of the {@code inclusive-gateway} model. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewaySelectorBenchmark {
+
+    private final GatewaySelector selector = new GatewaySelector();
+    private GatewayMeta gateway;
+    private List<SequenceFlow> outgoing;
+    private Map<String, Object> variables;
+
+    @Setup(Level.Trial)
+    public void compileDefinition() {
+        ParsedProcessDefinition definition = Models.parse("inclusive-gateway");
+        gateway = definition.getGateways().get("split");
+        outgoing = definition.getOutgoing("split");
+        variables = Map.of("amount", 500, "region", "EU", "priority", 3, "express", true);
+    }
+
+    /** First matching flow, as an exclusive gateway would choose. */
+    @Benchmark
+    public String chooseOutgoing() {
+        return selector.chooseOutgoing(gateway, outgoing, variables);
+    }
+
+    @Benchmark
+    public List<String> chooseInclusive() {
+        return selector.chooseInclusive(gateway, outgoing, variables);
+    }
+}
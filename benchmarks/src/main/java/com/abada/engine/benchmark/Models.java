@@ -0,0 +1,51 @@
+package com.abada.engine.benchmark;
+
+import com.abada.engine.core.model.ParsedProcessDefinition;
+import com.abada.engine.parser.BpmnParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/** BPMN fixtures of the suites, under {@code /bpmn} on the classpath. */
+final class Models {
+
+    static byte[] bytes(String name) {
+        try (InputStream in = Models.class.getResourceAsStream("/bpmn/" + name + ".bpmn")) {
+            if (in == null) throw new IllegalArgumentException("No benchmark model " + name);
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static ParsedProcessDefinition parse(String name) {
+        return new BpmnParser().parse(new java.io.ByteArrayInputStream(bytes(name)));
+    }
+
+    /** A straight chain of {@code tasks} user tasks, to size parser runs beyond the hand-written models. */
+    static byte[] generated(int tasks) {
+        StringBuilder xml = new StringBuilder("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <bpmn:definitions xmlns:bpmn="http://www.omg.org/spec/BPMN/20100524/MODEL"
+                    xmlns:camunda="http://camunda.org/schema/1.0/bpmn" targetNamespace="benchmark">
+                  <bpmn:process id="generated" isExecutable="true">
+                    <bpmn:startEvent id="start"/>
+                """);
+        String previous = "start";
+        for (int i = 1; i <= tasks; i++) {
+            xml.append("    <bpmn:userTask id=\"task").append(i).append("\" name=\"Task ").append(i)
+                    .append("\" camunda:candidateGroups=\"team").append(i % 7).append("\"/>\n");
+            xml.append("    <bpmn:sequenceFlow id=\"flow").append(i).append("\" sourceRef=\"").append(previous)
+                    .append("\" targetRef=\"task").append(i).append("\"/>\n");
+            previous = "task" + i;
+        }
+        xml.append("    <bpmn:endEvent id=\"end\"/>\n")
+                .append("    <bpmn:sequenceFlow id=\"flowEnd\" sourceRef=\"").append(previous).append("\" targetRef=\"end\"/>\n")
+                .append("  </bpmn:process>\n</bpmn:definitions>\n");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Models() {}
+}
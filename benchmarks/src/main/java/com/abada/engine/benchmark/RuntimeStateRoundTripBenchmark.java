@@ -0,0 +1,69 @@
+package com.abada.engine.benchmark;
+
+import com.abada.engine.persistence.entity.ProcessInstanceEntity;
+import com.abada.engine.persistence.state.BinaryRuntimeStateCodec;
+import com.abada.engine.persistence.state.JsonRuntimeStateCodec;
+import com.abada.engine.persistence.state.RuntimeState;
+import com.abada.engine.persistence.state.RuntimeStateCodecRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the runtime state of an instance waiting at a join into a {@link ProcessInstanceEntity}
+ * and reads it back through the same codec registry the engine uses when it persists and
+ * rehydrates instances.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuntimeStateRoundTripBenchmark {
+
+    @Param({JsonRuntimeStateCodec.NAME, BinaryRuntimeStateCodec.NAME})
+    public String codec;
+
+    private RuntimeStateCodecRegistry codecs;
+    private RuntimeState state;
+    private ProcessInstanceEntity entity;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        ObjectMapper om = new ObjectMapper();
+        codecs = new RuntimeStateCodecRegistry(List.of(new JsonRuntimeStateCodec(om), new BinaryRuntimeStateCodec(om)),
+                codec);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("orderId", "A-10042");
+        variables.put("amount", 2500);
+        variables.put("approved", false);
+        variables.put("ratio", 0.25);
+        variables.put("customer", Map.of("name", "Alice", "tier", "gold", "tags", List.of("b2b", "eu")));
+        state = new RuntimeState(variables, List.of("pack", "ship", "join"), Map.of("join", 3),
+                Map.of("join", Set.of("invoice")));
+        entity = new ProcessInstanceEntity();
+    }
+
+    @Benchmark
+    public RuntimeState roundTrip() {
+        codecs.encode(state, entity);
+        return codecs.decode(entity);
+    }
+}
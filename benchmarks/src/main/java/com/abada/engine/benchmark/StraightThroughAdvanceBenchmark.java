@@ -0,0 +1,66 @@
+package com.abada.engine.benchmark;
+
+import com.abada.engine.core.ProcessInstance;
+import com.abada.engine.core.model.ParsedProcessDefinition;
+import com.abada.engine.core.model.SequenceFlow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Advances a token through a 50-node straight-through process (start, 48 pass-through activities,
+ * end). {@code gc.alloc.rate.norm} from the GC profiler is the number of bytes one advance
+ * allocates and should stay close to zero.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StraightThroughAdvanceBenchmark {
+
+    private static final int NODES = 50;
+    private static final List<String> START = List.of("start");
+
+    private ProcessInstance instance;
+
+    @Setup(Level.Trial)
+    public void compileDefinition() {
+        List<SequenceFlow> flows = new ArrayList<>();
+        String previous = "start";
+        for (int i = 1; i < NODES - 1; i++) {
+            String node = "task" + i;
+            flows.add(new SequenceFlow("flow" + i, previous, node, null, null, false));
+            previous = node;
+        }
+        flows.add(new SequenceFlow("flow" + (NODES - 1), previous, "end", null, null, false));
+
+        ParsedProcessDefinition definition = new ParsedProcessDefinition("straight-through", "Straight through",
+                null, "start", Map.of(), Map.of(), flows, Map.of(), Map.of(), Map.of("end", "end"), null, null, null);
+        instance = new ProcessInstance(definition);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetToken() {
+        instance.setActiveTokens(START);
+    }
+
+    @Benchmark
+    public Object advance() {
+        return instance.advance();
+    }
+}
@@ -1,10 +1,13 @@
 package com.abada.engine.api;
 
 import com.abada.engine.dto.ErrorResponse;
+import com.abada.engine.core.exception.ProcessEngineException;
 import io.opentelemetry.api.trace.Span;
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.Locale;
 import java.util.Map;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 public final class ApiErrors {
     private ApiErrors() {}
@@ -20,4 +23,36 @@ public final class ApiErrors {
         String traceId = spanContext.isValid() ? spanContext.getTraceId() : null;
         return new ErrorResponse(status.value(), code.name(), message, path, traceId, details);
     }
+
+    /**
+     * The error a command failure is reported with: rejections by the engine map onto their stable
+     * codes, anything unexpected onto {@link ApiErrorCode#INTERNAL_ERROR}.
+     */
+    public static ErrorResponse commandFailure(RuntimeException failure, String path) {
+        if (failure instanceof ApiException api) {
+            return response(api.status(), api.code(), api.getMessage(), path, api.details());
+        }
+        if (failure instanceof ObjectOptimisticLockingFailureException) {
+            return response(HttpStatus.CONFLICT, ApiErrorCode.CONCURRENT_MODIFICATION,
+                    "Runtime state changed concurrently; reload it before retrying", path, Map.of());
+        }
+        if (!(failure instanceof ProcessEngineException)) {
+            return response(HttpStatus.INTERNAL_SERVER_ERROR, ApiErrorCode.INTERNAL_ERROR,
+                    "The engine could not complete the request", path, Map.of());
+        }
+        String message = failure.getMessage() == null ? "Engine command rejected" : failure.getMessage();
+        String normalizedMessage = message.toLowerCase(Locale.ROOT);
+        if (normalizedMessage.contains("does not own external task lock")) {
+            return response(HttpStatus.FORBIDDEN, ApiErrorCode.WORKER_LOCK_NOT_OWNED, message, path, Map.of());
+        }
+        if (normalizedMessage.contains("external task lock has expired")) {
+            return response(HttpStatus.CONFLICT, ApiErrorCode.WORKER_LOCK_EXPIRED, message, path, Map.of());
+        }
+        if (normalizedMessage.contains("not authorized") || normalizedMessage.contains("does not own")) {
+            return response(HttpStatus.FORBIDDEN, ApiErrorCode.ACCESS_DENIED, message, path, Map.of());
+        }
+        ApiErrorCode code = message.startsWith("Idempotency-Key")
+                ? ApiErrorCode.IDEMPOTENCY_CONFLICT : ApiErrorCode.ENGINE_COMMAND_REJECTED;
+        return response(HttpStatus.BAD_REQUEST, code, message, path, Map.of());
+    }
 }
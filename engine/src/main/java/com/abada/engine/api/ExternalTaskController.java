@@ -1,22 +1,33 @@
 package com.abada.engine.api;
 
+import com.abada.engine.core.ExternalTaskBatchCompletion;
 import com.abada.engine.core.ExternalTaskCommandService;
+import com.abada.engine.core.ExternalTaskLongPolling;
 import com.abada.engine.core.IdempotencyService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.abada.engine.dto.ExternalTaskFailureDto;
 import com.abada.engine.dto.ExternalTaskBpmnErrorRequest;
+import com.abada.engine.dto.CompleteExternalTaskBatchRequest;
 import com.abada.engine.dto.CompleteExternalTaskRequest;
+import com.abada.engine.dto.ExternalTaskBatchResponse;
 import com.abada.engine.dto.FetchAndLockRequest;
 import com.abada.engine.dto.LockedExternalTask;
 import com.abada.engine.dto.ExtendLockRequest;
+import com.abada.engine.dto.ErrorResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Value;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for external task workers.
@@ -27,15 +38,24 @@ import java.util.Map;
 @RestController
 @RequestMapping("/v1/external-tasks")
 public class ExternalTaskController {
+    private static final Logger log = LoggerFactory.getLogger(ExternalTaskController.class);
+
+    /** Grace period beyond {@code asyncResponseTimeout} before the servlet container gives up. */
+    private static final long ASYNC_TIMEOUT_MARGIN_MILLIS = 10_000;
 
     private final ExternalTaskCommandService commands;
+    private final ExternalTaskLongPolling longPolling;
+    private final ExternalTaskBatchCompletion batchCompletion;
     private final IdempotencyService idempotency;
     private final ObjectMapper objectMapper;
     private final String securityMode;
 
-    public ExternalTaskController(ExternalTaskCommandService commands, IdempotencyService idempotency,
-            ObjectMapper objectMapper, @Value("${abada.security.mode:disabled}") String securityMode) {
+    public ExternalTaskController(ExternalTaskCommandService commands, ExternalTaskLongPolling longPolling,
+            ExternalTaskBatchCompletion batchCompletion, IdempotencyService idempotency, ObjectMapper objectMapper,
+            @Value("${abada.security.mode:disabled}") String securityMode) {
         this.commands = commands;
+        this.longPolling = longPolling;
+        this.batchCompletion = batchCompletion;
         this.idempotency = idempotency;
         this.objectMapper = objectMapper;
         this.securityMode = securityMode;
@@ -44,22 +64,47 @@ public class ExternalTaskController {
     /**
      * Fetches and locks available external tasks for a given set of topics.
      * This endpoint is designed to be polled by external task workers.
-     * The method is transactional and will attempt to find and lock one available
-     * task.
+     * With an {@code asyncResponseTimeout} the request is held open until a task
+     * on one of the topics can be locked or the timeout elapses, so idle workers
+     * need not poll in a loop.
      *
      * @param request The request body containing the worker ID, a list of topics
-     *                the worker can handle,
-     *                and the desired lock duration in milliseconds.
-     * @return A ResponseEntity containing a list of locked tasks. The list will
-     *         contain at most one task,
-     *         or be empty if no tasks are available for the given topics.
+     *                the worker can handle, the desired lock duration in
+     *                milliseconds, and optionally the batch size and long-poll timeout.
+     * @return A ResponseEntity containing a list of locked tasks, at most
+     *         {@code maxTasks}, or empty if none became available in time;
+     *         for a long poll, a DeferredResult that completes with it.
      */
     @PostMapping("/fetch-and-lock")
-    public ResponseEntity<List<LockedExternalTask>> fetchAndLock(@RequestBody FetchAndLockRequest request,
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200",
+            content = @io.swagger.v3.oas.annotations.media.Content(
+                    array = @io.swagger.v3.oas.annotations.media.ArraySchema(
+                            schema = @io.swagger.v3.oas.annotations.media.Schema(
+                                    implementation = LockedExternalTask.class))))
+    public Object fetchAndLock(@RequestBody FetchAndLockRequest request,
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
-        return ResponseEntity.ok().header("X-Abada-Worker-Protocol-Version", "1")
-                .body(idempotency.execute(idempotencyKey, "external-task.fetch-and-lock", request,
+        boolean idempotent = idempotencyKey != null && !idempotencyKey.isBlank();
+        CompletableFuture<List<LockedExternalTask>> tasks = longPolling.fetchAndLock(request, !idempotent,
+                () -> idempotency.execute(idempotencyKey, "external-task.fetch-and-lock", request,
                         new TypeReference<List<LockedExternalTask>>() {}, () -> commands.fetchAndLock(request)));
+        if (tasks.isDone()) {
+            return fetched(tasks.join());
+        }
+        // Long poll: answered from the waiting thread, without holding a request thread
+        DeferredResult<ResponseEntity<List<LockedExternalTask>>> response = new DeferredResult<>(
+                request.effectiveAsyncResponseTimeout() + ASYNC_TIMEOUT_MARGIN_MILLIS, () -> fetched(List.of()));
+        tasks.whenComplete((locked, failure) -> {
+            if (failure != null) {
+                response.setErrorResult(failure);
+            } else {
+                response.setResult(fetched(locked));
+            }
+        });
+        return response;
+    }
+
+    private static ResponseEntity<List<LockedExternalTask>> fetched(List<LockedExternalTask> tasks) {
+        return ResponseEntity.ok().header("X-Abada-Worker-Protocol-Version", "1").body(tasks);
     }
 
     /**
@@ -85,12 +130,60 @@ public class ExternalTaskController {
                                     implementation = CompleteExternalTaskRequest.class)))
             @RequestBody JsonNode payload,
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
-        CompleteExternalTaskRequest request = completeRequest(payload);
+        complete(id, completeRequest(payload), idempotencyKey);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Completes several external tasks locked by the same worker in one round trip.
+     * Every task is completed in its own command, exactly as by the single
+     * {@code complete} endpoint, so a task that is rejected does not affect the
+     * others; tasks of different process instances are completed in parallel.
+     *
+     * @param request The worker ID and, per task, its ID, variables and an optional
+     *                idempotency key that is interchangeable with the
+     *                {@code Idempotency-Key} of a single completion.
+     * @param idempotencyKey Optional key for retrying the whole batch; a task
+     *                without a key of its own is completed with this key and its ID.
+     * @return An HTTP 200 OK response with one result per task, in request order;
+     *         a failed task carries the error a single completion would have returned.
+     */
+    @PostMapping("/complete-batch")
+    public ResponseEntity<ExternalTaskBatchResponse> completeBatch(
+            @RequestBody CompleteExternalTaskBatchRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest servletRequest) {
+        requireWorkerId(request.workerId());
+        List<CompleteExternalTaskBatchRequest.Item> items = idempotencyKey == null || idempotencyKey.isBlank()
+                ? request.effectiveTasks()
+                : request.effectiveTasks().stream().map(item -> item == null || item.idempotencyKey() != null ? item
+                        : new CompleteExternalTaskBatchRequest.Item(item.id(), item.variables(),
+                                idempotencyKey + "/" + item.id())).toList();
+        List<ExternalTaskBatchResponse.Result> results = batchCompletion.completeAll(items,
+                item -> complete(item.id(), new CompleteExternalTaskRequest(request.workerId(), item.variables()),
+                        item.idempotencyKey())).stream()
+                .map(outcome -> outcome.completed()
+                        ? ExternalTaskBatchResponse.Result.completed(outcome.item().id())
+                        : ExternalTaskBatchResponse.Result.failed(outcome.item().id(),
+                                failure(outcome.failure(), servletRequest)))
+                .toList();
+        return ResponseEntity.ok(ExternalTaskBatchResponse.of(results));
+    }
+
+    private void complete(String id, CompleteExternalTaskRequest request, String idempotencyKey) {
         idempotency.execute(idempotencyKey, "external-task.complete", Map.of("id", id, "request", request), () -> {
             commands.complete(id, request.workerId(), request.effectiveVariables());
             return Map.of("status", "Completed", "externalTaskId", id);
         });
-        return ResponseEntity.ok().build();
+    }
+
+    private static ErrorResponse failure(RuntimeException failure, HttpServletRequest request) {
+        ErrorResponse error = ApiErrors.commandFailure(failure, request.getRequestURI());
+        if (error.status() == HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            log.error("Batch completion item failed path={} type={}", request.getRequestURI(),
+                    failure.getClass().getSimpleName(), failure);
+        }
+        return error;
     }
 
     /**
@@ -145,19 +238,22 @@ public class ExternalTaskController {
     private CompleteExternalTaskRequest completeRequest(JsonNode payload) {
         if (payload != null && payload.isObject() && (payload.has("workerId") || payload.has("variables"))) {
             CompleteExternalTaskRequest request = objectMapper.convertValue(payload, CompleteExternalTaskRequest.class);
-            if (!"disabled".equalsIgnoreCase(securityMode)
-                    && (request.workerId() == null || request.workerId().isBlank())) {
-                throw new ApiException(org.springframework.http.HttpStatus.BAD_REQUEST, ApiErrorCode.INVALID_REQUEST,
-                        "workerId is required for external-task completion");
-            }
+            requireWorkerId(request.workerId());
             return request;
         }
         Map<String, Object> legacyVariables = payload == null || payload.isNull() ? Map.of()
                 : objectMapper.convertValue(payload, new TypeReference<Map<String, Object>>() {});
         if (!"disabled".equalsIgnoreCase(securityMode)) {
-            throw new ApiException(org.springframework.http.HttpStatus.BAD_REQUEST, ApiErrorCode.INVALID_REQUEST,
+            throw new ApiException(HttpStatus.BAD_REQUEST, ApiErrorCode.INVALID_REQUEST,
                     "Use the worker protocol v1 completion body with workerId and variables");
         }
         return new CompleteExternalTaskRequest(null, legacyVariables);
     }
+
+    private void requireWorkerId(String workerId) {
+        if (!"disabled".equalsIgnoreCase(securityMode) && (workerId == null || workerId.isBlank())) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, ApiErrorCode.INVALID_REQUEST,
+                    "workerId is required for external-task completion");
+        }
+    }
 }
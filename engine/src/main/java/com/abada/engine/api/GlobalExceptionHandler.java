@@ -4,7 +4,6 @@ import com.abada.engine.core.exception.ProcessEngineException;
 import com.abada.engine.bpmn.compatibility.BpmnValidationException;
 import com.abada.engine.dto.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.Locale;
 import java.util.Map;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -53,24 +52,8 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(ProcessEngineException.class)
     public ResponseEntity<ErrorResponse> handleProcessEngineException(ProcessEngineException ex,
             HttpServletRequest request) {
-        String message = ex.getMessage() == null ? "Engine command rejected" : ex.getMessage();
-        String normalizedMessage = message.toLowerCase(Locale.ROOT);
-        if (normalizedMessage.contains("does not own external task lock")) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiErrors.response(HttpStatus.FORBIDDEN,
-                    ApiErrorCode.WORKER_LOCK_NOT_OWNED, message, request));
-        }
-        if (normalizedMessage.contains("external task lock has expired")) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiErrors.response(HttpStatus.CONFLICT,
-                    ApiErrorCode.WORKER_LOCK_EXPIRED, message, request));
-        }
-        if (normalizedMessage.contains("not authorized") || normalizedMessage.contains("does not own")) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiErrors.response(HttpStatus.FORBIDDEN,
-                    ApiErrorCode.ACCESS_DENIED, message, request));
-        }
-        ApiErrorCode code = message.startsWith("Idempotency-Key")
-                ? ApiErrorCode.IDEMPOTENCY_CONFLICT : ApiErrorCode.ENGINE_COMMAND_REJECTED;
-        ErrorResponse errorResponse = ApiErrors.response(HttpStatus.BAD_REQUEST, code, message, request);
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        ErrorResponse error = ApiErrors.commandFailure(ex, request.getRequestURI());
+        return ResponseEntity.status(error.status()).body(error);
     }
 
     @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
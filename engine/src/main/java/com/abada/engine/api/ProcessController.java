@@ -2,9 +2,11 @@ package com.abada.engine.api;
 
 import com.abada.engine.context.UserContextProvider;
 import com.abada.engine.core.AbadaEngine;
+import com.abada.engine.core.DeploymentFile;
 import com.abada.engine.core.ProcessInstance;
 import com.abada.engine.core.IdempotencyService;
 import com.abada.engine.dto.Mapper;
+import com.abada.engine.dto.BulkDeploymentResponse;
 import com.abada.engine.dto.DeploymentResponse;
 import com.abada.engine.dto.ProcessActionResponse;
 import com.abada.engine.dto.ProcessDefinitionDto;
@@ -27,6 +29,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -70,8 +73,7 @@ public class ProcessController {
             @RequestParam(defaultValue = "false") boolean strict,
             @RequestParam(defaultValue = "false") boolean rejectVendorExtensions,
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) throws IOException {
-        List<String> selectedProfiles = profiles == null || profiles.isBlank() ? CompatibilityProfiles.DEFAULT
-                : java.util.Arrays.stream(profiles.split(",")).map(String::trim).filter(value -> !value.isEmpty()).toList();
+        List<String> selectedProfiles = selectedProfiles(profiles);
         byte[] source = file.getBytes();
         Map<String, Object> request = Map.of("source", source, "profiles", selectedProfiles,
                 "strict", strict, "rejectVendorExtensions", rejectVendorExtensions);
@@ -83,6 +85,37 @@ public class ProcessController {
         }));
     }
 
+    /**
+     * Deploys several BPMN files at once. Unchanged files are skipped by checksum, the rest are
+     * compiled in parallel and stored in one transaction.
+     *
+     * @param files The BPMN 2.0 XML files, each as a {@code files} multipart part.
+     * @return A per-file report; files that fail to compile are listed with their error.
+     * @throws IOException If a file cannot be read.
+     */
+    @PostMapping(value = "/deploy/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BulkDeploymentResponse> deployBulk(@RequestParam("files") List<MultipartFile> files,
+            @RequestParam(required = false) String profiles,
+            @RequestParam(defaultValue = "false") boolean strict,
+            @RequestParam(defaultValue = "false") boolean rejectVendorExtensions,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) throws IOException {
+        List<String> selectedProfiles = selectedProfiles(profiles);
+        List<DeploymentFile> sources = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            sources.add(new DeploymentFile(file.getOriginalFilename(), file.getBytes()));
+        }
+        Map<String, Object> request = Map.of("sources", sources.stream().map(DeploymentFile::content).toList(),
+                "profiles", selectedProfiles, "strict", strict, "rejectVendorExtensions", rejectVendorExtensions);
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "process.deploy-bulk", request,
+                new TypeReference<BulkDeploymentResponse>() {}, () -> BulkDeploymentResponse.of(engine.deployAll(sources,
+                        new BpmnParseOptions(selectedProfiles, rejectVendorExtensions, strict)))));
+    }
+
+    private static List<String> selectedProfiles(String profiles) {
+        return profiles == null || profiles.isBlank() ? CompatibilityProfiles.DEFAULT
+                : java.util.Arrays.stream(profiles.split(",")).map(String::trim).filter(value -> !value.isEmpty()).toList();
+    }
+
     private DeploymentResponse deploymentResponse(ProcessDefinitionEntity deployed) {
         try {
             Map<String, Object> compatibilityReport = objectMapper.readValue(deployed.getCompatibilityReport(),
@@ -144,6 +177,8 @@ public class ProcessController {
     /**
      * Lists a bounded page of process instances across all process definitions.
      * Returns full ProcessInstanceDTO records and pagination response headers.
+     * With {@code includeVariables=false} the variables column is not read and the
+     * {@code variables} field is omitted, which keeps large listings cheap.
      *
      * @return A page of active and completed process instances.
      */
@@ -152,12 +187,14 @@ public class ProcessController {
             @RequestParam(required = false) ProcessStatus status,
             @RequestParam(required = false) String processDefinitionId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = Pagination.DEFAULT_PAGE_SIZE) int size) {
+            @RequestParam(defaultValue = Pagination.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = "true") boolean includeVariables) {
         Pageable pageable = Pagination.request(page, size,
                 Sort.by("startDate").descending().and(Sort.by("id").ascending()));
-        Page<ProcessInstance> instancePage = engine.getProcessInstances(status, processDefinitionId, pageable);
+        Page<ProcessInstance> instancePage = engine.getProcessInstances(status, processDefinitionId, pageable,
+                includeVariables);
         List<ProcessInstanceDTO> instances = instancePage.stream()
-                .map(Mapper.ProcessInstanceMapper::toDto)
+                .map(instance -> Mapper.ProcessInstanceMapper.toDto(instance, includeVariables))
                 .collect(Collectors.toList());
         return ResponseEntity.ok()
                 .headers(Pagination.headers(instancePage))
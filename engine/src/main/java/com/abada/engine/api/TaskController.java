@@ -58,13 +58,16 @@ public class TaskController {
      * and the user is a member of one of the task's candidate groups.
      *
      * @param status (Optional) The status to filter tasks by (e.g., AVAILABLE, CLAIMED).
+     * @param includeVariables (Optional, default true) When false, process variables are not loaded
+     *                         and {@code variables} is null in every entry.
      * @return A {@link ResponseEntity} containing a list of {@link TaskDetailsDto} objects.
      */
     @GetMapping
     public ResponseEntity<List<TaskDetailsDto>> getTasks(
         @RequestParam(required = false) TaskStatus status,
         @RequestParam(defaultValue = "0") int page,
-        @RequestParam(defaultValue = Pagination.DEFAULT_PAGE_SIZE) int size
+        @RequestParam(defaultValue = Pagination.DEFAULT_PAGE_SIZE) int size,
+        @RequestParam(defaultValue = "true") boolean includeVariables
     ) {
         String user = context.getUsername();
         List<String> groups = context.getGroups();
@@ -77,11 +80,13 @@ public class TaskController {
         Set<String> processInstanceIds = visible.stream()
                 .map(TaskInstance::getProcessInstanceId)
                 .collect(Collectors.toSet());
-        Map<String, ProcessInstance> processInstances = engine.getProcessInstancesByIds(processInstanceIds);
+        Map<String, ProcessInstance> processInstances = engine.getProcessInstancesByIds(processInstanceIds,
+                includeVariables);
 
         List<TaskDetailsDto> taskDetailsDtos = visible.getContent()
             .stream()
-            .map(task -> TaskDetailsDto.from(task, processInstances.get(task.getProcessInstanceId())))
+            .map(task -> TaskDetailsDto.from(task, processInstances.get(task.getProcessInstanceId()),
+                includeVariables))
             .collect(Collectors.toList());
 
         return ResponseEntity.ok()
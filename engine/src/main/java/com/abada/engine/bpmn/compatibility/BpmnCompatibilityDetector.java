@@ -1,5 +1,6 @@
 package com.abada.engine.bpmn.compatibility;
 
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -15,7 +16,11 @@ public final class BpmnCompatibilityDetector {
         LinkedHashSet<String> namespaces = new LinkedHashSet<>();
         Matcher matcher = XMLNS.matcher(xml == null ? "" : xml);
         while (matcher.find()) namespaces.add(matcher.group(2));
+        return detect(namespaces);
+    }
 
+    /** Classifies namespaces already collected by a streaming reader. */
+    public Detection detect(Collection<String> namespaces) {
         LinkedHashSet<String> profiles = new LinkedHashSet<>();
         profiles.add(CompatibilityProfiles.STANDARD);
         if (namespaces.contains(ABADA_NAMESPACE)) profiles.add(CompatibilityProfiles.ABADA_NATIVE);
@@ -0,0 +1,26 @@
+package com.abada.engine.config;
+
+import com.abada.engine.security.IdentityContext;
+import io.opentelemetry.context.Context;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Thread model of the engine. {@code abada.execution.virtual-threads=true} maps onto Spring Boot's
+ * {@code spring.threads.virtual.enabled} (see {@code application.yaml}), which moves Tomcat request
+ * handling and the {@code @Scheduled} pollers onto virtual threads; webhook delivery follows the same
+ * flag in {@link com.abada.engine.core.SpringLifecycleEventPublisher}.
+ *
+ * <p>Virtual threads keep thread-locals, so a request still sees its {@link IdentityContext} and
+ * trace context on the thread that runs it. Work handed to another thread is decorated with
+ * {@link #contextPropagatingTaskDecorator()}, which Spring Boot also applies to its own task executors.
+ */
+@Configuration
+public class ExecutionConfig {
+
+    @Bean
+    public TaskDecorator contextPropagatingTaskDecorator() {
+        return task -> Context.current().wrap(IdentityContext.wrap(task));
+    }
+}
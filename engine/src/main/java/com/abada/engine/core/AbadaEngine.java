@@ -11,14 +11,20 @@ import com.abada.engine.core.model.ProcessStatus;
 import com.abada.engine.dto.UserTaskPayload;
 import com.abada.engine.observability.EngineMetrics;
 import com.abada.engine.parser.BpmnParser;
+import com.abada.engine.parser.BpmnSourceText;
 import com.abada.engine.persistence.PersistenceService;
 import com.abada.engine.persistence.entity.ExternalTaskEntity;
 import com.abada.engine.persistence.entity.ProcessDefinitionEntity;
 import com.abada.engine.persistence.entity.ProcessInstanceEntity;
+import com.abada.engine.persistence.entity.ProcessVariableEntity;
 import com.abada.engine.persistence.entity.TaskEntity;
 import com.abada.engine.persistence.repository.ExternalTaskRepository;
+import com.abada.engine.persistence.repository.ProcessDefinitionRepository;
+import com.abada.engine.persistence.state.RuntimeState;
+import com.abada.engine.persistence.state.CompiledDefinitionCodec;
+import com.abada.engine.persistence.state.ProcessVariableStore;
+import com.abada.engine.persistence.state.RuntimeStateCodecRegistry;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.tracing.annotation.SpanTag;
@@ -34,18 +40,20 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
-import java.io.IOException;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.time.Duration;
 import java.time.Instant;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Component
 public class AbadaEngine {
@@ -58,16 +66,29 @@ public class AbadaEngine {
     private final EventManager eventManager;
     private final JobScheduler jobScheduler;
     private final ExternalTaskRepository externalTaskRepository;
+    private final ExternalTaskSignals externalTaskSignals;
     private final ObjectMapper om;
     private final EngineMetrics engineMetrics;
     private final Tracer tracer;
     private final ActivityHistoryService historyService;
-    private final Map<String, ParsedProcessDefinition> definitionsByDeploymentId = new ConcurrentHashMap<>();
+    private final ScriptEnginePool scriptEnginePool;
+    private final JavaDelegateResolver delegateResolver;
+    private final RuntimeStateCodecRegistry runtimeStateCodecs;
+    private final ProcessVariableStore variableStore;
+    private final CommandContext commandContext;
+    private final ProcessDefinitionCache definitionCache;
+    private final LatestDefinitionIndex latestDefinitions;
+    private final CompiledDefinitionRewriter compiledDefinitionRewriter;
 
     @Autowired
     public AbadaEngine(PersistenceService persistenceService, TaskManager taskManager, @Lazy EventManager eventManager,
             @Lazy JobScheduler jobScheduler, ExternalTaskRepository externalTaskRepository, ObjectMapper om,
-            EngineMetrics engineMetrics, Tracer tracer, ActivityHistoryService historyService) {
+            EngineMetrics engineMetrics, Tracer tracer, ActivityHistoryService historyService,
+            ScriptEnginePool scriptEnginePool, JavaDelegateResolver delegateResolver,
+            RuntimeStateCodecRegistry runtimeStateCodecs, ProcessVariableStore variableStore,
+            CommandContext commandContext, ProcessDefinitionCache definitionCache,
+            LatestDefinitionIndex latestDefinitions, ExternalTaskSignals externalTaskSignals,
+            CompiledDefinitionRewriter compiledDefinitionRewriter) {
         this.persistenceService = persistenceService;
         this.parser = new BpmnParser();
         this.taskManager = taskManager;
@@ -78,6 +99,15 @@ public class AbadaEngine {
         this.engineMetrics = engineMetrics;
         this.tracer = tracer;
         this.historyService = historyService;
+        this.scriptEnginePool = scriptEnginePool;
+        this.delegateResolver = delegateResolver;
+        this.runtimeStateCodecs = runtimeStateCodecs;
+        this.variableStore = variableStore;
+        this.commandContext = commandContext;
+        this.definitionCache = definitionCache;
+        this.latestDefinitions = latestDefinitions;
+        this.externalTaskSignals = externalTaskSignals;
+        this.compiledDefinitionRewriter = compiledDefinitionRewriter;
     }
 
     @PostConstruct
@@ -121,6 +151,95 @@ public class AbadaEngine {
         }
     }
 
+    /**
+     * Deploys many BPMN files in one transaction. A file whose checksum matches the latest version
+     * of its definition is reported unchanged without being parsed; the others are compiled in
+     * parallel and their new versions inserted together at commit. A file that fails to compile is
+     * reported as failed and does not stop the rest.
+     */
+    @AtomicRuntimeCommand
+    public List<DeploymentOutcome> deployAll(List<DeploymentFile> files, BpmnParseOptions options) {
+        Span span = tracer.spanBuilder("abada.process.deploy-all").startSpan();
+        try (var scope = span.makeCurrent()) {
+            List<String> checksums = files.stream().map(file -> sha256(BpmnSourceText.decode(file.content()))).toList();
+            Map<String, ProcessDefinitionRepository.DefinitionVersion> unchanged = new HashMap<>();
+            persistenceService.findLatestDefinitionVersionsByChecksum(new HashSet<>(checksums))
+                    .forEach(latest -> unchanged.put(latest.getChecksum(), latest));
+            Map<String, Integer> firstWithChecksum = new HashMap<>();
+            for (int i = 0; i < files.size(); i++) firstWithChecksum.putIfAbsent(checksums.get(i), i);
+
+            List<CompiledFile> compiled = IntStream.range(0, files.size()).parallel()
+                    .mapToObj(i -> unchanged.containsKey(checksums.get(i)) || firstWithChecksum.get(checksums.get(i)) != i
+                            ? null : compile(files.get(i), options))
+                    .toList();
+
+            Map<String, Integer> latestVersions = new HashMap<>();
+            persistenceService.findLatestDefinitionVersions(compiled.stream()
+                            .filter(file -> file != null && file.result() != null)
+                            .map(file -> file.result().definition().getId())
+                            .collect(Collectors.toSet()))
+                    .forEach(latest -> latestVersions.put(latest.getProcessKey(), latest.getVersion()));
+
+            List<DeploymentOutcome> outcomes = new ArrayList<>(files.size());
+            boolean deployed = false;
+            for (int i = 0; i < files.size(); i++) {
+                String name = files.get(i).name();
+                ProcessDefinitionRepository.DefinitionVersion latest = unchanged.get(checksums.get(i));
+                if (latest != null) {
+                    outcomes.add(DeploymentOutcome.unchanged(name, latest.getProcessKey(), latest.getDeploymentId(),
+                            latest.getVersion()));
+                    continue;
+                }
+                int first = firstWithChecksum.get(checksums.get(i));
+                if (first != i) {
+                    outcomes.add(outcomes.get(first).duplicate(name));
+                    continue;
+                }
+                CompiledFile file = compiled.get(i);
+                if (file.result() == null) {
+                    engineMetrics.recordBpmnDeployment(file.sample(), false);
+                    outcomes.add(DeploymentOutcome.failed(name, file.error()));
+                    continue;
+                }
+                ParsedProcessDefinition definition = file.result().definition();
+                int version = latestVersions.merge(definition.getId(), 1, Integer::sum);
+                ProcessDefinitionEntity entity = newDefinitionEntity(file.result(), checksums.get(i), version);
+                commandContext.insert(ProcessDefinitionEntity.class, entity.getDeploymentId(), entity);
+                historyService.record("PROCESS_DEFINITION_DEPLOYED", null, definition.getId(), null,
+                        Map.of("deploymentId", entity.getDeploymentId(), "version", version));
+                registerDefinitionAfterCommit(definition, entity);
+                engineMetrics.recordBpmnDeployment(file.sample(), true);
+                outcomes.add(DeploymentOutcome.deployed(name, definition.getId(), entity.getDeploymentId(), version));
+                deployed = true;
+            }
+            if (deployed) {
+                persistenceService.incrementDefinitionCatalogRevision();
+            }
+            span.setAttribute("deployment.files", files.size());
+            log.info("Bulk deployment of {} files: {}", files.size(), outcomes.stream()
+                    .collect(Collectors.groupingBy(DeploymentOutcome::status, Collectors.counting())));
+            return outcomes;
+        } catch (RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, e.getMessage());
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private record CompiledFile(BpmnParseResult result, String error, Timer.Sample sample) {}
+
+    private CompiledFile compile(DeploymentFile file, BpmnParseOptions options) {
+        Timer.Sample sample = engineMetrics.startBpmnDeploymentTimer();
+        try {
+            return new CompiledFile(parser.parseDetailed(new ByteArrayInputStream(file.content()), options), null, sample);
+        } catch (RuntimeException e) {
+            log.warn("Could not compile {}: {}", file.name(), e.getMessage());
+            return new CompiledFile(null, e.getMessage(), sample);
+        }
+    }
+
     public List<ProcessDefinitionEntity> getDeployedProcesses() {
         Map<String, ProcessDefinitionEntity> latest = new LinkedHashMap<>();
         persistenceService.findAllProcessDefinitions()
@@ -133,12 +252,56 @@ public class AbadaEngine {
     }
 
     public ParsedProcessDefinition getParsedProcessDefinition(String processDefinitionId) {
-        ProcessDefinitionEntity latest = persistenceService.findProcessDefinitionById(processDefinitionId);
-        return latest == null ? null : cacheDefinition(latest);
+        LatestDefinition latest = latestDefinition(processDefinitionId);
+        return latest == null ? null : latest.definition();
+    }
+
+    private record LatestDefinition(String deploymentId, ParsedProcessDefinition definition) {}
+
+    /**
+     * Latest version of a process key, via the in-memory index. If the indexed deployment no longer
+     * exists, the key is looked up again once.
+     */
+    private LatestDefinition latestDefinition(String processKey) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            String deploymentId = latestDefinitions.deploymentIdFor(processKey);
+            if (deploymentId == null) {
+                return null;
+            }
+            ParsedProcessDefinition definition = definitionCache.get(deploymentId, () -> {
+                ProcessDefinitionEntity entity = persistenceService.findProcessDefinitionByDeploymentId(deploymentId);
+                return entity == null ? null : parseStoredDefinition(entity);
+            });
+            if (definition != null) {
+                return new LatestDefinition(deploymentId, definition);
+            }
+            latestDefinitions.invalidate(processKey);
+        }
+        return null;
+    }
+
+    /**
+     * Parses the latest version of every process key into the definition cache, so the first
+     * command after a restart does not pay for it. A definition that fails to load is logged and
+     * skipped. Returns the number of definitions now cached.
+     */
+    public int warmUpDefinitionCache() {
+        int warmed = 0;
+        for (ProcessDefinitionEntity latest : getDeployedProcesses()) {
+            try {
+                cacheDefinition(latest);
+                warmed++;
+            } catch (RuntimeException ex) {
+                log.warn("Definition cache warm-up skipped {} v{}: {}", latest.getId(), latest.getVersion(),
+                        ex.getMessage());
+            }
+        }
+        return warmed;
     }
 
     private void registerDefinition(ParsedProcessDefinition definition, ProcessDefinitionEntity entity) {
-        definitionsByDeploymentId.putIfAbsent(entity.getDeploymentId(), definition);
+        definitionCache.put(entity.getDeploymentId(), definition);
+        latestDefinitions.deployed(entity.getProcessKey(), entity.getDeploymentId(), entity.getVersion());
     }
 
     private void registerDefinitionAfterCommit(ParsedProcessDefinition definition, ProcessDefinitionEntity entity) {
@@ -166,14 +329,15 @@ public class AbadaEngine {
         Span span = tracer.spanBuilder("abada.process.start").startSpan();
 
         try (var scope = span.makeCurrent()) {
-            ProcessDefinitionEntity deployment = persistenceService.findProcessDefinitionById(processDefinitionId);
+            LatestDefinition deployment = latestDefinition(processDefinitionId);
             if (deployment == null) {
                 throw new ProcessEngineException("Unknown process ID: " + processDefinitionId);
             }
-            ParsedProcessDefinition definition = cacheDefinition(deployment);
+            ParsedProcessDefinition definition = deployment.definition();
 
             ProcessInstance instance = new ProcessInstance(definition);
-            instance.setProcessDefinitionDeploymentId(deployment.getDeploymentId());
+            attachRuntime(instance);
+            instance.setProcessDefinitionDeploymentId(deployment.deploymentId());
             instance.putAllVariables(initialVariables);
             instance.setStartedBy(username != null && !username.isBlank() ? username : "system");
 
@@ -185,19 +349,13 @@ public class AbadaEngine {
             log.info("Started process instance: {} of definition: {} by user: {}",
                     instance.getId(), processDefinitionId, username != null ? username : "system");
 
-            ProcessInstanceEntity entity = convertToEntity(instance);
-            entity.setStartedBy(instance.getStartedBy());
-            persistRuntimeState(instance, entity);
-
             List<UserTaskPayload> userTasks = instance.advance();
             if (instance.isCompleted() && instance.getEndDate() == null) {
                 instance.setEndDate(Instant.now());
                 engineMetrics.recordProcessCompleted(processDefinitionId);
             }
 
-            entity = convertToEntity(instance);
-            entity.setStartedBy(instance.getStartedBy());
-            persistRuntimeState(instance, entity);
+            insertRuntimeState(instance);
 
             historyService.record("PROCESS_STARTED", instance, definition.getStartEventId(), Map.of());
 
@@ -252,8 +410,7 @@ public class AbadaEngine {
         taskManager.checkCanComplete(currentTask, user, groups);
 
         String processInstanceId = currentTask.getProcessInstanceId();
-        ProcessInstanceEntity authoritativeInstance =
-                persistenceService.findProcessInstanceByIdForUpdate(processInstanceId);
+        ProcessInstanceEntity authoritativeInstance = lockProcessInstance(processInstanceId);
         if (authoritativeInstance == null) {
             // This is an internal consistency error, not a client error.
             throw new IllegalStateException("No process instance found for id=" + processInstanceId);
@@ -269,7 +426,6 @@ public class AbadaEngine {
         taskManager.completeTask(currentTask);
         persistTask(currentTask);
         historyService.record("TASK_COMPLETED", instance, currentTask.getTaskDefinitionKey(), Map.of());
-        persistRuntimeState(instance);
 
         List<UserTaskPayload> nextTasks = instance.advance(currentTask.getTaskDefinitionKey());
         if (instance.isCompleted() && instance.getEndDate() == null) {
@@ -427,6 +583,62 @@ public class AbadaEngine {
     }
 
     private ProcessInstance materializeProcessInstance(ProcessInstanceEntity entity) {
+        commandContext.track(ProcessInstanceEntity.class, entity.getId(), entity);
+        return materializeProcessInstance(entity, variablesOf(entity));
+    }
+
+    /**
+     * Rows written before variables moved to {@code process_variables} still carry them in their
+     * runtime state.
+     */
+    private Supplier<Map<String, Object>> variablesOf(ProcessInstanceEntity entity) {
+        return entity.isVariablesInTable() ? variableStore.loader(entity.getId())
+                : runtimeStateCodecs.variables(entity);
+    }
+
+    private static Supplier<Map<String, Object>> variablesNotLoaded(ProcessInstanceEntity entity) {
+        return () -> {
+            throw new IllegalStateException("Variables of process instance " + entity.getId()
+                    + " were not loaded by this query");
+        };
+    }
+
+    private Page<ProcessInstance> materializePage(Page<ProcessInstanceEntity> page) {
+        return new PageImpl<>(materializeAll(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /** Loads the variable rows of all table-backed instances in one query instead of one per instance. */
+    private List<ProcessInstance> materializeAll(List<ProcessInstanceEntity> entities) {
+        return materializeAll(entities, null);
+    }
+
+    /** As {@link #materializeAll(List)}, loading only {@code variableNames} unless that is {@code null}. */
+    private List<ProcessInstance> materializeAll(List<ProcessInstanceEntity> entities,
+            Collection<String> variableNames) {
+        List<String> tableBacked = entities.stream()
+                .filter(ProcessInstanceEntity::isVariablesInTable)
+                .map(ProcessInstanceEntity::getId)
+                .toList();
+        Map<String, List<ProcessVariableEntity>> prefetched = variableNames == null
+                ? variableStore.prefetch(tableBacked) : variableStore.prefetch(tableBacked, variableNames);
+        return entities.stream()
+                .map(entity -> materializeProcessInstance(entity, entity.isVariablesInTable()
+                        ? variableStore.decoder(prefetched.getOrDefault(entity.getId(), List.of()))
+                        : variableNames == null ? variablesOf(entity) : only(variableNames, variablesOf(entity))))
+                .toList();
+    }
+
+    private static Supplier<Map<String, Object>> only(Collection<String> names, Supplier<Map<String, Object>> all) {
+        return () -> {
+            Map<String, Object> projected = new HashMap<>(all.get());
+            projected.keySet().retainAll(names);
+            return projected;
+        };
+    }
+
+    /** Variables are decoded lazily, on the instance's first variable access. */
+    private ProcessInstance materializeProcessInstance(ProcessInstanceEntity entity,
+            Supplier<Map<String, Object>> variables) {
         ParsedProcessDefinition def = loadDefinition(entity);
 
         List<String> activeTokens = entity.getCurrentActivityId() != null ? List.of(entity.getCurrentActivityId())
@@ -438,18 +650,30 @@ public class AbadaEngine {
                 activeTokens,
                 entity.getStartDate(),
                 entity.getEndDate());
+        attachRuntime(instance);
         instance.setStatus(entity.getStatus());
         instance.setSuspended(entity.isSuspended());
         instance.setProcessDefinitionDeploymentId(entity.getProcessDefinitionDeploymentId());
         instance.setEntityVersion(entity.getEntityVersion());
         instance.setStartedBy(entity.getStartedBy());
-        instance.putAllVariables(readMap(entity.getVariablesJson()));
-        instance.setActiveTokens(readList(entity.getActiveTokensJson(), activeTokens));
-        instance.setJoinExpectedTokens(readIntegerMap(entity.getJoinExpectedTokensJson()));
-        instance.setJoinArrivedTokens(readSetMap(entity.getJoinArrivedTokensJson()));
+        RuntimeState state = runtimeStateCodecs.decodeTokens(entity);
+        instance.deferVariables(variables);
+        if (!entity.isVariablesInTable()) {
+            // Legacy row: the next persist moves every variable into process_variables.
+            instance.markAllVariablesDirty();
+        }
+        instance.setActiveTokens(state.activeTokens() != null ? state.activeTokens() : activeTokens);
+        instance.setJoinExpectedTokens(state.joinExpectedTokens());
+        instance.setJoinArrivedTokens(state.joinArrivedTokens());
         return instance;
     }
 
+    /** Hands the engine-scoped execution services to an in-memory instance. */
+    private void attachRuntime(ProcessInstance instance) {
+        instance.setScriptEnginePool(scriptEnginePool);
+        instance.setDelegateResolver(delegateResolver);
+    }
+
     private ParsedProcessDefinition loadDefinition(ProcessInstanceEntity instance) {
         String deploymentId = instance.getProcessDefinitionDeploymentId();
         if (deploymentId == null || deploymentId.isBlank()) {
@@ -457,26 +681,40 @@ public class AbadaEngine {
                     "Process instance " + instance.getId() + " is not pinned to a definition deployment");
         }
 
-        ParsedProcessDefinition cached = definitionsByDeploymentId.get(deploymentId);
-        if (cached != null) {
-            return cached;
-        }
-
-        ProcessDefinitionEntity definition = persistenceService.findProcessDefinitionByDeploymentId(deploymentId);
-        if (definition == null) {
-            throw new IllegalStateException(
-                    "No deployed process definition found for deployment ID: " + deploymentId);
-        }
-        return cacheDefinition(definition);
+        return definitionCache.get(deploymentId, () -> {
+            ProcessDefinitionEntity definition = persistenceService.findProcessDefinitionByDeploymentId(deploymentId);
+            if (definition == null) {
+                throw new IllegalStateException(
+                        "No deployed process definition found for deployment ID: " + deploymentId);
+            }
+            return parseStoredDefinition(definition);
+        });
     }
 
     private ParsedProcessDefinition cacheDefinition(ProcessDefinitionEntity entity) {
-        return definitionsByDeploymentId.computeIfAbsent(entity.getDeploymentId(), ignored ->
-                parser.parseDetailed(new java.io.ByteArrayInputStream(
-                                entity.getBpmnXml().getBytes(StandardCharsets.UTF_8)),
-                        new BpmnParseOptions(Arrays.stream(entity.getCompatibilityProfiles().split(","))
-                                .map(String::trim).filter(value -> !value.isEmpty()).toList(), false, false))
-                        .definition());
+        return definitionCache.get(entity.getDeploymentId(), () -> parseStoredDefinition(entity));
+    }
+
+    /**
+     * Reads the compiled form stored at deploy. If it is missing, outdated or no longer decodes, the
+     * XML is parsed and the compiled form rewritten in the background, so the next load reads it again.
+     */
+    private ParsedProcessDefinition parseStoredDefinition(ProcessDefinitionEntity entity) {
+        if (entity.getCompiledDefinition() != null
+                && CompiledDefinitionCodec.COMPILER_VERSION.equals(entity.getCompilerVersion())) {
+            try {
+                return CompiledDefinitionCodec.decode(entity.getCompiledDefinition());
+            } catch (IllegalStateException ex) {
+                log.warn("Re-parsing {} v{}: {}", entity.getId(), entity.getVersion(), ex.getMessage());
+            }
+        }
+        ParsedProcessDefinition definition = parser.parseDetailed(new java.io.ByteArrayInputStream(
+                        entity.getBpmnXml().getBytes(StandardCharsets.UTF_8)),
+                new BpmnParseOptions(Arrays.stream(entity.getCompatibilityProfiles().split(","))
+                        .map(String::trim).filter(value -> !value.isEmpty()).toList(), false, false))
+                .definition();
+        compiledDefinitionRewriter.rewrite(entity.getDeploymentId(), definition);
+        return definition;
     }
 
     private void createAndPersistTask(UserTaskPayload task, ProcessInstance instance) {
@@ -488,7 +726,7 @@ public class AbadaEngine {
                 task.candidateUsers(),
                 task.candidateGroups(),
                 task.assignmentStrategy());
-        persistTask(createdTask);
+        insertTask(createdTask);
         historyService.record("TASK_CREATED", instance, task.taskDefinitionKey(),
                 Map.of("assignee", task.assignee() == null ? "" : task.assignee(),
                         "assignmentStrategy", task.assignmentStrategy().name()));
@@ -535,6 +773,7 @@ public class AbadaEngine {
                                 + (spanContext.isSampled() ? "-01" : "-00"));
                     }
                     externalTaskRepository.save(externalTask);
+                    externalTaskSignals.taskAvailable(serviceTaskMeta.topicName());
                     log.info("Created external task {} for topic {}", externalTask.getId(),
                             serviceTaskMeta.topicName());
                 }
@@ -545,6 +784,13 @@ public class AbadaEngine {
     private ProcessInstanceEntity convertToEntity(ProcessInstance instance) {
         ProcessInstanceEntity entity = new ProcessInstanceEntity();
         entity.setId(instance.getId());
+        writeRuntimeState(instance, entity);
+        entity.setEntityVersion(instance.getEntityVersion());
+        return entity;
+    }
+
+    /** Copies everything but id and version, so it can target a managed entity as well as a new one. */
+    private void writeRuntimeState(ProcessInstance instance, ProcessInstanceEntity entity) {
         entity.setProcessDefinitionId(instance.getDefinition().getId());
         entity.setProcessDefinitionDeploymentId(instance.getProcessDefinitionDeploymentId());
 
@@ -559,27 +805,58 @@ public class AbadaEngine {
 
         entity.setStartDate(instance.getStartDate());
         entity.setEndDate(instance.getEndDate());
-        entity.setVariablesJson(writeMap(instance.getVariables()));
         entity.setStartedBy(instance.getStartedBy());
-        entity.setActiveTokensJson(writeValue(instance.getActiveTokens()));
-        entity.setJoinExpectedTokensJson(writeValue(instance.getJoinExpectedTokens()));
-        entity.setJoinArrivedTokensJson(writeValue(instance.getJoinArrivedTokens()));
-        entity.setEntityVersion(instance.getEntityVersion());
-        return entity;
+        // Variables are written separately, as a delta, by persistRuntimeState.
+        runtimeStateCodecs.encode(new RuntimeState(null, instance.getActiveTokens(),
+                instance.getJoinExpectedTokens(), instance.getJoinArrivedTokens()), entity);
+        entity.setVariablesInTable(true);
+    }
+
+    /** First write of a new instance: a plain INSERT, with no SELECT-before-merge. */
+    private void insertRuntimeState(ProcessInstance instance) {
+        if (commandContext.isActive()) {
+            ProcessInstanceEntity entity = commandContext.insert(ProcessInstanceEntity.class, instance.getId(),
+                    convertToEntity(instance));
+            syncVersionAfterCommit(instance, entity);
+        } else {
+            ProcessInstanceEntity saved = persistenceService.saveOrUpdateProcessInstance(convertToEntity(instance));
+            instance.setEntityVersion(saved.getEntityVersion());
+        }
+        variableStore.insert(instance.getId(), instance.drainDirtyVariables());
     }
 
+    /**
+     * Within a command, every write after the first lands on the same managed entity, so however
+     * often a command calls this, Hibernate issues at most one UPDATE per flush.
+     */
     private void persistRuntimeState(ProcessInstance instance) {
-        persistRuntimeState(instance, convertToEntity(instance));
+        ProcessInstanceEntity managed = commandContext.find(ProcessInstanceEntity.class, instance.getId());
+        if (managed != null) {
+            writeRuntimeState(instance, managed);
+            syncVersionAfterCommit(instance, managed);
+        } else {
+            managed = persistenceService.saveOrUpdateProcessInstance(convertToEntity(instance));
+            commandContext.track(ProcessInstanceEntity.class, instance.getId(), managed);
+            instance.setEntityVersion(managed.getEntityVersion());
+            syncVersionAfterCommit(instance, managed);
+        }
+        variableStore.upsert(instance.getId(), instance.drainDirtyVariables());
     }
 
-    private void persistRuntimeState(ProcessInstance instance, ProcessInstanceEntity entity) {
-        ProcessInstanceEntity saved = persistenceService.saveOrUpdateProcessInstance(entity);
-        instance.setEntityVersion(saved.getEntityVersion());
+    private void syncVersionAfterCommit(ProcessInstance instance, ProcessInstanceEntity entity) {
+        commandContext.afterCommit(ProcessInstanceEntity.class, instance.getId(),
+                () -> instance.setEntityVersion(entity.getEntityVersion()));
     }
 
     private TaskEntity convertToEntity(TaskInstance taskInstance) {
         TaskEntity entity = new TaskEntity();
         entity.setId(taskInstance.getId());
+        writeTask(taskInstance, entity);
+        entity.setEntityVersion(taskInstance.getEntityVersion());
+        return entity;
+    }
+
+    private void writeTask(TaskInstance taskInstance, TaskEntity entity) {
         entity.setProcessInstanceId(taskInstance.getProcessInstanceId());
         entity.setTaskDefinitionKey(taskInstance.getTaskDefinitionKey());
         entity.setName(taskInstance.getName());
@@ -589,18 +866,23 @@ public class AbadaEngine {
         entity.setStartDate(taskInstance.getStartDate());
         entity.setEndDate(taskInstance.getEndDate());
 
-        entity.setCandidateUsers(new ArrayList<>(taskInstance.getCandidateUsers()));
-        entity.setCandidateGroups(new ArrayList<>(taskInstance.getCandidateGroups()));
-        entity.setEntityVersion(taskInstance.getEntityVersion());
-
-        return entity;
+        // Replacing an unchanged element collection would make Hibernate delete and re-insert its rows.
+        if (!taskInstance.getCandidateUsers().equals(entity.getCandidateUsers())) {
+            entity.setCandidateUsers(new ArrayList<>(taskInstance.getCandidateUsers()));
+        }
+        if (!taskInstance.getCandidateGroups().equals(entity.getCandidateGroups())) {
+            entity.setCandidateGroups(new ArrayList<>(taskInstance.getCandidateGroups()));
+        }
     }
 
     private TaskInstance loadTaskForUpdate(String taskId) {
+        Timer.Sample lockWait = engineMetrics.startLockWaitTimer();
         TaskEntity entity = persistenceService.findTaskByIdForUpdate(taskId);
+        engineMetrics.recordLockWait(lockWait, "task");
         if (entity == null) {
             throw new ProcessEngineException("Task not found: " + taskId);
         }
+        commandContext.track(TaskEntity.class, taskId, entity);
         return taskManager.materialize(entity);
     }
 
@@ -613,17 +895,47 @@ public class AbadaEngine {
     }
 
     private ProcessInstance loadProcessInstanceForUpdate(String processInstanceId) {
-        ProcessInstanceEntity entity = persistenceService.findProcessInstanceByIdForUpdate(processInstanceId);
+        ProcessInstanceEntity entity = lockProcessInstance(processInstanceId);
         return entity == null ? null : materializeProcessInstance(entity);
     }
 
+    private ProcessInstanceEntity lockProcessInstance(String processInstanceId) {
+        Timer.Sample lockWait = engineMetrics.startLockWaitTimer();
+        ProcessInstanceEntity entity = persistenceService.findProcessInstanceByIdForUpdate(processInstanceId);
+        engineMetrics.recordLockWait(lockWait, "process_instance");
+        return entity;
+    }
+
     private void persistTask(TaskInstance task) {
-        TaskEntity saved = persistenceService.saveTask(convertToEntity(task));
-        task.setEntityVersion(saved.getEntityVersion());
+        TaskEntity managed = commandContext.find(TaskEntity.class, task.getId());
+        if (managed != null) {
+            writeTask(task, managed);
+            syncVersionAfterCommit(task, managed);
+            return;
+        }
+        managed = persistenceService.saveTask(convertToEntity(task));
+        commandContext.track(TaskEntity.class, task.getId(), managed);
+        task.setEntityVersion(managed.getEntityVersion());
+        syncVersionAfterCommit(task, managed);
+    }
+
+    private void syncVersionAfterCommit(TaskInstance task, TaskEntity entity) {
+        commandContext.afterCommit(TaskEntity.class, task.getId(), () -> task.setEntityVersion(entity.getEntityVersion()));
+    }
+
+    private void insertTask(TaskInstance task) {
+        if (commandContext.isActive()) {
+            syncVersionAfterCommit(task, commandContext.insert(TaskEntity.class, task.getId(), convertToEntity(task)));
+        } else {
+            persistTask(task);
+        }
     }
 
     public void clearMemory() {
-        definitionsByDeploymentId.clear();
+        definitionCache.clear();
+        latestDefinitions.clear();
+        scriptEnginePool.invalidate();
+        delegateResolver.clear();
     }
 
     @Transactional(readOnly = true)
@@ -645,15 +957,28 @@ public class AbadaEngine {
 
     @Transactional(readOnly = true)
     public Page<ProcessInstance> getProcessInstances(Pageable pageable) {
-        return persistenceService.findProcessInstances(pageable)
-                .map(this::materializeProcessInstance);
+        return materializePage(persistenceService.findProcessInstances(pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<ProcessInstance> getProcessInstances(com.abada.engine.core.model.ProcessStatus status,
             String processDefinitionId, Pageable pageable) {
-        return persistenceService.findProcessInstances(status, processDefinitionId, pageable)
-                .map(this::materializeProcessInstance);
+        return materializePage(persistenceService.findProcessInstances(status, processDefinitionId, pageable));
+    }
+
+    /**
+     * Same as {@link #getProcessInstances(ProcessStatus, String, Pageable)} but, when
+     * {@code includeVariables} is false, loads no variables at all; the returned instances then
+     * throw on variable access.
+     */
+    @Transactional(readOnly = true)
+    public Page<ProcessInstance> getProcessInstances(ProcessStatus status, String processDefinitionId,
+            Pageable pageable, boolean includeVariables) {
+        if (includeVariables) {
+            return getProcessInstances(status, processDefinitionId, pageable);
+        }
+        return persistenceService.findProcessInstancesWithoutVariables(status, processDefinitionId, pageable)
+                .map(entity -> materializeProcessInstance(entity, variablesNotLoaded(entity)));
     }
 
     @Transactional(readOnly = true)
@@ -671,8 +996,33 @@ public class AbadaEngine {
         if (instanceIds == null || instanceIds.isEmpty()) {
             return Map.of();
         }
-        return persistenceService.findProcessInstancesByIds(instanceIds).stream()
-                .map(this::materializeProcessInstance)
+        return materializeAll(persistenceService.findProcessInstancesByIds(instanceIds)).stream()
+                .collect(Collectors.toMap(ProcessInstance::getId, Function.identity()));
+    }
+
+    /**
+     * Variant of {@link #getProcessInstancesByIds(Collection)} that loads only the variables named in
+     * {@code variableNames}. The instances are read-only views: writing one back would drop the rest.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, ProcessInstance> getProcessInstancesByIds(Collection<String> instanceIds,
+            Collection<String> variableNames) {
+        if (instanceIds == null || instanceIds.isEmpty()) {
+            return Map.of();
+        }
+        return materializeAll(persistenceService.findProcessInstancesByIds(instanceIds), variableNames).stream()
+                .collect(Collectors.toMap(ProcessInstance::getId, Function.identity()));
+    }
+
+    /** Variant of {@link #getProcessInstancesByIds(Collection)} that can skip loading variables. */
+    @Transactional(readOnly = true)
+    public Map<String, ProcessInstance> getProcessInstancesByIds(Collection<String> instanceIds,
+            boolean includeVariables) {
+        if (includeVariables || instanceIds == null || instanceIds.isEmpty()) {
+            return getProcessInstancesByIds(instanceIds);
+        }
+        return persistenceService.findProcessInstancesByIdsWithoutVariables(instanceIds).stream()
+                .map(entity -> materializeProcessInstance(entity, variablesNotLoaded(entity)))
                 .collect(Collectors.toMap(ProcessInstance::getId, Function.identity()));
     }
 
@@ -691,9 +1041,17 @@ public class AbadaEngine {
         if (latest != null && checksum.equals(latest.getChecksum())) {
             return latest;
         }
+        ProcessDefinitionEntity saved = persistenceService.saveProcessDefinition(
+                newDefinitionEntity(parseResult, checksum, latest == null ? 1 : latest.getVersion() + 1));
+        persistenceService.incrementDefinitionCatalogRevision();
+        return saved;
+    }
+
+    private ProcessDefinitionEntity newDefinitionEntity(BpmnParseResult parseResult, String checksum, int version) {
+        ParsedProcessDefinition definition = parseResult.definition();
         ProcessDefinitionEntity entity = new ProcessDefinitionEntity();
         entity.setId(definition.getId());
-        entity.setVersion(latest == null ? 1 : latest.getVersion() + 1);
+        entity.setVersion(version);
         entity.setChecksum(checksum);
         entity.setName(definition.getName());
         entity.setDocumentation(definition.getDocumentation());
@@ -701,7 +1059,8 @@ public class AbadaEngine {
         entity.setDefinitionFormatVersion("canonical-1");
         entity.setCompatibilityProfiles(String.join(",", parseResult.activeProfiles()));
         entity.setDetectedNamespaces(String.join(",", new TreeSet<>(parseResult.detectedNamespaces())));
-        entity.setCompilerVersion("1");
+        entity.setCompilerVersion(CompiledDefinitionCodec.COMPILER_VERSION);
+        entity.setCompiledDefinition(CompiledDefinitionCodec.encode(definition));
         try {
             entity.setCompatibilityReport(om.writeValueAsString(parseResult.report()));
         } catch (JsonProcessingException exception) {
@@ -715,67 +1074,16 @@ public class AbadaEngine {
         if (definition.getCandidateStarterUsers() != null && !definition.getCandidateStarterUsers().isEmpty()) {
             entity.setCandidateStarterUsers(String.join(",", definition.getCandidateStarterUsers()));
         }
-
-        return persistenceService.saveProcessDefinition(entity);
-    }
-
-    private Map<String, Object> readMap(String json) {
-        if (json == null || json.isBlank())
-            return new HashMap<>();
-        try {
-            return om.readValue(json, new TypeReference<>() {
-            });
-        } catch (IOException ex) {
-            throw new IllegalStateException("Bad variables_json", ex);
-        }
-    }
-
-    private String writeMap(Map<String, Object> m) {
-        try {
-            return om.writeValueAsString(m == null ? Map.of() : m);
-        } catch (JsonProcessingException ex) {
-            throw new IllegalStateException("Serialize variables failed", ex);
-        }
-    }
-
-    private String writeValue(Object value) {
-        try {
-            return om.writeValueAsString(value);
-        } catch (JsonProcessingException ex) {
-            throw new IllegalStateException("Serialize runtime state failed", ex);
-        }
-    }
-
-    private List<String> readList(String json, List<String> fallback) {
-        if (json == null || json.isBlank()) return fallback;
-        try {
-            return om.readValue(json, new TypeReference<>() {});
-        } catch (IOException ex) {
-            throw new IllegalStateException("Bad active_tokens_json", ex);
-        }
-    }
-
-    private Map<String, Integer> readIntegerMap(String json) {
-        if (json == null || json.isBlank()) return Map.of();
-        try {
-            return om.readValue(json, new TypeReference<>() {});
-        } catch (IOException ex) {
-            throw new IllegalStateException("Bad join_expected_tokens_json", ex);
-        }
+        return entity;
     }
 
-    private Map<String, Set<String>> readSetMap(String json) {
-        if (json == null || json.isBlank()) return Map.of();
-        try {
-            return om.readValue(json, new TypeReference<>() {});
-        } catch (IOException ex) {
-            throw new IllegalStateException("Bad join_arrived_tokens_json", ex);
-        }
+    private String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
     }
 
-    private String sha256(String value) {
+    private String sha256(byte[] value) {
         try {
-            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value);
             return java.util.HexFormat.of().formatHex(digest);
         } catch (java.security.NoSuchAlgorithmException ex) {
             throw new IllegalStateException("SHA-256 is unavailable", ex);
@@ -1,6 +1,7 @@
 package com.abada.engine.core;
 
 import com.abada.engine.persistence.entity.ActivityHistoryEntity;
+import com.abada.engine.persistence.entity.OutboxEventEntity;
 import com.abada.engine.persistence.repository.ActivityHistoryRepository;
 import com.abada.engine.security.Identity;
 import com.abada.engine.security.IdentityContext;
@@ -9,6 +10,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.opentelemetry.api.trace.Span;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.LinkedHashMap;
 
@@ -32,31 +35,53 @@ public class ActivityHistoryService {
 
     public void record(String eventType, String processInstanceId, String processDefinitionId,
             String activityId, Map<String, ?> details) {
-        ActivityHistoryEntity history = new ActivityHistoryEntity();
-        history.setEventType(eventType);
-        history.setProcessInstanceId(processInstanceId);
-        history.setProcessDefinitionId(processDefinitionId);
-        history.setActivityId(activityId);
-        history.setActor(IdentityContext.get().map(Identity::username).orElse("system"));
+        recordAll(eventType, List.of(new Entry(processInstanceId, processDefinitionId, activityId, details)));
+    }
+
+    /** Records one event of {@code eventType} per entry, saving the history and outbox rows together. */
+    public void recordAll(String eventType, List<Entry> entries) {
+        String actor = IdentityContext.get().map(Identity::username).orElse("system");
         var spanContext = Span.current().getSpanContext();
-        history.setTraceId(spanContext.isValid() ? spanContext.getTraceId() : null);
-        try {
-            history.setDetailsJson(objectMapper.writeValueAsString(details == null ? Map.of() : details));
-        } catch (JsonProcessingException ex) {
-            throw new IllegalStateException("Could not serialize activity history", ex);
+        String traceId = spanContext.isValid() ? spanContext.getTraceId() : null;
+        List<ActivityHistoryEntity> rows = new ArrayList<>(entries.size());
+        List<OutboxEventEntity> events = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            Map<String, ?> details = entry.details() == null ? Map.of() : entry.details();
+            ActivityHistoryEntity history = new ActivityHistoryEntity();
+            history.setEventType(eventType);
+            history.setProcessInstanceId(entry.processInstanceId());
+            history.setProcessDefinitionId(entry.processDefinitionId());
+            history.setActivityId(entry.activityId());
+            history.setActor(actor);
+            history.setTraceId(traceId);
+            try {
+                history.setDetailsJson(objectMapper.writeValueAsString(details));
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Could not serialize activity history", ex);
+            }
+            rows.add(history);
+
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("processInstanceId", entry.processInstanceId());
+            payload.put("processDefinitionId", entry.processDefinitionId());
+            payload.put("activityId", entry.activityId());
+            payload.put("actor", actor);
+            payload.put("traceId", traceId);
+            payload.put("details", details);
+            events.add(outboxService.newEvent(eventType,
+                    entry.processInstanceId() == null ? "PROCESS_DEFINITION" : "PROCESS_INSTANCE",
+                    entry.processInstanceId() == null ? entry.processDefinitionId() : entry.processInstanceId(),
+                    payload));
+        }
+        repository.saveAll(rows);
+        outboxService.enqueueAll(events);
+    }
+
+    public record Entry(String processInstanceId, String processDefinitionId, String activityId,
+            Map<String, ?> details) {
+
+        public static Entry of(ProcessInstance instance, String activityId, Map<String, ?> details) {
+            return new Entry(instance.getId(), instance.getDefinition().getId(), activityId, details);
         }
-        repository.save(history);
-
-        Map<String, Object> payload = new LinkedHashMap<>();
-        payload.put("processInstanceId", processInstanceId);
-        payload.put("processDefinitionId", processDefinitionId);
-        payload.put("activityId", activityId);
-        payload.put("actor", history.getActor());
-        payload.put("traceId", history.getTraceId());
-        payload.put("details", details == null ? Map.of() : details);
-        outboxService.enqueue(eventType,
-                processInstanceId == null ? "PROCESS_DEFINITION" : "PROCESS_INSTANCE",
-                processInstanceId == null ? processDefinitionId : processInstanceId,
-                payload);
     }
 }
@@ -0,0 +1,117 @@
+package com.abada.engine.core;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Unit of work for the transaction of an {@link AtomicRuntimeCommand}. It remembers the managed
+ * entity behind every process instance and task the command has loaded or inserted, so repeated
+ * writes of the same object update that entity in place instead of merging a fresh copy each time.
+ * Nothing is flushed explicitly: Hibernate writes the accumulated changes once, batched, at commit
+ * (or earlier if a query needs them).
+ *
+ * <p>Outside a transaction the context is inactive and callers fall back to plain repository saves.
+ */
+@Component
+public class CommandContext {
+
+    private final EntityManager entityManager;
+
+    public CommandContext(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public boolean isActive() {
+        return TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /** The managed entity tracked for {@code id}, or {@code null} if this command has not seen it. */
+    public <T> T find(Class<T> type, Object id) {
+        State state = state(false);
+        return state == null ? null : type.cast(state.entities.get(new Key(type, id)));
+    }
+
+    /** Records an entity the command loaded; it must be managed by the current persistence context. */
+    public <T> T track(Class<T> type, Object id, T managed) {
+        State state = state(true);
+        if (state != null) state.entities.put(new Key(type, id), managed);
+        return managed;
+    }
+
+    /** Schedules a brand-new entity for insertion at flush and tracks it. Requires an active context. */
+    public <T> T insert(Class<T> type, Object id, T entity) {
+        entityManager.persist(entity);
+        return track(type, id, entity);
+    }
+
+    /**
+     * Runs {@code action} inside the transaction just before it commits. Registering again for the
+     * same key replaces the earlier action, so work requested many times by one command runs once.
+     */
+    public void beforeCommit(Class<?> type, Object id, Runnable action) {
+        State state = state(true);
+        if (state != null) state.beforeCommit.put(new Key(type, id), action);
+    }
+
+    /**
+     * Runs {@code action} once the transaction has committed, i.e. after the final flush assigned
+     * versions. Registering again for the same entity replaces the earlier action.
+     */
+    public void afterCommit(Class<?> type, Object id, Runnable action) {
+        State state = state(true);
+        if (state != null) state.afterCommit.put(new Key(type, id), action);
+    }
+
+    private State state(boolean create) {
+        if (!isActive()) return null;
+        State state = (State) TransactionSynchronizationManager.getResource(this);
+        if (state == null && create) {
+            State bound = new State();
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(CommandContext.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(CommandContext.this, bound);
+                }
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    bound.beforeCommit.values().forEach(Runnable::run);
+                }
+
+                @Override
+                public void afterCommit() {
+                    bound.afterCommit.values().forEach(Runnable::run);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CommandContext.this);
+                }
+            });
+            state = bound;
+        }
+        return state;
+    }
+
+    private record Key(Class<?> type, Object id) {
+    }
+
+    private static final class State {
+        final Map<Key, Object> entities = new HashMap<>();
+        final Map<Key, Runnable> beforeCommit = new LinkedHashMap<>();
+        final Map<Key, Runnable> afterCommit = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,55 @@
+package com.abada.engine.core;
+
+import com.abada.engine.core.model.ParsedProcessDefinition;
+import com.abada.engine.persistence.PersistenceService;
+import com.abada.engine.persistence.state.CompiledDefinitionCodec;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stores the compiled form of definitions that had to be re-parsed from their XML. Definitions are
+ * loaded from queries, commands and the warm-up thread alike, often inside a transaction that holds
+ * a connection; the rewrite runs afterwards on its own thread and transaction, one at a time, so a
+ * load never waits for a second connection and a read never writes.
+ */
+@Component
+public class CompiledDefinitionRewriter {
+
+    private static final Logger log = LoggerFactory.getLogger(CompiledDefinitionRewriter.class);
+
+    private final PersistenceService persistenceService;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("abada-definition-rewrite").factory());
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public CompiledDefinitionRewriter(PersistenceService persistenceService) {
+        this.persistenceService = persistenceService;
+    }
+
+    /** Queues the rewrite of one deployment; a rewrite already queued for it is not repeated. */
+    public void rewrite(String deploymentId, ParsedProcessDefinition definition) {
+        if (!pending.add(deploymentId)) return;
+        writer.execute(() -> {
+            try {
+                persistenceService.updateCompiledDefinition(deploymentId, CompiledDefinitionCodec.COMPILER_VERSION,
+                        CompiledDefinitionCodec.encode(definition));
+            } catch (RuntimeException ex) {
+                log.warn("Could not store the compiled form of deployment {}: {}", deploymentId, ex.getMessage());
+            } finally {
+                pending.remove(deploymentId);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writer.shutdownNow();
+    }
+}
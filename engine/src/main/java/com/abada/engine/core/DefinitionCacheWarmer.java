@@ -0,0 +1,39 @@
+package com.abada.engine.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the definition cache in the background once the application is ready, so startup is not
+ * delayed and the first commands after a restart find their definitions already parsed.
+ */
+@Component
+@ConditionalOnProperty(name = "abada.definitions.cache.warm-up", havingValue = "true", matchIfMissing = true)
+public class DefinitionCacheWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(DefinitionCacheWarmer.class);
+
+    private final AbadaEngine engine;
+
+    public DefinitionCacheWarmer(AbadaEngine engine) {
+        this.engine = engine;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread.ofPlatform().daemon().name("abada-definition-warm-up").start(() -> {
+            long started = System.nanoTime();
+            try {
+                int warmed = engine.warmUpDefinitionCache();
+                log.info("Warmed definition cache with {} definitions in {} ms", warmed,
+                        (System.nanoTime() - started) / 1_000_000);
+            } catch (RuntimeException ex) {
+                log.warn("Definition cache warm-up failed: {}", ex.getMessage());
+            }
+        });
+    }
+}
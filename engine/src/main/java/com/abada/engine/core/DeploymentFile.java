@@ -0,0 +1,5 @@
+package com.abada.engine.core;
+
+/** One BPMN file of a bulk deployment; {@code name} only identifies it in the report. */
+public record DeploymentFile(String name, byte[] content) {
+}
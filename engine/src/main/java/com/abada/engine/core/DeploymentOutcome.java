@@ -0,0 +1,35 @@
+package com.abada.engine.core;
+
+/**
+ * What a bulk deployment did with one file. {@code UNCHANGED} files match the latest version of
+ * their definition and were not parsed; {@code FAILED} files carry the compile error and did not
+ * stop the rest of the batch.
+ */
+public record DeploymentOutcome(
+        String file,
+        Status status,
+        String processDefinitionId,
+        String deploymentId,
+        Integer version,
+        String error) {
+
+    public enum Status { DEPLOYED, UNCHANGED, FAILED }
+
+    static DeploymentOutcome deployed(String file, String processKey, String deploymentId, int version) {
+        return new DeploymentOutcome(file, Status.DEPLOYED, processKey, deploymentId, version, null);
+    }
+
+    static DeploymentOutcome unchanged(String file, String processKey, String deploymentId, int version) {
+        return new DeploymentOutcome(file, Status.UNCHANGED, processKey, deploymentId, version, null);
+    }
+
+    static DeploymentOutcome failed(String file, String error) {
+        return new DeploymentOutcome(file, Status.FAILED, null, null, null, error);
+    }
+
+    /** The outcome of a later file in the batch with the same content as this one. */
+    DeploymentOutcome duplicate(String otherFile) {
+        return status == Status.FAILED ? failed(otherFile, error)
+                : unchanged(otherFile, processDefinitionId, deploymentId, version);
+    }
+}
@@ -0,0 +1,133 @@
+package com.abada.engine.core;
+
+import com.abada.engine.core.exception.ProcessEngineException;
+import com.abada.engine.dto.CompleteExternalTaskBatchRequest.Item;
+import com.abada.engine.persistence.entity.ExternalTaskEntity;
+import com.abada.engine.persistence.repository.ExternalTaskRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Completes a batch of external tasks, each in its own command so that one rejected task does not
+ * undo the others. Tasks of the same process instance run one after another in request order, since
+ * they would only contend for the same instance; different instances run in parallel on virtual
+ * threads, at most {@code abada.external-tasks.complete-batch.concurrency} at a time per batch.
+ */
+@Service
+public class ExternalTaskBatchCompletion {
+
+    private final ExternalTaskRepository repository;
+    private final TaskDecorator contextPropagation;
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("abada-complete-batch-", 0).factory());
+    private final int concurrency;
+    private final int maxSize;
+
+    public ExternalTaskBatchCompletion(ExternalTaskRepository repository, TaskDecorator contextPropagation,
+            @Value("${abada.external-tasks.complete-batch.concurrency:4}") int concurrency,
+            @Value("${abada.external-tasks.complete-batch.max-size:500}") int maxSize) {
+        if (concurrency < 1 || maxSize < 1) {
+            throw new IllegalStateException("abada.external-tasks.complete-batch.concurrency and "
+                    + "abada.external-tasks.complete-batch.max-size must be positive");
+        }
+        this.repository = repository;
+        this.contextPropagation = contextPropagation;
+        this.concurrency = concurrency;
+        this.maxSize = maxSize;
+    }
+
+    /** How one item of a batch ended; {@code failure} is null when the task was completed. */
+    public record Outcome(Item item, RuntimeException failure) {
+        public boolean completed() {
+            return failure == null;
+        }
+    }
+
+    /**
+     * Runs {@code completion} for every item and returns the outcomes in request order. A failure of
+     * one item is recorded in its outcome and does not stop the rest of the batch.
+     */
+    public List<Outcome> completeAll(List<Item> items, Consumer<Item> completion) {
+        validate(items);
+        Outcome[] outcomes = new Outcome[items.size()];
+        ConcurrentLinkedQueue<List<Integer>> groups = new ConcurrentLinkedQueue<>(groupByInstance(items));
+        Runnable drain = () -> {
+            List<Integer> group;
+            while ((group = groups.poll()) != null) {
+                for (int index : group) outcomes[index] = complete(items.get(index), completion);
+            }
+        };
+        int parallelism = Math.min(concurrency, groups.size());
+        if (parallelism <= 1) {
+            drain.run();
+        } else {
+            List<CompletableFuture<Void>> running = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                running.add(CompletableFuture.runAsync(contextPropagation.decorate(drain), workers));
+            }
+            CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+        }
+        return List.of(outcomes);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void validate(List<Item> items) {
+        if (items.isEmpty() || items.size() > maxSize) {
+            throw new ProcessEngineException("A batch must complete between 1 and " + maxSize + " external tasks");
+        }
+        Set<String> keys = new HashSet<>();
+        for (Item item : items) {
+            if (item == null || item.id() == null || item.id().isBlank()) {
+                throw new ProcessEngineException("Every batch item needs an external task id");
+            }
+            String key = item.idempotencyKey();
+            if (key != null && !key.isBlank() && !keys.add(key)) {
+                throw new ProcessEngineException("Idempotency-Key " + key + " is used by more than one batch item");
+            }
+        }
+    }
+
+    /** Item indexes per process instance; a task that does not exist forms its own group and fails there. */
+    private List<List<Integer>> groupByInstance(List<Item> items) {
+        Set<String> ids = items.stream().map(Item::id).collect(Collectors.toSet());
+        Map<String, String> instanceIds = new LinkedHashMap<>();
+        for (ExternalTaskEntity task : repository.findAllById(ids)) {
+            instanceIds.put(task.getId(), task.getProcessInstanceId());
+        }
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            String id = items.get(i).id();
+            String instanceId = instanceIds.get(id);
+            groups.computeIfAbsent(instanceId == null ? "task:" + id : instanceId, key -> new ArrayList<>()).add(i);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static Outcome complete(Item item, Consumer<Item> completion) {
+        try {
+            completion.accept(item);
+            return new Outcome(item, null);
+        } catch (RuntimeException failure) {
+            return new Outcome(item, failure);
+        }
+    }
+}
@@ -5,14 +5,22 @@ import com.abada.engine.dto.ExtendLockRequest;
 import com.abada.engine.dto.ExternalTaskFailureDto;
 import com.abada.engine.dto.FetchAndLockRequest;
 import com.abada.engine.dto.LockedExternalTask;
+import com.abada.engine.observability.EngineMetrics;
 import com.abada.engine.persistence.entity.ExternalTaskEntity;
 import com.abada.engine.persistence.repository.ExternalTaskRepository;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 import com.abada.engine.dto.ExternalTaskBpmnErrorRequest;
 
 @Service
@@ -20,45 +28,92 @@ public class ExternalTaskCommandService {
     private final ExternalTaskRepository repository;
     private final AbadaEngine engine;
     private final ActivityHistoryService history;
+    private final EngineMetrics metrics;
+    private final ExternalTaskSignals signals;
+    private final int maxFetchSize;
 
     public ExternalTaskCommandService(ExternalTaskRepository repository, AbadaEngine engine,
-            ActivityHistoryService history) {
+            ActivityHistoryService history, EngineMetrics metrics, ExternalTaskSignals signals,
+            @Value("${abada.external-tasks.max-fetch-size:1000}") int maxFetchSize) {
         this.repository = repository;
         this.engine = engine;
         this.history = history;
+        this.metrics = metrics;
+        this.signals = signals;
+        this.maxFetchSize = maxFetchSize;
     }
 
+    /**
+     * Claims up to {@code maxTasks} across the requested topics, see {@link #claim}. The lock
+     * updates are flushed as one batch at commit, the owning instances and their variables are
+     * loaded with one {@code IN} query each, and the history rows are inserted together. When every
+     * fetched topic has a variable whitelist, only those variable rows are read and decoded.
+     */
     @AtomicRuntimeCommand
     public List<LockedExternalTask> fetchAndLock(FetchAndLockRequest request) {
         validateFetch(request);
         Instant now = Instant.now();
-        List<LockedExternalTask> locked = new ArrayList<>();
-        while (locked.size() < request.effectiveMaxTasks()) {
-            boolean acquired = false;
-            for (String topic : request.topics()) {
-                var available = repository.findFirstAvailableForUpdate(topic, now);
-                if (available.isEmpty()) continue;
-
-                ExternalTaskEntity task = available.get();
-                task.setWorkerId(request.workerId());
-                task.setStatus(ExternalTaskEntity.Status.LOCKED);
-                task.setLockExpirationTime(now.plusMillis(request.lockDuration()));
-                repository.save(task);
-
-                ProcessInstance instance = requireInstance(task);
-                history.record("EXTERNAL_TASK_LOCKED", instance, task.getActivityId(),
-                        Map.of("externalTaskId", task.getId(), "workerId", request.workerId(), "topic", topic));
-                locked.add(new LockedExternalTask(task.getId(), task.getTopicName(), instance.getVariables(),
-                        task.getProcessInstanceId(), task.getActivityId(), task.getRetries(),
-                        task.getLockExpirationTime(), task.getTraceParent(), "1"));
-                acquired = true;
-                if (locked.size() >= request.effectiveMaxTasks()) break;
+        List<ExternalTaskEntity> tasks = claim(List.copyOf(new LinkedHashSet<>(request.topics())), now,
+                request.effectiveMaxTasks());
+        if (tasks.isEmpty()) return List.of();
+
+        Map<String, List<String>> projections = request.effectiveVariables();
+        Map<String, ProcessInstance> instances = engine.getProcessInstancesByIds(
+                tasks.stream().map(ExternalTaskEntity::getProcessInstanceId).collect(Collectors.toSet()),
+                requestedVariables(tasks, projections));
+        List<LockedExternalTask> locked = new ArrayList<>(tasks.size());
+        List<ActivityHistoryService.Entry> lockedHistory = new ArrayList<>(tasks.size());
+        for (ExternalTaskEntity task : tasks) {
+            ProcessInstance instance = instances.get(task.getProcessInstanceId());
+            if (instance == null) {
+                throw new IllegalStateException("External task references missing process instance: "
+                        + task.getProcessInstanceId());
             }
-            if (!acquired) break;
+            task.setWorkerId(request.workerId());
+            task.setStatus(ExternalTaskEntity.Status.LOCKED);
+            task.setLockExpirationTime(now.plusMillis(request.lockDuration()));
+
+            lockedHistory.add(ActivityHistoryService.Entry.of(instance, task.getActivityId(), Map.of(
+                    "externalTaskId", task.getId(), "workerId", request.workerId(), "topic", task.getTopicName())));
+            locked.add(new LockedExternalTask(task.getId(), task.getTopicName(),
+                    project(instance.getVariables(), projections.get(task.getTopicName())),
+                    task.getProcessInstanceId(), task.getActivityId(), task.getRetries(),
+                    task.getLockExpirationTime(), task.getTraceParent(), "1"));
         }
+        repository.saveAll(tasks);
+        history.recordAll("EXTERNAL_TASK_LOCKED", lockedHistory);
         return List.copyOf(locked);
     }
 
+    /**
+     * Locks up to {@code limit} available tasks in one statement. Several topics are served
+     * round-robin, so one busy topic cannot starve the others.
+     */
+    private List<ExternalTaskEntity> claim(List<String> topics, Instant now, int limit) {
+        return topics.size() == 1
+                ? repository.findAvailableForUpdate(topics, now, limit)
+                : repository.findAvailableForUpdateByTopicRank(topics, now, limit);
+    }
+
+    /** Union of the whitelists of the fetched topics, or {@code null} if any of them wants everything. */
+    private static Set<String> requestedVariables(List<ExternalTaskEntity> tasks,
+            Map<String, List<String>> projections) {
+        Set<String> names = new HashSet<>();
+        for (ExternalTaskEntity task : tasks) {
+            List<String> topicNames = projections.get(task.getTopicName());
+            if (topicNames == null) return null;
+            names.addAll(topicNames);
+        }
+        return names;
+    }
+
+    private static Map<String, Object> project(Map<String, Object> variables, List<String> names) {
+        if (names == null) return variables;
+        Map<String, Object> projected = new HashMap<>(variables);
+        projected.keySet().retainAll(names);
+        return projected;
+    }
+
     @AtomicRuntimeCommand
     public void complete(String id, Map<String, Object> variables) {
         complete(id, null, variables);
@@ -96,6 +151,7 @@ public class ExternalTaskCommandService {
         }
         task.setWorkerId(null);
         repository.save(task);
+        if (task.getStatus() == ExternalTaskEntity.Status.OPEN) signals.taskAvailable(task.getTopicName());
         history.record("EXTERNAL_TASK_FAILED", requireInstance(task), task.getActivityId(),
                 Map.of("externalTaskId", id, "retries", failure.retries() == null ? -1 : failure.retries()));
     }
@@ -121,6 +177,7 @@ public class ExternalTaskCommandService {
         task.setWorkerId(null);
         task.setLockExpirationTime(null);
         repository.save(task);
+        signals.taskAvailable(task.getTopicName());
         history.record("EXTERNAL_TASK_RETRIES_SET", requireInstance(task), task.getActivityId(),
                 Map.of("externalTaskId", id, "retries", retries));
     }
@@ -149,8 +206,10 @@ public class ExternalTaskCommandService {
     }
 
     private ExternalTaskEntity loadForUpdate(String id) {
-        return repository.findByIdForUpdate(id)
-                .orElseThrow(() -> new ProcessEngineException("External task not found: " + id));
+        Timer.Sample lockWait = metrics.startLockWaitTimer();
+        var task = repository.findByIdForUpdate(id);
+        metrics.recordLockWait(lockWait, "external_task");
+        return task.orElseThrow(() -> new ProcessEngineException("External task not found: " + id));
     }
 
     private void requireOwnedActiveLock(ExternalTaskEntity task, String workerId) {
@@ -175,8 +234,11 @@ public class ExternalTaskCommandService {
         if (request.lockDuration() < 1 || request.lockDuration() > 3_600_000) {
             throw new ProcessEngineException("lockDuration must be between 1 and 3600000 milliseconds");
         }
-        if (request.effectiveMaxTasks() < 1 || request.effectiveMaxTasks() > 50) {
-            throw new ProcessEngineException("maxTasks must be between 1 and 50");
+        if (!request.topics().containsAll(request.effectiveVariables().keySet())) {
+            throw new ProcessEngineException("variables may only list requested topics");
+        }
+        if (request.effectiveMaxTasks() < 1 || request.effectiveMaxTasks() > maxFetchSize) {
+            throw new ProcessEngineException("maxTasks must be between 1 and " + maxFetchSize);
         }
     }
 
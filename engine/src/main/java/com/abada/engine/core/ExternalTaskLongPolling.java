@@ -0,0 +1,113 @@
+package com.abada.engine.core;
+
+import com.abada.engine.core.exception.ProcessEngineException;
+import com.abada.engine.dto.FetchAndLockRequest;
+import com.abada.engine.dto.LockedExternalTask;
+import com.abada.engine.persistence.repository.ExternalTaskRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Holds fetch-and-lock requests that carry an {@code asyncResponseTimeout} until a task on one of
+ * their topics can be fetched or the timeout elapses. Each waiting request parks a virtual thread
+ * and no database connection: it wakes on an {@link ExternalTaskSignals} signal, or every
+ * {@code abada.external-tasks.long-polling.recheck-ms} to catch expired locks and delayed retries,
+ * and only then runs a cheap existence check before fetching for real.
+ */
+@Service
+public class ExternalTaskLongPolling {
+
+    private final ExternalTaskSignals signals;
+    private final ExternalTaskRepository repository;
+    private final TaskDecorator contextPropagation;
+    private final ExecutorService waiters = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("abada-long-poll-", 0).factory());
+    private final long maxTimeoutMillis;
+    private final long recheckMillis;
+
+    public ExternalTaskLongPolling(ExternalTaskSignals signals, ExternalTaskRepository repository,
+            TaskDecorator contextPropagation,
+            @Value("${abada.external-tasks.long-polling.max-timeout-ms:300000}") long maxTimeoutMillis,
+            @Value("${abada.external-tasks.long-polling.recheck-ms:5000}") long recheckMillis) {
+        if (maxTimeoutMillis < 0 || recheckMillis < 1) {
+            throw new IllegalStateException("abada.external-tasks.long-polling.max-timeout-ms must not be negative "
+                    + "and abada.external-tasks.long-polling.recheck-ms must be positive");
+        }
+        this.signals = signals;
+        this.repository = repository;
+        this.contextPropagation = contextPropagation;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        this.recheckMillis = recheckMillis;
+    }
+
+    /**
+     * Runs {@code fetch} once a task may be available, returning its result. Without an
+     * {@code asyncResponseTimeout} it runs at once. An empty fetch keeps waiting while time remains,
+     * unless {@code retryEmpty} is false, as for an idempotent request whose first answer is final.
+     */
+    public CompletableFuture<List<LockedExternalTask>> fetchAndLock(FetchAndLockRequest request,
+            boolean retryEmpty, Supplier<List<LockedExternalTask>> fetch) {
+        long timeout = request.effectiveAsyncResponseTimeout();
+        if (timeout < 0 || timeout > maxTimeoutMillis) {
+            throw new ProcessEngineException("asyncResponseTimeout must be between 0 and " + maxTimeoutMillis
+                    + " milliseconds");
+        }
+        if (timeout == 0) return CompletableFuture.completedFuture(fetch.get());
+        if (request.topics() == null || request.topics().isEmpty()) {
+            throw new ProcessEngineException("At least one non-blank topic is required");
+        }
+        Instant deadline = Instant.now().plusMillis(timeout);
+        CompletableFuture<List<LockedExternalTask>> result = new CompletableFuture<>();
+        waiters.execute(contextPropagation.decorate(() -> {
+            try {
+                result.complete(await(Set.copyOf(request.topics()), deadline, retryEmpty, fetch));
+            } catch (Throwable failure) {
+                result.completeExceptionally(failure);
+            }
+        }));
+        return result;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        waiters.shutdownNow();
+    }
+
+    private List<LockedExternalTask> await(Set<String> topics, Instant deadline, boolean retryEmpty,
+            Supplier<List<LockedExternalTask>> fetch) throws ExecutionException {
+        while (true) {
+            // Subscribe before checking, so a task created in between still wakes this request
+            CompletableFuture<Void> wakeUp = signals.subscribe(topics);
+            try {
+                Instant now = Instant.now();
+                long remaining = deadline.toEpochMilli() - now.toEpochMilli();
+                if (remaining <= 0 || repository.existsAvailable(topics, now)) {
+                    List<LockedExternalTask> fetched = fetch.get();
+                    if (!fetched.isEmpty() || !retryEmpty || remaining <= 0) return fetched;
+                    // Another worker won the race; wait for the next task rather than spin
+                }
+                wakeUp.get(Math.min(remaining, recheckMillis), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException recheck) {
+                // Fall through to the next check
+            } catch (InterruptedException shuttingDown) {
+                Thread.currentThread().interrupt();
+                return List.of();
+            } finally {
+                signals.unsubscribe(topics, wakeUp);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.abada.engine.core;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Topic-keyed wake-ups for long-polling fetch-and-lock requests. A command that makes an external
+ * task fetchable calls {@link #taskAvailable(String)}; once it commits, every request waiting on that
+ * topic is woken and fetches again. On PostgreSQL the signal also travels as a {@code NOTIFY} on
+ * {@value #CHANNEL}, sent once per topic just before the command's transaction commits so it is only
+ * delivered on commit, and each node {@code LISTEN}s on a connection it keeps from the data source
+ * to wake its own waiters.
+ *
+ * <p>Signals are hints: a waiter that misses one still rechecks the database on its own schedule.
+ */
+@Component
+public class ExternalTaskSignals {
+
+    static final String CHANNEL = "abada_external_tasks";
+
+    private static final Logger log = LoggerFactory.getLogger(ExternalTaskSignals.class);
+
+    private final Map<String, Set<CompletableFuture<Void>>> waiters = new ConcurrentHashMap<>();
+    private final CommandContext commandContext;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final boolean notifyEnabled;
+    private boolean notify;
+    private volatile boolean listening;
+    private Thread listener;
+
+    public ExternalTaskSignals(CommandContext commandContext, JdbcTemplate jdbcTemplate, DataSource dataSource,
+            @Value("${abada.external-tasks.long-polling.notify:true}") boolean notify) {
+        this.commandContext = commandContext;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.notifyEnabled = notify;
+    }
+
+    @PostConstruct
+    void startListener() {
+        notify = notifyEnabled && isPostgres();
+        if (!notify) return;
+        listening = true;
+        listener = Thread.ofPlatform().name("abada-external-task-listener").daemon().start(this::listen);
+    }
+
+    @PreDestroy
+    void stopListener() throws InterruptedException {
+        listening = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener.join(5_000);
+        }
+    }
+
+    /** Registers a one-shot wake-up for any of {@code topics}; pair it with {@link #unsubscribe}. */
+    CompletableFuture<Void> subscribe(Collection<String> topics) {
+        CompletableFuture<Void> wakeUp = new CompletableFuture<>();
+        for (String topic : topics) {
+            waiters.compute(topic, (key, registered) -> {
+                Set<CompletableFuture<Void>> topicWaiters = registered == null ? ConcurrentHashMap.newKeySet() : registered;
+                topicWaiters.add(wakeUp);
+                return topicWaiters;
+            });
+        }
+        return wakeUp;
+    }
+
+    void unsubscribe(Collection<String> topics, CompletableFuture<Void> wakeUp) {
+        for (String topic : topics) {
+            waiters.computeIfPresent(topic, (key, registered) -> {
+                registered.remove(wakeUp);
+                return registered.isEmpty() ? null : registered;
+            });
+        }
+    }
+
+    /** Wakes the requests waiting on {@code topic} after the current command commits. */
+    public void taskAvailable(String topic) {
+        if (!commandContext.isActive()) {
+            signal(topic);
+            return;
+        }
+        commandContext.afterCommit(ExternalTaskSignals.class, topic, () -> signal(topic));
+        if (notify) {
+            commandContext.beforeCommit(ExternalTaskSignals.class, topic,
+                    () -> jdbcTemplate.queryForList("select pg_notify(?, ?)", CHANNEL, topic));
+        }
+    }
+
+    void signal(String topic) {
+        Set<CompletableFuture<Void>> topicWaiters = waiters.get(topic);
+        if (topicWaiters != null) topicWaiters.forEach(wakeUp -> wakeUp.complete(null));
+    }
+
+    private void listen() {
+        while (listening) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                log.info("Listening for external task notifications on {}", CHANNEL);
+                while (listening) {
+                    PGNotification[] received = notifications.getNotifications(1_000);
+                    if (received == null) continue;
+                    for (PGNotification notification : received) signal(notification.getParameter());
+                }
+                // The connection goes back to the pool; it must not keep collecting notifications there.
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("UNLISTEN " + CHANNEL);
+                }
+            } catch (SQLException e) {
+                if (!listening) return;
+                log.warn("External task notification listener failed, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean isPostgres() {
+        try {
+            return "PostgreSQL".equals(JdbcUtils.extractDatabaseMetaData(dataSource,
+                    DatabaseMetaData::getDatabaseProductName));
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not detect the database, external task notifications are disabled: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.abada.engine.core;
 import com.abada.engine.core.exception.ProcessEngineException;
 import com.abada.engine.core.model.GatewayMeta;
 import com.abada.engine.core.model.SequenceFlow;
-import com.abada.engine.util.ConditionEvaluator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,7 +14,7 @@ import java.util.Objects;
 /**
  * Picks the outgoing SequenceFlow for an Exclusive Gateway based on conditions
  * and the gateway's default flow. Designed to be called from the engine's
- * advance loop.
+ * advance loop. Stateless, so a single instance is shared by all threads.
  */
 public final class GatewaySelector {
     private static final Logger log = LoggerFactory.getLogger(GatewaySelector.class);
@@ -41,7 +40,7 @@ public final class GatewaySelector {
 
         for (SequenceFlow f : outgoing) {
             String cond = f.getConditionExpression(); // may be null
-            boolean ok = ConditionEvaluator.evaluate(cond, vars);
+            boolean ok = f.getCompiledCondition().evaluate(vars);
             if (log.isDebugEnabled()) {
                 log.debug("  flow id={} cond='{}' -> {}", f.getId(), cond, ok);
             }
@@ -91,7 +90,7 @@ public final class GatewaySelector {
 
             String cond = f.getConditionExpression();
             if (cond != null && !cond.isBlank()) {
-                boolean ok = ConditionEvaluator.evaluate(cond, vars);
+                boolean ok = f.getCompiledCondition().evaluate(vars);
                 if (log.isDebugEnabled()) {
                     log.debug("  flow id={} cond='{}' -> {}", f.getId(), cond, ok);
                 }
@@ -0,0 +1,101 @@
+package com.abada.engine.core;
+
+import com.abada.engine.spi.JavaDelegate;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the {@code camunda:class} reference of embedded service tasks once per deployment.
+ * A Spring bean implementing {@link JavaDelegate} whose name matches the reference wins; otherwise
+ * the class is loaded once and new instances come from a cached constructor {@link MethodHandle},
+ * so passing tokens pay neither class loading nor reflective lookup.
+ */
+@Component
+public class JavaDelegateResolver {
+
+    private static final MethodType NO_ARG_DELEGATE = MethodType.methodType(JavaDelegate.class);
+
+    private final BeanFactory beanFactory;
+    private final Map<String, Map<String, Supplier<JavaDelegate>>> suppliersByDeployment = new ConcurrentHashMap<>();
+
+    @Autowired
+    public JavaDelegateResolver(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    private JavaDelegateResolver() {
+        this(null);
+    }
+
+    /** Shared resolver used by instances that were not wired by the engine, e.g. in unit tests. */
+    static JavaDelegateResolver standalone() {
+        return Standalone.INSTANCE;
+    }
+
+    /** Returns the delegate to run for {@code reference}, resolving it on first use in the deployment. */
+    public JavaDelegate resolve(String deploymentId, String reference) {
+        return suppliersByDeployment
+                .computeIfAbsent(deploymentId, ignored -> new ConcurrentHashMap<>())
+                .computeIfAbsent(reference, this::createSupplier)
+                .get();
+    }
+
+    /** Forget the delegates of an evicted deployment. */
+    public void evict(String deploymentId) {
+        suppliersByDeployment.remove(deploymentId);
+    }
+
+    public void clear() {
+        suppliersByDeployment.clear();
+    }
+
+    private Supplier<JavaDelegate> createSupplier(String reference) {
+        if (beanFactory != null && beanFactory.containsBean(reference)
+                && beanFactory.isTypeMatch(reference, JavaDelegate.class)) {
+            if (beanFactory.isSingleton(reference)) {
+                JavaDelegate bean = beanFactory.getBean(reference, JavaDelegate.class);
+                return () -> bean;
+            }
+            return () -> beanFactory.getBean(reference, JavaDelegate.class);
+        }
+
+        Class<?> type;
+        try {
+            type = Class.forName(reference);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException("JavaDelegate class not found: " + reference, ex);
+        }
+        if (!JavaDelegate.class.isAssignableFrom(type)) {
+            throw new IllegalStateException(reference + " does not implement " + JavaDelegate.class.getName());
+        }
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.publicLookup()
+                    .findConstructor(type, MethodType.methodType(void.class))
+                    .asType(NO_ARG_DELEGATE);
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new IllegalStateException("JavaDelegate " + reference + " needs a public no-arg constructor", ex);
+        }
+        return () -> {
+            try {
+                return (JavaDelegate) constructor.invokeExact();
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException("Could not instantiate JavaDelegate " + reference, ex);
+            }
+        };
+    }
+
+    private static final class Standalone {
+        private static final JavaDelegateResolver INSTANCE = new JavaDelegateResolver();
+    }
+}
@@ -10,13 +10,29 @@ import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 public class JobScheduler {
@@ -27,16 +43,74 @@ public class JobScheduler {
     private final EngineMetrics engineMetrics;
     private final Tracer tracer;
     private final TimerJobCommandService commands;
+    private final TaskDecorator contextPropagation;
+    private final CommandContext commandContext;
+    private final ExecutorService workers;
+    private final Semaphore permits;
+    private final int concurrency;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    /** Near-term timers held in memory so they fire on time; {@code null} when the wheel is disabled. */
+    private final TimerWheel wheel;
+    private final long tickMillis;
+    private final Duration lookahead;
+    private final int wheelCapacity;
+    private ScheduledExecutorService ticker;
     private AbadaEngine abadaEngine;
     private final String leaseOwner = UUID.randomUUID().toString();
+    /** Size of the next claim; only the poll thread reads or writes it, as polls never overlap. */
+    private int batchSize;
+    /** Moving average of how long a job takes to run, in nanoseconds; 0 until one has run. */
+    private volatile long meanJobNanos;
+    private final AtomicInteger staleLeases = new AtomicInteger();
+    private final long backlogRefreshNanos;
+    /** When the backlog gauge was last counted; poll thread only. */
+    private long backlogCountedAt;
 
     @Autowired
     public JobScheduler(JobRepository jobRepository, EngineMetrics engineMetrics, Tracer tracer,
-            TimerJobCommandService commands) {
+            TimerJobCommandService commands, TaskDecorator contextPropagation, CommandContext commandContext,
+            @Value("${abada.jobs.concurrency:4}") int concurrency,
+            @Value("${abada.jobs.batch-size:50}") int batchSize,
+            @Value("${abada.jobs.max-batch-size:500}") int maxBatchSize,
+            @Value("${abada.jobs.backlog-refresh-ms:30000}") long backlogRefreshMillis,
+            @Value("${abada.execution.virtual-threads:false}") boolean virtualThreads,
+            @Value("${abada.jobs.timer-wheel.enabled:true}") boolean wheelEnabled,
+            @Value("${abada.jobs.timer-wheel.tick-ms:100}") long tickMillis,
+            @Value("${abada.jobs.timer-wheel.lookahead-ms:60000}") long lookaheadMillis,
+            @Value("${abada.jobs.timer-wheel.capacity:10000}") int wheelCapacity) {
+        if (concurrency < 1 || batchSize < 1 || maxBatchSize < batchSize) {
+            throw new IllegalStateException("abada.jobs.concurrency and abada.jobs.batch-size must be positive "
+                    + "and abada.jobs.max-batch-size at least the batch size");
+        }
         this.jobRepository = jobRepository;
         this.engineMetrics = engineMetrics;
         this.tracer = tracer;
         this.commands = commands;
+        this.contextPropagation = contextPropagation;
+        this.commandContext = commandContext;
+        this.workers = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("abada-job-", 0).factory())
+                : Executors.newFixedThreadPool(concurrency, Thread.ofPlatform().name("abada-job-", 0).daemon().factory());
+        this.permits = new Semaphore(concurrency);
+        this.concurrency = concurrency;
+        this.minBatchSize = batchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSize = batchSize;
+        this.backlogRefreshNanos = TimeUnit.MILLISECONDS.toNanos(backlogRefreshMillis);
+        this.backlogCountedAt = System.nanoTime() - backlogRefreshNanos;
+        this.wheel = wheelEnabled ? new TimerWheel(tickMillis, lookaheadMillis, wheelCapacity, Instant.now()) : null;
+        this.tickMillis = tickMillis;
+        this.lookahead = Duration.ofMillis(lookaheadMillis);
+        this.wheelCapacity = wheelCapacity;
+    }
+
+    @PostConstruct
+    void startTicker() {
+        if (wheel == null) return;
+        ticker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("abada-timer-wheel").daemon().factory());
+        ticker.scheduleWithFixedDelay(this::fireDueTimers, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
     }
 
     // Using setter injection to resolve circular dependency with AbadaEngine
@@ -60,6 +134,15 @@ public class JobScheduler {
             }
             JobEntity job = new JobEntity(processInstanceId, eventId, executionTimestamp);
             jobRepository.save(job);
+            if (wheel != null) {
+                // Only a committed job can be claimed, so it joins the wheel once the command commits
+                Runnable enqueue = () -> wheel.add(job.getId(), executionTimestamp, Instant.now());
+                if (commandContext.isActive()) {
+                    commandContext.afterCommit(JobEntity.class, job.getId(), enqueue);
+                } else {
+                    enqueue.run();
+                }
+            }
             
             span.setAttribute("job.id", job.getId());
             span.setAttribute("process.instance.id", processInstanceId);
@@ -78,7 +161,47 @@ public class JobScheduler {
     }
 
     /**
-     * Periodically polls the database for due jobs.
+     * Loads the first attempts of jobs due within the lookahead into the wheel, which picks up timers
+     * scheduled by other nodes or before a restart. Retries are left to {@link #executeDueJobs}.
+     */
+    @Scheduled(
+            fixedDelayString = "${abada.jobs.timer-wheel.refresh-ms:30000}",
+            initialDelayString = "${abada.jobs.timer-wheel.refresh-ms:30000}")
+    public void loadUpcomingJobs() {
+        if (wheel == null || abadaEngine == null) return;
+        Instant now = Instant.now();
+        for (JobRepository.UpcomingJob job : jobRepository.findUpcoming(now.plus(lookahead), PageRequest.of(0, wheelCapacity))) {
+            if (!wheel.add(job.getId(), job.getExecutionTimestamp(), now)) break;
+        }
+    }
+
+    /**
+     * Claims the timers the wheel hands out for the current tick and starts them without waiting, so
+     * the next tick is not held up by a slow job. The claim still goes through the database, so a job
+     * another node or the poll already took is skipped.
+     */
+    void fireDueTimers() {
+        try {
+            if (abadaEngine == null || workers.isShutdown()) return;
+            Instant now = Instant.now();
+            List<String> due = wheel.advance(now);
+            if (due.isEmpty()) return;
+            for (JobEntity job : commands.claim(due, leaseOwner, now)) {
+                if (submit(job) == null) return;
+            }
+        } catch (Exception e) {
+            // Whatever was not claimed here stays due in the database for the next poll
+            log.error("Timer wheel tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Polls the database for due jobs and runs them on the worker pool. While a poll comes back full
+     * the next one follows immediately, with a batch that doubles up to {@code abada.jobs.max-batch-size};
+     * a partial batch halves it again, down to {@code abada.jobs.batch-size}. A claim is also kept to
+     * what the workers can start within half a lease at the recent job duration, so the end of a
+     * batch does not wait past its lease. With the timer wheel enabled this is the durable backstop
+     * for timers the wheel missed, refused or failed to run.
      */
     @Scheduled(
             fixedDelayString = "${abada.jobs.poll-interval-ms:60000}",
@@ -93,46 +216,139 @@ public class JobScheduler {
                 return;
             }
             log.debug("Checking for due jobs...");
-            Instant now = Instant.now();
-            List<JobEntity> dueJobs = commands.claimDue(leaseOwner, now, 50);
+            int claimed = 0;
+            boolean full;
+            int stale;
+            do {
+                stale = staleLeases.get();
+                int requested = Math.min(batchSize, claimCap());
+                List<JobEntity> dueJobs = commands.claimDue(leaseOwner, Instant.now(), requested);
+                full = dueJobs.size() == requested;
+                batchSize = full ? Math.min(maxBatchSize, requested * 2) : Math.max(minBatchSize, requested / 2);
+                claimed += dueJobs.size();
+                if (!dueJobs.isEmpty()) {
+                    log.info("Found {} due jobs to execute.", dueJobs.size());
+                    runAll(dueJobs);
+                }
+                updateBacklog(full);
+                // Leases running out before jobs start means claiming more now would only repeat that
+            } while (full && staleLeases.get() == stale && !workers.isShutdown());
 
-            span.setAttribute("due.jobs.count", dueJobs.size());
+            span.setAttribute("due.jobs.count", claimed);
+        } finally {
+            span.end();
+        }
+    }
 
-            if (dueJobs.isEmpty()) {
+    /** Largest claim whose last job still starts within half a lease, judging by recent job durations. */
+    private int claimCap() {
+        long mean = meanJobNanos;
+        if (mean == 0) return maxBatchSize;
+        long startable = concurrency * (commands.leaseDuration().toNanos() / 2 / mean);
+        return (int) Math.max(concurrency, Math.min(maxBatchSize, startable));
+    }
+
+    /**
+     * A partial claim left nothing claimable behind it, so the backlog is zero without asking. After
+     * a full one the remaining jobs are counted, at most once per {@code abada.jobs.backlog-refresh-ms}.
+     */
+    private void updateBacklog(boolean full) {
+        long now = System.nanoTime();
+        if (!full) {
+            engineMetrics.updateJobBacklog(0);
+        } else if (now - backlogCountedAt >= backlogRefreshNanos) {
+            backlogCountedAt = now;
+            engineMetrics.updateJobBacklog(jobRepository.countClaimable(Instant.now()));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (ticker != null) ticker.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Timer jobs still running at shutdown; their leases will expire and they will be retried");
+        }
+    }
+
+    /** Runs one claimed batch, at most {@code abada.jobs.concurrency} jobs at a time, and waits for it. */
+    private void runAll(List<JobEntity> jobs) {
+        List<Future<?>> running = new ArrayList<>(jobs.size());
+        for (JobEntity job : jobs) {
+            Future<?> started = submit(job);
+            if (started == null) break;
+            running.add(started);
+        }
+        for (Future<?> job : running) {
+            try {
+                job.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 return;
+            } catch (ExecutionException e) {
+                log.error("Timer job worker failed: {}", e.getCause().getMessage(), e.getCause());
             }
+        }
+    }
 
-            log.info("Found {} due jobs to execute.", dueJobs.size());
-
-            for (JobEntity job : dueJobs) {
-                Timer.Sample sample = engineMetrics.startJobExecutionTimer();
-                Span jobSpan = tracer.spanBuilder("abada.job.execute").startSpan();
-                
-                try (var jobScope = jobSpan.makeCurrent()) {
-                    jobSpan.setAttribute("job.id", job.getId());
-                    jobSpan.setAttribute("process.instance.id", job.getProcessInstanceId());
-                    jobSpan.setAttribute("event.id", job.getEventId());
-                    jobSpan.setAttribute("job.type", "TIMER");
-                    
-                    boolean executed = commands.execute(job.getId(), leaseOwner, now);
-                    if (!executed) continue;
-                    
-                    engineMetrics.recordJobExecuted("TIMER");
-                    engineMetrics.recordJobExecutionTime(sample, "TIMER");
-                    
-                    log.info("Executed job {}", job.getId());
-                } catch (Exception e) {
-                    engineMetrics.recordJobFailed("TIMER");
-                    jobSpan.recordException(e);
-                    jobSpan.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, e.getMessage());
-                    log.error("Failed to execute job {}: {}", job.getId(), e.getMessage(), e);
-                    commands.recordFailure(job.getId(), e.getMessage());
+    /** Starts a claimed job once a permit is free; {@code null} if the workers are shutting down. */
+    private Future<?> submit(JobEntity job) {
+        permits.acquireUninterruptibly();
+        try {
+            return workers.submit(contextPropagation.decorate(() -> {
+                try {
+                    execute(job);
                 } finally {
-                    jobSpan.end();
+                    permits.release();
                 }
+            }));
+        } catch (RejectedExecutionException shuttingDown) {
+            permits.release();
+            return null;
+        }
+    }
+
+    private void execute(JobEntity job) {
+        Timer.Sample sample = engineMetrics.startJobExecutionTimer();
+        Span jobSpan = tracer.spanBuilder("abada.job.execute").startSpan();
+
+        try (var jobScope = jobSpan.makeCurrent()) {
+            jobSpan.setAttribute("job.id", job.getId());
+            jobSpan.setAttribute("process.instance.id", job.getProcessInstanceId());
+            jobSpan.setAttribute("event.id", job.getEventId());
+            jobSpan.setAttribute("job.type", "TIMER");
+
+            Instant now = Instant.now();
+            if (!job.getLeaseExpiresAt().isAfter(now)) {
+                log.warn("Job {} waited past its lease of {} for a worker; releasing it for another claim",
+                        job.getId(), commands.leaseDuration());
+                staleLeases.incrementAndGet();
+                commands.release(job.getId(), leaseOwner);
+                return;
             }
+            long started = System.nanoTime();
+            boolean executed = commands.execute(job.getId(), leaseOwner, now);
+            recordJobDuration(System.nanoTime() - started);
+            if (!executed) return;
+
+            engineMetrics.recordJobExecuted("TIMER");
+            engineMetrics.recordJobExecutionTime(sample, "TIMER");
+
+            log.info("Executed job {}", job.getId());
+        } catch (Exception e) {
+            engineMetrics.recordJobFailed("TIMER");
+            jobSpan.recordException(e);
+            jobSpan.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, e.getMessage());
+            log.error("Failed to execute job {}: {}", job.getId(), e.getMessage(), e);
+            commands.recordFailure(job.getId(), e.getMessage());
         } finally {
-            span.end();
+            jobSpan.end();
         }
     }
+
+    /** Folds one run into {@link #meanJobNanos}; concurrent updates may drop a sample, which is fine. */
+    private void recordJobDuration(long nanos) {
+        long mean = meanJobNanos;
+        meanJobNanos = mean == 0 ? Math.max(1, nanos) : Math.max(1, mean + (nanos - mean) / 8);
+    }
 }
@@ -0,0 +1,91 @@
+package com.abada.engine.core;
+
+import com.abada.engine.persistence.PersistenceService;
+import com.abada.engine.persistence.repository.ProcessDefinitionRepository.DefinitionVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deployment id of the latest version of each process key, so starting a process does not query
+ * {@code process_definitions}. Local deployments update the index after they commit. Deployments on
+ * other nodes bump the {@code definition_catalog} revision, which every node polls; when it moves,
+ * the index is dropped and refilled on demand. Until that poll, another node may keep starting the
+ * version that was latest a moment earlier, which is always a valid deployment.
+ */
+@Component
+public class LatestDefinitionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LatestDefinitionIndex.class);
+
+    private final PersistenceService persistenceService;
+    private final Map<String, Latest> latestByKey = new ConcurrentHashMap<>();
+    /** Bumped on every invalidation, so a lookup racing with one does not re-insert what it read before. */
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long catalogRevision = -1;
+
+    public LatestDefinitionIndex(PersistenceService persistenceService) {
+        this.persistenceService = persistenceService;
+    }
+
+    /** Deployment id of the latest version of {@code processKey}, or {@code null} if none is deployed. */
+    public String deploymentIdFor(String processKey) {
+        Latest latest = latestByKey.get(processKey);
+        if (latest != null) {
+            return latest.deploymentId();
+        }
+        long observed = generation.get();
+        DefinitionVersion loaded = persistenceService.findLatestDefinitionVersion(processKey);
+        if (loaded == null) {
+            return null;
+        }
+        Latest entry = new Latest(loaded.getDeploymentId(), loaded.getVersion());
+        if (generation.get() == observed) {
+            latestByKey.merge(processKey, entry, Latest::newer);
+        }
+        return entry.deploymentId();
+    }
+
+    /** Records a deployment of this node once its transaction has committed. */
+    public void deployed(String processKey, String deploymentId, int version) {
+        latestByKey.merge(processKey, new Latest(deploymentId, version), Latest::newer);
+    }
+
+    /** Drops one key, e.g. after its indexed deployment turned out to be gone. */
+    public void invalidate(String processKey) {
+        generation.incrementAndGet();
+        latestByKey.remove(processKey);
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        latestByKey.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${abada.definitions.index.refresh-interval-ms:1000}")
+    public void refresh() {
+        long revision;
+        try {
+            revision = persistenceService.findDefinitionCatalogRevision();
+        } catch (RuntimeException ex) {
+            log.debug("Definition catalog revision unavailable: {}", ex.getMessage());
+            return;
+        }
+        if (revision != catalogRevision) {
+            clear();
+            catalogRevision = revision;
+        }
+    }
+
+    private record Latest(String deploymentId, int version) {
+        /** The later version wins; on a tie the most recent report wins. */
+        private static Latest newer(Latest current, Latest candidate) {
+            return candidate.version >= current.version ? candidate : current;
+        }
+    }
+}
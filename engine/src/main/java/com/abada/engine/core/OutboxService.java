@@ -22,6 +22,14 @@ public class OutboxService {
     }
 
     public void enqueue(String eventType, String aggregateType, String aggregateId, Map<String, ?> payload) {
+        repository.save(newEvent(eventType, aggregateType, aggregateId, payload));
+    }
+
+    void enqueueAll(List<OutboxEventEntity> events) {
+        repository.saveAll(events);
+    }
+
+    OutboxEventEntity newEvent(String eventType, String aggregateType, String aggregateId, Map<String, ?> payload) {
         OutboxEventEntity event = new OutboxEventEntity();
         event.setEventType(eventType);
         event.setAggregateType(aggregateType);
@@ -31,7 +39,7 @@ public class OutboxService {
         } catch (Exception exception) {
             throw new IllegalStateException("Could not serialize lifecycle event " + eventType, exception);
         }
-        repository.save(event);
+        return event;
     }
 
     @AtomicRuntimeCommand
@@ -0,0 +1,234 @@
+package com.abada.engine.core;
+
+import com.abada.engine.core.model.ParsedProcessDefinition;
+import com.abada.engine.observability.EngineMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Parsed definitions keyed by deployment id, bounded by an estimate of the heap they hold. When
+ * the bound is exceeded the least recently used ({@code lru}) or least frequently used
+ * ({@code lfu}) entries are evicted; an evicted definition is simply parsed again from the stored
+ * BPMN on its next use, and the delegates resolved for it are forgotten with it. Unless
+ * {@code abada.definitions.cache.retain-raw-xml} is set, cached definitions do not keep their
+ * source XML, which the database already holds.
+ */
+@Component
+public class ProcessDefinitionCache {
+
+    /** Rough per-definition overhead, and per activity or sequence flow, in bytes. */
+    static final long BASE_WEIGHT = 4 * 1024;
+    static final long ELEMENT_WEIGHT = 1024;
+
+    public enum Policy { LRU, LFU }
+
+    private final EngineMetrics engineMetrics;
+    private final JavaDelegateResolver delegateResolver;
+    private final long maxWeight;
+    private final Policy policy;
+    private final boolean retainRawXml;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong weight = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    @Autowired
+    public ProcessDefinitionCache(EngineMetrics engineMetrics, JavaDelegateResolver delegateResolver,
+            @Value("${abada.definitions.cache.max-weight-bytes:67108864}") long maxWeight,
+            @Value("${abada.definitions.cache.eviction:lru}") String policy,
+            @Value("${abada.definitions.cache.retain-raw-xml:false}") boolean retainRawXml) {
+        this.engineMetrics = engineMetrics;
+        this.delegateResolver = delegateResolver;
+        this.maxWeight = Math.max(1, maxWeight);
+        try {
+            this.policy = Policy.valueOf(policy.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException("Unknown definition cache eviction policy '" + policy
+                    + "', expected lru or lfu", ex);
+        }
+        this.retainRawXml = retainRawXml;
+    }
+
+    /** The cached definition, or {@code null}; counts as a hit when present. */
+    public ParsedProcessDefinition getIfPresent(String deploymentId) {
+        Entry entry = entries.get(deploymentId);
+        if (entry == null) {
+            return null;
+        }
+        entry.touch(clock.incrementAndGet());
+        engineMetrics.recordDefinitionCache(true);
+        return entry.definition;
+    }
+
+    /**
+     * The cached definition, loading it on a miss. Concurrent misses for the same deployment share
+     * one load, which runs outside any map lock: the first caller parks a future for the others to
+     * wait on. A loader may return {@code null}, which is passed through and not cached.
+     */
+    public ParsedProcessDefinition get(String deploymentId, Supplier<ParsedProcessDefinition> loader) {
+        ParsedProcessDefinition cached = getIfPresent(deploymentId);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<Entry> load = new CompletableFuture<>();
+        CompletableFuture<Entry> pending = loading.putIfAbsent(deploymentId, load);
+        Entry entry;
+        if (pending != null) {
+            entry = await(pending);
+        } else {
+            try {
+                // A load that finished between the miss above and taking the placeholder already cached it.
+                entry = entries.get(deploymentId);
+                if (entry == null) {
+                    entry = load(deploymentId, loader);
+                }
+                load.complete(entry);
+            } catch (RuntimeException | Error ex) {
+                load.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                loading.remove(deploymentId, load);
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+        entry.touch(clock.incrementAndGet());
+        return entry.definition;
+    }
+
+    /** Caches a definition that was just deployed, unless one is already cached for the deployment. */
+    public void put(String deploymentId, ParsedProcessDefinition definition) {
+        Entry entry = newEntry(definition);
+        entry.touch(clock.incrementAndGet());
+        if (entries.putIfAbsent(deploymentId, entry) == null) {
+            added(deploymentId, entry);
+        }
+    }
+
+    public void clear() {
+        synchronized (evictionLock) {
+            entries.keySet().forEach(delegateResolver::evict);
+            entries.clear();
+            weight.set(0);
+            engineMetrics.updateDefinitionCacheSize(0, 0);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long weight() {
+        return weight.get();
+    }
+
+    private Entry load(String deploymentId, Supplier<ParsedProcessDefinition> loader) {
+        engineMetrics.recordDefinitionCache(false);
+        Timer.Sample sample = engineMetrics.startDefinitionLoadTimer();
+        ParsedProcessDefinition definition;
+        try {
+            definition = loader.get();
+        } finally {
+            engineMetrics.recordDefinitionLoad(sample);
+        }
+        if (definition == null) {
+            return null;
+        }
+        Entry entry = newEntry(definition);
+        Entry existing = entries.putIfAbsent(deploymentId, entry);
+        if (existing != null) {
+            return existing;
+        }
+        added(deploymentId, entry);
+        return entry;
+    }
+
+    private static Entry await(CompletableFuture<Entry> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    private Entry newEntry(ParsedProcessDefinition definition) {
+        ParsedProcessDefinition cached = retainRawXml || definition.getRawXml() == null
+                ? definition
+                : definition.withoutRawXml();
+        return new Entry(cached, weigh(cached));
+    }
+
+    private void added(String deploymentId, Entry entry) {
+        synchronized (evictionLock) {
+            // Weight only changes under the lock, and only for entries still in the map, so a
+            // clear() that ran after the insert leaves nothing to account for.
+            if (entries.get(deploymentId) != entry) {
+                return;
+            }
+            weight.addAndGet(entry.weight);
+            Comparator<Map.Entry<String, Entry>> order = policy == Policy.LFU
+                    ? Comparator.<Map.Entry<String, Entry>>comparingLong(e -> e.getValue().hits.get())
+                            .thenComparingLong(e -> e.getValue().lastAccess)
+                    : Comparator.comparingLong(e -> e.getValue().lastAccess);
+            // The entry just added always stays, even if it alone exceeds the bound.
+            while (weight.get() > maxWeight && entries.size() > 1) {
+                Map.Entry<String, Entry> victim = entries.entrySet().stream()
+                        .filter(e -> !e.getKey().equals(deploymentId))
+                        .min(order)
+                        .orElse(null);
+                if (victim == null) {
+                    break;
+                }
+                if (entries.remove(victim.getKey(), victim.getValue())) {
+                    weight.addAndGet(-victim.getValue().weight);
+                    delegateResolver.evict(victim.getKey());
+                    engineMetrics.recordDefinitionEviction();
+                }
+            }
+            engineMetrics.updateDefinitionCacheSize(entries.size(), weight.get());
+        }
+    }
+
+    /** Estimated heap of a parsed definition: its elements, plus the XML if it was kept. */
+    static long weigh(ParsedProcessDefinition definition) {
+        long elements = definition.getAllActivityIds().size() + definition.getSequenceFlows().size();
+        String rawXml = definition.getRawXml();
+        return BASE_WEIGHT + elements * ELEMENT_WEIGHT + (rawXml == null ? 0 : 2L * rawXml.length());
+    }
+
+    private static final class Entry {
+        private final ParsedProcessDefinition definition;
+        private final long weight;
+        private final AtomicLong hits = new AtomicLong();
+        private volatile long lastAccess;
+
+        private Entry(ParsedProcessDefinition definition, long weight) {
+            this.definition = definition;
+            this.weight = weight;
+        }
+
+        private void touch(long tick) {
+            hits.incrementAndGet();
+            lastAccess = tick;
+        }
+    }
+}
@@ -7,12 +7,23 @@ import com.abada.engine.spi.DelegateExecution;
 import com.abada.engine.spi.JavaDelegate;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Supplier;
 
 public class ProcessInstance {
 
+    private static final GatewaySelector GATEWAY_SELECTOR = new GatewaySelector();
+    private static final AssignmentEvaluator ASSIGNMENT_EVALUATOR = new AssignmentEvaluator();
+    private static final ThreadLocal<AdvanceScratch> SCRATCH = ThreadLocal.withInitial(AdvanceScratch::new);
+    private static final int MAX_HOPS = 2048;
+    /** Snapshot of a value that cannot be compared after a script ran; it is always written back. */
+    private static final Object OPAQUE = new Object();
+
     private String id;
     private ParsedProcessDefinition definition;
     private final Map<String, Object> variables = new HashMap<>();
+    private Supplier<Map<String, Object>> pendingVariables;
+    private final Set<String> dirtyVariables = new HashSet<>();
+    private boolean allVariablesDirty;
     private Instant startDate;
     private Instant endDate;
     private ProcessStatus status;
@@ -20,6 +31,9 @@ public class ProcessInstance {
     private String processDefinitionDeploymentId;
     private long entityVersion;
     private String startedBy = "system";
+    private ScriptEnginePool scriptEnginePool;
+    private JavaDelegateResolver delegateResolver;
+    private DelegateExecutionImpl delegateExecution;
 
     private final List<String> activeTokens = new ArrayList<>();
     private final Map<String, Integer> joinExpectedTokens = new HashMap<>();
@@ -68,6 +82,14 @@ public class ProcessInstance {
     public String getStartedBy() { return startedBy; }
     public void setStartedBy(String startedBy) { this.startedBy = startedBy; }
 
+    public void setScriptEnginePool(ScriptEnginePool scriptEnginePool) {
+        this.scriptEnginePool = scriptEnginePool;
+    }
+
+    public void setDelegateResolver(JavaDelegateResolver delegateResolver) {
+        this.delegateResolver = delegateResolver;
+    }
+
     public List<String> getActiveTokens() {
         return Collections.unmodifiableList(activeTokens);
     }
@@ -126,20 +148,79 @@ public class ProcessInstance {
     }
 
     public void setVariable(String key, Object value) {
-        variables.put(key, value);
+        putVariable(key, value);
     }
 
     public Object getVariable(String key) {
-        return variables.get(key);
+        return variables().get(key);
     }
 
     public Map<String, Object> getVariables() {
-        return Collections.unmodifiableMap(variables);
+        return Collections.unmodifiableMap(variables());
+    }
+
+    /**
+     * Defer variable decoding until the variables are first read or written. Rows loaded only to
+     * show status or token positions never pay for deserializing their variables.
+     */
+    public void deferVariables(Supplier<Map<String, Object>> decoder) {
+        this.pendingVariables = decoder;
+    }
+
+    public boolean isVariablesMaterialized() {
+        return pendingVariables == null;
+    }
+
+    private Map<String, Object> variables() {
+        if (pendingVariables != null) {
+            Map<String, Object> decoded = pendingVariables.get();
+            pendingVariables = null;
+            if (decoded != null) variables.putAll(decoded);
+        }
+        return variables;
     }
 
     public void putAllVariables(Map<String, Object> newVars) {
         if (newVars != null)
-            variables.putAll(newVars);
+            newVars.forEach(this::putVariable);
+    }
+
+    /**
+     * Every write goes through here so the engine can persist only what changed. Re-writing an equal
+     * string, number or boolean is not a change; any other value counts as one, since it may have
+     * been mutated in place. Mutating a value obtained from {@link #getVariables()} without writing
+     * it back is not tracked.
+     */
+    private void putVariable(String key, Object value) {
+        Object previous = variables().put(key, value);
+        if (!(isScalar(value) && value.equals(previous))) {
+            dirtyVariables.add(key);
+        }
+    }
+
+    private static boolean isScalar(Object value) {
+        return value instanceof String || value instanceof Number || value instanceof Boolean;
+    }
+
+    /** Treat every variable as changed, e.g. when moving them out of a legacy storage format. */
+    public void markAllVariablesDirty() {
+        allVariablesDirty = true;
+    }
+
+    /** Returns the variables written since the last call, and resets the tracking. */
+    public Map<String, Object> drainDirtyVariables() {
+        Map<String, Object> changed;
+        if (allVariablesDirty) {
+            changed = new HashMap<>(variables());
+        } else if (dirtyVariables.isEmpty()) {
+            return Map.of();
+        } else {
+            changed = new HashMap<>(dirtyVariables.size());
+            for (String name : dirtyVariables) changed.put(name, variables.get(name));
+        }
+        allVariablesDirty = false;
+        dirtyVariables.clear();
+        return changed;
     }
 
     public boolean isWaitingForUserTask() {
@@ -155,133 +236,149 @@ public class ProcessInstance {
     }
 
     public List<UserTaskPayload> advance(String resumedNodeId) {
-        List<UserTaskPayload> newUserTasks = new ArrayList<>();
-        Queue<String> queue = new LinkedList<>();
+        AdvanceScratch scratch = SCRATCH.get();
+        boolean shared = !scratch.inUse;
+        if (!shared) {
+            // advance() re-entered on this thread, e.g. from a delegate starting another instance
+            scratch = new AdvanceScratch();
+        }
+        scratch.inUse = true;
+        try {
+            return advance(resumedNodeId, scratch);
+        } finally {
+            scratch.reset();
+            if (shared) scratch.inUse = false;
+        }
+    }
+
+    private List<UserTaskPayload> advance(String resumedNodeId, AdvanceScratch scratch) {
+        ExecutionPlan plan = definition.getExecutionPlan();
+        List<UserTaskPayload> newUserTasks = List.of();
+        int resumed = ExecutionPlan.NONE;
 
         if (resumedNodeId != null) {
             activeTokens.remove(resumedNodeId);
-            queue.add(resumedNodeId);
+            resumed = plan.indexOf(resumedNodeId);
+            scratch.push(resumed);
         } else {
-            queue.addAll(activeTokens);
+            for (int i = 0; i < activeTokens.size(); i++) {
+                scratch.push(plan.indexOf(activeTokens.get(i)));
+            }
             activeTokens.clear();
         }
 
-        Set<String> processedInThisRun = new HashSet<>();
-
-        while (!queue.isEmpty()) {
-            String current = queue.poll();
-            String previousPointer = null;
-
-            if (processedInThisRun.contains(current)) {
-                continue;
-            }
+        BitSet processedInThisRun = scratch.visited;
 
+        while (!scratch.isEmpty()) {
+            int current = scratch.poll();
+            int previous = ExecutionPlan.NONE;
             int hops = 0;
-            final int MAX_HOPS = 2048;
 
-            while (current != null && !processedInThisRun.contains(current)) {
+            // Unknown node ids (NONE) have nowhere to go and simply drop the token.
+            while (current != ExecutionPlan.NONE && !processedInThisRun.get(current)) {
                 if (++hops > MAX_HOPS) {
                     throw new IllegalStateException(
                             "advance() exceeded max hops; possible cycle without wait state. pi=" + id);
                 }
 
-                String pointer = current;
-                processedInThisRun.add(pointer);
-
-                ServiceTaskMeta serviceTaskMeta = definition.getServiceTask(pointer);
-                boolean isExternalServiceTask = serviceTaskMeta != null && serviceTaskMeta.topicName() != null;
-                boolean isEmbeddedServiceTask = serviceTaskMeta != null && serviceTaskMeta.className() != null;
-                ScriptTaskMeta scriptTaskMeta = definition.getScriptTask(pointer);
-
-                if (definition.isUserTask(pointer) || definition.isCatchEvent(pointer) || isExternalServiceTask) {
-                    if (Objects.equals(pointer, resumedNodeId)) {
-                        var outgoing = definition.getOutgoing(pointer);
-                        current = outgoing.isEmpty() ? null : outgoing.get(0).getTargetRef();
-                        previousPointer = pointer;
-                    } else {
-                        activeTokens.add(pointer);
-                        if (definition.isUserTask(pointer)) {
-                            TaskMeta ut = definition.getUserTask(pointer);
-                            var resolved = new AssignmentEvaluator().evaluate(ut.getAssignment(), variables);
-                            newUserTasks.add(new UserTaskPayload(ut.getId(), ut.getName(), resolved.assignee(),
-                                    resolved.candidateUsers(), resolved.candidateGroups(), resolved.strategy()));
+                int pointer = current;
+                processedInThisRun.set(pointer);
+                ExecutionPlan.NodeKind kind = plan.kind(pointer);
+
+                switch (kind) {
+                    case USER_TASK, CATCH_EVENT, EXTERNAL_SERVICE_TASK -> {
+                        if (pointer == resumed) {
+                            current = plan.firstTarget(pointer);
+                            previous = pointer;
+                        } else {
+                            activeTokens.add(plan.nodeId(pointer));
+                            if (kind == ExecutionPlan.NodeKind.USER_TASK) {
+                                TaskMeta ut = plan.userTask(pointer);
+                                var resolved = ASSIGNMENT_EVALUATOR.evaluate(ut.getAssignment(), variables());
+                                if (newUserTasks.isEmpty()) newUserTasks = new ArrayList<>(2);
+                                newUserTasks.add(new UserTaskPayload(ut.getId(), ut.getName(), resolved.assignee(),
+                                        resolved.candidateUsers(), resolved.candidateGroups(), resolved.strategy()));
+                            }
+                            current = ExecutionPlan.NONE;
                         }
-                        current = null;
                     }
-                } else if (isEmbeddedServiceTask) {
-                    try {
-                        JavaDelegate delegate = (JavaDelegate) Class.forName(serviceTaskMeta.className())
-                                .getConstructor().newInstance();
-                        delegate.execute(new DelegateExecutionImpl());
-                        previousPointer = pointer;
-                        List<SequenceFlow> outgoing = definition.getOutgoing(pointer);
-                        current = outgoing.isEmpty() ? null : outgoing.get(0).getTargetRef();
-                    } catch (Exception e) {
-                        throw new RuntimeException("Error executing JavaDelegate " + serviceTaskMeta.className(), e);
+                    case SERVICE_TASK -> {
+                        ServiceTaskMeta serviceTaskMeta = plan.serviceTask(pointer);
+                        try {
+                            JavaDelegateResolver resolver = delegateResolver != null ? delegateResolver
+                                    : JavaDelegateResolver.standalone();
+                            JavaDelegate delegate = resolver.resolve(cacheScope(), serviceTaskMeta.className());
+                            if (delegateExecution == null) delegateExecution = new DelegateExecutionImpl();
+                            delegate.execute(delegateExecution);
+                            previous = pointer;
+                            current = plan.firstTarget(pointer);
+                        } catch (Exception e) {
+                            throw new RuntimeException("Error executing JavaDelegate " + serviceTaskMeta.className(), e);
+                        }
                     }
-                } else if (scriptTaskMeta != null) {
-                    executeScript(scriptTaskMeta);
-                    previousPointer = pointer;
-                    List<SequenceFlow> outgoing = definition.getOutgoing(pointer);
-                    current = outgoing.isEmpty() ? null : outgoing.get(0).getTargetRef();
-                } else if (definition.isExclusiveGateway(pointer)) {
-                    GatewaySelector selector = new GatewaySelector();
-                    GatewayMeta gw = definition.getGateways().get(pointer);
-                    List<SequenceFlow> outgoing = definition.getOutgoing(pointer);
-                    String chosenFlowId = selector.chooseOutgoing(gw, outgoing, variables);
-                    previousPointer = pointer;
-                    current = outgoing.stream()
-                            .filter(f -> Objects.equals(f.getId(), chosenFlowId))
-                            .map(SequenceFlow::getTargetRef)
-                            .findFirst()
-                            .orElseThrow(() -> new IllegalStateException("Flow not found: " + chosenFlowId));
-                } else if (definition.isParallelGateway(pointer) && definition.getIncoming(pointer).size() == 1) {
-                    List<SequenceFlow> outgoing = definition.getOutgoing(pointer);
-                    for (SequenceFlow flow : outgoing) {
-                        queue.add(flow.getTargetRef());
+                    case SCRIPT_TASK -> {
+                        executeScript(plan.scriptTask(pointer));
+                        previous = pointer;
+                        current = plan.firstTarget(pointer);
                     }
-                    String joinGatewayId = definition.findJoinGateway(pointer, GatewayMeta.Type.PARALLEL);
-                    if (joinGatewayId != null) {
-                        joinExpectedTokens.put(joinGatewayId, definition.getIncoming(joinGatewayId).size());
-                        joinArrivedTokens.put(joinGatewayId, new HashSet<>());
+                    case EXCLUSIVE_GATEWAY -> {
+                        String chosenFlowId = GATEWAY_SELECTOR.chooseOutgoing(plan.gateway(pointer),
+                                plan.outgoingFlows(pointer), variables());
+                        previous = pointer;
+                        current = plan.targetOfFlow(pointer, chosenFlowId);
+                        if (current == ExecutionPlan.NONE) {
+                            throw new IllegalStateException("Flow not found: " + chosenFlowId);
+                        }
                     }
-                    current = null;
-                } else if (definition.isInclusiveGateway(pointer) && definition.getIncoming(pointer).size() == 1) {
-                    GatewaySelector selector = new GatewaySelector();
-                    GatewayMeta gw = definition.getGateways().get(pointer);
-                    List<SequenceFlow> outgoing = definition.getOutgoing(pointer);
-                    List<String> chosenFlowIds = selector.chooseInclusive(gw, outgoing, variables);
-
-                    for (String flowId : chosenFlowIds) {
-                        queue.add(outgoing.stream().filter(f -> f.getId().equals(flowId)).findFirst().orElseThrow()
-                                .getTargetRef());
+                    case PARALLEL_FORK -> {
+                        for (int target : plan.outgoingTargets(pointer)) {
+                            scratch.push(target);
+                        }
+                        int join = plan.joinOf(pointer);
+                        if (join != ExecutionPlan.NONE) {
+                            joinExpectedTokens.put(plan.nodeId(join), plan.incomingCount(join));
+                            joinArrivedTokens.put(plan.nodeId(join), new HashSet<>());
+                        }
+                        current = ExecutionPlan.NONE;
                     }
-                    String joinGatewayId = definition.findJoinGateway(pointer, GatewayMeta.Type.INCLUSIVE);
-                    if (joinGatewayId != null) {
-                        joinExpectedTokens.put(joinGatewayId, chosenFlowIds.size());
-                        joinArrivedTokens.put(joinGatewayId, new HashSet<>());
+                    case INCLUSIVE_FORK -> {
+                        List<String> chosenFlowIds = GATEWAY_SELECTOR.chooseInclusive(plan.gateway(pointer),
+                                plan.outgoingFlows(pointer), variables());
+
+                        for (String flowId : chosenFlowIds) {
+                            int target = plan.targetOfFlow(pointer, flowId);
+                            if (target == ExecutionPlan.NONE) {
+                                throw new IllegalStateException("Flow not found: " + flowId);
+                            }
+                            scratch.push(target);
+                        }
+                        int join = plan.joinOf(pointer);
+                        if (join != ExecutionPlan.NONE) {
+                            joinExpectedTokens.put(plan.nodeId(join), chosenFlowIds.size());
+                            joinArrivedTokens.put(plan.nodeId(join), new HashSet<>());
+                        }
+                        current = ExecutionPlan.NONE;
                     }
-                    current = null;
-                } else if ((definition.isParallelGateway(pointer) || definition.isInclusiveGateway(pointer))
-                        && definition.getIncoming(pointer).size() > 1) {
-                    int expected = joinExpectedTokens.getOrDefault(pointer, definition.getIncoming(pointer).size());
-                    Set<String> arrived = joinArrivedTokens.computeIfAbsent(pointer, k -> new HashSet<>());
-                    arrived.add(previousPointer);
-
-                    if (arrived.size() >= expected) {
-                        joinArrivedTokens.remove(pointer);
-                        joinExpectedTokens.remove(pointer);
-                        previousPointer = pointer;
-                        current = definition.getOutgoing(pointer).get(0).getTargetRef();
-                    } else {
-                        current = null;
+                    case JOIN -> {
+                        String joinId = plan.nodeId(pointer);
+                        int expected = joinExpectedTokens.getOrDefault(joinId, plan.incomingCount(pointer));
+                        Set<String> arrived = joinArrivedTokens.computeIfAbsent(joinId, k -> new HashSet<>());
+                        arrived.add(previous == ExecutionPlan.NONE ? null : plan.nodeId(previous));
+
+                        if (arrived.size() >= expected) {
+                            joinArrivedTokens.remove(joinId);
+                            joinExpectedTokens.remove(joinId);
+                            previous = pointer;
+                            current = plan.firstTarget(pointer);
+                        } else {
+                            current = ExecutionPlan.NONE;
+                        }
+                    }
+                    case END_EVENT -> current = ExecutionPlan.NONE;
+                    default -> {
+                        previous = pointer;
+                        current = plan.firstTarget(pointer);
                     }
-                } else if (definition.isEndEvent(pointer)) {
-                    current = null;
-                } else {
-                    List<SequenceFlow> outgoing = definition.getOutgoing(pointer);
-                    previousPointer = pointer;
-                    current = outgoing.isEmpty() ? null : outgoing.get(0).getTargetRef();
                 }
             }
         }
@@ -293,24 +390,105 @@ public class ProcessInstance {
         return newUserTasks;
     }
 
+    /**
+     * Runs a script task with the variables bound both directly and as {@code variables}. Bindings
+     * are compared with snapshots taken before the script ran, so variables it merely read are not
+     * persisted again while values it replaced or mutated in place are.
+     */
     private void executeScript(ScriptTaskMeta task) {
-        javax.script.ScriptEngine engine = new javax.script.ScriptEngineManager().getEngineByName("JavaScript");
-        if (engine == null) throw new IllegalStateException("JavaScript engine is unavailable");
-        Map<String, Object> scriptVariables = new HashMap<>(variables);
-        javax.script.Bindings bindings = engine.createBindings();
-        bindings.putAll(scriptVariables);
-        bindings.put("variables", scriptVariables);
+        ScriptEnginePool pool = scriptEnginePool != null ? scriptEnginePool : ScriptEnginePool.standalone();
+        Map<String, Object> passedIn = new HashMap<>(variables());
+        Map<String, Object> snapshots = new HashMap<>();
+        passedIn.forEach((key, value) -> snapshots.put(key, snapshot(value)));
+        Map<String, Object> scriptVariables = new HashMap<>(passedIn);
+        Map<String, Object> values = new HashMap<>(passedIn);
+        values.put("variables", scriptVariables);
         try {
-            engine.eval(task.script(), bindings);
-            variables.putAll(scriptVariables);
+            javax.script.Bindings bindings = pool.evaluate(cacheScope(), task.id(), task.script(), values);
+            scriptVariables.forEach((key, value) -> putIfChanged(snapshots, key, value));
             bindings.forEach((key, value) -> {
-                if (!"variables".equals(key)) variables.put(key, value);
+                if (!"variables".equals(key)) putIfChanged(snapshots, key, value);
             });
         } catch (javax.script.ScriptException ex) {
             throw new IllegalStateException("Script task failed: " + task.id(), ex);
         }
     }
 
+    private void putIfChanged(Map<String, Object> snapshots, String key, Object value) {
+        Object before = snapshots.getOrDefault(key, OPAQUE);
+        if (before == OPAQUE || !Objects.equals(before, value)) {
+            putVariable(key, value);
+        }
+    }
+
+    /**
+     * A deep copy of scalars and of maps and lists built from them, which is what variables decoded
+     * from JSON are. Any other value cannot be compared later and yields {@link #OPAQUE}.
+     */
+    private static Object snapshot(Object value) {
+        if (value == null || isScalar(value)) return value;
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new HashMap<>(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                Object item = snapshot(entry.getValue());
+                if (item == OPAQUE) return OPAQUE;
+                copy.put(entry.getKey(), item);
+            }
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                Object item = snapshot(element);
+                if (item == OPAQUE) return OPAQUE;
+                copy.add(item);
+            }
+            return copy;
+        }
+        return OPAQUE;
+    }
+
+    /** Key under which per-deployment compiled artifacts (scripts, delegates) are cached. */
+    private String cacheScope() {
+        return processDefinitionDeploymentId != null ? processDefinitionDeploymentId : definition.getId();
+    }
+
+    /** FIFO work queue and visited set for one advance() call, kept per thread and reused. */
+    private static final class AdvanceScratch {
+        private final BitSet visited = new BitSet();
+        private int[] queue = new int[16];
+        private int head;
+        private int tail;
+        private boolean inUse;
+
+        void push(int node) {
+            if (tail == queue.length) {
+                if (head > 0) {
+                    System.arraycopy(queue, head, queue, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                } else {
+                    queue = Arrays.copyOf(queue, queue.length * 2);
+                }
+            }
+            queue[tail++] = node;
+        }
+
+        int poll() {
+            return queue[head++];
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        void reset() {
+            head = 0;
+            tail = 0;
+            visited.clear();
+        }
+    }
+
     private class DelegateExecutionImpl implements DelegateExecution {
         @Override
         public String getProcessInstanceId() {
@@ -319,17 +497,17 @@ public class ProcessInstance {
 
         @Override
         public Map<String, Object> getVariables() {
-            return Collections.unmodifiableMap(ProcessInstance.this.variables);
+            return Collections.unmodifiableMap(ProcessInstance.this.variables());
         }
 
         @Override
         public Object getVariable(String name) {
-            return ProcessInstance.this.variables.get(name);
+            return ProcessInstance.this.variables().get(name);
         }
 
         @Override
         public void setVariable(String name, Object value) {
-            ProcessInstance.this.variables.put(name, value);
+            ProcessInstance.this.putVariable(name, value);
         }
     }
 }
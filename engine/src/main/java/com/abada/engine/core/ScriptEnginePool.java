@@ -0,0 +1,173 @@
+package com.abada.engine.core;
+
+import com.abada.engine.observability.EngineMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of JavaScript engines for script tasks. Engines are created lazily up to the pool
+ * size and reused; each keeps its own cache of {@link CompiledScript}s keyed by deployment and
+ * script task id, so a script is compiled once per engine rather than parsed on every execution.
+ * Every evaluation gets fresh {@link Bindings}, which keeps instances isolated from each other.
+ */
+@Component
+public class ScriptEnginePool {
+
+    private static final String ENGINE_NAME = "JavaScript";
+    private static final ScriptEngineManager MANAGER = new ScriptEngineManager();
+
+    private final EngineMetrics engineMetrics;
+    private final int maxEngines;
+    private final int compiledCacheSize;
+    private final long acquireTimeoutMs;
+    private final BlockingQueue<PooledEngine> idle;
+    private final AtomicInteger created = new AtomicInteger();
+    private volatile int generation;
+
+    @Autowired
+    public ScriptEnginePool(EngineMetrics engineMetrics,
+            @Value("${abada.scripts.pool-size:0}") int poolSize,
+            @Value("${abada.scripts.compiled-cache-size:256}") int compiledCacheSize,
+            @Value("${abada.scripts.acquire-timeout-ms:30000}") long acquireTimeoutMs) {
+        this.engineMetrics = engineMetrics;
+        this.maxEngines = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.compiledCacheSize = Math.max(1, compiledCacheSize);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.idle = new ArrayBlockingQueue<>(maxEngines);
+    }
+
+    /** Shared pool used by instances that were not wired by the engine, e.g. in unit tests. */
+    static ScriptEnginePool standalone() {
+        return Standalone.INSTANCE;
+    }
+
+    /**
+     * Evaluate a script task. The compiled form is looked up by {@code (deploymentId, activityId)}
+     * and recompiled only when the source differs from what was cached under that key.
+     *
+     * @param values initial binding values for this evaluation
+     * @return the bindings after evaluation, for copying results back into process variables
+     */
+    public Bindings evaluate(String deploymentId, String activityId, String script, Map<String, Object> values)
+            throws ScriptException {
+        PooledEngine pooled = borrow();
+        Timer.Sample sample = engineMetrics.startScriptEvaluationTimer();
+        try {
+            Bindings bindings = pooled.engine.createBindings();
+            bindings.putAll(values);
+            CompiledScript compiled = pooled.compiled(new ScriptKey(deploymentId, activityId), script);
+            if (compiled != null) {
+                compiled.eval(bindings);
+            } else {
+                pooled.engine.eval(script, bindings);
+            }
+            return bindings;
+        } finally {
+            engineMetrics.recordScriptEvaluation(sample);
+            release(pooled);
+        }
+    }
+
+    /** Drop every compiled script, e.g. after the definition cache has been cleared. */
+    public void invalidate() {
+        generation++;
+    }
+
+    private PooledEngine borrow() {
+        PooledEngine pooled = idle.poll();
+        if (pooled == null) {
+            if (created.incrementAndGet() <= maxEngines) {
+                try {
+                    pooled = new PooledEngine();
+                } catch (RuntimeException ex) {
+                    created.decrementAndGet();
+                    throw ex;
+                }
+            } else {
+                created.decrementAndGet();
+                pooled = awaitIdle();
+            }
+        }
+        if (pooled.generation != generation) {
+            pooled.cache.clear();
+            pooled.generation = generation;
+        }
+        return pooled;
+    }
+
+    private PooledEngine awaitIdle() {
+        try {
+            PooledEngine pooled = idle.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            if (pooled == null) {
+                throw new IllegalStateException("Timed out waiting for a script engine after " + acquireTimeoutMs + " ms");
+            }
+            return pooled;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a script engine", ex);
+        }
+    }
+
+    private void release(PooledEngine pooled) {
+        if (!idle.offer(pooled)) {
+            created.decrementAndGet();
+        }
+    }
+
+    private record ScriptKey(String deploymentId, String activityId) {}
+
+    private record CompiledEntry(String source, CompiledScript script) {}
+
+    /** Confined to the borrowing thread, so the compiled cache needs no synchronization. */
+    private final class PooledEngine {
+        private final ScriptEngine engine;
+        private final Compilable compiler;
+        private final Map<ScriptKey, CompiledEntry> cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ScriptKey, CompiledEntry> eldest) {
+                return size() > compiledCacheSize;
+            }
+        };
+        private int generation = ScriptEnginePool.this.generation;
+
+        private PooledEngine() {
+            this.engine = MANAGER.getEngineByName(ENGINE_NAME);
+            if (engine == null) throw new IllegalStateException("JavaScript engine is unavailable");
+            this.compiler = engine instanceof Compilable compilable ? compilable : null;
+        }
+
+        private CompiledScript compiled(ScriptKey key, String source) throws ScriptException {
+            if (compiler == null) return null;
+            CompiledEntry entry = cache.get(key);
+            if (entry != null && (entry.source() == source || entry.source().equals(source))) {
+                engineMetrics.recordScriptCompileCache(true);
+                return entry.script();
+            }
+            engineMetrics.recordScriptCompileCache(false);
+            CompiledScript script = compiler.compile(source);
+            cache.put(key, new CompiledEntry(source, script));
+            return script;
+        }
+    }
+
+    private static final class Standalone {
+        private static final ScriptEnginePool INSTANCE =
+                new ScriptEnginePool(new EngineMetrics(new SimpleMeterRegistry()), 0, 256, 30_000);
+    }
+}
@@ -1,37 +1,107 @@
 package com.abada.engine.core;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * Publishes lifecycle events in-process and POSTs them to {@code abada.outbox.webhook-urls}. With
+ * {@code abada.execution.virtual-threads} the webhooks of one event are posted concurrently, each on
+ * its own virtual thread, and the HTTP client runs on virtual threads too; otherwise they are posted
+ * one after the other on the dispatcher thread. Either way every target is attempted before a failure
+ * is reported, and the outbox retries the whole event.
+ */
 @Component
 public class SpringLifecycleEventPublisher implements LifecycleEventPublisher {
     private final ApplicationEventPublisher publisher;
     private final RestClient restClient;
     private final List<String> webhookUrls;
+    private final ExecutorService deliveries;
+    private final TaskDecorator contextPropagation;
 
-    public SpringLifecycleEventPublisher(ApplicationEventPublisher publisher,
-            @Value("${abada.outbox.webhook-urls:}") String webhookUrls) {
+    public SpringLifecycleEventPublisher(ApplicationEventPublisher publisher, RestClient.Builder restClient,
+            TaskDecorator contextPropagation,
+            @Value("${abada.outbox.webhook-urls:}") String webhookUrls,
+            @Value("${abada.execution.virtual-threads:false}") boolean virtualThreads) {
         this.publisher = publisher;
-        this.restClient = RestClient.create();
+        this.contextPropagation = contextPropagation;
         this.webhookUrls = Arrays.stream(webhookUrls.split(","))
                 .map(String::trim).filter(value -> !value.isEmpty()).toList();
+        if (virtualThreads) {
+            this.deliveries = Executors.newVirtualThreadPerTaskExecutor();
+            restClient.requestFactory(new JdkClientHttpRequestFactory(
+                    HttpClient.newBuilder().executor(deliveries).build()));
+        } else {
+            this.deliveries = null;
+        }
+        this.restClient = restClient.build();
     }
 
     @Override
     public void publish(PublishedLifecycleEvent event) {
         publisher.publishEvent(event);
+        if (deliveries == null || webhookUrls.size() < 2) {
+            RuntimeException failure = null;
+            for (String webhookUrl : webhookUrls) {
+                try {
+                    post(webhookUrl, event);
+                } catch (RuntimeException exception) {
+                    failure = suppress(failure, exception);
+                }
+            }
+            if (failure != null) throw failure;
+            return;
+        }
+        List<Future<?>> posts = new ArrayList<>(webhookUrls.size());
         for (String webhookUrl : webhookUrls) {
-            restClient.post()
-                    .uri(webhookUrl)
-                    .header("X-Abada-Event-Id", event.id())
-                    .body(event)
-                    .retrieve()
-                    .toBodilessEntity();
+            posts.add(deliveries.submit(contextPropagation.decorate(() -> post(webhookUrl, event))));
+        }
+        RuntimeException failure = null;
+        for (Future<?> post : posts) {
+            try {
+                post.get();
+            } catch (ExecutionException exception) {
+                failure = suppress(failure, exception.getCause() instanceof RuntimeException runtime
+                        ? runtime : new IllegalStateException(exception.getCause()));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                posts.forEach(pending -> pending.cancel(true));
+                throw new IllegalStateException("Interrupted while delivering lifecycle event " + event.id(), exception);
+            }
         }
+        if (failure != null) throw failure;
+    }
+
+    @PreDestroy
+    void close() {
+        if (deliveries != null) deliveries.shutdownNow();
+    }
+
+    private void post(String webhookUrl, PublishedLifecycleEvent event) {
+        restClient.post()
+                .uri(webhookUrl)
+                .header("X-Abada-Event-Id", event.id())
+                .body(event)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    private static RuntimeException suppress(RuntimeException first, RuntimeException next) {
+        if (first == null) return next;
+        first.addSuppressed(next);
+        return first;
     }
 }
@@ -2,10 +2,13 @@ package com.abada.engine.core;
 
 import com.abada.engine.persistence.entity.JobEntity;
 import com.abada.engine.persistence.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Lazy;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Map;
 import java.util.List;
 
@@ -14,24 +17,35 @@ public class TimerJobCommandService {
     private final JobRepository repository;
     private final AbadaEngine engine;
     private final ActivityHistoryService history;
+    private final Duration leaseDuration;
 
-    public TimerJobCommandService(JobRepository repository, @Lazy AbadaEngine engine, ActivityHistoryService history) {
+    public TimerJobCommandService(JobRepository repository, @Lazy AbadaEngine engine, ActivityHistoryService history,
+            @Value("${abada.jobs.lease-ms:120000}") long leaseMillis) {
+        if (leaseMillis < 1) {
+            throw new IllegalStateException("abada.jobs.lease-ms must be positive");
+        }
         this.repository = repository;
         this.engine = engine;
         this.history = history;
+        this.leaseDuration = Duration.ofMillis(leaseMillis);
+    }
+
+    /** How long a claimed job stays leased to its node before another may claim it. */
+    public Duration leaseDuration() {
+        return leaseDuration;
     }
 
     /** Executes one timer and its workflow advancement in a single transaction. */
     @AtomicRuntimeCommand
     public List<JobEntity> claimDue(String leaseOwner, Instant now, int batchSize) {
-        List<JobEntity> jobs = repository.findClaimableForUpdate(now, batchSize);
-        for (JobEntity job : jobs) {
-            job.setStatus(JobEntity.Status.LEASED);
-            job.setLeaseOwner(leaseOwner);
-            job.setLeaseExpiresAt(now.plusSeconds(120));
-            job.setAttempts(job.getAttempts() + 1);
-        }
-        return repository.saveAll(jobs);
+        return lease(repository.findClaimableForUpdate(now, batchSize), leaseOwner, now);
+    }
+
+    /** Leases those of the given jobs that are still claimable; the others are skipped. */
+    @AtomicRuntimeCommand
+    public List<JobEntity> claim(Collection<String> jobIds, String leaseOwner, Instant now) {
+        if (jobIds.isEmpty()) return List.of();
+        return lease(repository.findClaimableByIdForUpdate(jobIds, now), leaseOwner, now);
     }
 
     /** Executes one already-leased timer and its workflow advancement atomically. */
@@ -53,6 +67,20 @@ public class TimerJobCommandService {
         return true;
     }
 
+    /** Hands back a lease that expired before its job could start, without counting the attempt. */
+    @AtomicRuntimeCommand
+    public void release(String jobId, String leaseOwner) {
+        JobEntity job = repository.findByIdForUpdate(jobId).orElse(null);
+        if (job == null || job.getStatus() != JobEntity.Status.LEASED
+                || !leaseOwner.equals(job.getLeaseOwner())) return;
+
+        job.setStatus(JobEntity.Status.AVAILABLE);
+        job.setLeaseOwner(null);
+        job.setLeaseExpiresAt(null);
+        job.setAttempts(Math.max(0, job.getAttempts() - 1));
+        repository.save(job);
+    }
+
     /** Records retry state only after execute() has rolled its transaction back. */
     @AtomicRuntimeCommand
     public void recordFailure(String jobId, String error) {
@@ -70,4 +98,13 @@ public class TimerJobCommandService {
                 Map.of("jobId", jobId, "attempts", job.getAttempts(), "error", error == null ? "" : error));
     }
 
+    private List<JobEntity> lease(List<JobEntity> jobs, String leaseOwner, Instant now) {
+        for (JobEntity job : jobs) {
+            job.setStatus(JobEntity.Status.LEASED);
+            job.setLeaseOwner(leaseOwner);
+            job.setLeaseExpiresAt(now.plus(leaseDuration));
+            job.setAttempts(job.getAttempts() + 1);
+        }
+        return repository.saveAll(jobs);
+    }
 }
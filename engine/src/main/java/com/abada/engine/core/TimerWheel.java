@@ -0,0 +1,85 @@
+package com.abada.engine.core;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel of timer job ids due within the next {@code lookahead}. Each slot covers one
+ * tick; a job sits in the slot of its due tick and is handed out by the first {@link #advance} that
+ * reaches that tick. Jobs due later than the lookahead, or beyond the capacity, are refused and left
+ * to the database poll. The wheel is only a hint: firing a job still claims it through the database.
+ */
+final class TimerWheel {
+
+    private final long tickMillis;
+    private final long lookaheadMillis;
+    private final int capacity;
+    private final List<Map<String, Long>> slots;
+    private final Map<String, Long> dueTicks = new HashMap<>();
+    private long lastTick;
+
+    TimerWheel(long tickMillis, long lookaheadMillis, int capacity, Instant start) {
+        if (tickMillis < 1 || lookaheadMillis < tickMillis || capacity < 1) {
+            throw new IllegalStateException("Timer wheel needs a positive tick, a lookahead of at least one tick "
+                    + "and a positive capacity");
+        }
+        this.tickMillis = tickMillis;
+        this.lookaheadMillis = lookaheadMillis;
+        this.capacity = capacity;
+        int size = (int) (lookaheadMillis / tickMillis) + 2;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) slots.add(new HashMap<>());
+        this.lastTick = tick(start);
+    }
+
+    /**
+     * Adds a job due at {@code due}. It fires on the first advance at or after {@code due}, never
+     * before, and one that is already due fires on the next advance. Returns
+     * {@code false} when the job is outside the lookahead or the wheel is full.
+     */
+    synchronized boolean add(String jobId, Instant due, Instant now) {
+        if (dueTicks.containsKey(jobId)) return true;
+        if (dueTicks.size() >= capacity || due.toEpochMilli() > now.toEpochMilli() + lookaheadMillis) return false;
+        long dueTick = Math.max(Math.ceilDiv(due.toEpochMilli(), tickMillis), lastTick + 1);
+        dueTicks.put(jobId, dueTick);
+        slots.get(slot(dueTick)).put(jobId, dueTick);
+        return true;
+    }
+
+    /** Removes and returns the jobs whose tick has been reached by {@code now}. */
+    synchronized List<String> advance(Instant now) {
+        long nowTick = tick(now);
+        if (nowTick <= lastTick) return List.of();
+        List<String> due = new ArrayList<>();
+        long from = Math.max(lastTick + 1, nowTick - slots.size() + 1);
+        for (long tick = from; tick <= nowTick; tick++) {
+            Iterator<Map.Entry<String, Long>> entries = slots.get(slot(tick)).entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, Long> entry = entries.next();
+                if (entry.getValue() <= nowTick) {
+                    entries.remove();
+                    dueTicks.remove(entry.getKey());
+                    due.add(entry.getKey());
+                }
+            }
+        }
+        lastTick = nowTick;
+        return due;
+    }
+
+    synchronized int size() {
+        return dueTicks.size();
+    }
+
+    private long tick(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), tickMillis);
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+}
@@ -2,6 +2,8 @@ package com.abada.engine.core.assignment;
 
 import com.abada.engine.core.exception.ProcessEngineException;
 import com.abada.engine.core.model.assignment.*;
+import com.abada.engine.util.el.ElException;
+import com.abada.engine.util.el.UnsupportedElException;
 
 import java.util.*;
 
@@ -23,7 +25,7 @@ public final class AssignmentEvaluator {
 
     private List<String> resolve(ProcessExpression expression, Map<String, Object> variables) {
         Object value = expression instanceof LiteralExpression literal ? literal.source()
-                : lookup(((DynamicExpression) expression).source(), variables);
+                : evaluate((DynamicExpression) expression, variables);
         if (value == null) return List.of();
         Collection<?> values = value instanceof Collection<?> collection ? collection : List.of(value);
         LinkedHashSet<String> normalized = new LinkedHashSet<>();
@@ -32,6 +34,19 @@ public final class AssignmentEvaluator {
         return List.copyOf(normalized);
     }
 
+    private Object evaluate(DynamicExpression expression, Map<String, Object> variables) {
+        if (expression.expression() == null) return lookup(expression.source(), variables);
+        try {
+            return expression.expression().evaluate(variables);
+        } catch (UnsupportedElException unsupported) {
+            return lookup(expression.source(), variables);
+        } catch (ElException exception) {
+            throw new ProcessEngineException("Assignment expression " + expression.source() + " failed: "
+                    + exception.getMessage(), exception);
+        }
+    }
+
+    /** Dotted path over nested maps, for expressions the EL subset does not cover. */
     private Object lookup(String source, Map<String, Object> variables) {
         String path = source.substring(2, source.length() - 1).trim();
         Object current = variables;
@@ -0,0 +1,202 @@
+package com.abada.engine.core.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable, index-based view of a {@link ParsedProcessDefinition} for the advance loop. Every
+ * node gets a dense integer id; its kind, outgoing targets, incoming count, metadata and, for forks,
+ * the matching join are resolved once at compile time so that walking a token is array access
+ * rather than repeated string-keyed lookups and graph searches.
+ *
+ * <p>Arrays and lists returned by accessors are shared and must not be modified.
+ */
+public final class ExecutionPlan {
+
+    /** What the advance loop does when a token reaches a node. */
+    public enum NodeKind {
+        USER_TASK,
+        CATCH_EVENT,
+        EXTERNAL_SERVICE_TASK,
+        SERVICE_TASK,
+        SCRIPT_TASK,
+        EXCLUSIVE_GATEWAY,
+        PARALLEL_FORK,
+        INCLUSIVE_FORK,
+        /** Parallel or inclusive gateway with more than one incoming flow. */
+        JOIN,
+        END_EVENT,
+        /** Start events, plain tasks and anything else the token simply passes through. */
+        PASS_THROUGH;
+
+        public boolean isWaitState() {
+            return this == USER_TASK || this == CATCH_EVENT || this == EXTERNAL_SERVICE_TASK;
+        }
+    }
+
+    public static final int NONE = -1;
+
+    private static final int[] NO_TARGETS = new int[0];
+
+    private final String[] nodeIds;
+    private final Map<String, Integer> indexById;
+    private final NodeKind[] kinds;
+    private final int[][] outgoingTargets;
+    private final List<List<SequenceFlow>> outgoingFlows;
+    private final int[] incomingCounts;
+    private final int[] joinByFork;
+    private final TaskMeta[] userTasks;
+    private final ServiceTaskMeta[] serviceTasks;
+    private final ScriptTaskMeta[] scriptTasks;
+    private final GatewayMeta[] gateways;
+
+    private ExecutionPlan(String[] nodeIds) {
+        int size = nodeIds.length;
+        this.nodeIds = nodeIds;
+        this.indexById = new HashMap<>(size * 2);
+        this.kinds = new NodeKind[size];
+        this.outgoingTargets = new int[size][];
+        this.outgoingFlows = new ArrayList<>(size);
+        this.incomingCounts = new int[size];
+        this.joinByFork = new int[size];
+        this.userTasks = new TaskMeta[size];
+        this.serviceTasks = new ServiceTaskMeta[size];
+        this.scriptTasks = new ScriptTaskMeta[size];
+        this.gateways = new GatewayMeta[size];
+        for (int i = 0; i < size; i++) indexById.put(nodeIds[i], i);
+    }
+
+    static ExecutionPlan compile(ParsedProcessDefinition definition) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (definition.getStartEventId() != null) ids.add(definition.getStartEventId());
+        for (SequenceFlow flow : definition.getSequenceFlows()) {
+            ids.add(flow.getSourceRef());
+            ids.add(flow.getTargetRef());
+        }
+        Set<String> unconnected = new TreeSet<>(definition.getAllNodeIds());
+        unconnected.removeAll(ids);
+        ids.addAll(unconnected);
+
+        ExecutionPlan plan = new ExecutionPlan(ids.toArray(String[]::new));
+        for (int i = 0; i < plan.nodeIds.length; i++) {
+            String id = plan.nodeIds[i];
+            List<SequenceFlow> outgoing = definition.getOutgoing(id);
+            int[] targets = outgoing.isEmpty() ? NO_TARGETS : new int[outgoing.size()];
+            for (int f = 0; f < targets.length; f++) targets[f] = plan.indexById.get(outgoing.get(f).getTargetRef());
+            plan.outgoingTargets[i] = targets;
+            plan.outgoingFlows.add(outgoing);
+            plan.incomingCounts[i] = definition.getIncoming(id).size();
+            plan.userTasks[i] = definition.getUserTask(id);
+            plan.serviceTasks[i] = definition.getServiceTask(id);
+            plan.scriptTasks[i] = definition.getScriptTask(id);
+            plan.gateways[i] = definition.getGateways().get(id);
+            plan.kinds[i] = plan.classify(definition, i);
+        }
+        Arrays.fill(plan.joinByFork, NONE);
+        for (int i = 0; i < plan.nodeIds.length; i++) {
+            GatewayMeta.Type forkType = switch (plan.kinds[i]) {
+                case PARALLEL_FORK -> GatewayMeta.Type.PARALLEL;
+                case INCLUSIVE_FORK -> GatewayMeta.Type.INCLUSIVE;
+                default -> null;
+            };
+            if (forkType != null) {
+                String join = definition.findJoinGateway(plan.nodeIds[i], forkType);
+                if (join != null) plan.joinByFork[i] = plan.indexById.get(join);
+            }
+        }
+        return plan;
+    }
+
+    /** Mirrors the precedence the advance loop has always applied to a node. */
+    private NodeKind classify(ParsedProcessDefinition definition, int index) {
+        String id = nodeIds[index];
+        ServiceTaskMeta serviceTask = serviceTasks[index];
+        GatewayMeta gateway = gateways[index];
+        GatewayMeta.Type gatewayType = gateway != null ? gateway.type() : null;
+        int incoming = incomingCounts[index];
+
+        if (userTasks[index] != null) return NodeKind.USER_TASK;
+        if (definition.isCatchEvent(id)) return NodeKind.CATCH_EVENT;
+        if (serviceTask != null && serviceTask.topicName() != null) return NodeKind.EXTERNAL_SERVICE_TASK;
+        if (serviceTask != null && serviceTask.className() != null) return NodeKind.SERVICE_TASK;
+        if (scriptTasks[index] != null) return NodeKind.SCRIPT_TASK;
+        if (gatewayType == GatewayMeta.Type.EXCLUSIVE) return NodeKind.EXCLUSIVE_GATEWAY;
+        if (gatewayType == GatewayMeta.Type.PARALLEL && incoming == 1) return NodeKind.PARALLEL_FORK;
+        if (gatewayType == GatewayMeta.Type.INCLUSIVE && incoming == 1) return NodeKind.INCLUSIVE_FORK;
+        if (gatewayType != null && incoming > 1) return NodeKind.JOIN;
+        if (definition.isEndEvent(id)) return NodeKind.END_EVENT;
+        return NodeKind.PASS_THROUGH;
+    }
+
+    public int size() {
+        return nodeIds.length;
+    }
+
+    /** @return the node index, or {@link #NONE} when the id is not part of the process */
+    public int indexOf(String nodeId) {
+        Integer index = nodeId == null ? null : indexById.get(nodeId);
+        return index == null ? NONE : index;
+    }
+
+    public String nodeId(int index) {
+        return nodeIds[index];
+    }
+
+    public NodeKind kind(int index) {
+        return kinds[index];
+    }
+
+    public int[] outgoingTargets(int index) {
+        return outgoingTargets[index];
+    }
+
+    /** @return the target of the first outgoing flow, or {@link #NONE} */
+    public int firstTarget(int index) {
+        int[] targets = outgoingTargets[index];
+        return targets.length == 0 ? NONE : targets[0];
+    }
+
+    public List<SequenceFlow> outgoingFlows(int index) {
+        return outgoingFlows.get(index);
+    }
+
+    /** @return the target of the outgoing flow with {@code flowId}, or {@link #NONE} */
+    public int targetOfFlow(int index, String flowId) {
+        List<SequenceFlow> flows = outgoingFlows.get(index);
+        for (int f = 0; f < flows.size(); f++) {
+            if (flows.get(f).getId().equals(flowId)) return outgoingTargets[index][f];
+        }
+        return NONE;
+    }
+
+    public int incomingCount(int index) {
+        return incomingCounts[index];
+    }
+
+    /** @return the join gateway a fork's branches converge on, or {@link #NONE} */
+    public int joinOf(int forkIndex) {
+        return joinByFork[forkIndex];
+    }
+
+    public TaskMeta userTask(int index) {
+        return userTasks[index];
+    }
+
+    public ServiceTaskMeta serviceTask(int index) {
+        return serviceTasks[index];
+    }
+
+    public ScriptTaskMeta scriptTask(int index) {
+        return scriptTasks[index];
+    }
+
+    public GatewayMeta gateway(int index) {
+        return gateways[index];
+    }
+}
@@ -1,11 +1,17 @@
 package com.abada.engine.core.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
 import java.io.Serializable;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class ParsedProcessDefinition implements Serializable {
 
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private final String id;
     private final String name;
     private final String documentation;
@@ -24,6 +30,7 @@ public class ParsedProcessDefinition implements Serializable {
     private final Map<String, List<SequenceFlow>> incomingByTarget = new HashMap<>();
 
     private final Map<String, List<String>> flowGraph = new HashMap<>();
+    private transient volatile ExecutionPlan executionPlan;
 
     public List<SequenceFlow> getOutgoing(String sourceId) {
         return outgoingBySource.getOrDefault(sourceId, List.of());
@@ -76,6 +83,25 @@ public class ParsedProcessDefinition implements Serializable {
         this.candidateStarterUsers = candidateStarterUsers != null ? Collections.unmodifiableList(candidateStarterUsers)
                 : List.of();
         buildFlowGraph();
+        this.executionPlan = ExecutionPlan.compile(this);
+    }
+
+    /** The index-based plan the advance loop walks; compiled once per definition. */
+    public ExecutionPlan getExecutionPlan() {
+        ExecutionPlan plan = executionPlan;
+        if (plan == null) {
+            plan = ExecutionPlan.compile(this);
+            executionPlan = plan;
+        }
+        return plan;
+    }
+
+    /** Compile conditions and the plan on load, as the constructor does, rather than on first use. */
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        sequenceFlows.forEach(SequenceFlow::getCompiledCondition);
+        this.executionPlan = ExecutionPlan.compile(this);
     }
 
     private void buildFlowGraph() {
@@ -83,6 +109,7 @@ public class ParsedProcessDefinition implements Serializable {
             flowGraph.computeIfAbsent(flow.getSourceRef(), k -> new ArrayList<>()).add(flow.getTargetRef());
             outgoingBySource.computeIfAbsent(flow.getSourceRef(), k -> new ArrayList<>()).add(flow);
             incomingByTarget.computeIfAbsent(flow.getTargetRef(), k -> new ArrayList<>()).add(flow);
+            flow.getCompiledCondition(); // compile once per deployment, not per gateway hit
         }
         flowGraph.replaceAll((key, value) -> List.copyOf(value));
         outgoingBySource.replaceAll((key, value) -> List.copyOf(value));
@@ -158,6 +185,13 @@ public class ParsedProcessDefinition implements Serializable {
         return rawXml;
     }
 
+    /** Copy without the source XML, for long-lived caches; {@link #getRawXml()} returns null on it. */
+    public ParsedProcessDefinition withoutRawXml() {
+        return new ParsedProcessDefinition(id, name, documentation, startEventId, userTasks, serviceTasks,
+                scriptTasks, sequenceFlows, gateways, events, endEvents, null, candidateStarterGroups,
+                candidateStarterUsers);
+    }
+
     public TaskMeta getUserTask(String taskId) {
         return userTasks.get(taskId);
     }
@@ -198,6 +232,15 @@ public class ParsedProcessDefinition implements Serializable {
         return ids;
     }
 
+    Set<String> getAllNodeIds() {
+        Set<String> ids = getAllActivityIds();
+        if (startEventId != null) ids.add(startEventId);
+        ids.addAll(gateways.keySet());
+        ids.addAll(events.keySet());
+        ids.addAll(endEvents.keySet());
+        return ids;
+    }
+
     public boolean isUserTask(String id) {
         return userTasks.containsKey(id);
     }
@@ -1,3 +1,5 @@
 package com.abada.engine.core.model;
 
-public record ScriptTaskMeta(String id, String name, String format, String script) {}
+import java.io.Serializable;
+
+public record ScriptTaskMeta(String id, String name, String format, String script) implements Serializable {}
@@ -1,8 +1,15 @@
 package com.abada.engine.core.model;
 
+import com.abada.engine.util.CompiledCondition;
+import com.abada.engine.util.ConditionCompiler;
+
+import java.io.Serial;
 import java.io.Serializable;
 
 public class SequenceFlow implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private final String id;
     private final String sourceRef;
     private final String targetRef;
@@ -10,6 +17,7 @@ public class SequenceFlow implements Serializable {
     private final String conditionExpression;
     private final boolean isDefault;
     private String language; // (optional: to support expression languages like groovy, js, etc.)
+    private transient volatile CompiledCondition compiledCondition;
 
 
     public SequenceFlow(String id, String sourceRef, String targetRef,
@@ -46,6 +54,19 @@ public class SequenceFlow implements Serializable {
         return conditionExpression;
     }
 
+    /**
+     * The condition compiled once for this flow. Definitions compile eagerly at deploy/load time,
+     * so gateway evaluation never re-parses the expression.
+     */
+    public CompiledCondition getCompiledCondition() {
+        CompiledCondition compiled = compiledCondition;
+        if (compiled == null) {
+            compiled = ConditionCompiler.compile(conditionExpression);
+            compiledCondition = compiled;
+        }
+        return compiled;
+    }
+
     public String getLanguage() {
         return language;
     }
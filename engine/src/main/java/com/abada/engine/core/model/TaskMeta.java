@@ -1,11 +1,15 @@
 package com.abada.engine.core.model;
 
+import java.io.Serial;
 import java.io.Serializable;
 import java.util.List;
 import com.abada.engine.core.model.assignment.ProcessExpression;
 import com.abada.engine.core.model.assignment.UserTaskAssignment;
 
 public class TaskMeta implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private String id;
     private String name;
     private UserTaskAssignment assignment = UserTaskAssignment.EMPTY;
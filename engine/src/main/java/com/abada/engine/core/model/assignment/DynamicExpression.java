@@ -1,12 +1,31 @@
 package com.abada.engine.core.model.assignment;
 
+import com.abada.engine.util.el.ElException;
+import com.abada.engine.util.el.ElExpression;
+
 import java.util.Objects;
 
-public record DynamicExpression(String source) implements ProcessExpression {
+/**
+ * A {@code ${...}} expression, compiled once when the definition is parsed. {@code expression} is
+ * null when the source is outside the EL subset; it then resolves as a dotted variable path, as
+ * assignments always have, so such definitions keep deploying and loading.
+ */
+public record DynamicExpression(String source, ElExpression expression) implements ProcessExpression {
     public DynamicExpression {
         source = Objects.requireNonNull(source, "source").trim();
         if (!source.startsWith("${") || !source.endsWith("}") || source.substring(2, source.length() - 1).isBlank()) {
             throw new IllegalArgumentException("Dynamic assignment expression must use non-empty ${...} syntax");
         }
+        if (expression == null) {
+            try {
+                expression = ElExpression.compile(source);
+            } catch (ElException unsupported) {
+                expression = null;
+            }
+        }
+    }
+
+    public DynamicExpression(String source) {
+        this(source, null);
     }
 }
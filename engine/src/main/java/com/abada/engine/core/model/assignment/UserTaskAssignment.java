@@ -1,5 +1,6 @@
 package com.abada.engine.core.model.assignment;
 
+import java.io.Serial;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Optional;
@@ -20,4 +21,18 @@ public record UserTaskAssignment(
         candidateGroups = candidateGroups == null ? List.of() : List.copyOf(candidateGroups);
         strategy = strategy == null ? AssignmentStrategy.CLAIM : strategy;
     }
+
+    /** {@link Optional} is not serializable, so the assignee travels as a nullable field. */
+    @Serial
+    private Object writeReplace() {
+        return new SerializedForm(assignee.orElse(null), candidateUsers, candidateGroups, strategy);
+    }
+
+    private record SerializedForm(ProcessExpression assignee, List<ProcessExpression> candidateUsers,
+            List<ProcessExpression> candidateGroups, AssignmentStrategy strategy) implements Serializable {
+        @Serial
+        private Object readResolve() {
+            return new UserTaskAssignment(Optional.ofNullable(assignee), candidateUsers, candidateGroups, strategy);
+        }
+    }
 }
@@ -0,0 +1,21 @@
+package com.abada.engine.dto;
+
+import com.abada.engine.core.DeploymentOutcome;
+
+import java.util.List;
+
+public record BulkDeploymentResponse(
+        int deployed,
+        int unchanged,
+        int failed,
+        List<DeploymentOutcome> files) {
+
+    public static BulkDeploymentResponse of(List<DeploymentOutcome> files) {
+        return new BulkDeploymentResponse(count(files, DeploymentOutcome.Status.DEPLOYED),
+                count(files, DeploymentOutcome.Status.UNCHANGED), count(files, DeploymentOutcome.Status.FAILED), files);
+    }
+
+    private static int count(List<DeploymentOutcome> files, DeploymentOutcome.Status status) {
+        return (int) files.stream().filter(file -> file.status() == status).count();
+    }
+}
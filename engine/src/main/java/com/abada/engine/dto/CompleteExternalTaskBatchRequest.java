@@ -0,0 +1,27 @@
+package com.abada.engine.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Completes several external tasks locked by one worker. Each item may carry its own
+ * {@code idempotencyKey}, which behaves exactly as the {@code Idempotency-Key} header of a single
+ * completion with the same task, worker and variables.
+ */
+public record CompleteExternalTaskBatchRequest(String workerId, List<Item> tasks) {
+
+    public List<Item> effectiveTasks() {
+        return tasks == null ? List.of() : tasks;
+    }
+
+    public record Item(String id, Map<String, Object> variables, String idempotencyKey) {
+
+        public Item(String id, Map<String, Object> variables) {
+            this(id, variables, null);
+        }
+
+        public Map<String, Object> effectiveVariables() {
+            return variables == null ? Map.of() : Map.copyOf(variables);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.abada.engine.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/** Per-task results of a batch completion, in request order. */
+public record ExternalTaskBatchResponse(int completed, int failed, List<Result> results) {
+
+    public static ExternalTaskBatchResponse of(List<Result> results) {
+        int completed = (int) results.stream().filter(result -> result.status() == Status.COMPLETED).count();
+        return new ExternalTaskBatchResponse(completed, results.size() - completed, results);
+    }
+
+    public enum Status { COMPLETED, FAILED }
+
+    /** {@code error} is the envelope a single completion of the task would have answered with. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Result(String id, Status status, ErrorResponse error) {
+
+        public static Result completed(String id) {
+            return new Result(id, Status.COMPLETED, null);
+        }
+
+        public static Result failed(String id, ErrorResponse error) {
+            return new Result(id, Status.FAILED, error);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.abada.engine.dto;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a worker's request to fetch and lock available external tasks.
@@ -8,13 +9,36 @@ import java.util.List;
  * @param workerId The unique ID of the worker making the request.
  * @param topics A list of topics the worker is subscribed to.
  * @param lockDuration The duration in milliseconds for which the worker wants to lock the tasks.
+ * @param maxTasks The maximum number of tasks to lock; defaults to 1.
+ * @param asyncResponseTimeout How long in milliseconds to hold the request open when no task is
+ *                             available yet; defaults to 0, answering at once.
+ * @param variables Per topic, the names of the process variables to return with its tasks; topics
+ *                  not listed receive all variables, and an empty list returns none.
  */
-public record FetchAndLockRequest(String workerId, List<String> topics, long lockDuration, Integer maxTasks) {
+public record FetchAndLockRequest(String workerId, List<String> topics, long lockDuration, Integer maxTasks,
+        Long asyncResponseTimeout, Map<String, List<String>> variables) {
     public FetchAndLockRequest(String workerId, List<String> topics, long lockDuration) {
         this(workerId, topics, lockDuration, 1);
     }
 
+    public FetchAndLockRequest(String workerId, List<String> topics, long lockDuration, Integer maxTasks) {
+        this(workerId, topics, lockDuration, maxTasks, null);
+    }
+
+    public FetchAndLockRequest(String workerId, List<String> topics, long lockDuration, Integer maxTasks,
+            Long asyncResponseTimeout) {
+        this(workerId, topics, lockDuration, maxTasks, asyncResponseTimeout, null);
+    }
+
     public int effectiveMaxTasks() {
         return maxTasks == null ? 1 : maxTasks;
     }
+
+    public long effectiveAsyncResponseTimeout() {
+        return asyncResponseTimeout == null ? 0 : asyncResponseTimeout;
+    }
+
+    public Map<String, List<String>> effectiveVariables() {
+        return variables == null ? Map.of() : variables;
+    }
 }
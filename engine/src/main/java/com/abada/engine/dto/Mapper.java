@@ -6,6 +6,11 @@ public class Mapper {
 
     public static class ProcessInstanceMapper {
         public static ProcessInstanceDTO toDto(ProcessInstance pi) {
+            return toDto(pi, true);
+        }
+
+        /** With {@code includeVariables == false} the variables are left null and omitted from JSON. */
+        public static ProcessInstanceDTO toDto(ProcessInstance pi, boolean includeVariables) {
             String currentToken = (pi.getActiveTokens() != null && !pi.getActiveTokens().isEmpty())
                     ? pi.getActiveTokens().get(0)
                     : null;
@@ -19,7 +24,7 @@ public class Mapper {
                     pi.getStartDate(),
                     pi.getEndDate(),
                     pi.getStartedBy(),
-                    pi.getVariables());
+                    includeVariables ? pi.getVariables() : null);
         }
     }
 
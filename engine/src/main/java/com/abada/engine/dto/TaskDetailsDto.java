@@ -95,6 +95,18 @@ public record TaskDetailsDto(
     public static TaskDetailsDto from(
         TaskInstance task,
         ProcessInstance processInstance
+    ) {
+        return from(task, processInstance, true);
+    }
+
+    /**
+     * With {@code includeVariables == false} the process variables are not read and
+     * {@code variables} is null.
+     */
+    public static TaskDetailsDto from(
+        TaskInstance task,
+        ProcessInstance processInstance,
+        boolean includeVariables
     ) {
         String processDefinitionId = null;
         String processDefinitionName = null;
@@ -103,7 +115,7 @@ public record TaskDetailsDto(
         Instant processStartDate = null;
         Instant processEndDate = null;
         String currentActivityId = null;
-        Map<String, Object> variables = Map.of();
+        Map<String, Object> variables = includeVariables ? Map.of() : null;
 
         if (processInstance != null) {
             processDefinitionId =
@@ -121,7 +133,7 @@ public record TaskDetailsDto(
             currentActivityId = processInstance.getActiveTokens().isEmpty()
                 ? null
                 : processInstance.getActiveTokens().get(0);
-            variables = processInstance.getVariables();
+            variables = includeVariables ? processInstance.getVariables() : null;
         }
 
         return new TaskDetailsDto(
@@ -0,0 +1,66 @@
+package com.abada.engine.observability;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Records how many SQL statements each write transaction issued as {@code abada.command.statements},
+ * tagged with the transactional method, e.g. {@code AbadaEngine.completeTask}. Spring Boot attaches
+ * every {@link TransactionExecutionListener} bean to the transaction manager. Read-only transactions
+ * are not recorded.
+ */
+@Component
+public class CommandStatementMetrics implements TransactionExecutionListener {
+
+    private static final ThreadLocal<Deque<long[]>> STARTS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final EngineMetrics engineMetrics;
+
+    public CommandStatementMetrics(EngineMetrics engineMetrics) {
+        this.engineMetrics = engineMetrics;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null) {
+            STARTS.get().push(new long[] {StatementCounter.current()});
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        finish(transaction);
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        finish(transaction);
+    }
+
+    private void finish(TransactionExecution transaction) {
+        Deque<long[]> starts = STARTS.get();
+        long[] start = starts.poll();
+        if (starts.isEmpty()) {
+            STARTS.remove();
+        }
+        if (start == null || transaction.isReadOnly()) {
+            return;
+        }
+        engineMetrics.recordCommandStatements(commandName(transaction.getTransactionName()),
+                StatementCounter.current() - start[0]);
+    }
+
+    /** {@code com.abada.engine.core.AbadaEngine.completeTask} becomes {@code AbadaEngine.completeTask}. */
+    static String commandName(String transactionName) {
+        if (transactionName == null || transactionName.isEmpty()) {
+            return "unnamed";
+        }
+        int method = transactionName.lastIndexOf('.');
+        int type = method > 0 ? transactionName.lastIndexOf('.', method - 1) : -1;
+        return transactionName.substring(type + 1);
+    }
+}
@@ -1,6 +1,7 @@
 package com.abada.engine.observability;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
@@ -28,6 +29,7 @@ public class EngineMetrics {
     private static final String TAG_EVENT_TYPE = "event.type";
     private static final String TAG_EVENT_NAME = "event.name";
     private static final String TAG_JOB_TYPE = "job.type";
+    private static final String TAG_COMMAND = "command";
 
     // Process Metrics
     private final Counter processInstancesStarted;
@@ -62,10 +64,24 @@ public class EngineMetrics {
     private final Counter jobsExecuted;
     private final Counter jobsFailed;
     private final Timer jobExecutionTime;
+    private final AtomicLong jobBacklog = new AtomicLong(0);
     private final Counter bpmnDeploymentsSucceeded;
     private final Counter bpmnDeploymentsFailed;
     private final Timer bpmnDeploymentDuration;
 
+    // Script Metrics
+    private final Counter scriptCompileCacheHits;
+    private final Counter scriptCompileCacheMisses;
+    private final Timer scriptEvaluationDuration;
+
+    // Definition Cache Metrics
+    private final Counter definitionCacheHits;
+    private final Counter definitionCacheMisses;
+    private final Counter definitionCacheEvictions;
+    private final Timer definitionLoadDuration;
+    private final AtomicLong definitionCacheEntries = new AtomicLong(0);
+    private final AtomicLong definitionCacheWeight = new AtomicLong(0);
+
     public EngineMetrics(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
 
@@ -152,6 +168,9 @@ public class EngineMetrics {
         this.jobExecutionTime = Timer.builder("abada.job.execution_time")
                 .description("Job execution duration")
                 .register(meterRegistry);
+        Gauge.builder("abada.jobs.backlog", jobBacklog, AtomicLong::get)
+                .description("Due jobs not yet claimed, as of the last scheduler poll")
+                .register(meterRegistry);
         this.bpmnDeploymentsSucceeded = Counter.builder("abada.bpmn.deployments")
                 .tag("outcome", "success").description("Successful BPMN compilation and deployments")
                 .register(meterRegistry);
@@ -161,6 +180,38 @@ public class EngineMetrics {
         this.bpmnDeploymentDuration = Timer.builder("abada.bpmn.deployment.duration")
                 .description("Bounded BPMN parse, validation, compilation and persistence duration")
                 .register(meterRegistry);
+
+        // Initialize Script Metrics
+        this.scriptCompileCacheHits = Counter.builder("abada.script.compile_cache")
+                .tag("result", "hit").description("Script task executions served by a cached compiled script")
+                .register(meterRegistry);
+        this.scriptCompileCacheMisses = Counter.builder("abada.script.compile_cache")
+                .tag("result", "miss").description("Script task executions that had to compile the script")
+                .register(meterRegistry);
+        this.scriptEvaluationDuration = Timer.builder("abada.script.evaluation.duration")
+                .description("Script task evaluation duration, including any compilation")
+                .register(meterRegistry);
+
+        // Initialize Definition Cache Metrics
+        this.definitionCacheHits = Counter.builder("abada.definition.cache")
+                .tag("result", "hit").description("Definition lookups served from the parsed definition cache")
+                .register(meterRegistry);
+        this.definitionCacheMisses = Counter.builder("abada.definition.cache")
+                .tag("result", "miss").description("Definition lookups that had to parse the stored BPMN")
+                .register(meterRegistry);
+        this.definitionCacheEvictions = Counter.builder("abada.definition.cache.evictions")
+                .description("Parsed definitions evicted to keep the cache within its weight bound")
+                .register(meterRegistry);
+        this.definitionLoadDuration = Timer.builder("abada.definition.load.duration")
+                .description("Time to parse and compile a stored definition on a cache miss")
+                .register(meterRegistry);
+        Gauge.builder("abada.definition.cache.entries", definitionCacheEntries, AtomicLong::get)
+                .description("Parsed definitions currently cached")
+                .register(meterRegistry);
+        Gauge.builder("abada.definition.cache.weight", definitionCacheWeight, AtomicLong::get)
+                .description("Estimated heap held by cached definitions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
     }
 
     public Timer.Sample startBpmnDeploymentTimer() { return Timer.start(meterRegistry); }
@@ -169,6 +220,29 @@ public class EngineMetrics {
         (success ? bpmnDeploymentsSucceeded : bpmnDeploymentsFailed).increment();
     }
 
+    // Script Metrics Methods
+    public void recordScriptCompileCache(boolean hit) {
+        (hit ? scriptCompileCacheHits : scriptCompileCacheMisses).increment();
+    }
+
+    public Timer.Sample startScriptEvaluationTimer() { return Timer.start(meterRegistry); }
+    public void recordScriptEvaluation(Timer.Sample sample) { sample.stop(scriptEvaluationDuration); }
+
+    // Definition Cache Metrics Methods
+    public void recordDefinitionCache(boolean hit) {
+        (hit ? definitionCacheHits : definitionCacheMisses).increment();
+    }
+
+    public void recordDefinitionEviction() { definitionCacheEvictions.increment(); }
+
+    public Timer.Sample startDefinitionLoadTimer() { return Timer.start(meterRegistry); }
+    public void recordDefinitionLoad(Timer.Sample sample) { sample.stop(definitionLoadDuration); }
+
+    public void updateDefinitionCacheSize(long entries, long weight) {
+        definitionCacheEntries.set(entries);
+        definitionCacheWeight.set(weight);
+    }
+
     // Process Metrics Methods
     public void recordProcessStarted(String processDefinitionId) {
         // Record global and per-process metrics
@@ -443,6 +517,42 @@ public class EngineMetrics {
                 .register(meterRegistry)));
     }
 
+    public void updateJobBacklog(long dueJobs) {
+        jobBacklog.set(dueJobs);
+    }
+
+    public double getJobBacklog() {
+        return jobBacklog.get();
+    }
+
+    // Command Metrics Methods
+    private final ConcurrentHashMap<String, DistributionSummary> commandStatementSummaries = new ConcurrentHashMap<>();
+
+    /** Statements one write transaction prepared; a JDBC batch counts once, as one round trip. */
+    public void recordCommandStatements(String command, long statements) {
+        commandStatementSummaries.computeIfAbsent(command, c -> DistributionSummary.builder("abada.command.statements")
+                .tag(TAG_COMMAND, c)
+                .baseUnit("statements")
+                .description("SQL statements issued per command transaction")
+                .register(meterRegistry)).record(statements);
+    }
+
+    // Lock Metrics Methods
+    private final ConcurrentHashMap<String, Timer> lockWaitTimers = new ConcurrentHashMap<>();
+
+    public Timer.Sample startLockWaitTimer() { return Timer.start(meterRegistry); }
+
+    /**
+     * Time a {@code SELECT ... FOR UPDATE} took to return its row, tagged with the locked table. It
+     * includes the query itself, so under no contention it is the plain lookup latency.
+     */
+    public void recordLockWait(Timer.Sample sample, String resource) {
+        sample.stop(lockWaitTimers.computeIfAbsent(resource, r -> Timer.builder("abada.lock.wait")
+                .tag("resource", r)
+                .description("Time spent acquiring a pessimistic row lock")
+                .register(meterRegistry)));
+    }
+
     // Gauge Methods
     public double getActiveProcessInstances() {
         return activeProcessInstances.get();
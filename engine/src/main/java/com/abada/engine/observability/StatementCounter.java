@@ -0,0 +1,24 @@
+package com.abada.engine.observability;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate hook that counts the SQL statements prepared on the current thread. Registered through
+ * {@code hibernate.session_factory.statement_inspector}, so Hibernate instantiates it itself;
+ * the count lives in a static thread-local and {@link CommandStatementMetrics} reads it per transaction.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /** Statements counted on this thread so far; only differences between two reads are meaningful. */
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
@@ -10,15 +10,14 @@ import org.camunda.bpm.model.bpmn.BpmnModelInstance;
 import org.camunda.bpm.model.bpmn.instance.*;
 import org.camunda.bpm.model.bpmn.instance.Process;
 
-import java.io.ByteArrayOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class BpmnParser {
     static final int MAX_DEPLOYMENT_BYTES = 10 * 1024 * 1024;
     private final AssignmentParserRegistry assignmentParsers = new AssignmentParserRegistry();
+    private final BpmnSourceScanner scanner = new BpmnSourceScanner();
 
     public ParsedProcessDefinition parse(InputStream bpmnXml) {
         return parseDetailed(bpmnXml, BpmnParseOptions.defaults()).definition();
@@ -33,10 +32,9 @@ public class BpmnParser {
                         "BPMN deployment exceeds the 10 MiB input limit", null, null, null, null,
                         "Reduce the model size or split it into separate process definitions."));
             }
-            String sourceXml = new String(source, StandardCharsets.UTF_8);
-            BpmnCompatibilityDetector.Detection detection = new BpmnCompatibilityDetector().detect(sourceXml);
             List<BpmnValidationIssue> issues = new ArrayList<>();
-            issues.addAll(new BpmnDirectiveValidator().validate(sourceXml, options));
+            BpmnSourceScanner.Scan scan = scanner.scan(source, options, issues);
+            BpmnCompatibilityDetector.Detection detection = new BpmnCompatibilityDetector().detect(scan.namespaces());
             for (String detectedProfile : detection.profiles()) {
                 if (!options.compatibilityProfiles().contains(detectedProfile)
                         && !CompatibilityProfiles.STANDARD.equals(detectedProfile)) {
@@ -50,7 +48,7 @@ public class BpmnParser {
             if (issues.stream().anyMatch(issue -> issue.severity() == ValidationSeverity.ERROR))
                 throw new BpmnValidationException(issues);
 
-            ParsedProcessDefinition definition = parseDefinition(new ByteArrayInputStream(source), sourceXml,
+            ParsedProcessDefinition definition = parseDefinition(source, scan.assignments(),
                     options.compatibilityProfiles());
             List<CompatibilityMapping> mappings = new ArrayList<>();
             if (detection.profiles().contains(CompatibilityProfiles.CAMUNDA_7)) {
@@ -67,14 +65,11 @@ public class BpmnParser {
         }
     }
 
-    private ParsedProcessDefinition parseDefinition(InputStream bpmnXml, String sourceXml, List<String> activeProfiles) {
+    private ParsedProcessDefinition parseDefinition(byte[] source, AssignmentXml assignmentXml, List<String> activeProfiles) {
         try {
-            AssignmentXml assignmentXml = AssignmentXml.parse(sourceXml);
-            BpmnModelInstance model = Bpmn.readModelFromStream(bpmnXml);
+            BpmnModelInstance model = Bpmn.readModelFromStream(new ByteArrayInputStream(source));
             SupportedBpmnValidator.validate(model);
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            Bpmn.writeModelToStream(out, model);
-            String rawXml = out.toString(StandardCharsets.UTF_8);
+            String rawXml = BpmnSourceText.decode(source);
 
             Process process = model.getModelElementsByType(Process.class).stream()
                     .findFirst()
@@ -181,7 +176,8 @@ public class BpmnParser {
 
             Map<String, Object> endEvents = new HashMap<>();
             for (EndEvent endEvent : model.getModelElementsByType(EndEvent.class)) {
-                endEvents.put(endEvent.getId(), endEvent);
+                // Only the ids are used; keeping the model element would pin the whole Camunda model.
+                endEvents.put(endEvent.getId(), endEvent.getId());
             }
 
             // Extract candidate starter groups and users from the process element
@@ -0,0 +1,130 @@
+package com.abada.engine.parser;
+
+import com.abada.engine.bpmn.compatibility.BpmnDirectiveValidator;
+import com.abada.engine.bpmn.compatibility.BpmnParseOptions;
+import com.abada.engine.bpmn.compatibility.BpmnValidationIssue;
+import com.abada.engine.parser.assignment.AssignmentXml;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single StAX pass over a deployment that collects the declared namespaces, validates dialect
+ * directives element by element and copies out only the user-task subtrees the assignment
+ * translators need. Doctype declarations are rejected, so no entity is ever resolved.
+ */
+final class BpmnSourceScanner {
+    private static final String BPMN_NAMESPACE = "http://www.omg.org/spec/BPMN/20100524/MODEL";
+
+    private final BpmnDirectiveValidator directives = new BpmnDirectiveValidator();
+
+    Scan scan(byte[] source, BpmnParseOptions options, List<BpmnValidationIssue> issues) {
+        Set<String> namespaces = new LinkedHashSet<>();
+        Map<String, Element> userTasks = new HashMap<>();
+        Deque<Node> open = new ArrayDeque<>();
+        Document fragments = null;
+        XMLStreamReader reader = null;
+        try {
+            reader = secureFactory().createXMLStreamReader(new ByteArrayInputStream(source));
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.DTD ->
+                            throw new IllegalArgumentException("BPMN XML cannot be parsed securely: DOCTYPE is not allowed");
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                            String uri = reader.getNamespaceURI(i);
+                            if (uri != null && !uri.isEmpty()) namespaces.add(uri);
+                        }
+                        directives.validate(reader, options, issues);
+                        if (open.isEmpty() && !isUserTask(reader)) continue;
+                        if (fragments == null) fragments = newDocument();
+                        Element element = copyElement(fragments, reader);
+                        if (!open.isEmpty()) open.peek().appendChild(element);
+                        open.push(element);
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (!open.isEmpty()) open.peek().appendChild(fragments.createTextNode(reader.getText()));
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (open.isEmpty()) continue;
+                        Element closed = (Element) open.pop();
+                        if (open.isEmpty() && closed.hasAttribute("id")) userTasks.put(closed.getAttribute("id"), closed);
+                    }
+                    default -> { }
+                }
+            }
+        } catch (XMLStreamException exception) {
+            throw new IllegalArgumentException("BPMN XML cannot be parsed securely", exception);
+        } finally {
+            close(reader);
+        }
+        return new Scan(Set.copyOf(namespaces), AssignmentXml.of(userTasks));
+    }
+
+    private static boolean isUserTask(XMLStreamReader reader) {
+        return BPMN_NAMESPACE.equals(reader.getNamespaceURI()) && "userTask".equals(reader.getLocalName());
+    }
+
+    private static Element copyElement(Document document, XMLStreamReader reader) {
+        Element element = document.createElementNS(reader.getNamespaceURI(), qualified(reader.getPrefix(), reader.getLocalName()));
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if (namespace == null || namespace.isEmpty()) {
+                element.setAttributeNS(null, reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            } else {
+                element.setAttributeNS(namespace, qualified(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                        reader.getAttributeValue(i));
+            }
+        }
+        return element;
+    }
+
+    private static String qualified(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    private static Document newDocument() {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            return factory.newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException exception) {
+            throw new IllegalStateException("No DOM implementation available", exception);
+        }
+    }
+
+    /** A fresh factory per scan: the JDK implementation is not safe to share across parsing threads. */
+    private static XMLInputFactory secureFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static void close(XMLStreamReader reader) {
+        if (reader == null) return;
+        try {
+            reader.close();
+        } catch (XMLStreamException ignored) {
+            // nothing was opened that needs releasing
+        }
+    }
+
+    record Scan(Set<String> namespaces, AssignmentXml assignments) {}
+}
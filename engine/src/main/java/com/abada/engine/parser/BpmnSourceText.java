@@ -0,0 +1,57 @@
+package com.abada.engine.parser;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The text a deployment is stored and checksummed as. The bytes are decoded with the encoding the
+ * XML declaration (or byte-order detection) names, and a declaration of any other encoding than
+ * UTF-8 is rewritten to UTF-8, so the stored text reparses from its UTF-8 bytes unchanged.
+ */
+public final class BpmnSourceText {
+    private static final Pattern DECLARED_ENCODING =
+            Pattern.compile("\\A(\\uFEFF?<\\?xml[^>]*?\\bencoding\\s*=\\s*)([\"'])[^\"']*\\2");
+
+    public static String decode(byte[] source) {
+        Charset charset = encoding(source);
+        String text = new String(source, charset);
+        if (charset.equals(StandardCharsets.UTF_8)) return text;
+        Matcher declaration = DECLARED_ENCODING.matcher(text);
+        return declaration.find() ? declaration.replaceFirst("$1$2UTF-8$2") : text;
+    }
+
+    /** The encoding a conforming parser reads the document with; UTF-8 when nothing else is named. */
+    static Charset encoding(byte[] source) {
+        XMLStreamReader reader = null;
+        try {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            reader = factory.createXMLStreamReader(new ByteArrayInputStream(source));
+            String name = reader.getCharacterEncodingScheme() != null
+                    ? reader.getCharacterEncodingScheme() : reader.getEncoding();
+            return name == null ? StandardCharsets.UTF_8 : Charset.forName(name);
+        } catch (XMLStreamException | IllegalCharsetNameException | UnsupportedCharsetException exception) {
+            // not a readable prolog; the parser reports the real problem
+            return StandardCharsets.UTF_8;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // nothing was opened that needs releasing
+                }
+            }
+        }
+    }
+
+    private BpmnSourceText() {}
+}
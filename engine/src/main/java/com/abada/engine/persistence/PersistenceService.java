@@ -3,6 +3,7 @@ package com.abada.engine.persistence;
 import com.abada.engine.persistence.entity.ProcessDefinitionEntity;
 import com.abada.engine.persistence.entity.ProcessInstanceEntity;
 import com.abada.engine.persistence.entity.TaskEntity;
+import com.abada.engine.persistence.repository.ProcessDefinitionRepository;
 import com.abada.engine.core.model.ProcessStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -24,6 +25,22 @@ public interface PersistenceService {
 
     ProcessDefinitionEntity findProcessDefinitionByDeploymentId(String deploymentId);
 
+    /** Deployment id and version of the latest definition for a key, without loading its XML. */
+    ProcessDefinitionRepository.DefinitionVersion findLatestDefinitionVersion(String processKey);
+
+    /** Latest versions whose checksum is among {@code checksums}; keys whose latest differs are absent. */
+    List<ProcessDefinitionRepository.DefinitionVersion> findLatestDefinitionVersionsByChecksum(Collection<String> checksums);
+
+    List<ProcessDefinitionRepository.DefinitionVersion> findLatestDefinitionVersions(Collection<String> processKeys);
+
+    /** Revision of the definition catalog; it changes whenever a definition version is added. */
+    long findDefinitionCatalogRevision();
+
+    void incrementDefinitionCatalogRevision();
+
+    /** Replaces the stored compiled form of a deployment. */
+    void updateCompiledDefinition(String deploymentId, String compilerVersion, byte[] compiledDefinition);
+
     ProcessInstanceEntity findProcessInstanceById(String instanceId);
 
     ProcessInstanceEntity findProcessInstanceByIdForUpdate(String instanceId);
@@ -41,4 +58,11 @@ public interface PersistenceService {
 
     List<ProcessInstanceEntity> findProcessInstancesByIds(Collection<String> instanceIds);
 
+    /** Like {@link #findProcessInstances(ProcessStatus, String, Pageable)} but without {@code variables_json}. */
+    Page<ProcessInstanceEntity> findProcessInstancesWithoutVariables(ProcessStatus status, String processDefinitionId,
+            Pageable pageable);
+
+    /** Like {@link #findProcessInstancesByIds(Collection)} but without {@code variables_json}. */
+    List<ProcessInstanceEntity> findProcessInstancesByIdsWithoutVariables(Collection<String> instanceIds);
+
 }
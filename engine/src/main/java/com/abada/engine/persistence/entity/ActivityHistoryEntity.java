@@ -2,12 +2,14 @@ package com.abada.engine.persistence.entity;
 
 import jakarta.persistence.*;
 
+import org.springframework.data.domain.Persistable;
+
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Table(name = "activity_history")
-public class ActivityHistoryEntity {
+public class ActivityHistoryEntity implements Persistable<String> {
     @Id
     private String id = UUID.randomUUID().toString();
     private String processInstanceId;
@@ -23,7 +25,13 @@ public class ActivityHistoryEntity {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String detailsJson = "{}";
 
+    /** History is append-only: every save() is an insert, never a SELECT-then-merge. */
+    @Transient
+    private boolean isNew = true;
+
     public String getId() { return id; }
+    @Override public boolean isNew() { return isNew; }
+    @PostLoad @PostPersist void markNotNew() { isNew = false; }
     public String getProcessInstanceId() { return processInstanceId; }
     public void setProcessInstanceId(String value) { processInstanceId = value; }
     public String getProcessDefinitionId() { return processDefinitionId; }
@@ -3,15 +3,20 @@ package com.abada.engine.persistence.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.persistence.Version;
 
+import org.springframework.data.domain.Persistable;
+
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Table(name = "outbox_events")
-public class OutboxEventEntity {
+public class OutboxEventEntity implements Persistable<String> {
     @Id
     private String id = UUID.randomUUID().toString();
     private String aggregateType;
@@ -30,7 +35,13 @@ public class OutboxEventEntity {
     @Version
     private long entityVersion;
 
+    /** True until loaded or persisted; lets enqueue's save() insert directly instead of merging. */
+    @Transient
+    private boolean isNew = true;
+
     public String getId() { return id; }
+    @Override public boolean isNew() { return isNew; }
+    @PostLoad @PostPersist void markNotNew() { isNew = false; }
     public String getAggregateType() { return aggregateType; }
     public void setAggregateType(String value) { aggregateType = value; }
     public String getAggregateId() { return aggregateId; }
@@ -52,6 +52,9 @@ public class ProcessDefinitionEntity {
     @Column(name = "compiler_version", nullable = false)
     private String compilerVersion = "1";
 
+    @Column(name = "compiled_definition")
+    private byte[] compiledDefinition;
+
     @Column(name = "compatibility_report", nullable = false, columnDefinition = "TEXT")
     private String compatibilityReport = "{\"detectedProfiles\":[],\"mappings\":[],\"issues\":[]}";
 
@@ -156,6 +159,8 @@ public class ProcessDefinitionEntity {
     public void setDetectedNamespaces(String value) { this.detectedNamespaces = value; }
     public String getCompilerVersion() { return compilerVersion; }
     public void setCompilerVersion(String value) { this.compilerVersion = value; }
+    public byte[] getCompiledDefinition() { return compiledDefinition; }
+    public void setCompiledDefinition(byte[] value) { this.compiledDefinition = value; }
     public String getCompatibilityReport() { return compatibilityReport; }
     public void setCompatibilityReport(String value) { this.compatibilityReport = value; }
 
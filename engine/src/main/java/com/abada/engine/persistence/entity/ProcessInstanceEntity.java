@@ -31,21 +31,32 @@ public class ProcessInstanceEntity {
     @Column(name = "started_by", nullable = false)
     private String startedBy = "system";
 
-    @Column(name = "variables_json", nullable = false, columnDefinition = "TEXT")
+    @Column(name = "variables_json", columnDefinition = "TEXT")
     private String variablesJson; // Jackson-serialized Map
 
     @Column(name = "suspended", nullable = false)
     private boolean suspended = false;
 
-    @Column(name = "active_tokens_json", nullable = false, columnDefinition = "TEXT")
+    @Column(name = "active_tokens_json", columnDefinition = "TEXT")
     private String activeTokensJson = "[]";
 
-    @Column(name = "join_expected_tokens_json", nullable = false, columnDefinition = "TEXT")
+    @Column(name = "join_expected_tokens_json", columnDefinition = "TEXT")
     private String joinExpectedTokensJson = "{}";
 
-    @Column(name = "join_arrived_tokens_json", nullable = false, columnDefinition = "TEXT")
+    @Column(name = "join_arrived_tokens_json", columnDefinition = "TEXT")
     private String joinArrivedTokensJson = "{}";
 
+    /** Name of the {@code RuntimeStateCodec} that wrote this row's runtime state. */
+    @Column(name = "state_codec", nullable = false, length = 16)
+    private String stateCodec = "json";
+
+    @Column(name = "runtime_state")
+    private byte[] runtimeState;
+
+    /** True once the variables live in {@code process_variables} rather than the runtime state. */
+    @Column(name = "variables_in_table", nullable = false)
+    private boolean variablesInTable;
+
     @Version
     @Column(name = "entity_version", nullable = false)
     private long entityVersion;
@@ -62,6 +73,29 @@ public class ProcessInstanceEntity {
         this.status = status;
     }
 
+    /**
+     * Read-only projection used by list queries: every column except {@code variables_json}.
+     * Instances built from it must not be saved back.
+     */
+    public ProcessInstanceEntity(String id, String processDefinitionId, String processDefinitionDeploymentId,
+            String currentActivityId, ProcessStatus status, boolean suspended, Instant startDate, Instant endDate,
+            String startedBy, String activeTokensJson, String joinExpectedTokensJson, String joinArrivedTokensJson,
+            String stateCodec, byte[] runtimeState, boolean variablesInTable, long entityVersion) {
+        this(id, processDefinitionId, currentActivityId, status);
+        this.processDefinitionDeploymentId = processDefinitionDeploymentId;
+        this.suspended = suspended;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.startedBy = startedBy;
+        this.activeTokensJson = activeTokensJson;
+        this.joinExpectedTokensJson = joinExpectedTokensJson;
+        this.joinArrivedTokensJson = joinArrivedTokensJson;
+        this.stateCodec = stateCodec;
+        this.runtimeState = runtimeState;
+        this.variablesInTable = variablesInTable;
+        this.entityVersion = entityVersion;
+    }
+
     public String getVariablesJson() {
         return variablesJson;
     }
@@ -149,6 +183,18 @@ public class ProcessInstanceEntity {
     public void setJoinExpectedTokensJson(String value) { this.joinExpectedTokensJson = value; }
     public String getJoinArrivedTokensJson() { return joinArrivedTokensJson; }
     public void setJoinArrivedTokensJson(String value) { this.joinArrivedTokensJson = value; }
+    public String getStateCodec() { return stateCodec; }
+    public void setStateCodec(String stateCodec) { this.stateCodec = stateCodec; }
+    public byte[] getRuntimeState() { return runtimeState; }
+    public void setRuntimeState(byte[] runtimeState) { this.runtimeState = runtimeState; }
+
+    public boolean isVariablesInTable() {
+        return variablesInTable;
+    }
+
+    public void setVariablesInTable(boolean variablesInTable) {
+        this.variablesInTable = variablesInTable;
+    }
     public long getEntityVersion() { return entityVersion; }
     public void setEntityVersion(long entityVersion) { this.entityVersion = entityVersion; }
 }
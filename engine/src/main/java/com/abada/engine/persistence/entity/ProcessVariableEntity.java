@@ -0,0 +1,91 @@
+package com.abada.engine.persistence.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/** One process variable, stored apart from the instance row so a change rewrites only that variable. */
+@Entity
+@Table(name = "process_variables")
+@IdClass(ProcessVariableEntity.Key.class)
+public class ProcessVariableEntity {
+
+    @Id
+    @Column(name = "process_instance_id", nullable = false)
+    private String processInstanceId;
+
+    @Id
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "value_type", nullable = false, length = 16)
+    private String valueType;
+
+    @Column(name = "value_text", columnDefinition = "TEXT")
+    private String valueText;
+
+    @Version
+    @Column(name = "entity_version", nullable = false)
+    private Long entityVersion;
+
+    public ProcessVariableEntity() {
+    }
+
+    public ProcessVariableEntity(String processInstanceId, String name) {
+        this.processInstanceId = processInstanceId;
+        this.name = name;
+    }
+
+    public String getProcessInstanceId() {
+        return processInstanceId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getValueType() {
+        return valueType;
+    }
+
+    public void setValueType(String valueType) {
+        this.valueType = valueType;
+    }
+
+    public String getValueText() {
+        return valueText;
+    }
+
+    public void setValueText(String valueText) {
+        this.valueText = valueText;
+    }
+
+    public Long getEntityVersion() {
+        return entityVersion;
+    }
+
+    public static class Key implements Serializable {
+        private String processInstanceId;
+        private String name;
+
+        public Key() {
+        }
+
+        public Key(String processInstanceId, String name) {
+            this.processInstanceId = processInstanceId;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Objects.equals(processInstanceId, key.processInstanceId)
+                    && Objects.equals(name, key.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(processInstanceId, name);
+        }
+    }
+}
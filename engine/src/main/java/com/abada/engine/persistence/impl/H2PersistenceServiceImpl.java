@@ -39,7 +39,7 @@ public class H2PersistenceServiceImpl implements PersistenceService {
         if (instance == null) {
             throw new IllegalArgumentException("ProcessInstance cannot be null");
         }
-        return processInstanceRepository.saveAndFlush(instance);
+        return processInstanceRepository.save(instance);
     }
     @Override
     public ProcessDefinitionEntity saveProcessDefinition(ProcessDefinitionEntity definition) {
@@ -51,7 +51,7 @@ public class H2PersistenceServiceImpl implements PersistenceService {
         if (task == null) {
             throw new IllegalArgumentException("task cannot be null");
         }
-        return taskRepository.saveAndFlush(task);
+        return taskRepository.save(task);
     }
 
     @Override
@@ -69,6 +69,41 @@ public class H2PersistenceServiceImpl implements PersistenceService {
         return processDefinitionRepository.findById(deploymentId).orElse(null);
     }
 
+    @Override
+    public ProcessDefinitionRepository.DefinitionVersion findLatestDefinitionVersion(String processKey) {
+        return processDefinitionRepository.findTopByProcessKeyOrderByVersionDesc(processKey).orElse(null);
+    }
+
+    @Override
+    public List<ProcessDefinitionRepository.DefinitionVersion> findLatestDefinitionVersionsByChecksum(
+            Collection<String> checksums) {
+        if (checksums.isEmpty()) return List.of();
+        return processDefinitionRepository.findLatestVersionsByChecksumIn(checksums);
+    }
+
+    @Override
+    public List<ProcessDefinitionRepository.DefinitionVersion> findLatestDefinitionVersions(Collection<String> processKeys) {
+        if (processKeys.isEmpty()) return List.of();
+        return processDefinitionRepository.findLatestVersionsByProcessKeyIn(processKeys);
+    }
+
+    @Override
+    public long findDefinitionCatalogRevision() {
+        return processDefinitionRepository.findCatalogRevision();
+    }
+
+    @Override
+    @Transactional
+    public void incrementDefinitionCatalogRevision() {
+        processDefinitionRepository.incrementCatalogRevision();
+    }
+
+    @Override
+    @Transactional
+    public void updateCompiledDefinition(String deploymentId, String compilerVersion, byte[] compiledDefinition) {
+        processDefinitionRepository.updateCompiledDefinition(deploymentId, compilerVersion, compiledDefinition);
+    }
+
     @Override
     public ProcessInstanceEntity findProcessInstanceById(String instanceId) {
         return processInstanceRepository.findById(instanceId).orElse(null);
@@ -113,4 +148,17 @@ public class H2PersistenceServiceImpl implements PersistenceService {
         return processInstanceRepository.findAllById(instanceIds);
     }
 
+    @Override
+    public Page<ProcessInstanceEntity> findProcessInstancesWithoutVariables(ProcessStatus status,
+            String processDefinitionId, Pageable pageable) {
+        String definitionFilter = processDefinitionId == null || processDefinitionId.isBlank()
+                ? null : processDefinitionId;
+        return processInstanceRepository.findFilteredWithoutVariables(status, definitionFilter, pageable);
+    }
+
+    @Override
+    public List<ProcessInstanceEntity> findProcessInstancesByIdsWithoutVariables(Collection<String> instanceIds) {
+        return processInstanceRepository.findAllByIdWithoutVariables(instanceIds);
+    }
+
 }
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 import org.springframework.data.jpa.repository.Lock;
@@ -18,23 +19,40 @@ import org.springframework.data.domain.Pageable;
 public interface ExternalTaskRepository extends JpaRepository<ExternalTaskEntity, String> {
 
     /**
-     * Finds an available external task for a given topic that is either OPEN
-     * or has an expired lock.
+     * Locks up to {@code limit} external tasks on any of the given topics that are either OPEN or
+     * have an expired lock. Rows another transaction holds are skipped, so concurrent fetches claim
+     * disjoint tasks.
      *
-     * @param topicName  The topic to search for.
-     * @param status     The OPEN status.
-     * @param topicName2 The topic to search for (repeated for the OR clause).
-     * @param now        The current time, to check for expired locks.
-     * @return An Optional containing an available task, if one exists.
+     * @param topics The topics to search.
+     * @param now    The current time, to check for expired locks.
+     * @param limit  The maximum number of tasks to lock.
+     * @return The locked tasks, in id order.
      */
-    @Query(value = "select * from external_tasks where topic_name = :topic "
+    @Query(value = "select * from external_tasks where topic_name in (:topics) "
             + "and (status = 'OPEN' or (status = 'LOCKED' and lock_expiration_time <= :now)) "
-            + "order by id limit 1 for update skip locked", nativeQuery = true)
-    List<ExternalTaskEntity> findAvailableForUpdate(@Param("topic") String topic, @Param("now") Instant now);
+            + "order by id limit :limit for update skip locked", nativeQuery = true)
+    List<ExternalTaskEntity> findAvailableForUpdate(@Param("topics") Collection<String> topics,
+            @Param("now") Instant now, @Param("limit") int limit);
 
-    default Optional<ExternalTaskEntity> findFirstAvailableForUpdate(String topic, Instant now) {
-        return findAvailableForUpdate(topic, now).stream().findFirst();
-    }
+    /**
+     * {@link #findAvailableForUpdate} for several topics, taking their tasks round-robin: each task is
+     * ranked within its topic and the lowest ranks are locked first, so one busy topic cannot fill
+     * the whole fetch while capacity a topic cannot use still goes to the others.
+     */
+    @Query(value = "select task.* from external_tasks task join (select id, row_number() over "
+            + "(partition by topic_name order by id) as topic_rank from external_tasks where topic_name in (:topics) "
+            + "and (status = 'OPEN' or (status = 'LOCKED' and lock_expiration_time <= :now))) ranked "
+            + "on ranked.id = task.id order by ranked.topic_rank, task.id limit :limit "
+            + "for update of task skip locked", nativeQuery = true)
+    List<ExternalTaskEntity> findAvailableForUpdateByTopicRank(@Param("topics") Collection<String> topics,
+            @Param("now") Instant now, @Param("limit") int limit);
+
+    /** Whether {@link #findAvailableForUpdate} would find a task, without locking anything. */
+    @Query("select count(task) > 0 from ExternalTaskEntity task where task.topicName in :topics "
+            + "and (task.status = com.abada.engine.persistence.entity.ExternalTaskEntity.Status.OPEN "
+            + "or (task.status = com.abada.engine.persistence.entity.ExternalTaskEntity.Status.LOCKED "
+            + "and task.lockExpirationTime <= :now))")
+    boolean existsAvailable(@Param("topics") Collection<String> topics, @Param("now") Instant now);
 
     boolean existsByProcessInstanceIdAndActivityIdAndStatusIn(
             String processInstanceId, String activityId, List<ExternalTaskEntity.Status> statuses);
@@ -1,12 +1,14 @@
 package com.abada.engine.persistence.repository;
 
 import com.abada.engine.persistence.entity.JobEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 import jakarta.persistence.LockModeType;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.Query;
@@ -37,4 +39,24 @@ public interface JobRepository extends JpaRepository<JobEntity, String> {
             + "or (status = 'LEASED' and lease_expires_at <= :now)) "
             + "order by execution_timestamp, id limit :batchSize for update skip locked", nativeQuery = true)
     List<JobEntity> findClaimableForUpdate(@Param("now") Instant now, @Param("batchSize") int batchSize);
+
+    @Query(value = "select * from jobs where id in (:ids) and ((status = 'AVAILABLE' and execution_timestamp <= :now) "
+            + "or (status = 'LEASED' and lease_expires_at <= :now)) "
+            + "order by execution_timestamp, id for update skip locked", nativeQuery = true)
+    List<JobEntity> findClaimableByIdForUpdate(@Param("ids") Collection<String> ids, @Param("now") Instant now);
+
+    /** First-attempt jobs due by {@code horizon}, soonest first; retries are left to the poll. */
+    @Query("select job.id as id, job.executionTimestamp as executionTimestamp from JobEntity job "
+            + "where job.status = com.abada.engine.persistence.entity.JobEntity.Status.AVAILABLE "
+            + "and job.attempts = 0 and job.executionTimestamp <= :horizon order by job.executionTimestamp")
+    List<UpcomingJob> findUpcoming(@Param("horizon") Instant horizon, Pageable page);
+
+    interface UpcomingJob {
+        String getId();
+        Instant getExecutionTimestamp();
+    }
+
+    @Query(value = "select count(*) from jobs where (status = 'AVAILABLE' and execution_timestamp <= :now) "
+            + "or (status = 'LEASED' and lease_expires_at <= :now)", nativeQuery = true)
+    long countClaimable(@Param("now") Instant now);
 }
@@ -3,7 +3,11 @@ package com.abada.engine.persistence.repository;
 
 import com.abada.engine.persistence.entity.ProcessDefinitionEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -15,4 +19,39 @@ public interface ProcessDefinitionRepository extends JpaRepository<ProcessDefini
     List<ProcessDefinitionEntity> findAllByOrderByProcessKeyAscVersionDesc();
     Page<ProcessDefinitionEntity> findAllBy(Pageable pageable);
     Page<ProcessDefinitionEntity> findByProcessKey(String processKey, Pageable pageable);
+
+    /** Latest version of a key, reading only the columns of {@link DefinitionVersion}, not {@code bpmn_xml}. */
+    Optional<DefinitionVersion> findTopByProcessKeyOrderByVersionDesc(String processKey);
+
+    /** Latest versions, per key, whose checksum is one of {@code checksums}. */
+    @Query("select d.processKey as processKey, d.deploymentId as deploymentId, d.version as version, "
+            + "d.checksum as checksum from ProcessDefinitionEntity d where d.checksum in :checksums "
+            + "and d.version = (select max(o.version) from ProcessDefinitionEntity o where o.processKey = d.processKey)")
+    List<DefinitionVersion> findLatestVersionsByChecksumIn(@Param("checksums") Collection<String> checksums);
+
+    @Query("select d.processKey as processKey, d.deploymentId as deploymentId, d.version as version, "
+            + "d.checksum as checksum from ProcessDefinitionEntity d where d.processKey in :keys "
+            + "and d.version = (select max(o.version) from ProcessDefinitionEntity o where o.processKey = d.processKey)")
+    List<DefinitionVersion> findLatestVersionsByProcessKeyIn(@Param("keys") Collection<String> processKeys);
+
+    @Query(value = "select revision from definition_catalog where id = 1", nativeQuery = true)
+    long findCatalogRevision();
+
+    @Modifying
+    @Query(value = "update definition_catalog set revision = revision + 1 where id = 1", nativeQuery = true)
+    int incrementCatalogRevision();
+
+    @Modifying
+    @Query("update ProcessDefinitionEntity d set d.compilerVersion = :compilerVersion, "
+            + "d.compiledDefinition = :compiledDefinition where d.deploymentId = :deploymentId")
+    int updateCompiledDefinition(@Param("deploymentId") String deploymentId,
+            @Param("compilerVersion") String compilerVersion,
+            @Param("compiledDefinition") byte[] compiledDefinition);
+
+    interface DefinitionVersion {
+        String getProcessKey();
+        String getDeploymentId();
+        int getVersion();
+        String getChecksum();
+    }
 }
@@ -16,6 +16,12 @@ import org.springframework.data.domain.Pageable;
 
 public interface ProcessInstanceRepository extends JpaRepository<ProcessInstanceEntity, String> {
 
+    /** Every column except {@code variables_json}; see the matching entity constructor. */
+    String WITHOUT_VARIABLES = "select new com.abada.engine.persistence.entity.ProcessInstanceEntity("
+            + "p.id, p.processDefinitionId, p.processDefinitionDeploymentId, p.currentActivityId, p.status, "
+            + "p.suspended, p.startDate, p.endDate, p.startedBy, p.activeTokensJson, p.joinExpectedTokensJson, "
+            + "p.joinArrivedTokensJson, p.stateCodec, p.runtimeState, p.variablesInTable, p.entityVersion) from ProcessInstanceEntity p ";
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM ProcessInstanceEntity p WHERE p.id = :instanceId")
     Optional<ProcessInstanceEntity> findByIdForUpdate(@Param("instanceId") String instanceId);
@@ -25,6 +31,16 @@ public interface ProcessInstanceRepository extends JpaRepository<ProcessInstance
     Page<ProcessInstanceEntity> findFiltered(@Param("status") ProcessStatus status,
             @Param("processDefinitionId") String processDefinitionId, Pageable pageable);
 
+    @Query(value = WITHOUT_VARIABLES + "where (:status is null or p.status = :status) "
+            + "and (:processDefinitionId is null or p.processDefinitionId = :processDefinitionId)",
+            countQuery = "select count(p) from ProcessInstanceEntity p where (:status is null or p.status = :status) "
+                    + "and (:processDefinitionId is null or p.processDefinitionId = :processDefinitionId)")
+    Page<ProcessInstanceEntity> findFilteredWithoutVariables(@Param("status") ProcessStatus status,
+            @Param("processDefinitionId") String processDefinitionId, Pageable pageable);
+
+    @Query(WITHOUT_VARIABLES + "where p.id in :ids")
+    List<ProcessInstanceEntity> findAllByIdWithoutVariables(@Param("ids") Collection<String> ids);
+
     @Query("""
             SELECT p.processDefinitionId AS processDefinitionId, COUNT(p) AS instanceCount
             FROM ProcessInstanceEntity p
@@ -0,0 +1,19 @@
+package com.abada.engine.persistence.repository;
+
+import com.abada.engine.persistence.entity.ProcessVariableEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProcessVariableRepository extends JpaRepository<ProcessVariableEntity, ProcessVariableEntity.Key> {
+
+    List<ProcessVariableEntity> findByProcessInstanceId(String processInstanceId);
+
+    List<ProcessVariableEntity> findByProcessInstanceIdIn(Collection<String> processInstanceIds);
+
+    List<ProcessVariableEntity> findByProcessInstanceIdInAndNameIn(Collection<String> processInstanceIds,
+            Collection<String> names);
+
+    List<ProcessVariableEntity> findByProcessInstanceIdAndNameIn(String processInstanceId, Collection<String> names);
+}
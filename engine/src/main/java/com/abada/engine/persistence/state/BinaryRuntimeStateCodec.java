@@ -0,0 +1,364 @@
+package com.abada.engine.persistence.state;
+
+import com.abada.engine.persistence.entity.ProcessInstanceEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Compact single-column format stored in {@code runtime_state}.
+ *
+ * <pre>
+ * state      := version:u8 strings tokens expected arrived variables
+ * strings    := count:varint (len:varint utf8)*        -- interned activity ids and variable names
+ * tokens     := count:varint ref*
+ * expected   := count:varint (ref zigzag)*
+ * arrived    := count:varint (ref count:varint ref?*)*
+ * variables  := count:varint (ref value)*
+ * ref?       := varint, 0 for null, otherwise string index + 1
+ * value      := tag:u8 payload
+ * </pre>
+ *
+ * Booleans, numbers, strings, collections and maps are stored natively, numbers with their Java
+ * width. Any other object is first converted through Jackson, so it materializes as the same
+ * maps, lists and scalars the JSON codec would produce.
+ */
+@Component
+public class BinaryRuntimeStateCodec implements RuntimeStateCodec {
+
+    public static final String NAME = "binary";
+
+    private static final int VERSION = 1;
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    private static final int STRING = 6;
+    private static final int LIST = 7;
+    private static final int MAP = 8;
+    private static final int BIG_INTEGER = 9;
+    private static final int BIG_DECIMAL = 10;
+
+    private final ObjectMapper om;
+
+    public BinaryRuntimeStateCodec(ObjectMapper om) {
+        this.om = om;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void encode(RuntimeState state, ProcessInstanceEntity target) {
+        target.setRuntimeState(toBytes(state));
+        target.setVariablesJson(null);
+        target.setActiveTokensJson(null);
+        target.setJoinExpectedTokensJson(null);
+        target.setJoinArrivedTokensJson(null);
+    }
+
+    @Override
+    public RuntimeState decodeTokens(ProcessInstanceEntity source) {
+        return fromBytes(bytes(source), false);
+    }
+
+    @Override
+    public Supplier<Map<String, Object>> variables(ProcessInstanceEntity source) {
+        byte[] bytes = bytes(source);
+        return () -> fromBytes(bytes, true).variables();
+    }
+
+    private static byte[] bytes(ProcessInstanceEntity source) {
+        byte[] bytes = source.getRuntimeState();
+        if (bytes == null) {
+            throw new IllegalStateException("Process instance " + source.getId() + " has no binary runtime state");
+        }
+        return bytes;
+    }
+
+    byte[] toBytes(RuntimeState state) {
+        List<String> tokens = state.activeTokens() == null ? List.of() : state.activeTokens();
+        Map<String, Integer> expected = state.joinExpectedTokens() == null ? Map.of() : state.joinExpectedTokens();
+        Map<String, Set<String>> arrived = state.joinArrivedTokens() == null ? Map.of() : state.joinArrivedTokens();
+        Map<String, Object> variables = state.variables() == null ? Map.of() : state.variables();
+
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        tokens.forEach(token -> intern(strings, token));
+        expected.keySet().forEach(key -> intern(strings, key));
+        arrived.forEach((key, ids) -> {
+            intern(strings, key);
+            ids.forEach(id -> intern(strings, id));
+        });
+        variables.keySet().forEach(key -> intern(strings, key));
+
+        Writer out = new Writer();
+        out.u8(VERSION);
+        out.varint(strings.size());
+        strings.keySet().forEach(out::string);
+        out.varint(tokens.size());
+        tokens.forEach(token -> out.varint(ref(strings, token)));
+        out.varint(expected.size());
+        expected.forEach((key, count) -> {
+            out.varint(ref(strings, key));
+            out.zigzag(count == null ? 0 : count);
+        });
+        out.varint(arrived.size());
+        arrived.forEach((key, ids) -> {
+            out.varint(ref(strings, key));
+            out.varint(ids.size());
+            ids.forEach(id -> out.varint(ref(strings, id)));
+        });
+        out.varint(variables.size());
+        variables.forEach((key, value) -> {
+            out.varint(ref(strings, key));
+            writeValue(out, value);
+        });
+        return out.toByteArray();
+    }
+
+    RuntimeState fromBytes(byte[] bytes) {
+        return fromBytes(bytes, true);
+    }
+
+    /** The variable section comes last, so a token-only read simply stops before it. */
+    private RuntimeState fromBytes(byte[] bytes, boolean withVariables) {
+        Reader in = new Reader(bytes);
+        int version = in.u8();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported binary runtime state version " + version);
+        }
+        String[] strings = new String[in.varint()];
+        for (int i = 0; i < strings.length; i++) strings[i] = in.string();
+
+        int tokenCount = in.varint();
+        List<String> tokens = new ArrayList<>(tokenCount);
+        for (int i = 0; i < tokenCount; i++) tokens.add(in.ref(strings));
+        int expectedCount = in.varint();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < expectedCount; i++) expected.put(in.ref(strings), (int) in.zigzag());
+        int arrivedCount = in.varint();
+        Map<String, Set<String>> arrived = new HashMap<>();
+        for (int i = 0; i < arrivedCount; i++) {
+            String key = in.ref(strings);
+            int size = in.varint();
+            Set<String> ids = new LinkedHashSet<>();
+            for (int j = 0; j < size; j++) ids.add(in.ref(strings));
+            arrived.put(key, ids);
+        }
+        if (!withVariables) {
+            return new RuntimeState(null, tokens, expected, arrived);
+        }
+        int variableCount = in.varint();
+        Map<String, Object> variables = new HashMap<>();
+        for (int i = 0; i < variableCount; i++) variables.put(in.ref(strings), readValue(in));
+        return new RuntimeState(variables, tokens, expected, arrived);
+    }
+
+    private void writeValue(Writer out, Object value) {
+        if (value == null) {
+            out.u8(NULL);
+        } else if (value instanceof Boolean bool) {
+            out.u8(bool ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.u8(INT);
+            out.zigzag(((Number) value).intValue());
+        } else if (value instanceof Long number) {
+            out.u8(LONG);
+            out.zigzag(number);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.u8(DOUBLE);
+            out.fixed64(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof String text) {
+            out.u8(STRING);
+            out.string(text);
+        } else if (value instanceof BigInteger number) {
+            out.u8(BIG_INTEGER);
+            out.string(number.toString());
+        } else if (value instanceof BigDecimal number) {
+            out.u8(BIG_DECIMAL);
+            out.string(number.toString());
+        } else if (value instanceof Collection<?> collection) {
+            out.u8(LIST);
+            out.varint(collection.size());
+            collection.forEach(item -> writeValue(out, item));
+        } else if (value instanceof Map<?, ?> map) {
+            out.u8(MAP);
+            out.varint(map.size());
+            map.forEach((key, item) -> {
+                out.string(String.valueOf(key));
+                writeValue(out, item);
+            });
+        } else {
+            Object converted = om.convertValue(value, Object.class);
+            if (converted != null && converted.getClass() == value.getClass()) {
+                throw new IllegalStateException("Cannot encode variable of type " + value.getClass().getName());
+            }
+            writeValue(out, converted);
+        }
+    }
+
+    private Object readValue(Reader in) {
+        int tag = in.u8();
+        return switch (tag) {
+            case NULL -> null;
+            case FALSE -> Boolean.FALSE;
+            case TRUE -> Boolean.TRUE;
+            case INT -> (int) in.zigzag();
+            case LONG -> in.zigzag();
+            case DOUBLE -> Double.longBitsToDouble(in.fixed64());
+            case STRING -> in.string();
+            case BIG_INTEGER -> new BigInteger(in.string());
+            case BIG_DECIMAL -> new BigDecimal(in.string());
+            case LIST -> {
+                int size = in.varint();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) list.add(readValue(in));
+                yield list;
+            }
+            case MAP -> {
+                int size = in.varint();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) map.put(in.string(), readValue(in));
+                yield map;
+            }
+            default -> throw new IllegalStateException("Unknown runtime state value tag " + tag);
+        };
+    }
+
+    private static void intern(Map<String, Integer> strings, String value) {
+        if (value != null) strings.putIfAbsent(value, strings.size());
+    }
+
+    private static int ref(Map<String, Integer> strings, String value) {
+        return value == null ? 0 : strings.get(value) + 1;
+    }
+
+    private static final class Writer {
+        private byte[] buffer = new byte[256];
+        private int size;
+
+        void u8(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void zigzag(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void fixed64(long value) {
+            ensure(8);
+            for (int i = 0; i < 8; i++) buffer[size++] = (byte) (value >>> (8 * i));
+        }
+
+        void string(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, buffer, size, utf8.length);
+            size += utf8.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private int pos;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int u8() {
+            check(1);
+            return bytes[pos++] & 0xFF;
+        }
+
+        int varint() {
+            long value = varlong();
+            if (value < 0 || value > Integer.MAX_VALUE) throw corrupt();
+            return (int) value;
+        }
+
+        long varlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = u8();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw corrupt();
+        }
+
+        long zigzag() {
+            long raw = varlong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        long fixed64() {
+            check(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) value |= (long) (bytes[pos++] & 0xFF) << (8 * i);
+            return value;
+        }
+
+        String string() {
+            int length = varint();
+            check(length);
+            String value = new String(bytes, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        String ref(String[] strings) {
+            int ref = varint();
+            if (ref == 0) return null;
+            if (ref > strings.length) throw corrupt();
+            return strings[ref - 1];
+        }
+
+        private void check(int length) {
+            if (length < 0 || pos + length > bytes.length) throw corrupt();
+        }
+
+        private IllegalStateException corrupt() {
+            return new IllegalStateException("Corrupt binary runtime state at byte " + pos);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.abada.engine.persistence.state;
+
+import com.abada.engine.core.model.ParsedProcessDefinition;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stores the compiled form of a definition in {@code process_definitions.compiled_definition}, so
+ * loading a deployment does not re-run the BPMN parser. The format is deflated Java serialization
+ * of {@link ParsedProcessDefinition}, without its source XML; deserialization only accepts engine
+ * model classes and the few JDK collection and value types they hold.
+ *
+ * <p>Model classes declare their {@code serialVersionUID}, so compatible edits such as an added
+ * field still decode. A stored form is only read back when its row carries
+ * {@link #COMPILER_VERSION}; bump it when the parser's output changes meaning or a model class
+ * changes incompatibly. Older rows then fall back to parsing their XML and are rewritten.
+ */
+public final class CompiledDefinitionCodec {
+
+    public static final String COMPILER_VERSION = "2";
+
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(String.join(";",
+            "maxdepth=64",
+            "com.abada.engine.core.model.**",
+            "com.abada.engine.util.el.ElExpression",
+            // Object covers the element type of collection arrays, Enum the model's enums.
+            "java.lang.Object", "java.lang.Enum", "java.lang.String",
+            "java.util.ArrayList", "java.util.Arrays$ArrayList", "java.util.HashMap", "java.util.LinkedHashMap",
+            "java.util.Map$Entry", "java.util.CollSer", "java.util.ImmutableCollections$*",
+            "java.util.Collections$Unmodifiable*", "java.util.Collections$Empty*",
+            "!*"));
+
+    private CompiledDefinitionCodec() {}
+
+    public static byte[] encode(ParsedProcessDefinition definition) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeObject(definition.getRawXml() == null ? definition : definition.withoutRawXml());
+        } catch (IOException ex) {
+            throw new IllegalStateException("Serialize compiled definition " + definition.getId() + " failed", ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ParsedProcessDefinition decode(byte[] compiled) {
+        try (ObjectInputStream in = new ObjectInputStream(new InflaterInputStream(new ByteArrayInputStream(compiled)))) {
+            in.setObjectInputFilter(FILTER);
+            return (ParsedProcessDefinition) in.readObject();
+        } catch (InvalidClassException ex) {
+            throw new IllegalStateException("Compiled definition does not match the running model classes", ex);
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            throw new IllegalStateException("Unreadable compiled definition", ex);
+        }
+    }
+}
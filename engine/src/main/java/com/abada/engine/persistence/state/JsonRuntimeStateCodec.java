@@ -0,0 +1,75 @@
+package com.abada.engine.persistence.state;
+
+import com.abada.engine.persistence.entity.ProcessInstanceEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/** The original format: four Jackson JSON documents in the {@code *_json} TEXT columns. */
+@Component
+public class JsonRuntimeStateCodec implements RuntimeStateCodec {
+
+    public static final String NAME = "json";
+
+    private final ObjectMapper om;
+
+    public JsonRuntimeStateCodec(ObjectMapper om) {
+        this.om = om;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void encode(RuntimeState state, ProcessInstanceEntity target) {
+        target.setVariablesJson(state.variables() == null ? null : write(state.variables(), "variables"));
+        target.setActiveTokensJson(write(state.activeTokens(), "runtime state"));
+        target.setJoinExpectedTokensJson(write(state.joinExpectedTokens(), "runtime state"));
+        target.setJoinArrivedTokensJson(write(state.joinArrivedTokens(), "runtime state"));
+        target.setRuntimeState(null);
+    }
+
+    @Override
+    public RuntimeState decodeTokens(ProcessInstanceEntity source) {
+        return new RuntimeState(
+                null,
+                read(source.getActiveTokensJson(), new TypeReference<List<String>>() {}, null, "active_tokens_json"),
+                read(source.getJoinExpectedTokensJson(), new TypeReference<Map<String, Integer>>() {}, Map.of(),
+                        "join_expected_tokens_json"),
+                read(source.getJoinArrivedTokensJson(), new TypeReference<Map<String, Set<String>>>() {}, Map.of(),
+                        "join_arrived_tokens_json"));
+    }
+
+    @Override
+    public Supplier<Map<String, Object>> variables(ProcessInstanceEntity source) {
+        String json = source.getVariablesJson();
+        return () -> read(json, new TypeReference<Map<String, Object>>() {}, new HashMap<>(), "variables_json");
+    }
+
+    private String write(Object value, String what) {
+        try {
+            return om.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Serialize " + what + " failed", ex);
+        }
+    }
+
+    private <T> T read(String json, TypeReference<T> type, T fallback, String column) {
+        if (json == null || json.isBlank()) return fallback;
+        try {
+            return om.readValue(json, type);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Bad " + column, ex);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.abada.engine.persistence.state;
+
+import com.abada.engine.persistence.entity.ProcessVariableEntity;
+import com.abada.engine.persistence.repository.ProcessVariableRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and writes the {@code process_variables} table. Each variable is a row keyed by instance id
+ * and name, with a type tag so scalars come back with the Java type they were written with; any
+ * other value is stored as JSON and comes back as the maps and lists Jackson produces.
+ */
+@Component
+public class ProcessVariableStore {
+
+    static final String NULL = "null";
+    static final String BOOLEAN = "boolean";
+    static final String INTEGER = "integer";
+    static final String LONG = "long";
+    static final String DOUBLE = "double";
+    static final String STRING = "string";
+    static final String JSON = "json";
+
+    private final ProcessVariableRepository repository;
+    private final ObjectMapper om;
+
+    public ProcessVariableStore(ProcessVariableRepository repository, ObjectMapper om) {
+        this.repository = repository;
+        this.om = om;
+    }
+
+    /** Deferred loader for one instance; runs its query only when the variables are first used. */
+    public Supplier<Map<String, Object>> loader(String processInstanceId) {
+        return () -> decode(repository.findByProcessInstanceId(processInstanceId));
+    }
+
+    /** Fetches the rows of several instances in one query, still undecoded. */
+    public Map<String, List<ProcessVariableEntity>> prefetch(Collection<String> processInstanceIds) {
+        if (processInstanceIds.isEmpty()) return Map.of();
+        return repository.findByProcessInstanceIdIn(processInstanceIds).stream()
+                .collect(Collectors.groupingBy(ProcessVariableEntity::getProcessInstanceId));
+    }
+
+    /** Like {@link #prefetch(Collection)}, but fetches only the rows of the named variables. */
+    public Map<String, List<ProcessVariableEntity>> prefetch(Collection<String> processInstanceIds,
+            Collection<String> names) {
+        if (processInstanceIds.isEmpty() || names.isEmpty()) return Map.of();
+        return repository.findByProcessInstanceIdInAndNameIn(processInstanceIds, names).stream()
+                .collect(Collectors.groupingBy(ProcessVariableEntity::getProcessInstanceId));
+    }
+
+    public Supplier<Map<String, Object>> decoder(List<ProcessVariableEntity> rows) {
+        return () -> decode(rows);
+    }
+
+    /** Inserts or updates exactly the given variables; other rows of the instance are left alone. */
+    @Transactional
+    public void upsert(String processInstanceId, Map<String, Object> changed) {
+        if (changed.isEmpty()) return;
+        Map<String, ProcessVariableEntity> existing = repository
+                .findByProcessInstanceIdAndNameIn(processInstanceId, changed.keySet()).stream()
+                .collect(Collectors.toMap(ProcessVariableEntity::getName, Function.identity()));
+        List<ProcessVariableEntity> rows = new ArrayList<>(changed.size());
+        changed.forEach((name, value) -> {
+            ProcessVariableEntity row = existing.get(name);
+            if (row == null) row = new ProcessVariableEntity(processInstanceId, name);
+            encode(value, row);
+            rows.add(row);
+        });
+        repository.saveAll(rows);
+    }
+
+    /** Writes the variables of an instance that has no rows yet, skipping the lookup {@link #upsert} does. */
+    @Transactional
+    public void insert(String processInstanceId, Map<String, Object> variables) {
+        if (variables.isEmpty()) return;
+        List<ProcessVariableEntity> rows = new ArrayList<>(variables.size());
+        variables.forEach((name, value) -> {
+            ProcessVariableEntity row = new ProcessVariableEntity(processInstanceId, name);
+            encode(value, row);
+            rows.add(row);
+        });
+        repository.saveAll(rows);
+    }
+
+    void encode(Object value, ProcessVariableEntity row) {
+        if (value == null) {
+            row.setValueType(NULL);
+            row.setValueText(null);
+        } else if (value instanceof Boolean) {
+            row.setValueType(BOOLEAN);
+            row.setValueText(value.toString());
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            row.setValueType(INTEGER);
+            row.setValueText(value.toString());
+        } else if (value instanceof Long) {
+            row.setValueType(LONG);
+            row.setValueText(value.toString());
+        } else if (value instanceof Double || value instanceof Float) {
+            row.setValueType(DOUBLE);
+            row.setValueText(Double.toString(((Number) value).doubleValue()));
+        } else if (value instanceof String text) {
+            row.setValueType(STRING);
+            row.setValueText(text);
+        } else {
+            row.setValueType(JSON);
+            try {
+                row.setValueText(om.writeValueAsString(value));
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Serialize variable " + row.getName() + " failed", ex);
+            }
+        }
+    }
+
+    Object decode(ProcessVariableEntity row) {
+        String text = row.getValueText();
+        return switch (row.getValueType()) {
+            case NULL -> null;
+            case BOOLEAN -> Boolean.valueOf(text);
+            case INTEGER -> Integer.valueOf(text);
+            case LONG -> Long.valueOf(text);
+            case DOUBLE -> Double.valueOf(text);
+            case STRING -> text;
+            case JSON -> {
+                try {
+                    yield om.readValue(text, Object.class);
+                } catch (JsonProcessingException ex) {
+                    throw new IllegalStateException("Bad value for variable " + row.getName(), ex);
+                }
+            }
+            default -> throw new IllegalStateException("Unknown type '" + row.getValueType() + "' of variable "
+                    + row.getName() + " in process instance " + row.getProcessInstanceId());
+        };
+    }
+
+    private Map<String, Object> decode(List<ProcessVariableEntity> rows) {
+        Map<String, Object> variables = new HashMap<>();
+        for (ProcessVariableEntity row : rows) variables.put(row.getName(), decode(row));
+        return variables;
+    }
+}
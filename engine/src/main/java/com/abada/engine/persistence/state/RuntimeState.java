@@ -0,0 +1,20 @@
+package com.abada.engine.persistence.state;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The mutable runtime part of a process instance as it is persisted: variables, token positions
+ * and join bookkeeping.
+ *
+ * @param variables    {@code null} when the variables are kept in {@code process_variables}
+ *                     instead of the runtime state
+ * @param activeTokens {@code null} when the row carries no token list, in which case callers fall
+ *                     back to {@code current_activity_id}
+ */
+public record RuntimeState(Map<String, Object> variables,
+                           List<String> activeTokens,
+                           Map<String, Integer> joinExpectedTokens,
+                           Map<String, Set<String>> joinArrivedTokens) {
+}
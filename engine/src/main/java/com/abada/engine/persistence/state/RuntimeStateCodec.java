@@ -0,0 +1,37 @@
+package com.abada.engine.persistence.state;
+
+import com.abada.engine.persistence.entity.ProcessInstanceEntity;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Serializes {@link RuntimeState} into the columns of a {@link ProcessInstanceEntity}. Each row
+ * records the codec that wrote it, so rows stay readable after the configured codec changes.
+ */
+public interface RuntimeStateCodec {
+
+    /** Stable identifier stored in {@code process_instances.state_codec}. */
+    String name();
+
+    /** Write {@code state} into {@code target}, clearing any columns owned by other codecs. */
+    void encode(RuntimeState state, ProcessInstanceEntity target);
+
+    /**
+     * Decode token positions and join bookkeeping only. The returned state has {@code null}
+     * variables; use {@link #variables} for those.
+     */
+    RuntimeState decodeTokens(ProcessInstanceEntity source);
+
+    /**
+     * Return a decoder for the variables of {@code source}. It captures the encoded column rather
+     * than the entity, so it may run after the entity has been detached or merged over.
+     */
+    Supplier<Map<String, Object>> variables(ProcessInstanceEntity source);
+
+    default RuntimeState decode(ProcessInstanceEntity source) {
+        RuntimeState tokens = decodeTokens(source);
+        return new RuntimeState(variables(source).get(), tokens.activeTokens(), tokens.joinExpectedTokens(),
+                tokens.joinArrivedTokens());
+    }
+}
@@ -0,0 +1,67 @@
+package com.abada.engine.persistence.state;
+
+import com.abada.engine.persistence.entity.ProcessInstanceEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Chooses the codec used to write runtime state ({@code abada.runtime-state.codec}, default
+ * {@code json}) and decodes each row with the codec recorded on it. Switching codecs needs no
+ * bulk rewrite: rows written in the old format stay readable and are upgraded lazily, the next
+ * time their instance is persisted.
+ */
+@Component
+public class RuntimeStateCodecRegistry {
+
+    private final Map<String, RuntimeStateCodec> codecs;
+    private final RuntimeStateCodec writer;
+
+    public RuntimeStateCodecRegistry(List<RuntimeStateCodec> codecs,
+            @Value("${abada.runtime-state.codec:" + JsonRuntimeStateCodec.NAME + "}") String writeCodec) {
+        this.codecs = codecs.stream().collect(Collectors.toUnmodifiableMap(RuntimeStateCodec::name, Function.identity()));
+        this.writer = this.codecs.get(writeCodec);
+        if (writer == null) {
+            throw new IllegalStateException("Unknown abada.runtime-state.codec '" + writeCodec + "', expected one of "
+                    + this.codecs.keySet());
+        }
+    }
+
+    public void encode(RuntimeState state, ProcessInstanceEntity target) {
+        writer.encode(state, target);
+        target.setStateCodec(writer.name());
+    }
+
+    public RuntimeState decode(ProcessInstanceEntity source) {
+        return reader(source).decode(source);
+    }
+
+    /** Token and join state only; see {@link RuntimeStateCodec#decodeTokens}. */
+    public RuntimeState decodeTokens(ProcessInstanceEntity source) {
+        return reader(source).decodeTokens(source);
+    }
+
+    /** Deferred variable decoder; see {@link RuntimeStateCodec#variables}. */
+    public Supplier<Map<String, Object>> variables(ProcessInstanceEntity source) {
+        return reader(source).variables(source);
+    }
+
+    private RuntimeStateCodec reader(ProcessInstanceEntity source) {
+        String name = source.getStateCodec() == null ? JsonRuntimeStateCodec.NAME : source.getStateCodec();
+        RuntimeStateCodec codec = codecs.get(name);
+        if (codec == null) {
+            throw new IllegalStateException("Process instance " + source.getId()
+                    + " was written with unknown runtime state codec '" + name + "'");
+        }
+        return codec;
+    }
+
+    public String writeCodec() {
+        return writer.name();
+    }
+}
@@ -24,4 +24,21 @@ public final class IdentityContext {
     public static void clear() {
         CONTEXT.remove();
     }
+
+    /**
+     * Binds the identity of the calling thread to {@code task}, for work handed to another thread,
+     * such as a virtual thread. The executing thread's own identity is restored afterwards.
+     */
+    public static Runnable wrap(Runnable task) {
+        Identity captured = CONTEXT.get();
+        return () -> {
+            Identity previous = CONTEXT.get();
+            CONTEXT.set(captured);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) CONTEXT.remove(); else CONTEXT.set(previous);
+            }
+        };
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.abada.engine.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -39,9 +40,11 @@ public class SecurityConfig {
 
     private void authorize(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(auth -> auth
+                // Completes a long-polling request that was authorized when it arrived
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/v1", "/v1/info", "/actuator/health", "/swagger-ui/**", "/swagger-ui.html",
                         "/v3/api-docs/**").permitAll()
-                .requestMatchers(HttpMethod.POST, "/v1/processes/deploy")
+                .requestMatchers(HttpMethod.POST, "/v1/processes/deploy", "/v1/processes/deploy/bulk")
                         .hasAnyAuthority("SCOPE_process:deploy", AbadaRoles.DEPLOYER, AbadaRoles.ADMIN)
                 .requestMatchers(HttpMethod.POST, "/v1/processes/start", "/v1/processes/instance/*/fail",
                         "/v1/events/**")
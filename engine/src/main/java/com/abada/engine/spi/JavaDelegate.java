@@ -3,7 +3,8 @@ package com.abada.engine.spi;
 /**
  * Interface for all service task delegate classes.
  * Implementations of this interface can be referenced by the `camunda:class`
- * attribute in a BPMN service task.
+ * attribute in a BPMN service task, either by fully qualified class name or by the
+ * name of a Spring bean implementing this interface.
  */
 public interface JavaDelegate {
 
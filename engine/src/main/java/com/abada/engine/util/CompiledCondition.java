@@ -0,0 +1,16 @@
+package com.abada.engine.util;
+
+import java.util.Map;
+
+/**
+ * A sequence-flow condition compiled once by {@link ConditionCompiler} and evaluated many times
+ * against process variables. Implementations are immutable and safe to share across threads.
+ */
+@FunctionalInterface
+public interface CompiledCondition {
+
+    CompiledCondition FALSE = vars -> false;
+
+    /** Evaluate the condition. Returns false on any evaluation error. */
+    boolean evaluate(Map<String, Object> vars);
+}
@@ -0,0 +1,105 @@
+package com.abada.engine.util;
+
+import com.abada.engine.util.el.ElException;
+import com.abada.engine.util.el.ElExpression;
+import com.abada.engine.util.el.UnsupportedElException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.util.Map;
+
+/**
+ * Compiles sequence-flow condition expressions once so gateways can evaluate them without
+ * re-parsing or creating a script engine per call.
+ *
+ * <p>The fast path is the native {@link ElExpression} interpreter, evaluated strictly so an
+ * undefined variable makes the condition false, as it always has. Expressions outside the EL
+ * subset are compiled into a Nashorn fallback that behaves like the previous per-call evaluator.
+ */
+public final class ConditionCompiler {
+
+    private static final Logger log = LoggerFactory.getLogger(ConditionCompiler.class);
+
+    public static CompiledCondition compile(String rawExpr) {
+        if (rawExpr == null || rawExpr.isBlank()) return CompiledCondition.FALSE;
+
+        String expr = normalize(rawExpr);
+        ScriptCondition fallback = new ScriptCondition(expr, toScript(expr));
+        try {
+            return new FastCondition(ElExpression.compile(expr), fallback);
+        } catch (ElException ex) {
+            log.debug("Condition [{}] is not supported by the fast path ({}); using script fallback",
+                    expr, ex.getMessage());
+            return fallback;
+        }
+    }
+
+    // Strip CDATA wrappers and the Camunda/EL `${...}` envelope.
+    static String normalize(String rawExpr) {
+        String expr = rawExpr.trim();
+        if (expr.startsWith("<![CDATA[")) expr = expr.substring("<![CDATA[".length());
+        if (expr.endsWith("]]>")) expr = expr.substring(0, expr.length() - "]]>".length());
+        expr = expr.trim();
+        if (expr.startsWith("${") && expr.endsWith("}")) {
+            expr = expr.substring(2, expr.length() - 1).trim();
+        }
+        return expr;
+    }
+
+    // Simple operator aliases often seen in EL, rewritten once for the JavaScript fallback.
+    private static String toScript(String expr) {
+        return expr.replaceAll("\\band\\b", "&&")
+                .replaceAll("\\bor\\b", "||")
+                .replaceAll("\\beq\\b", "==")
+                .replaceAll("\\bne\\b", "!=");
+    }
+
+    static boolean coerce(Object result) {
+        if (result instanceof Boolean bool) return bool;
+        if (result == null) return false;
+        // Best-effort coercion (e.g., number/string truthiness)
+        if (result instanceof Number number) return number.doubleValue() != 0d;
+        return Boolean.parseBoolean(String.valueOf(result));
+    }
+
+    private record FastCondition(ElExpression expression, ScriptCondition fallback) implements CompiledCondition {
+        @Override
+        public boolean evaluate(Map<String, Object> vars) {
+            try {
+                return coerce(expression.evaluateStrict(vars));
+            } catch (UnsupportedElException ex) {
+                return fallback.evaluate(vars);
+            } catch (RuntimeException ex) {
+                log.debug("Condition eval failed for [{}]: {}", expression.source(), ex.getMessage());
+                return false;
+            }
+        }
+    }
+
+    private record ScriptCondition(String source, String script) implements CompiledCondition {
+        @Override
+        public boolean evaluate(Map<String, Object> vars) {
+            // Nashorn engine objects are not threadsafe, so each evaluation gets its own engine.
+            ScriptEngine engine = ScriptEngines.MANAGER.getEngineByName("JavaScript");
+            if (engine == null) {
+                log.warn("JavaScript engine is unavailable; condition [{}] evaluates to false", source);
+                return false;
+            }
+            if (vars != null) vars.forEach(engine::put);
+            try {
+                return coerce(engine.eval(script));
+            } catch (Exception ex) {
+                log.debug("Condition eval failed for [{}]: {}", source, ex.getMessage());
+                return false;
+            }
+        }
+    }
+
+    private static final class ScriptEngines {
+        static final ScriptEngineManager MANAGER = new ScriptEngineManager();
+    }
+
+    private ConditionCompiler() {}
+}
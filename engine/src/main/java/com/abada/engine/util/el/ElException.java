@@ -0,0 +1,13 @@
+package com.abada.engine.util.el;
+
+/** Raised when an EL expression cannot be parsed or evaluated. */
+public class ElException extends RuntimeException {
+
+    public ElException(String message) {
+        super(message);
+    }
+
+    public ElException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,85 @@
+package com.abada.engine.util.el;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * A compiled EL expression. The source is tokenized and parsed into an AST exactly once; evaluation
+ * walks the tree against a variable map without script engines, reflection-heavy resolvers or
+ * intermediate collections.
+ *
+ * <p>Supported: string/number/boolean/null literals, variables, null-safe property paths over maps
+ * and plain getters of records, application classes and {@code java.util}/{@code java.time} types,
+ * {@code [index]} access, comparisons, boolean logic, arithmetic, string concatenation with
+ * {@code +}, the ternary and {@code empty} operators, and {@code contains(x)}, {@code size()} and
+ * {@code isEmpty()} on collections, maps, arrays and strings. Reflective accessors such as
+ * {@code class} are never readable.
+ */
+public final class ElExpression implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String source;
+    private final transient ElNode root;
+
+    private ElExpression(String source, ElNode root) {
+        this.source = source;
+        this.root = root;
+    }
+
+    /**
+     * Compile an expression. A surrounding {@code ${...}} envelope is optional.
+     *
+     * @throws UnsupportedElException for syntax outside the supported subset
+     * @throws ElException            for malformed expressions
+     */
+    public static ElExpression compile(String source) {
+        if (source == null) throw new ElException("Expression is empty");
+        String trimmed = source.trim();
+        String body = trimmed.startsWith("${") && trimmed.endsWith("}")
+                ? trimmed.substring(2, trimmed.length() - 1)
+                : trimmed;
+        return new ElExpression(trimmed, ElParser.parse(body));
+    }
+
+    public String source() {
+        return source;
+    }
+
+    /** Evaluate with null-safe variable lookup: undefined variables resolve to {@code null}. */
+    public Object evaluate(Map<String, Object> variables) {
+        return root.eval(variables == null ? Map.of() : variables, false);
+    }
+
+    /** Evaluate, failing with {@link ElException} when a top-level variable is undefined. */
+    public Object evaluateStrict(Map<String, Object> variables) {
+        return root.eval(variables == null ? Map.of() : variables, true);
+    }
+
+    /** JavaScript-style truthiness as applied by the logical operators. */
+    public static boolean isTruthy(Object value) {
+        return ElSemantics.truthy(value);
+    }
+
+    @Serial
+    private Object readResolve() {
+        return compile(source);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ElExpression expression && source.equals(expression.source);
+    }
+
+    @Override
+    public int hashCode() {
+        return source.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
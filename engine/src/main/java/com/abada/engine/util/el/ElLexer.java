@@ -0,0 +1,106 @@
+package com.abada.engine.util.el;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Splits the body of an EL expression into tokens once, at compile time. */
+final class ElLexer {
+
+    enum Type { IDENTIFIER, NUMBER, STRING, SYMBOL, EOF }
+
+    record Token(Type type, String text, Object value, int position) {
+        boolean is(String symbol) {
+            return type == Type.SYMBOL && text.equals(symbol);
+        }
+
+        boolean isWord(String word) {
+            return type == Type.IDENTIFIER && text.equals(word);
+        }
+    }
+
+    private static final String[] SYMBOLS = {
+            "===", "!==", "==", "!=", "<=", ">=", "&&", "||",
+            "(", ")", "[", "]", ".", ",", "?", ":", "!", "<", ">", "+", "-", "*", "/", "%"
+    };
+
+    private ElLexer() {}
+
+    static List<Token> tokenize(String src) {
+        List<Token> tokens = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            while (pos < src.length() && Character.isWhitespace(src.charAt(pos))) pos++;
+            if (pos >= src.length()) {
+                tokens.add(new Token(Type.EOF, "", null, pos));
+                return tokens;
+            }
+            char c = src.charAt(pos);
+            int start = pos;
+            if (Character.isJavaIdentifierStart(c)) {
+                while (pos < src.length() && Character.isJavaIdentifierPart(src.charAt(pos))) pos++;
+                tokens.add(new Token(Type.IDENTIFIER, src.substring(start, pos), null, start));
+            } else if (Character.isDigit(c)) {
+                while (pos < src.length() && Character.isDigit(src.charAt(pos))) pos++;
+                boolean decimal = pos + 1 < src.length() && src.charAt(pos) == '.'
+                        && Character.isDigit(src.charAt(pos + 1));
+                if (decimal) {
+                    pos++;
+                    while (pos < src.length() && Character.isDigit(src.charAt(pos))) pos++;
+                }
+                if (pos < src.length() && Character.isJavaIdentifierPart(src.charAt(pos))) {
+                    throw new UnsupportedElException("Unsupported numeric literal at position " + start);
+                }
+                String text = src.substring(start, pos);
+                Object value;
+                try {
+                    value = decimal ? (Object) Double.parseDouble(text) : (Object) Long.parseLong(text);
+                } catch (NumberFormatException ex) {
+                    value = Double.parseDouble(text);
+                }
+                tokens.add(new Token(Type.NUMBER, text, value, start));
+            } else if (c == '\'' || c == '"') {
+                StringBuilder out = new StringBuilder();
+                pos++;
+                boolean closed = false;
+                while (pos < src.length()) {
+                    char ch = src.charAt(pos++);
+                    if (ch == c) {
+                        closed = true;
+                        break;
+                    }
+                    if (ch == '\\' && pos < src.length()) {
+                        char escaped = src.charAt(pos++);
+                        switch (escaped) {
+                            case 'n' -> out.append('\n');
+                            case 't' -> out.append('\t');
+                            case '\\', '\'', '"' -> out.append(escaped);
+                            default -> throw new UnsupportedElException(
+                                    "Unsupported escape sequence \\" + escaped + " at position " + (pos - 2));
+                        }
+                    } else {
+                        out.append(ch);
+                    }
+                }
+                if (!closed) throw new ElException("Unterminated string literal at position " + start);
+                tokens.add(new Token(Type.STRING, src.substring(start, pos), out.toString(), start));
+            } else {
+                String symbol = matchSymbol(src, pos);
+                if (symbol == null) {
+                    throw new UnsupportedElException("Unexpected character '" + c + "' at position " + pos);
+                }
+                if (symbol.equals("===") || symbol.equals("!==")) {
+                    throw new UnsupportedElException("Strict equality is not part of EL");
+                }
+                pos += symbol.length();
+                tokens.add(new Token(Type.SYMBOL, symbol, null, start));
+            }
+        }
+    }
+
+    private static String matchSymbol(String src, int pos) {
+        for (String symbol : SYMBOLS) {
+            if (src.startsWith(symbol, pos)) return symbol;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,125 @@
+package com.abada.engine.util.el;
+
+import java.util.Map;
+
+/**
+ * Immutable AST node. Evaluation walks the tree directly against the variable map; nodes hold no
+ * per-evaluation state, so a compiled tree is shared by every thread and instance.
+ */
+sealed interface ElNode {
+
+    /**
+     * @param vars   process variables
+     * @param strict when true, an undefined top-level variable is an error and an unknown bean
+     *               property is unsupported; otherwise both resolve to {@code null}
+     */
+    Object eval(Map<String, Object> vars, boolean strict);
+
+    record Literal(Object value) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            return value;
+        }
+    }
+
+    record Variable(String name) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            Object value = vars.get(name);
+            if (value == null && strict && !vars.containsKey(name)) {
+                throw new ElException("Undefined variable '" + name + "'");
+            }
+            return value;
+        }
+    }
+
+    /** Null-safe: a null base yields null rather than an error. */
+    record Property(ElNode base, String name) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            return ElSemantics.property(base.eval(vars, strict), name, strict);
+        }
+    }
+
+    record Index(ElNode base, ElNode key) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            Object target = base.eval(vars, strict);
+            return target == null ? null : ElSemantics.index(target, key.eval(vars, strict), strict);
+        }
+    }
+
+    record MethodCall(ElNode base, String name, ElNode[] args) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            Object target = base.eval(vars, strict);
+            if (target == null) return null;
+            Object[] values = args.length == 0 ? NO_ARGS : new Object[args.length];
+            for (int i = 0; i < args.length; i++) values[i] = args[i].eval(vars, strict);
+            return ElSemantics.invoke(target, name, values);
+        }
+    }
+
+    record Not(ElNode operand) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            return !ElSemantics.truthy(operand.eval(vars, strict));
+        }
+    }
+
+    record Empty(ElNode operand) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            return ElSemantics.isEmpty(operand.eval(vars, strict));
+        }
+    }
+
+    record Negate(ElNode operand) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            return ElSemantics.negate(operand.eval(vars, strict));
+        }
+    }
+
+    /** Short-circuits and, like JavaScript, yields the deciding operand. */
+    record And(ElNode left, ElNode right) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            Object value = left.eval(vars, strict);
+            return ElSemantics.truthy(value) ? right.eval(vars, strict) : value;
+        }
+    }
+
+    record Or(ElNode left, ElNode right) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            Object value = left.eval(vars, strict);
+            return ElSemantics.truthy(value) ? value : right.eval(vars, strict);
+        }
+    }
+
+    record Conditional(ElNode test, ElNode whenTrue, ElNode whenFalse) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            return ElSemantics.truthy(test.eval(vars, strict))
+                    ? whenTrue.eval(vars, strict)
+                    : whenFalse.eval(vars, strict);
+        }
+    }
+
+    enum ComparisonOp { EQ, NE, LT, GT, LE, GE }
+
+    record Comparison(ComparisonOp op, ElNode left, ElNode right) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            Object a = left.eval(vars, strict);
+            Object b = right.eval(vars, strict);
+            if (op == ComparisonOp.EQ) return ElSemantics.looseEquals(a, b);
+            if (op == ComparisonOp.NE) return !ElSemantics.looseEquals(a, b);
+            Integer cmp = ElSemantics.compare(a, b);
+            if (cmp == null) return false;
+            return switch (op) {
+                case LT -> cmp < 0;
+                case GT -> cmp > 0;
+                case LE -> cmp <= 0;
+                default -> cmp >= 0;
+            };
+        }
+    }
+
+    record Arithmetic(char op, ElNode left, ElNode right) implements ElNode {
+        public Object eval(Map<String, Object> vars, boolean strict) {
+            return ElSemantics.arithmetic(op, left.eval(vars, strict), right.eval(vars, strict));
+        }
+    }
+
+    Object[] NO_ARGS = new Object[0];
+}
@@ -0,0 +1,205 @@
+package com.abada.engine.util.el;
+
+import com.abada.engine.util.el.ElLexer.Token;
+import com.abada.engine.util.el.ElLexer.Type;
+import com.abada.engine.util.el.ElNode.ComparisonOp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Recursive-descent parser for the EL subset. Precedence, lowest first: ternary, {@code || or},
+ * {@code && and}, {@code == != eq ne}, {@code < > <= >= lt gt le ge}, {@code + -},
+ * {@code * / % div mod}, unary {@code ! not - empty}, then property/index/method access.
+ */
+final class ElParser {
+
+    private static final Set<String> RESERVED = Set.of(
+            "and", "or", "not", "eq", "ne", "lt", "gt", "le", "ge", "div", "mod", "empty", "instanceof");
+
+    private final List<Token> tokens;
+    private int pos;
+
+    private ElParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    static ElNode parse(String body) {
+        ElParser parser = new ElParser(ElLexer.tokenize(body));
+        if (parser.peek().type() == Type.EOF) throw new ElException("Expression is empty");
+        ElNode root = parser.parseConditional();
+        Token trailing = parser.peek();
+        if (trailing.type() != Type.EOF) {
+            throw new UnsupportedElException("Unexpected '" + trailing.text() + "' at position " + trailing.position());
+        }
+        return root;
+    }
+
+    private ElNode parseConditional() {
+        ElNode test = parseOr();
+        if (!acceptSymbol("?")) return test;
+        ElNode whenTrue = parseConditional();
+        expectSymbol(":");
+        return new ElNode.Conditional(test, whenTrue, parseConditional());
+    }
+
+    private ElNode parseOr() {
+        ElNode left = parseAnd();
+        while (acceptSymbol("||") || acceptWord("or")) left = new ElNode.Or(left, parseAnd());
+        return left;
+    }
+
+    private ElNode parseAnd() {
+        ElNode left = parseEquality();
+        while (acceptSymbol("&&") || acceptWord("and")) left = new ElNode.And(left, parseEquality());
+        return left;
+    }
+
+    private ElNode parseEquality() {
+        ElNode left = parseRelational();
+        while (true) {
+            if (acceptSymbol("==") || acceptWord("eq")) {
+                left = new ElNode.Comparison(ComparisonOp.EQ, left, parseRelational());
+            } else if (acceptSymbol("!=") || acceptWord("ne")) {
+                left = new ElNode.Comparison(ComparisonOp.NE, left, parseRelational());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private ElNode parseRelational() {
+        ElNode left = parseAdditive();
+        while (true) {
+            ComparisonOp op;
+            if (acceptSymbol("<=") || acceptWord("le")) op = ComparisonOp.LE;
+            else if (acceptSymbol(">=") || acceptWord("ge")) op = ComparisonOp.GE;
+            else if (acceptSymbol("<") || acceptWord("lt")) op = ComparisonOp.LT;
+            else if (acceptSymbol(">") || acceptWord("gt")) op = ComparisonOp.GT;
+            else return left;
+            left = new ElNode.Comparison(op, left, parseAdditive());
+        }
+    }
+
+    private ElNode parseAdditive() {
+        ElNode left = parseMultiplicative();
+        while (true) {
+            if (acceptSymbol("+")) left = new ElNode.Arithmetic('+', left, parseMultiplicative());
+            else if (acceptSymbol("-")) left = new ElNode.Arithmetic('-', left, parseMultiplicative());
+            else return left;
+        }
+    }
+
+    private ElNode parseMultiplicative() {
+        ElNode left = parseUnary();
+        while (true) {
+            if (acceptSymbol("*")) left = new ElNode.Arithmetic('*', left, parseUnary());
+            else if (acceptSymbol("/") || acceptWord("div")) left = new ElNode.Arithmetic('/', left, parseUnary());
+            else if (acceptSymbol("%") || acceptWord("mod")) left = new ElNode.Arithmetic('%', left, parseUnary());
+            else return left;
+        }
+    }
+
+    private ElNode parseUnary() {
+        if (acceptSymbol("!") || acceptWord("not")) return new ElNode.Not(parseUnary());
+        if (acceptSymbol("-")) return new ElNode.Negate(parseUnary());
+        if (acceptWord("empty")) return new ElNode.Empty(parseUnary());
+        return parsePostfix(parsePrimary());
+    }
+
+    private ElNode parsePostfix(ElNode node) {
+        while (true) {
+            if (acceptSymbol(".")) {
+                Token name = next();
+                if (name.type() != Type.IDENTIFIER) {
+                    throw new ElException("Expected property name at position " + name.position());
+                }
+                if (acceptSymbol("(")) {
+                    node = new ElNode.MethodCall(node, name.text(), parseArguments());
+                } else {
+                    node = new ElNode.Property(node, name.text());
+                }
+            } else if (acceptSymbol("[")) {
+                ElNode key = parseConditional();
+                expectSymbol("]");
+                node = new ElNode.Index(node, key);
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private ElNode[] parseArguments() {
+        List<ElNode> args = new ArrayList<>();
+        if (!acceptSymbol(")")) {
+            do {
+                args.add(parseConditional());
+            } while (acceptSymbol(","));
+            expectSymbol(")");
+        }
+        return args.toArray(ElNode[]::new);
+    }
+
+    private ElNode parsePrimary() {
+        Token token = next();
+        switch (token.type()) {
+            case NUMBER:
+            case STRING:
+                return new ElNode.Literal(token.value());
+            case IDENTIFIER:
+                switch (token.text()) {
+                    case "true": return new ElNode.Literal(Boolean.TRUE);
+                    case "false": return new ElNode.Literal(Boolean.FALSE);
+                    case "null": return new ElNode.Literal(null);
+                    default: break;
+                }
+                if (RESERVED.contains(token.text())) {
+                    throw new UnsupportedElException("Unexpected keyword '" + token.text() + "' at position "
+                            + token.position());
+                }
+                if (peek().is("(")) {
+                    throw new UnsupportedElException("Function '" + token.text() + "' is not supported");
+                }
+                return new ElNode.Variable(token.text());
+            case SYMBOL:
+                if (token.is("(")) {
+                    ElNode inner = parseConditional();
+                    expectSymbol(")");
+                    return inner;
+                }
+                throw new UnsupportedElException("Unexpected '" + token.text() + "' at position " + token.position());
+            default:
+                throw new ElException("Unexpected end of expression");
+        }
+    }
+
+    private Token peek() {
+        return tokens.get(pos);
+    }
+
+    private Token next() {
+        Token token = tokens.get(pos);
+        if (token.type() != Type.EOF) pos++;
+        return token;
+    }
+
+    private boolean acceptSymbol(String symbol) {
+        if (!peek().is(symbol)) return false;
+        pos++;
+        return true;
+    }
+
+    private boolean acceptWord(String word) {
+        if (!peek().isWord(word)) return false;
+        pos++;
+        return true;
+    }
+
+    private void expectSymbol(String symbol) {
+        Token token = next();
+        if (!token.is(symbol)) {
+            throw new ElException("Expected '" + symbol + "' at position " + token.position());
+        }
+    }
+}
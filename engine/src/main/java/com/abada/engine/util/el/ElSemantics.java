@@ -0,0 +1,344 @@
+package com.abada.engine.util.el;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.security.ProtectionDomain;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coercion and operator semantics shared by all EL nodes. Truthiness, loose equality and
+ * relational comparison follow the JavaScript rules the engine historically evaluated conditions
+ * with, so compiled expressions agree with existing process models.
+ */
+final class ElSemantics {
+
+    private static final ClassValue<Map<String, Optional<Method>>> GETTERS = new ClassValue<>() {
+        @Override
+        protected Map<String, Optional<Method>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /** Property names of reflective accessors, refused on every type. */
+    private static final Set<String> REFLECTIVE_PROPERTIES = Set.of("class", "classLoader", "declaringClass",
+            "module", "declaredFields", "declaredMethods", "declaredConstructors", "protectionDomain");
+
+    private static final List<Class<?>> REFLECTIVE_TYPES = List.of(Class.class, ClassLoader.class, Module.class,
+            Thread.class, ThreadGroup.class, Runtime.class, ProtectionDomain.class);
+
+    /** JDK packages whose types expose no getters to expressions, apart from {@link #BEAN_PACKAGES}. */
+    private static final List<String> PLATFORM_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.", "com.sun.");
+
+    /** JDK packages whose plain getters expressions may read, e.g. {@code dueDate.year} or {@code lines.empty}. */
+    private static final Set<String> BEAN_PACKAGES = Set.of("java.time", "java.util");
+
+    private ElSemantics() {}
+
+    static boolean truthy(Object value) {
+        if (value == null) return false;
+        if (value instanceof Boolean bool) return bool;
+        if (value instanceof Number number) {
+            double d = number.doubleValue();
+            return d != 0d && !Double.isNaN(d);
+        }
+        if (value instanceof CharSequence text) return !text.isEmpty();
+        return true;
+    }
+
+    static boolean isEmpty(Object value) {
+        if (value == null) return true;
+        if (value instanceof CharSequence text) return text.isEmpty();
+        if (value instanceof Collection<?> collection) return collection.isEmpty();
+        if (value instanceof Map<?, ?> map) return map.isEmpty();
+        if (value.getClass().isArray()) return Array.getLength(value) == 0;
+        return false;
+    }
+
+    static boolean looseEquals(Object a, Object b) {
+        if (a == null || b == null) return a == b;
+        if (a instanceof String && b instanceof String) return a.equals(b);
+        if (a instanceof Boolean && b instanceof Boolean) return a.equals(b);
+        if (isPrimitiveLike(a) && isPrimitiveLike(b)) return toDouble(a) == toDouble(b);
+        return Objects.equals(a, b);
+    }
+
+    /** Returns a negative, zero or positive value, or {@code null} when the operands are unordered (NaN). */
+    static Integer compare(Object a, Object b) {
+        if (a instanceof String left && b instanceof String right) return left.compareTo(right);
+        double x = toDouble(a);
+        double y = toDouble(b);
+        if (Double.isNaN(x) || Double.isNaN(y)) return null;
+        return Double.compare(x == 0d ? 0d : x, y == 0d ? 0d : y);
+    }
+
+    static Object arithmetic(char op, Object a, Object b) {
+        if (op == '+' && (a instanceof CharSequence || b instanceof CharSequence)) {
+            return toJsString(a) + toJsString(b);
+        }
+        Number x = toNumber(a);
+        Number y = toNumber(b);
+        if (op == '/') return x.doubleValue() / y.doubleValue();
+        if (isIntegral(x) && isIntegral(y)) {
+            long l = x.longValue();
+            long r = y.longValue();
+            try {
+                return switch (op) {
+                    case '+' -> Math.addExact(l, r);
+                    case '-' -> Math.subtractExact(l, r);
+                    case '*' -> Math.multiplyExact(l, r);
+                    default -> {
+                        if (r == 0) throw new ElException("Modulo by zero");
+                        yield l % r;
+                    }
+                };
+            } catch (ArithmeticException overflow) {
+                // fall through to floating point, like EL coercion to Double on overflow
+            }
+        }
+        double l = x.doubleValue();
+        double r = y.doubleValue();
+        return switch (op) {
+            case '+' -> l + r;
+            case '-' -> l - r;
+            case '*' -> l * r;
+            default -> l % r;
+        };
+    }
+
+    static Object negate(Object value) {
+        Number number = toNumber(value);
+        if (isIntegral(number) && number.longValue() != Long.MIN_VALUE) return -number.longValue();
+        return -number.doubleValue();
+    }
+
+    /**
+     * Unknown bean properties resolve to null unless {@code strict}, where they are unsupported. Only
+     * plain getters of records, application classes and {@link #BEAN_PACKAGES} are readable; accessors
+     * that reach into the runtime, such as {@code class}, are rejected outright.
+     */
+    static Object property(Object base, String name, boolean strict) {
+        if (base == null) return null;
+        if (base instanceof Map<?, ?> map) return map.get(name);
+        if (REFLECTIVE_PROPERTIES.contains(name)) {
+            throw new ElException("Property '" + name + "' is not accessible");
+        }
+        Optional<Method> getter = GETTERS.get(base.getClass()).computeIfAbsent(name,
+                property -> findGetter(base.getClass(), property));
+        if (getter.isEmpty()) {
+            if (!strict) return null;
+            throw new UnsupportedElException("Unknown property '" + name + "' on " + base.getClass().getName());
+        }
+        try {
+            return getter.get().invoke(base);
+        } catch (IllegalAccessException | InvocationTargetException ex) {
+            throw new ElException("Could not read property '" + name + "'", ex);
+        }
+    }
+
+    static Object index(Object base, Object key, boolean strict) {
+        if (base == null || key == null) return null;
+        if (base instanceof Map<?, ?> map) {
+            Object value = map.get(key);
+            return value != null || !(key instanceof Number) ? value : map.get(String.valueOf(key));
+        }
+        if (base instanceof List<?> list) {
+            int i = toIndex(key);
+            return i >= 0 && i < list.size() ? list.get(i) : null;
+        }
+        if (base.getClass().isArray()) {
+            int i = toIndex(key);
+            return i >= 0 && i < Array.getLength(base) ? Array.get(base, i) : null;
+        }
+        if (key instanceof String name) return property(base, name, strict);
+        throw new UnsupportedElException("Cannot index into " + base.getClass().getName());
+    }
+
+    static Object invoke(Object base, String method, Object[] args) {
+        if (base == null) return null;
+        switch (method) {
+            case "size":
+            case "length":
+                if (args.length == 0) return size(base);
+                break;
+            case "isEmpty":
+                if (args.length == 0) return isEmpty(base);
+                break;
+            case "contains":
+                if (args.length == 1) return contains(base, args[0]);
+                break;
+            default:
+                break;
+        }
+        throw new UnsupportedElException("Unsupported method '" + method + "' with " + args.length + " argument(s)");
+    }
+
+    private static Object size(Object base) {
+        if (base instanceof Collection<?> collection) return collection.size();
+        if (base instanceof Map<?, ?> map) return map.size();
+        if (base instanceof CharSequence text) return text.length();
+        if (base.getClass().isArray()) return Array.getLength(base);
+        throw new UnsupportedElException("size() is not supported on " + base.getClass().getName());
+    }
+
+    private static boolean contains(Object base, Object needle) {
+        if (base instanceof CharSequence text) return needle != null && text.toString().contains(String.valueOf(needle));
+        if (base instanceof Map<?, ?> map) return anyLooseEquals(map.keySet(), needle);
+        if (base instanceof Collection<?> collection) return anyLooseEquals(collection, needle);
+        if (base.getClass().isArray()) {
+            for (int i = 0, n = Array.getLength(base); i < n; i++) {
+                if (looseEquals(Array.get(base, i), needle)) return true;
+            }
+            return false;
+        }
+        throw new UnsupportedElException("contains() is not supported on " + base.getClass().getName());
+    }
+
+    private static boolean anyLooseEquals(Collection<?> values, Object needle) {
+        for (Object value : values) {
+            if (looseEquals(value, needle)) return true;
+        }
+        return false;
+    }
+
+    private static Optional<Method> findGetter(Class<?> type, String property) {
+        if (property.isEmpty() || !isBeanType(type)) return Optional.empty();
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                if (component.getName().equals(property)) return accessible(component.getAccessor());
+            }
+        }
+        String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (String candidate : new String[] {"get" + suffix, "is" + suffix}) {
+            Method method = publicMethod(type, candidate);
+            if (method != null && !Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class
+                    && (!candidate.startsWith("is") || method.getReturnType() == boolean.class
+                            || method.getReturnType() == Boolean.class)) {
+                return accessible(method);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** The getter as declared by the type or its nearest public supertype, e.g. {@code List} for {@code List.of()}. */
+    private static Method publicMethod(Class<?> type, String name) {
+        if (type == null) return null;
+        if (Modifier.isPublic(type.getModifiers())) {
+            try {
+                return type.getMethod(name);
+            } catch (NoSuchMethodException ex) {
+                return null;
+            }
+        }
+        Method method = publicMethod(type.getSuperclass(), name);
+        for (Class<?> contract : type.getInterfaces()) {
+            if (method == null) method = publicMethod(contract, name);
+        }
+        return method;
+    }
+
+    /** Records and application classes, plus the JDK value types of {@link #BEAN_PACKAGES}. */
+    private static boolean isBeanType(Class<?> type) {
+        if (type.isRecord()) return true;
+        String packageName = type.getPackageName();
+        if (BEAN_PACKAGES.contains(packageName)) return true;
+        for (String platform : PLATFORM_PACKAGES) {
+            if (packageName.startsWith(platform)) return false;
+        }
+        return true;
+    }
+
+    /** A getter declared by the runtime or returning a handle into it is never exposed. */
+    private static Optional<Method> accessible(Method method) {
+        Class<?> declaring = method.getDeclaringClass();
+        Class<?> returned = method.getReturnType();
+        if (declaring == Object.class || declaring == Enum.class || declaring == Record.class
+                || REFLECTIVE_TYPES.stream().anyMatch(reflective -> reflective.isAssignableFrom(returned))
+                || returned.getPackageName().startsWith("java.lang.reflect")
+                || returned.getPackageName().startsWith("java.lang.invoke")
+                || !method.trySetAccessible()) {
+            return Optional.empty();
+        }
+        return Optional.of(method);
+    }
+
+    private static int toIndex(Object key) {
+        if (key instanceof Number number) return number.intValue();
+        try {
+            return Integer.parseInt(String.valueOf(key).trim());
+        } catch (NumberFormatException ex) {
+            throw new ElException("Invalid index '" + key + "'");
+        }
+    }
+
+    /** JavaScript {@code ToString} for the operands of a string {@code +}; anything else is left to the fallback. */
+    private static String toJsString(Object value) {
+        if (value == null || value instanceof CharSequence || value instanceof Boolean) return String.valueOf(value);
+        if (value instanceof Number number) {
+            if (isIntegral(number)) return number.toString();
+            double d = number.doubleValue();
+            if (Double.isNaN(d)) return "NaN";
+            if (Double.isInfinite(d)) return d > 0 ? "Infinity" : "-Infinity";
+            if (d == Math.rint(d) && Math.abs(d) < 1e21) return new BigDecimal(d).toPlainString();
+            if (Math.abs(d) >= 1e-6 && Math.abs(d) < 1e21) {
+                return new BigDecimal(Double.toString(d)).stripTrailingZeros().toPlainString();
+            }
+        }
+        throw new UnsupportedElException("Cannot concatenate " + value.getClass().getName() + " to a string");
+    }
+
+    private static boolean isPrimitiveLike(Object value) {
+        return value instanceof Number || value instanceof Boolean || value instanceof String;
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short
+                || number instanceof Byte;
+    }
+
+    /** Operands JavaScript would turn into {@code NaN} or a wrapper are left to the script fallback. */
+    private static Number toNumber(Object value) {
+        if (value == null) return 0L;
+        if (value instanceof Number number) return number;
+        if (value instanceof Boolean bool) return bool ? 1L : 0L;
+        if (value instanceof String text) {
+            String trimmed = text.trim();
+            if (trimmed.isEmpty()) return 0L;
+            try {
+                return Long.parseLong(trimmed);
+            } catch (NumberFormatException ignored) {
+                try {
+                    return Double.parseDouble(trimmed);
+                } catch (NumberFormatException ex) {
+                    throw new UnsupportedElException("Cannot coerce '" + text + "' to a number");
+                }
+            }
+        }
+        throw new UnsupportedElException("Cannot coerce " + value.getClass().getSimpleName() + " to a number");
+    }
+
+    static double toDouble(Object value) {
+        if (value == null) return 0d;
+        if (value instanceof Number number) return number.doubleValue();
+        if (value instanceof Boolean bool) return bool ? 1d : 0d;
+        if (value instanceof String text) {
+            String trimmed = text.trim();
+            if (trimmed.isEmpty()) return 0d;
+            try {
+                return Double.parseDouble(trimmed);
+            } catch (NumberFormatException ex) {
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+}
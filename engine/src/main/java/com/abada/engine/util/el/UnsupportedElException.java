@@ -0,0 +1,12 @@
+package com.abada.engine.util.el;
+
+/**
+ * Raised for syntax or operations outside the supported EL subset (for example arbitrary method
+ * calls). Callers with a richer fallback, such as script-based conditions, can retry there.
+ */
+public class UnsupportedElException extends ElException {
+
+    public UnsupportedElException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+ALTER TABLE process_instances ADD COLUMN state_codec VARCHAR(16) DEFAULT 'json';
+ALTER TABLE process_instances ADD COLUMN runtime_state BYTEA;
+UPDATE process_instances SET state_codec = 'json' WHERE state_codec IS NULL;
+ALTER TABLE process_instances ALTER COLUMN state_codec SET NOT NULL;
+
+-- Rows written by a non-JSON codec keep their whole runtime state in runtime_state.
+ALTER TABLE process_instances ALTER COLUMN variables_json DROP NOT NULL;
+ALTER TABLE process_instances ALTER COLUMN active_tokens_json DROP NOT NULL;
+ALTER TABLE process_instances ALTER COLUMN join_expected_tokens_json DROP NOT NULL;
+ALTER TABLE process_instances ALTER COLUMN join_arrived_tokens_json DROP NOT NULL;
@@ -0,0 +1,12 @@
+CREATE TABLE process_variables (
+    process_instance_id VARCHAR(255) NOT NULL REFERENCES process_instances(id) ON DELETE CASCADE,
+    name VARCHAR(255) NOT NULL,
+    value_type VARCHAR(16) NOT NULL,
+    value_text TEXT,
+    entity_version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (process_instance_id, name)
+);
+
+-- Existing rows keep their variables in the runtime state blob until their instance is next
+-- persisted, at which point the engine moves them into process_variables and flips this flag.
+ALTER TABLE process_instances ADD COLUMN variables_in_table BOOLEAN NOT NULL DEFAULT FALSE;
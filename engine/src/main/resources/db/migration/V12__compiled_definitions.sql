@@ -0,0 +1,2 @@
+-- Serialized compiled definition, valid for the compiler_version it was written with.
+ALTER TABLE process_definitions ADD COLUMN compiled_definition BYTEA;
@@ -0,0 +1,7 @@
+-- Single-row counter bumped by every deployment that adds a definition version. Engine nodes poll
+-- it to invalidate their in-memory index of the latest version per process key.
+CREATE TABLE definition_catalog (
+    id INT PRIMARY KEY,
+    revision BIGINT NOT NULL
+);
+INSERT INTO definition_catalog (id, revision) VALUES (1, 0);
@@ -0,0 +1,166 @@
+package com.abada.engine.api;
+
+import com.abada.engine.core.AbadaEngine;
+import com.abada.engine.dto.CompleteExternalTaskBatchRequest;
+import com.abada.engine.dto.CompleteExternalTaskRequest;
+import com.abada.engine.dto.ExternalTaskBatchResponse;
+import com.abada.engine.dto.FetchAndLockRequest;
+import com.abada.engine.dto.LockedExternalTask;
+import com.abada.engine.persistence.entity.ExternalTaskEntity;
+import com.abada.engine.persistence.repository.ExternalTaskRepository;
+import com.abada.engine.util.BpmnTestUtils;
+import com.abada.engine.util.DatabaseTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "abada.external-tasks.complete-batch.concurrency=3")
+@ActiveProfiles("test")
+class ExternalTaskBatchCompletionTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private AbadaEngine engine;
+    @Autowired private ExternalTaskRepository externalTasks;
+    @Autowired private DatabaseTestHelper database;
+
+    @BeforeEach
+    void deploy() throws Exception {
+        database.cleanup();
+        engine.clearMemory();
+        try (InputStream bpmn = BpmnTestUtils.loadBpmnStream("external-task-test.bpmn")) {
+            engine.deploy(bpmn);
+        }
+    }
+
+    @Test
+    void completesEveryTaskAndReportsFailuresPerItem() {
+        List<LockedExternalTask> locked = startAndLock(8);
+        List<CompleteExternalTaskBatchRequest.Item> items = new ArrayList<>();
+        for (LockedExternalTask task : locked) {
+            items.add(new CompleteExternalTaskBatchRequest.Item(task.id(), Map.of("result", task.id())));
+        }
+        items.add(3, new CompleteExternalTaskBatchRequest.Item("missing-task", Map.of()));
+
+        ResponseEntity<ExternalTaskBatchResponse> response =
+                completeBatch(new CompleteExternalTaskBatchRequest("worker-1", items));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        ExternalTaskBatchResponse body = response.getBody();
+        assertThat(body.completed()).isEqualTo(8);
+        assertThat(body.failed()).isEqualTo(1);
+        assertThat(body.results()).extracting(ExternalTaskBatchResponse.Result::id)
+                .containsExactlyElementsOf(items.stream().map(CompleteExternalTaskBatchRequest.Item::id).toList());
+        assertThat(body.results().get(3).status()).isEqualTo(ExternalTaskBatchResponse.Status.FAILED);
+        assertThat(body.results().get(3).error().code()).isEqualTo(ApiErrorCode.ENGINE_COMMAND_REJECTED.name());
+        assertThat(externalTasks.findAll()).extracting(ExternalTaskEntity::getStatus)
+                .containsOnly(ExternalTaskEntity.Status.COMPLETED);
+        assertThat(locked).allSatisfy(task -> assertThat(engine.getProcessInstanceById(task.processInstanceId())
+                .getVariable("result")).isEqualTo(task.id()));
+    }
+
+    @Test
+    void rejectsTasksLockedByAnotherWorkerWithoutFailingTheRest() {
+        List<LockedExternalTask> locked = startAndLock(2);
+
+        ExternalTaskBatchResponse body = completeBatch(new CompleteExternalTaskBatchRequest("worker-1", List.of(
+                new CompleteExternalTaskBatchRequest.Item(locked.get(0).id(), Map.of()))))
+                .getBody();
+        ExternalTaskBatchResponse intruder = completeBatch(new CompleteExternalTaskBatchRequest("worker-2", List.of(
+                new CompleteExternalTaskBatchRequest.Item(locked.get(1).id(), Map.of()))))
+                .getBody();
+
+        assertThat(body.completed()).isEqualTo(1);
+        assertThat(intruder.results()).singleElement().satisfies(result -> {
+            assertThat(result.status()).isEqualTo(ExternalTaskBatchResponse.Status.FAILED);
+            assertThat(result.error().status()).isEqualTo(403);
+            assertThat(result.error().code()).isEqualTo(ApiErrorCode.WORKER_LOCK_NOT_OWNED.name());
+        });
+        assertThat(externalTasks.findById(locked.get(1).id())).get()
+                .extracting(ExternalTaskEntity::getStatus).isEqualTo(ExternalTaskEntity.Status.LOCKED);
+    }
+
+    @Test
+    void itemIdempotencyKeysAreInterchangeableWithSingleCompletions() {
+        List<LockedExternalTask> locked = startAndLock(2);
+        String first = locked.get(0).id();
+        String second = locked.get(1).id();
+
+        ResponseEntity<String> sharedKey = restTemplate.postForEntity("/v1/external-tasks/complete-batch",
+                new CompleteExternalTaskBatchRequest("worker-1", List.of(
+                        new CompleteExternalTaskBatchRequest.Item(first, Map.of("approved", true), "complete-" + first),
+                        new CompleteExternalTaskBatchRequest.Item(second, Map.of(), "complete-" + first))),
+                String.class);
+        assertThat(sharedKey.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(sharedKey.getBody()).contains(ApiErrorCode.IDEMPOTENCY_CONFLICT.name());
+
+        ExternalTaskBatchResponse body = completeBatch(new CompleteExternalTaskBatchRequest("worker-1", List.of(
+                new CompleteExternalTaskBatchRequest.Item(first, Map.of("approved", true), "complete-" + first))))
+                .getBody();
+        assertThat(body.completed()).isEqualTo(1);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "complete-" + first);
+        ResponseEntity<Void> replay = restTemplate.exchange("/v1/external-tasks/" + first + "/complete",
+                HttpMethod.POST, new HttpEntity<>(new CompleteExternalTaskRequest("worker-1",
+                        Map.of("approved", true)), headers), Void.class);
+        assertThat(replay.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ExternalTaskBatchResponse conflict = completeBatch(new CompleteExternalTaskBatchRequest("worker-1", List.of(
+                new CompleteExternalTaskBatchRequest.Item(second, Map.of(), "complete-" + first))))
+                .getBody();
+        assertThat(conflict.results()).singleElement().satisfies(result ->
+                assertThat(result.error().code()).isEqualTo(ApiErrorCode.IDEMPOTENCY_CONFLICT.name()));
+    }
+
+    @Test
+    void batchIdempotencyKeyReplaysEveryTaskOfARetriedBatch() {
+        List<LockedExternalTask> locked = startAndLock(2);
+        CompleteExternalTaskBatchRequest request = new CompleteExternalTaskBatchRequest("worker-1",
+                locked.stream().map(task -> new CompleteExternalTaskBatchRequest.Item(task.id(), Map.of())).toList());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "batch-1");
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            ExternalTaskBatchResponse body = restTemplate.postForEntity("/v1/external-tasks/complete-batch",
+                    new HttpEntity<>(request, headers), ExternalTaskBatchResponse.class).getBody();
+            assertThat(body.completed()).isEqualTo(2);
+        }
+        ExternalTaskBatchResponse changed = restTemplate.postForEntity("/v1/external-tasks/complete-batch",
+                new HttpEntity<>(new CompleteExternalTaskBatchRequest("worker-1", List.of(
+                        new CompleteExternalTaskBatchRequest.Item(locked.get(0).id(), Map.of("late", true)))),
+                        headers), ExternalTaskBatchResponse.class).getBody();
+        assertThat(changed.results()).singleElement().satisfies(result ->
+                assertThat(result.error().code()).isEqualTo(ApiErrorCode.IDEMPOTENCY_CONFLICT.name()));
+    }
+
+    private List<LockedExternalTask> startAndLock(int count) {
+        for (int i = 0; i < count; i++) engine.startProcess("ExternalTaskTestProcess");
+        List<LockedExternalTask> locked = restTemplate.exchange("/v1/external-tasks/fetch-and-lock", HttpMethod.POST,
+                new HttpEntity<>(new FetchAndLockRequest("worker-1", List.of("test-topic"), 60_000L, count)),
+                new ParameterizedTypeReference<List<LockedExternalTask>>() {}).getBody();
+        assertThat(locked).hasSize(count);
+        return locked;
+    }
+
+    private ResponseEntity<ExternalTaskBatchResponse> completeBatch(CompleteExternalTaskBatchRequest request) {
+        return restTemplate.postForEntity("/v1/external-tasks/complete-batch", request,
+                ExternalTaskBatchResponse.class);
+    }
+}
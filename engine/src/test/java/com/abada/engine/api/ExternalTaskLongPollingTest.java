@@ -0,0 +1,89 @@
+package com.abada.engine.api;
+
+import com.abada.engine.core.AbadaEngine;
+import com.abada.engine.core.ProcessInstance;
+import com.abada.engine.dto.FetchAndLockRequest;
+import com.abada.engine.dto.LockedExternalTask;
+import com.abada.engine.util.BpmnTestUtils;
+import com.abada.engine.util.DatabaseTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** The recheck interval is far above the timeouts, so only a signal can wake a waiting request. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "abada.external-tasks.long-polling.recheck-ms=60000")
+@ActiveProfiles("test")
+class ExternalTaskLongPollingTest {
+
+    @Autowired private TestRestTemplate restTemplate;
+    @Autowired private AbadaEngine engine;
+    @Autowired private DatabaseTestHelper database;
+
+    @BeforeEach
+    void deploy() throws Exception {
+        database.cleanup();
+        engine.clearMemory();
+        try (InputStream bpmn = BpmnTestUtils.loadBpmnStream("external-task-test.bpmn")) {
+            engine.deploy(bpmn);
+        }
+    }
+
+    @Test
+    void waitingFetchIsWokenByTaskCreation() throws Exception {
+        CompletableFuture<ResponseEntity<List<LockedExternalTask>>> waiting = CompletableFuture.supplyAsync(
+                () -> fetch(new FetchAndLockRequest("worker-1", List.of("test-topic"), 10_000L, 1, 20_000L)));
+        Thread.sleep(300);
+        assertThat(waiting).isNotDone();
+
+        long started = System.nanoTime();
+        ProcessInstance instance = engine.startProcess("ExternalTaskTestProcess");
+        ResponseEntity<List<LockedExternalTask>> response = waiting.get(10, TimeUnit.SECONDS);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst("X-Abada-Worker-Protocol-Version")).isEqualTo("1");
+        assertThat(response.getBody()).singleElement()
+                .satisfies(task -> assertThat(task.processInstanceId()).isEqualTo(instance.getId()));
+    }
+
+    @Test
+    void returnsEmptyWhenNothingArrivesBeforeTheTimeout() {
+        long started = System.nanoTime();
+        ResponseEntity<List<LockedExternalTask>> response =
+                fetch(new FetchAndLockRequest("worker-1", List.of("test-topic"), 10_000L, 1, 500L));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(500));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEmpty();
+    }
+
+    @Test
+    void rejectsATimeoutAboveTheConfiguredMaximum() {
+        ResponseEntity<String> response = restTemplate.postForEntity("/v1/external-tasks/fetch-and-lock",
+                new FetchAndLockRequest("worker-1", List.of("test-topic"), 10_000L, 1, 3_600_000L), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private ResponseEntity<List<LockedExternalTask>> fetch(FetchAndLockRequest request) {
+        return restTemplate.exchange("/v1/external-tasks/fetch-and-lock", HttpMethod.POST,
+                new HttpEntity<>(request), new ParameterizedTypeReference<>() {});
+    }
+}
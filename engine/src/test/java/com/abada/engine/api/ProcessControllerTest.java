@@ -127,6 +127,47 @@ public class ProcessControllerTest {
         assertThat(abadaEngine.getProcessInstances(PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1);
     }
 
+    @Test
+    @DisplayName("POST /v1/processes/deploy/bulk should report each file and skip unchanged ones")
+    void shouldDeployFilesInBulk() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        headers.addAll(authHeaders);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("files", bpmnResource("recipe-cook.bpmn"));
+        body.add("files", bpmnResource("parallel-gateway-test.bpmn"));
+        body.add("files", bpmnResource("parallel-gateway-test.bpmn"));
+        body.add("files", new ByteArrayResource("<definitions/>".getBytes()) {
+            @Override
+            public String getFilename() {
+                return "broken.bpmn";
+            }
+        });
+
+        ResponseEntity<Map> response = restTemplate.postForEntity("/v1/processes/deploy/bulk",
+                new HttpEntity<>(body, headers), Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsEntry("deployed", 1).containsEntry("unchanged", 2)
+                .containsEntry("failed", 1);
+        List<Map<String, Object>> files = (List<Map<String, Object>>) response.getBody().get("files");
+        assertThat(files).extracting(file -> file.get("file") + ":" + file.get("status")).containsExactly(
+                "recipe-cook.bpmn:UNCHANGED", "parallel-gateway-test.bpmn:DEPLOYED",
+                "parallel-gateway-test.bpmn:UNCHANGED", "broken.bpmn:FAILED");
+        assertThat(files.get(0).get("version")).isEqualTo(1);
+        assertThat(files.get(2).get("deploymentId")).isEqualTo(files.get(1).get("deploymentId"));
+        assertThat(abadaEngine.getDeployedProcesses()).hasSize(2);
+    }
+
+    private ByteArrayResource bpmnResource(String name) throws Exception {
+        return new ByteArrayResource(BpmnTestUtils.loadBpmnStream(name).readAllBytes()) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+        };
+    }
+
     @Test
     @DisplayName("POST /v1/processes/instance/{id}/fail should mark a process as FAILED")
     void shouldFailProcessInstance() {
@@ -193,6 +234,30 @@ public class ProcessControllerTest {
                 .isNotEqualTo(firstPage.getBody().getFirst().id());
     }
 
+    @Test
+    @DisplayName("GET /v1/processes/instances?includeVariables=false should omit variables")
+    void shouldListProcessInstancesWithoutVariables() {
+        ProcessInstance started = abadaEngine.startProcess("recipe-cook", "test-user", Map.of("dish", "soup"));
+
+        HttpEntity<Void> requestEntity = new HttpEntity<>(authHeaders);
+        ResponseEntity<List<ProcessInstanceDTO>> response = restTemplate.exchange(
+                "/v1/processes/instances?includeVariables=false&status=RUNNING", HttpMethod.GET, requestEntity,
+                new ParameterizedTypeReference<>() {
+                });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst("X-Total-Count")).isEqualTo("1");
+        ProcessInstanceDTO listed = response.getBody().getFirst();
+        assertThat(listed.id()).isEqualTo(started.getId());
+        assertThat(listed.currentActivityId()).isEqualTo(started.getActiveTokens().getFirst());
+        assertThat(listed.variables()).isNull();
+
+        ProcessInstance reloaded = abadaEngine.getProcessInstanceById(started.getId());
+        assertThat(reloaded.isVariablesMaterialized()).isFalse();
+        assertThat(reloaded.getVariable("dish")).isEqualTo("soup");
+        assertThat(reloaded.isVariablesMaterialized()).isTrue();
+    }
+
     /**
      * Verifies that the GET /v1/processes/{id} endpoint returns a 404 Not Found
      * status for a process definition that does not exist.
@@ -0,0 +1,69 @@
+package com.abada.engine.config;
+
+import com.abada.engine.security.Identity;
+import com.abada.engine.security.IdentityContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.Scope;
+import org.apache.catalina.connector.Connector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "abada.execution.virtual-threads=true")
+@ActiveProfiles("test")
+class VirtualThreadExecutionTest {
+
+    private static final ContextKey<String> TRACE_MARKER = ContextKey.named("trace-marker");
+
+    @Autowired private ServletWebServerApplicationContext context;
+    @Autowired private TaskScheduler scheduler;
+    @Autowired private TaskDecorator contextPropagation;
+
+    @Test
+    void servesRequestsAndRunsPollersOnVirtualThreads() throws Exception {
+        Connector connector = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+        assertThat(connector.getProtocolHandler().getExecutor().getClass().getSimpleName())
+                .isEqualTo("VirtualThreadExecutor");
+
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        scheduler.schedule(() -> virtual.complete(Thread.currentThread().isVirtual()), Instant.now());
+        assertThat(virtual.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void carriesIdentityAndTraceContextOntoAnotherThread() throws Exception {
+        CompletableFuture<List<String>> seen = new CompletableFuture<>();
+        Runnable task;
+        IdentityContext.set(new Identity("alice", List.of("customers")));
+        try (Scope ignored = Context.current().with(TRACE_MARKER, "trace-1").makeCurrent()) {
+            task = contextPropagation.decorate(() -> seen.complete(List.of(
+                    IdentityContext.get().map(Identity::username).orElse("none"),
+                    String.valueOf(Context.current().get(TRACE_MARKER)))));
+        } finally {
+            IdentityContext.clear();
+        }
+
+        CompletableFuture<Boolean> clearedAfterwards = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            task.run();
+            clearedAfterwards.complete(IdentityContext.get().isEmpty());
+        }).join();
+
+        assertThat(seen.get(5, TimeUnit.SECONDS)).containsExactly("alice", "trace-1");
+        assertThat(clearedAfterwards.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
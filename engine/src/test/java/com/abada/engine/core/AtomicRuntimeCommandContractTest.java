@@ -32,6 +32,7 @@ class AtomicRuntimeCommandContractTest {
                 ExternalTaskCommandService.class.getMethod("setRetries", String.class, int.class),
                 TimerJobCommandService.class.getMethod("execute", String.class, String.class, java.time.Instant.class),
                 TimerJobCommandService.class.getMethod("recordFailure", String.class, String.class),
+                TimerJobCommandService.class.getMethod("release", String.class, String.class),
                 IdempotencyService.class.getMethod("execute", String.class, String.class, Object.class,
                         java.util.function.Supplier.class),
                 OutboxService.class.getMethod("claim", String.class, int.class, java.time.Instant.class),
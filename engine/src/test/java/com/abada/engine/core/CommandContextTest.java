@@ -0,0 +1,48 @@
+package com.abada.engine.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommandContextTest {
+
+    private final CommandContext context = new CommandContext(null);
+
+    @BeforeEach
+    void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void endTransaction() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void runsEachKeysActionsOnceAroundCommit() {
+        List<String> ran = new ArrayList<>();
+        for (String topic : List.of("payments", "shipping", "payments")) {
+            context.beforeCommit(ExternalTaskSignals.class, topic, () -> ran.add("notify " + topic));
+            context.afterCommit(ExternalTaskSignals.class, topic, () -> ran.add("signal " + topic));
+        }
+        assertThat(ran).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> {
+            synchronization.beforeCommit(false);
+            synchronization.afterCommit();
+        });
+
+        assertThat(ran).containsExactly("notify payments", "notify shipping", "signal payments", "signal shipping");
+    }
+}
@@ -0,0 +1,171 @@
+package com.abada.engine.core;
+
+import com.abada.engine.core.model.ParsedProcessDefinition;
+import com.abada.engine.observability.EngineMetrics;
+import com.abada.engine.spi.JavaDelegate;
+import com.abada.engine.util.BpmnTestUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DefinitionCacheEvictionTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    private final JavaDelegateResolver delegates = new JavaDelegateResolver(beanFactory);
+    private final ParsedProcessDefinition recipe = BpmnTestUtils.parse("recipe-cook.bpmn");
+    private final long twoEntries = 2 * ProcessDefinitionCache.weigh(recipe.withoutRawXml());
+
+    @Test
+    void lruEvictsTheLeastRecentlyUsedDefinition() {
+        ProcessDefinitionCache cache = cache(twoEntries, "lru", false);
+        cache.put("a", recipe);
+        cache.put("b", recipe);
+        cache.getIfPresent("a");
+
+        cache.put("c", recipe);
+
+        assertThat(cache.getIfPresent("b")).isNull();
+        assertThat(cache.getIfPresent("a")).isNotNull();
+        assertThat(cache.getIfPresent("c")).isNotNull();
+        assertThat(cache.weight()).isLessThanOrEqualTo(twoEntries);
+        assertThat(registry.get("abada.definition.cache.evictions").counter().count()).isEqualTo(1);
+        assertThat(registry.get("abada.definition.cache.entries").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void lfuEvictsTheLeastFrequentlyUsedDefinition() {
+        ProcessDefinitionCache cache = cache(twoEntries, "lfu", false);
+        cache.put("a", recipe);
+        cache.put("b", recipe);
+        cache.getIfPresent("a");
+        cache.getIfPresent("a");
+        cache.getIfPresent("b");
+
+        cache.put("c", recipe);
+
+        assertThat(cache.getIfPresent("b")).isNull();
+        assertThat(cache.getIfPresent("a")).isNotNull();
+    }
+
+    @Test
+    void evictionForgetsTheDelegatesResolvedForTheDefinition() {
+        ProcessDefinitionCache cache = cache(twoEntries, "lru", false);
+        JavaDelegate bean = execution -> { };
+        beanFactory.registerSingleton("approvalDelegate", bean);
+        cache.put("a", recipe);
+        cache.put("b", recipe);
+        delegates.resolve("a", "approvalDelegate");
+        delegates.resolve("b", "approvalDelegate");
+        cache.getIfPresent("b");
+
+        cache.put("c", recipe);
+        beanFactory.destroySingleton("approvalDelegate");
+
+        assertThat(delegates.resolve("b", "approvalDelegate")).isSameAs(bean);
+        assertThatThrownBy(() -> delegates.resolve("a", "approvalDelegate"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not found");
+
+        cache.clear();
+        assertThatThrownBy(() -> delegates.resolve("b", "approvalDelegate"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not found");
+    }
+
+    @Test
+    void loadsOnceAndDropsRawXmlUnlessRetained() {
+        ProcessDefinitionCache cache = cache(Long.MAX_VALUE, "lru", false);
+        AtomicInteger loads = new AtomicInteger();
+
+        ParsedProcessDefinition first = cache.get("a", () -> {
+            loads.incrementAndGet();
+            return recipe;
+        });
+        ParsedProcessDefinition second = cache.get("a", () -> {
+            loads.incrementAndGet();
+            return recipe;
+        });
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(first.getRawXml()).isNull();
+        assertThat(first.getUserTask("choose-recipe")).isNotNull();
+        assertThat(registry.get("abada.definition.cache").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(registry.get("abada.definition.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(registry.get("abada.definition.load.duration").timer().count()).isEqualTo(1);
+
+        ProcessDefinitionCache retaining = cache(Long.MAX_VALUE, "lru", true);
+        retaining.put("a", recipe);
+        assertThat(retaining.getIfPresent("a").getRawXml()).isEqualTo(recipe.getRawXml());
+        assertThat(retaining.weight()).isGreaterThan(cache.weight());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoadWithoutBlockingOtherDeployments() throws Exception {
+        ProcessDefinitionCache cache = cache(Long.MAX_VALUE, "lru", false);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<ParsedProcessDefinition> slowLoader = () -> {
+            loads.incrementAndGet();
+            loadStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return recipe;
+        };
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<ParsedProcessDefinition> first = threads.submit(() -> cache.get("a", slowLoader));
+            loadStarted.await();
+            Future<ParsedProcessDefinition> second = threads.submit(() -> cache.get("a", slowLoader));
+
+            assertThat(cache.get("b", () -> recipe)).isNotNull();
+            assertThat(second.isDone()).isFalse();
+
+            release.countDown();
+            assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.weight()).isEqualTo(2 * ProcessDefinitionCache.weigh(recipe.withoutRawXml()));
+    }
+
+    @Test
+    void aFailedLoadIsNotCached() {
+        ProcessDefinitionCache cache = cache(Long.MAX_VALUE, "lru", false);
+
+        assertThatThrownBy(() -> cache.get("a", () -> {
+            throw new IllegalStateException("unreadable");
+        })).hasMessage("unreadable");
+
+        assertThat(cache.get("a", () -> recipe)).isNotNull();
+        assertThat(cache.weight()).isEqualTo(ProcessDefinitionCache.weigh(recipe.withoutRawXml()));
+    }
+
+    @Test
+    void rejectsUnknownPolicies() {
+        assertThatThrownBy(() -> cache(1, "fifo", false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("fifo");
+    }
+
+    private ProcessDefinitionCache cache(long maxWeight, String policy, boolean retainRawXml) {
+        return new ProcessDefinitionCache(new EngineMetrics(registry), delegates, maxWeight, policy, retainRawXml);
+    }
+}
@@ -0,0 +1,147 @@
+package com.abada.engine.core;
+
+import com.abada.engine.core.exception.ProcessEngineException;
+import com.abada.engine.dto.FetchAndLockRequest;
+import com.abada.engine.dto.LockedExternalTask;
+import com.abada.engine.persistence.entity.ExternalTaskEntity;
+import com.abada.engine.persistence.repository.ActivityHistoryRepository;
+import com.abada.engine.persistence.repository.ExternalTaskRepository;
+import com.abada.engine.util.BpmnTestUtils;
+import com.abada.engine.util.DatabaseTestHelper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ExternalTaskFetchTest {
+
+    @Autowired private AbadaEngine engine;
+    @Autowired private ExternalTaskCommandService commands;
+    @Autowired private ExternalTaskRepository externalTasks;
+    @Autowired private ActivityHistoryRepository history;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private DatabaseTestHelper database;
+
+    @BeforeEach
+    void deploy() throws Exception {
+        database.cleanup();
+        engine.clearMemory();
+        for (String resource : List.of("external-task-test.bpmn", "load/external-task.bpmn")) {
+            try (InputStream bpmn = BpmnTestUtils.loadBpmnStream(resource)) {
+                engine.deploy(bpmn);
+            }
+        }
+    }
+
+    @Test
+    void claimsAcrossTopicsBeyondTheFormerCapWithConstantStatements() {
+        for (int i = 0; i < 40; i++) {
+            engine.startProcess("ExternalTaskTestProcess");
+            engine.startProcess("LoadExternalTask", "loader", Map.of("amount", i));
+        }
+
+        double before = fetchStatements();
+        List<LockedExternalTask> small = commands.fetchAndLock(
+                new FetchAndLockRequest("worker-1", List.of("test-topic", "load"), 10_000L, 2));
+        double smallStatements = fetchStatements() - before;
+        List<LockedExternalTask> large = commands.fetchAndLock(
+                new FetchAndLockRequest("worker-1", List.of("test-topic", "load"), 10_000L, 75));
+        double largeStatements = fetchStatements() - before - smallStatements;
+
+        assertThat(small).hasSize(2);
+        assertThat(large).hasSize(75).extracting(LockedExternalTask::topicName).contains("test-topic", "load");
+        assertThat(large).extracting(LockedExternalTask::id).doesNotContainAnyElementsOf(
+                small.stream().map(LockedExternalTask::id).toList());
+        assertThat(large).filteredOn(task -> task.topicName().equals("load"))
+                .allSatisfy(task -> assertThat(task.variables()).containsKey("amount"));
+        assertThat(externalTasks.findAll()).filteredOn(task -> task.getStatus() == ExternalTaskEntity.Status.LOCKED)
+                .hasSize(77).allSatisfy(task -> assertThat(task.getWorkerId()).isEqualTo("worker-1"));
+        assertThat(history.findAll()).filteredOn(row -> row.getEventType().equals("EXTERNAL_TASK_LOCKED"))
+                .hasSize(77);
+        // Locks take one query, instance and variable reads one each, and the writes are batched.
+        assertThat(largeStatements).isEqualTo(smallStatements);
+    }
+
+    @Test
+    void claimsSeveralTopicsWithTheStatementsOfOne() {
+        for (int i = 0; i < 10; i++) {
+            engine.startProcess("ExternalTaskTestProcess");
+            engine.startProcess("LoadExternalTask", "loader", Map.of("amount", i));
+        }
+
+        double before = fetchStatements();
+        List<LockedExternalTask> single = commands.fetchAndLock(
+                new FetchAndLockRequest("worker-1", List.of("load"), 10_000L, 4));
+        double singleStatements = fetchStatements() - before;
+        List<LockedExternalTask> several = commands.fetchAndLock(
+                new FetchAndLockRequest("worker-1", List.of("load", "test-topic", "idle"), 10_000L, 6));
+        double severalStatements = fetchStatements() - before - singleStatements;
+
+        assertThat(single).hasSize(4);
+        assertThat(several).hasSize(6).extracting(LockedExternalTask::topicName)
+                .containsExactlyInAnyOrder("load", "load", "load", "test-topic", "test-topic", "test-topic");
+        assertThat(severalStatements).isEqualTo(singleStatements);
+    }
+
+    @Test
+    void sharesAMultiTopicFetchBetweenTopics() {
+        for (int i = 0; i < 30; i++) engine.startProcess("LoadExternalTask", "loader", Map.of("amount", i));
+        for (int i = 0; i < 3; i++) engine.startProcess("ExternalTaskTestProcess");
+
+        List<LockedExternalTask> even = commands.fetchAndLock(
+                new FetchAndLockRequest("worker-1", List.of("load", "test-topic"), 10_000L, 4));
+        // Topics are taken round-robin: test-topic has one task left, so load gets the rest.
+        List<LockedExternalTask> toppedUp = commands.fetchAndLock(
+                new FetchAndLockRequest("worker-1", List.of("load", "test-topic"), 10_000L, 6));
+
+        assertThat(even).extracting(LockedExternalTask::topicName)
+                .containsExactlyInAnyOrder("load", "load", "test-topic", "test-topic");
+        assertThat(toppedUp).extracting(LockedExternalTask::topicName)
+                .containsExactlyInAnyOrder("load", "load", "load", "load", "load", "test-topic");
+        assertThat(toppedUp).extracting(LockedExternalTask::id).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void returnsOnlyTheWhitelistedVariablesOfEachTopic() {
+        engine.startProcess("LoadExternalTask", "loader",
+                Map.of("amount", 42, "customer", "c-1", "document", "x".repeat(100_000)));
+        engine.startProcess("ExternalTaskTestProcess", "loader", Map.of("amount", 7, "document", "y"));
+
+        List<LockedExternalTask> locked = commands.fetchAndLock(new FetchAndLockRequest("worker-1",
+                List.of("test-topic", "load"), 10_000L, 2, null,
+                Map.of("load", List.of("amount", "customer", "missing"), "test-topic", List.of())));
+
+        assertThat(locked).hasSize(2);
+        assertThat(locked).filteredOn(task -> task.topicName().equals("load")).singleElement()
+                .satisfies(task -> assertThat(task.variables()).containsExactlyInAnyOrderEntriesOf(
+                        Map.of("amount", 42, "customer", "c-1")));
+        assertThat(locked).filteredOn(task -> task.topicName().equals("test-topic")).singleElement()
+                .satisfies(task -> assertThat(task.variables()).isEmpty());
+    }
+
+    @Test
+    void rejectsAWhitelistForATopicThatIsNotFetched() {
+        assertThatThrownBy(() -> commands.fetchAndLock(new FetchAndLockRequest("worker-1", List.of("load"),
+                10_000L, 1, null, Map.of("other", List.of("amount")))))
+                .isInstanceOf(ProcessEngineException.class);
+    }
+
+    private double fetchStatements() {
+        DistributionSummary statements = meterRegistry.find("abada.command.statements")
+                .tag("command", "ExternalTaskCommandService.fetchAndLock")
+                .summary();
+        return statements == null ? 0 : statements.totalAmount();
+    }
+}
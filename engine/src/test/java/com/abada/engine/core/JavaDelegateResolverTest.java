@@ -0,0 +1,46 @@
+package com.abada.engine.core;
+
+import com.abada.engine.delegates.TestDelegate;
+import com.abada.engine.spi.JavaDelegate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JavaDelegateResolverTest {
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    private final JavaDelegateResolver resolver = new JavaDelegateResolver(beanFactory);
+
+    @Test
+    void instantiatesDelegateClassesThroughCachedConstructor() {
+        JavaDelegate first = resolver.resolve("dep-1", TestDelegate.class.getName());
+        JavaDelegate second = resolver.resolve("dep-1", TestDelegate.class.getName());
+
+        assertThat(first).isInstanceOf(TestDelegate.class);
+        assertThat(second).isInstanceOf(TestDelegate.class).isNotSameAs(first);
+    }
+
+    @Test
+    void prefersSpringBeanWithMatchingNameAndDropsItOnEviction() {
+        JavaDelegate bean = execution -> execution.setVariable("fromBean", true);
+        beanFactory.registerSingleton("approvalDelegate", bean);
+
+        assertThat(resolver.resolve("dep-1", "approvalDelegate")).isSameAs(bean);
+        assertThat(resolver.resolve("dep-1", "approvalDelegate")).isSameAs(bean);
+
+        resolver.evict("dep-1");
+        beanFactory.destroySingleton("approvalDelegate");
+        assertThatThrownBy(() -> resolver.resolve("dep-1", "approvalDelegate"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not found");
+    }
+
+    @Test
+    void rejectsClassesThatAreNotDelegates() {
+        assertThatThrownBy(() -> resolver.resolve("dep-1", String.class.getName()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("does not implement");
+    }
+}
@@ -0,0 +1,60 @@
+package com.abada.engine.core;
+
+import com.abada.engine.core.model.ProcessStatus;
+import com.abada.engine.observability.EngineMetrics;
+import com.abada.engine.persistence.entity.JobEntity;
+import com.abada.engine.persistence.repository.JobRepository;
+import com.abada.engine.util.BpmnTestUtils;
+import com.abada.engine.util.DatabaseTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Uses its own database, so the job pollers of other cached test contexts cannot lease its jobs. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:parallel-timer-jobs;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false",
+        "abada.jobs.concurrency=4",
+        "abada.jobs.batch-size=4",
+        "abada.jobs.max-batch-size=8"})
+@ActiveProfiles("test")
+class ParallelTimerJobTest {
+
+    @Autowired private AbadaEngine engine;
+    @Autowired private JobScheduler scheduler;
+    @Autowired private JobRepository jobs;
+    @Autowired private EngineMetrics metrics;
+    @Autowired private DatabaseTestHelper database;
+
+    @BeforeEach
+    void deploy() throws Exception {
+        database.cleanup();
+        engine.clearMemory();
+        try (InputStream bpmn = BpmnTestUtils.loadBpmnStream("load/timer.bpmn")) {
+            engine.deploy(bpmn);
+        }
+    }
+
+    @Test
+    void drainsABacklogLargerThanOneBatchInASinglePoll() {
+        List<String> instanceIds = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            instanceIds.add(engine.startProcess("LoadTimer").getId());
+        }
+        assertThat(jobs.count()).isEqualTo(30);
+
+        scheduler.executeDueJobs();
+
+        assertThat(jobs.findAll()).extracting(JobEntity::getStatus).containsOnly(JobEntity.Status.COMPLETED);
+        assertThat(instanceIds).allSatisfy(id ->
+                assertThat(engine.getProcessInstanceById(id).getStatus()).isEqualTo(ProcessStatus.COMPLETED));
+        assertThat(metrics.getJobBacklog()).isZero();
+    }
+}
@@ -0,0 +1,45 @@
+package com.abada.engine.core;
+
+import com.abada.engine.observability.EngineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.script.Bindings;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScriptEnginePoolTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ScriptEnginePool pool = new ScriptEnginePool(new EngineMetrics(registry), 1, 16, 1_000);
+
+    @Test
+    void compilesOncePerDeploymentAndTaskAndIsolatesBindings() throws Exception {
+        String script = "var result = typeof seen === 'undefined' ? input * 2 : -1; seen = true;";
+        Bindings first = pool.evaluate("dep-1", "calc", script, Map.of("input", 2));
+        Bindings second = pool.evaluate("dep-1", "calc", script, Map.of("input", 5));
+
+        assertThat(((Number) first.get("result")).intValue()).isEqualTo(4);
+        assertThat(((Number) second.get("result")).intValue()).isEqualTo(10);
+        assertThat(compileCache("hit")).isEqualTo(1.0);
+        assertThat(compileCache("miss")).isEqualTo(1.0);
+        assertThat(registry.get("abada.script.evaluation.duration").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void recompilesWhenSourceChangesOrCacheIsInvalidated() throws Exception {
+        pool.evaluate("dep-1", "calc", "var result = 1;", Map.of());
+        Bindings changed = pool.evaluate("dep-1", "calc", "var result = 2;", Map.of());
+        pool.invalidate();
+        pool.evaluate("dep-1", "calc", "var result = 2;", Map.of());
+
+        assertThat(((Number) changed.get("result")).intValue()).isEqualTo(2);
+        assertThat(compileCache("miss")).isEqualTo(3.0);
+        assertThat(compileCache("hit")).isZero();
+    }
+
+    private double compileCache(String result) {
+        return registry.get("abada.script.compile_cache").tag("result", result).counter().count();
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.io.InputStream;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +28,9 @@ class ScriptTaskTest {
         try (InputStream bpmn = BpmnTestUtils.loadBpmnStream("script-task-test.bpmn")) {
             engine.deploy(bpmn);
         }
+        try (InputStream bpmn = BpmnTestUtils.loadBpmnStream("script-mutation-test.bpmn")) {
+            engine.deploy(bpmn);
+        }
     }
 
     @Test
@@ -40,4 +44,32 @@ class ScriptTaskTest {
         engine.completeTask(review.getId(), "alice", List.of(), Map.of());
         assertThat(engine.getProcessInstanceById(instance.getId()).isCompleted()).isTrue();
     }
+
+    @Test
+    void writesBackOnlyTheVariablesTheScriptChanged() {
+        ProcessInstance instance = new ProcessInstance(BpmnTestUtils.parse("script-task-test.bpmn"));
+        instance.setVariable("input", 21);
+        instance.setVariable("order", new HashMap<>(Map.of("id", "order-1")));
+        instance.drainDirtyVariables();
+
+        instance.advance();
+
+        assertThat(instance.drainDirtyVariables()).containsOnlyKeys("scriptResult");
+    }
+
+    @Test
+    void persistsAVariableTheScriptMutatedInPlace() {
+        Map<String, Object> order = new HashMap<>(Map.of("id", "order-1",
+                "details", new HashMap<>(Map.of("status", "new"))));
+        ProcessInstance instance = engine.startProcess("ScriptMutationProcess", "alice", Map.of("order", order));
+        TaskInstance approve = engine.getTaskManager().getTasksForProcessInstance(instance.getId()).getFirst();
+
+        engine.completeTask(approve.getId(), "alice", List.of(), Map.of());
+        engine.clearMemory();
+
+        ProcessInstance reloaded = engine.getProcessInstanceById(instance.getId());
+        assertThat(reloaded.getActiveTokens()).containsExactly("review");
+        assertThat(reloaded.getVariable("order")).isEqualTo(Map.of("id", "order-1",
+                "details", Map.of("status", "shipped")));
+    }
 }
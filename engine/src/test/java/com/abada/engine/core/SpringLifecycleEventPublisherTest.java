@@ -0,0 +1,63 @@
+package com.abada.engine.core;
+
+import com.abada.engine.config.ExecutionConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpringLifecycleEventPublisherTest {
+
+    private HttpServer server;
+    private final Map<String, String> deliveredEventIds = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void startWebhookTargets() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        for (String path : new String[] {"/ok-1", "/ok-2", "/broken"}) {
+            server.createContext(path, exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                deliveredEventIds.put(path, exchange.getRequestHeaders().getFirst("X-Abada-Event-Id"));
+                exchange.sendResponseHeaders(path.equals("/broken") ? 503 : 204, -1);
+                exchange.close();
+            });
+        }
+        server.start();
+    }
+
+    @AfterEach
+    void stopWebhookTargets() {
+        server.stop(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void attemptsEveryWebhookBeforeReportingAFailure(boolean virtualThreads) {
+        String base = "http://localhost:" + server.getAddress().getPort();
+        SpringLifecycleEventPublisher publisher = new SpringLifecycleEventPublisher(event -> { },
+                RestClient.builder(), new ExecutionConfig().contextPropagatingTaskDecorator(),
+                base + "/ok-1, " + base + "/broken," + base + "/ok-2", virtualThreads);
+        PublishedLifecycleEvent event = new PublishedLifecycleEvent("evt-1", "PROCESS_INSTANCE", "pi-1",
+                "PROCESS_STARTED", "{}", Instant.now());
+
+        try {
+            assertThatThrownBy(() -> publisher.publish(event)).isInstanceOf(HttpServerErrorException.class);
+        } finally {
+            publisher.close();
+        }
+
+        assertThat(deliveredEventIds).containsOnly(
+                Map.entry("/ok-1", "evt-1"), Map.entry("/broken", "evt-1"), Map.entry("/ok-2", "evt-1"));
+    }
+}
@@ -0,0 +1,53 @@
+package com.abada.engine.core;
+
+import com.abada.engine.persistence.entity.JobEntity;
+import com.abada.engine.persistence.repository.JobRepository;
+import com.abada.engine.util.BpmnTestUtils;
+import com.abada.engine.util.DatabaseTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** A lease far shorter than any job, so every claimed job has lost its lease by the time a worker starts it. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:timer-job-leases;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false",
+        "abada.jobs.lease-ms=1",
+        "abada.jobs.batch-size=4",
+        "abada.jobs.max-batch-size=8"})
+@ActiveProfiles("test")
+class TimerJobLeaseTest {
+
+    @Autowired private AbadaEngine engine;
+    @Autowired private JobScheduler scheduler;
+    @Autowired private JobRepository jobs;
+    @Autowired private DatabaseTestHelper database;
+
+    @BeforeEach
+    void deploy() throws Exception {
+        database.cleanup();
+        engine.clearMemory();
+        try (InputStream bpmn = BpmnTestUtils.loadBpmnStream("load/timer.bpmn")) {
+            engine.deploy(bpmn);
+        }
+    }
+
+    @Test
+    void releasesJobsWhoseLeaseExpiredBeforeTheyStartedWithoutCountingTheAttempt() {
+        for (int i = 0; i < 6; i++) engine.startProcess("LoadTimer");
+
+        scheduler.executeDueJobs();
+
+        // The poll stops after the first batch instead of re-claiming the released jobs.
+        assertThat(jobs.findAll()).hasSize(6).allSatisfy(job -> {
+            assertThat(job.getStatus()).isEqualTo(JobEntity.Status.AVAILABLE);
+            assertThat(job.getAttempts()).isZero();
+            assertThat(job.getLeaseOwner()).isNull();
+        });
+    }
+}
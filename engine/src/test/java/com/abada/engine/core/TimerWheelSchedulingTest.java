@@ -0,0 +1,61 @@
+package com.abada.engine.core;
+
+import com.abada.engine.core.model.TaskInstance;
+import com.abada.engine.persistence.entity.JobEntity;
+import com.abada.engine.persistence.repository.JobRepository;
+import com.abada.engine.util.BpmnTestUtils;
+import com.abada.engine.util.DatabaseTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "abada.jobs.timer-wheel.enabled=true",
+        "abada.jobs.timer-wheel.tick-ms=50"})
+@ActiveProfiles("test")
+class TimerWheelSchedulingTest {
+
+    @Autowired private AbadaEngine engine;
+    @Autowired private TaskManager taskManager;
+    @Autowired private JobRepository jobs;
+    @Autowired private DatabaseTestHelper database;
+
+    @BeforeEach
+    void deploy() throws Exception {
+        database.cleanup();
+        engine.clearMemory();
+        try (InputStream bpmn = BpmnTestUtils.loadBpmnStream("timer-event-test.bpmn")) {
+            engine.deploy(bpmn);
+        }
+    }
+
+    @Test
+    void firesANearTermTimerWithoutWaitingForThePoll() throws InterruptedException {
+        ProcessInstance instance = engine.startProcess("TimerEventProcess");
+        TaskInstance initial = taskManager.getTasksForProcessInstance(instance.getId()).get(0);
+        engine.completeTask(initial.getId(), "test-user", List.of(), Map.of());
+        JobEntity job = jobs.findAll().get(0);
+
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(5));
+        while (jobs.findById(job.getId()).orElseThrow().getStatus() != JobEntity.Status.COMPLETED
+                && Instant.now().isBefore(deadline)) {
+            Thread.sleep(50);
+        }
+
+        JobEntity fired = jobs.findById(job.getId()).orElseThrow();
+        assertThat(fired.getStatus()).isEqualTo(JobEntity.Status.COMPLETED);
+        assertThat(fired.getAttempts()).isEqualTo(1);
+        assertThat(taskManager.getTasksForProcessInstance(instance.getId()))
+                .extracting(TaskInstance::getTaskDefinitionKey).contains("FinalTask");
+    }
+}
@@ -0,0 +1,57 @@
+package com.abada.engine.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimerWheelTest {
+
+    private static final Instant START = Instant.ofEpochMilli(1_000_000);
+
+    private final TimerWheel wheel = new TimerWheel(100, 1_000, 3, START);
+
+    @Test
+    void firesAJobOnTheFirstTickAtOrAfterItsDueTime() {
+        wheel.add("job-1", START.plusMillis(250), START);
+
+        assertThat(wheel.advance(START.plusMillis(200))).isEmpty();
+        assertThat(wheel.advance(START.plusMillis(299))).isEmpty();
+        assertThat(wheel.advance(START.plusMillis(300))).containsExactly("job-1");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void firesOverdueJobsOnTheNextTick() {
+        wheel.add("late", START.minusSeconds(5), START);
+
+        assertThat(wheel.advance(START.plusMillis(100))).containsExactly("late");
+    }
+
+    @Test
+    void catchesUpOnEveryJobWhenTicksWereMissed() {
+        wheel.add("a", START.plusMillis(100), START);
+        wheel.add("b", START.plusMillis(900), START);
+
+        assertThat(wheel.advance(START.plusSeconds(30))).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void refusesJobsBeyondTheLookaheadOrCapacity() {
+        assertThat(wheel.add("far", START.plusMillis(1_001), START)).isFalse();
+
+        assertThat(wheel.add("a", START.plusMillis(100), START)).isTrue();
+        assertThat(wheel.add("a", START.plusMillis(100), START)).isTrue();
+        assertThat(wheel.add("b", START.plusMillis(100), START)).isTrue();
+        assertThat(wheel.add("c", START.plusMillis(100), START)).isTrue();
+        assertThat(wheel.add("d", START.plusMillis(100), START)).isFalse();
+        assertThat(wheel.size()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsALookaheadShorterThanATick() {
+        assertThatThrownBy(() -> new TimerWheel(100, 50, 10, START)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -29,6 +29,32 @@ class AssignmentEvaluatorTest {
         assertThat(result.candidateGroups()).containsExactly("finance");
     }
 
+    @Test void evaluatesElExpressionsBeyondPlainPaths() {
+        var assignment = new UserTaskAssignment(
+                Optional.of(new DynamicExpression("${amount > 1000 ? approvers.senior : approvers.junior}")),
+                List.of(), List.of(new DynamicExpression("${region.code}")), AssignmentStrategy.DIRECT);
+
+        var result = evaluator.evaluate(assignment, Map.of("amount", 5000,
+                "approvers", Map.of("senior", "carol", "junior", "dave")));
+
+        assertThat(result.assignee()).isEqualTo("carol");
+        assertThat(result.candidateGroups()).isEmpty();
+    }
+
+    @Test void resolvesExpressionsOutsideTheElSubsetAsPlainPaths() {
+        var assignment = new UserTaskAssignment(Optional.of(new DynamicExpression("${fn:owner(request)}")),
+                List.of(new DynamicExpression("${reviewers.stream()}")),
+                List.of(new DynamicExpression("${request.team}")), AssignmentStrategy.DIRECT);
+
+        var result = evaluator.evaluate(assignment, Map.of("request", Map.of("team", "finance"),
+                "reviewers", List.of("alice")));
+
+        assertThat(((DynamicExpression) assignment.assignee().orElseThrow()).expression()).isNull();
+        assertThat(result.assignee()).isNull();
+        assertThat(result.candidateUsers()).isEmpty();
+        assertThat(result.candidateGroups()).containsExactly("finance");
+    }
+
     @Test void rejectsMultipleResolvedAssignees() {
         var assignment = new UserTaskAssignment(Optional.of(new DynamicExpression("${owners}")),
                 List.of(), List.of(), AssignmentStrategy.DIRECT);
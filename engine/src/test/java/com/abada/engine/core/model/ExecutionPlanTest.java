@@ -0,0 +1,58 @@
+package com.abada.engine.core.model;
+
+import com.abada.engine.core.model.ExecutionPlan.NodeKind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionPlanTest {
+
+    @Test
+    void resolvesKindsTargetsIncomingCountsAndForkJoinPairsOnce() {
+        TaskMeta review = new TaskMeta();
+        review.setId("review");
+        ParsedProcessDefinition definition = new ParsedProcessDefinition(
+                "plan", "Plan", null, "start",
+                Map.of("review", review),
+                Map.of("charge", new ServiceTaskMeta("charge", "Charge", "com.example.Charge", null),
+                        "ship", new ServiceTaskMeta("ship", "Ship", null, "shipping")),
+                Map.of("score", new ScriptTaskMeta("score", "Score", "javascript", "var s = 1;")),
+                List.of(
+                        new SequenceFlow("f1", "start", "fork", null, null, false),
+                        new SequenceFlow("f2", "fork", "charge", null, null, false),
+                        new SequenceFlow("f3", "fork", "score", null, null, false),
+                        new SequenceFlow("f4", "charge", "join", null, null, false),
+                        new SequenceFlow("f5", "score", "join", null, null, false),
+                        new SequenceFlow("f6", "join", "ship", null, null, false),
+                        new SequenceFlow("f7", "ship", "review", null, null, false),
+                        new SequenceFlow("f8", "review", "end", null, null, false)),
+                Map.of("fork", new GatewayMeta("fork", GatewayMeta.Type.PARALLEL, null),
+                        "join", new GatewayMeta("join", GatewayMeta.Type.PARALLEL, null)),
+                Map.of(), Map.of("end", "end"), "<xml/>", null, null);
+
+        ExecutionPlan plan = definition.getExecutionPlan();
+        int fork = plan.indexOf("fork");
+        int join = plan.indexOf("join");
+
+        assertThat(plan.indexOf("start")).isZero();
+        assertThat(plan.indexOf("missing")).isEqualTo(ExecutionPlan.NONE);
+        assertThat(plan.kind(fork)).isEqualTo(NodeKind.PARALLEL_FORK);
+        assertThat(plan.kind(join)).isEqualTo(NodeKind.JOIN);
+        assertThat(plan.kind(plan.indexOf("charge"))).isEqualTo(NodeKind.SERVICE_TASK);
+        assertThat(plan.kind(plan.indexOf("score"))).isEqualTo(NodeKind.SCRIPT_TASK);
+        assertThat(plan.kind(plan.indexOf("ship"))).isEqualTo(NodeKind.EXTERNAL_SERVICE_TASK);
+        assertThat(plan.kind(plan.indexOf("review")).isWaitState()).isTrue();
+        assertThat(plan.kind(plan.indexOf("end"))).isEqualTo(NodeKind.END_EVENT);
+        assertThat(plan.kind(plan.indexOf("start"))).isEqualTo(NodeKind.PASS_THROUGH);
+
+        assertThat(plan.outgoingTargets(fork)).containsExactly(plan.indexOf("charge"), plan.indexOf("score"));
+        assertThat(plan.targetOfFlow(fork, "f3")).isEqualTo(plan.indexOf("score"));
+        assertThat(plan.firstTarget(plan.indexOf("end"))).isEqualTo(ExecutionPlan.NONE);
+        assertThat(plan.incomingCount(join)).isEqualTo(2);
+        assertThat(plan.joinOf(fork)).isEqualTo(join);
+        assertThat(definition.getExecutionPlan()).isSameAs(plan);
+    }
+}
@@ -0,0 +1,274 @@
+package com.abada.engine.load;
+
+import com.abada.engine.AbadaEngineApplication;
+import com.abada.engine.bpmn.compatibility.BpmnParseOptions;
+import com.abada.engine.core.AbadaEngine;
+import com.abada.engine.core.DeploymentFile;
+import com.abada.engine.core.DeploymentOutcome;
+import com.abada.engine.core.EventManager;
+import com.abada.engine.core.ExternalTaskCommandService;
+import com.abada.engine.core.ProcessInstance;
+import com.abada.engine.core.TimerJobCommandService;
+import com.abada.engine.dto.FetchAndLockRequest;
+import com.abada.engine.dto.LockedExternalTask;
+import com.abada.engine.observability.StatementCounter;
+import com.abada.engine.persistence.entity.JobEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.support.TestPropertySourceUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load generator: boots the engine against H2 or a Testcontainers Postgres, drives the
+ * mix of {@link LoadProfile} from virtual-thread clients calling the engine services directly, and
+ * writes a {@link LoadReport}. Tagged {@code load}, so it only runs with {@code mvn test -Pload-test}.
+ *
+ * <p>Setup each operation needs, such as starting the instance whose message is then correlated,
+ * runs outside the measured section; only the named commands are timed and counted.
+ */
+@Tag("load")
+class EngineLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineLoadTest.class);
+    private static final String USER = "loader";
+    private static final String TOPIC = "load";
+    private static final List<String> MODELS = List.of("user-task", "external-task", "message", "timer");
+
+    @Test
+    void drivesConfiguredMixAndWritesReport() throws Exception {
+        LoadProfile profile = LoadProfile.from(System.getProperties());
+        PostgreSQLContainer<?> postgres = profile.database().equals("postgres")
+                ? new PostgreSQLContainer<>("postgres:16-alpine").withDatabaseName("abada_load")
+                        .withUsername("abada").withPassword("abada")
+                : null;
+        if (postgres != null) postgres.start();
+        try (ConfigurableApplicationContext context = startApplication(profile, postgres)) {
+            Clients clients = new Clients(context);
+            deployModels(context.getBean(AbadaEngine.class));
+
+            clients.run(profile, profile.warmUp(), new LoadRecorder());
+            Map<String, long[]> lockWaitsBefore = lockWaits(context.getBean(MeterRegistry.class));
+            LoadRecorder recorder = new LoadRecorder();
+            long started = System.nanoTime();
+            clients.run(profile, profile.duration(), recorder);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+            LoadReport report = recorder.report(profile, elapsed,
+                    lockWaitDelta(context.getBean(MeterRegistry.class), lockWaitsBefore));
+            Files.createDirectories(profile.report().toAbsolutePath().getParent());
+            context.getBean(ObjectMapper.class).writerWithDefaultPrettyPrinter()
+                    .writeValue(profile.report().toFile(), report);
+            log.info("Load report written to {}\n{}", profile.report().toAbsolutePath(), report.render());
+
+            assertThat(report.commands()).isPositive();
+            assertThat(report.operations())
+                    .as("operations failed during the run, first error: %s", clients.firstError.get())
+                    .allSatisfy(operation -> assertThat(operation.errors()).isZero());
+        } finally {
+            if (postgres != null) postgres.stop();
+        }
+    }
+
+    private static void deployModels(AbadaEngine engine) throws Exception {
+        List<DeploymentFile> files = new ArrayList<>();
+        for (String model : MODELS) {
+            try (InputStream bpmn = EngineLoadTest.class.getResourceAsStream("/bpmn/load/" + model + ".bpmn")) {
+                assertThat(bpmn).as("load model %s", model).isNotNull();
+                files.add(new DeploymentFile(model + ".bpmn", bpmn.readAllBytes()));
+            }
+        }
+        assertThat(engine.deployAll(files, BpmnParseOptions.defaults()))
+                .extracting(DeploymentOutcome::status)
+                .doesNotContain(DeploymentOutcome.Status.FAILED);
+    }
+
+    private static Map<String, long[]> lockWaits(MeterRegistry registry) {
+        Map<String, long[]> snapshot = new HashMap<>();
+        for (Timer timer : registry.find("abada.lock.wait").timers()) {
+            snapshot.put(timer.getId().getTag("resource"),
+                    new long[] {timer.count(), (long) timer.totalTime(TimeUnit.NANOSECONDS)});
+        }
+        return snapshot;
+    }
+
+    private static List<LoadReport.LockWait> lockWaitDelta(MeterRegistry registry, Map<String, long[]> before) {
+        List<LoadReport.LockWait> waits = new ArrayList<>();
+        for (Timer timer : registry.find("abada.lock.wait").timers()) {
+            String resource = timer.getId().getTag("resource");
+            long[] start = before.getOrDefault(resource, new long[2]);
+            long count = timer.count() - start[0];
+            double totalMs = (timer.totalTime(TimeUnit.NANOSECONDS) - start[1]) / 1e6;
+            waits.add(new LoadReport.LockWait(resource, count, totalMs, count == 0 ? 0 : totalMs / count,
+                    timer.max(TimeUnit.MILLISECONDS)));
+        }
+        return waits;
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadProfile profile,
+            PostgreSQLContainer<?> postgres) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.hikari.maximum-pool-size=" + profile.poolSize(),
+                "spring.jpa.show-sql=false",
+                "spring.jpa.open-in-view=false",
+                "abada.jobs.initial-delay-ms=3600000",
+                "abada.outbox.dispatcher.enabled=false",
+                "abada.security.mode=disabled",
+                "otel.sdk.disabled=true",
+                "management.tracing.enabled=false",
+                "management.otlp.metrics.export.enabled=false"));
+        if (postgres != null) {
+            properties.addAll(List.of(
+                    "spring.datasource.url=" + postgres.getJdbcUrl(),
+                    "spring.datasource.username=" + postgres.getUsername(),
+                    "spring.datasource.password=" + postgres.getPassword(),
+                    "spring.datasource.driver-class-name=org.postgresql.Driver",
+                    "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"));
+        } else {
+            properties.add("spring.datasource.url=jdbc:h2:mem:abada-load;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false");
+        }
+        return new SpringApplicationBuilder(AbadaEngineApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .initializers(context -> TestPropertySourceUtils.addInlinedPropertiesToEnvironment(
+                        context, properties.toArray(String[]::new)))
+                // Logging levels are read before initializers run, so they go on the command line.
+                .run("--spring.profiles.active=test",
+                        "--logging.level.com.abada.engine=WARN",
+                        "--logging.level.com.abada.engine.load=INFO",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql=WARN");
+    }
+
+    /** The engine entry points the clients call, plus the work queue shared between them. */
+    private static final class Clients {
+
+        private final AbadaEngine engine;
+        private final EventManager events;
+        private final ExternalTaskCommandService externalTasks;
+        private final TimerJobCommandService timers;
+        private final Queue<String> openTasks = new ConcurrentLinkedQueue<>();
+        private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        Clients(ConfigurableApplicationContext context) {
+            this.engine = context.getBean(AbadaEngine.class);
+            this.events = context.getBean(EventManager.class);
+            this.externalTasks = context.getBean(ExternalTaskCommandService.class);
+            this.timers = context.getBean(TimerJobCommandService.class);
+        }
+
+        void run(LoadProfile profile, Duration duration, LoadRecorder recorder) throws Exception {
+            long deadline = System.nanoTime() + duration.toNanos();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> running = new ArrayList<>();
+                for (int i = 0; i < profile.clients(); i++) {
+                    String clientId = "load-client-" + i;
+                    running.add(executor.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            LoadOperation operation = profile.next(ThreadLocalRandom.current());
+                            try {
+                                perform(operation, clientId, recorder);
+                            } catch (RuntimeException error) {
+                                firstError.compareAndSet(null, error);
+                                recorder.recordError(operation);
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> client : running) client.get();
+            }
+        }
+
+        private void perform(LoadOperation operation, String clientId, LoadRecorder recorder) {
+            switch (operation) {
+                case START_PROCESS -> {
+                    ProcessInstance[] started = new ProcessInstance[1];
+                    measure(recorder, operation, () -> {
+                        started[0] = engine.startProcess("LoadUserTask", USER, Map.of());
+                        return 1;
+                    });
+                    openTasks.add(openTask(started[0]));
+                }
+                case CLAIM_COMPLETE -> {
+                    String taskId = openTasks.poll();
+                    String task = taskId != null ? taskId : openTask(engine.startProcess("LoadUserTask", USER, Map.of()));
+                    measure(recorder, operation, () -> {
+                        engine.claim(task, USER, List.of());
+                        engine.completeTask(task, USER, List.of(), Map.of());
+                        return 2;
+                    });
+                }
+                case FETCH_COMPLETE -> {
+                    engine.startProcess("LoadExternalTask", USER, Map.of());
+                    measure(recorder, operation, () -> {
+                        List<LockedExternalTask> locked = externalTasks.fetchAndLock(
+                                new FetchAndLockRequest(clientId, List.of(TOPIC), 60_000L));
+                        for (LockedExternalTask task : locked) externalTasks.complete(task.id(), clientId, Map.of());
+                        return 1 + locked.size();
+                    });
+                }
+                case MESSAGE -> {
+                    String key = UUID.randomUUID().toString();
+                    engine.startProcess("LoadMessage", USER, Map.of("correlationKey", key));
+                    measure(recorder, operation, () -> {
+                        events.correlateMessage("LoadPing", key, Map.of());
+                        return 1;
+                    });
+                }
+                case TIMER -> {
+                    engine.startProcess("LoadTimer", USER, Map.of());
+                    measure(recorder, operation, () -> {
+                        List<JobEntity> due = timers.claimDue(clientId, Instant.now(), 1);
+                        for (JobEntity job : due) timers.execute(job.getId(), clientId, Instant.now());
+                        return 1 + due.size();
+                    });
+                }
+            }
+        }
+
+        private String openTask(ProcessInstance instance) {
+            return engine.getTaskManager().getTasksForProcessInstance(instance.getId()).getFirst().getId();
+        }
+
+        /** Times {@code commands} on this thread, which also runs their transactions and statements. */
+        private static void measure(LoadRecorder recorder, LoadOperation operation, CommandBlock commands) {
+            long statements = StatementCounter.current();
+            long started = System.nanoTime();
+            int executed = commands.run();
+            recorder.record(operation, System.nanoTime() - started, executed, StatementCounter.current() - statements);
+        }
+    }
+
+    @FunctionalInterface
+    private interface CommandBlock {
+        /** Runs the measured commands and returns how many were issued. */
+        int run();
+    }
+}
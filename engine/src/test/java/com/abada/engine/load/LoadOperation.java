@@ -0,0 +1,35 @@
+package com.abada.engine.load;
+
+import java.util.Arrays;
+
+/** One unit of client work in a load run, named as it appears in {@code abada.load.mix}. */
+enum LoadOperation {
+    /** Starts a user-task instance; its task later feeds {@link #CLAIM_COMPLETE}. */
+    START_PROCESS("start"),
+    /** Claims and completes one open user task: two commands. */
+    CLAIM_COMPLETE("claim-complete"),
+    /** Fetches and locks one external task, then completes it: two commands. */
+    FETCH_COMPLETE("fetch-complete"),
+    /** Correlates a message to one waiting instance. */
+    MESSAGE("message"),
+    /** Claims due timer jobs and executes each of them, as the job scheduler does. */
+    TIMER("timer");
+
+    private final String key;
+
+    LoadOperation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static LoadOperation of(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown load operation '" + key
+                        + "', expected one of " + Arrays.stream(values()).map(LoadOperation::key).toList()));
+    }
+}
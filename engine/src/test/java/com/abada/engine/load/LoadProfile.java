@@ -0,0 +1,81 @@
+package com.abada.engine.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.random.RandomGenerator;
+
+/**
+ * Settings of one load run, read from {@code abada.load.*} system properties so the same test can
+ * size a cluster on Postgres or serve as a quick H2 regression check:
+ *
+ * <ul>
+ *   <li>{@code abada.load.database}: {@code h2} (default) or {@code postgres}, started with Testcontainers</li>
+ *   <li>{@code abada.load.clients}: concurrent virtual-thread clients, default 16</li>
+ *   <li>{@code abada.load.warm-up} and {@code abada.load.duration}: ISO-8601 durations, default PT5S and PT30S</li>
+ *   <li>{@code abada.load.mix}: operation weights, e.g. {@code start=3,claim-complete=3,fetch-complete=2,message=1,timer=1}</li>
+ *   <li>{@code abada.load.pool-size}: JDBC pool size, default 20</li>
+ *   <li>{@code abada.load.report}: where the JSON report is written, default {@code target/load-report.json}</li>
+ * </ul>
+ */
+record LoadProfile(String database, int clients, Duration warmUp, Duration duration,
+                   Map<LoadOperation, Integer> mix, int poolSize, Path report) {
+
+    static final String DEFAULT_MIX = "start=3,claim-complete=3,fetch-complete=2,message=1,timer=1";
+
+    LoadProfile {
+        if (!database.equals("h2") && !database.equals("postgres")) {
+            throw new IllegalArgumentException("abada.load.database must be h2 or postgres, got " + database);
+        }
+        if (clients < 1) {
+            throw new IllegalArgumentException("abada.load.clients must be at least 1");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("abada.load.mix needs at least one positive weight");
+        }
+        mix = Collections.unmodifiableMap(new EnumMap<>(mix));
+    }
+
+    static LoadProfile from(Properties properties) {
+        return new LoadProfile(
+                properties.getProperty("abada.load.database", "h2"),
+                Integer.parseInt(properties.getProperty("abada.load.clients", "16")),
+                Duration.parse(properties.getProperty("abada.load.warm-up", "PT5S")),
+                Duration.parse(properties.getProperty("abada.load.duration", "PT30S")),
+                parseMix(properties.getProperty("abada.load.mix", DEFAULT_MIX)),
+                Integer.parseInt(properties.getProperty("abada.load.pool-size", "20")),
+                Path.of(properties.getProperty("abada.load.report", "target/load-report.json")));
+    }
+
+    /** Parses {@code key=weight} pairs; operations left out get weight zero. */
+    static Map<LoadOperation, Integer> parseMix(String mix) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String entry : mix.split(",")) {
+            if (entry.isBlank()) continue;
+            String[] pair = entry.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Load mix entry '" + entry + "' is not key=weight");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Load mix weight of " + pair[0].trim() + " is negative");
+            }
+            weights.merge(LoadOperation.of(pair[0].trim()), weight, Integer::sum);
+        }
+        return weights;
+    }
+
+    /** Draws the next operation with probability proportional to its weight. */
+    LoadOperation next(RandomGenerator random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = random.nextInt(total);
+        for (Map.Entry<LoadOperation, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) return entry.getKey();
+        }
+        throw new IllegalStateException("Unreachable: weights sum to " + total);
+    }
+}
@@ -0,0 +1,59 @@
+package com.abada.engine.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadProfileTest {
+
+    @Test
+    void readsProfileFromPropertiesAndDrawsOnlyWeightedOperations() {
+        Properties properties = new Properties();
+        properties.setProperty("abada.load.clients", "64");
+        properties.setProperty("abada.load.duration", "PT2M");
+        properties.setProperty("abada.load.mix", "start=1, message=3,timer=0");
+
+        LoadProfile profile = LoadProfile.from(properties);
+
+        assertThat(profile.database()).isEqualTo("h2");
+        assertThat(profile.clients()).isEqualTo(64);
+        assertThat(profile.duration()).isEqualTo(Duration.ofMinutes(2));
+        assertThat(profile.mix()).containsExactly(Map.entry(LoadOperation.START_PROCESS, 1),
+                Map.entry(LoadOperation.MESSAGE, 3), Map.entry(LoadOperation.TIMER, 0));
+
+        Map<LoadOperation, Integer> drawn = new EnumMap<>(LoadOperation.class);
+        Random random = new Random(7);
+        for (int i = 0; i < 4_000; i++) drawn.merge(profile.next(random), 1, Integer::sum);
+        assertThat(drawn).containsOnlyKeys(LoadOperation.START_PROCESS, LoadOperation.MESSAGE);
+        assertThat(drawn.get(LoadOperation.MESSAGE)).isBetween(2_800, 3_200);
+    }
+
+    @Test
+    void rejectsUnknownOperationsAndEmptyMixes() {
+        assertThatThrownBy(() -> LoadProfile.parseMix("start=1,deploy=2"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("deploy");
+        Properties properties = new Properties();
+        properties.setProperty("abada.load.mix", "start=0");
+        assertThatThrownBy(() -> LoadProfile.from(properties))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reportsNearestRankPercentiles() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = i + 1;
+
+        assertThat(LoadRecorder.percentile(sorted, 0.50)).isEqualTo(50);
+        assertThat(LoadRecorder.percentile(sorted, 0.99)).isEqualTo(99);
+        assertThat(LoadRecorder.percentile(new long[] {7}, 0.95)).isEqualTo(7);
+        assertThat(LoadRecorder.percentile(new long[0], 0.5)).isZero();
+    }
+}
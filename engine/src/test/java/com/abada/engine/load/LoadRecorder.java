@@ -0,0 +1,88 @@
+package com.abada.engine.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects what the load clients measured. Every client thread records into the same recorder; the
+ * per-operation lock is uncontended next to the database round trips being timed.
+ */
+final class LoadRecorder {
+
+    private final Map<LoadOperation, Samples> samples = new EnumMap<>(LoadOperation.class);
+
+    LoadRecorder() {
+        for (LoadOperation operation : LoadOperation.values()) samples.put(operation, new Samples());
+    }
+
+    /** One finished operation: its latency, the commands it ran and the SQL statements they issued. */
+    void record(LoadOperation operation, long nanos, int commands, long statements) {
+        samples.get(operation).add(nanos, commands, statements);
+    }
+
+    void recordError(LoadOperation operation) {
+        samples.get(operation).error();
+    }
+
+    LoadReport report(LoadProfile profile, Duration elapsed, List<LoadReport.LockWait> lockWaits) {
+        List<LoadReport.OperationStats> operations = new ArrayList<>();
+        long commands = 0;
+        long statements = 0;
+        for (Map.Entry<LoadOperation, Samples> entry : samples.entrySet()) {
+            Samples operation = entry.getValue();
+            synchronized (operation) {
+                if (operation.count == 0 && operation.errors == 0) continue;
+                long[] sorted = Arrays.copyOf(operation.latencies, operation.count);
+                Arrays.sort(sorted);
+                operations.add(new LoadReport.OperationStats(entry.getKey().key(), operation.count,
+                        operation.errors, operation.commands, millis(percentile(sorted, 0.50)),
+                        millis(percentile(sorted, 0.95)), millis(percentile(sorted, 0.99)),
+                        millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]),
+                        ratio(operation.statements, operation.commands)));
+                commands += operation.commands;
+                statements += operation.statements;
+            }
+        }
+        double seconds = elapsed.toNanos() / 1e9;
+        return new LoadReport(profile.database(), profile.clients(), seconds, commands,
+                seconds == 0 ? 0 : commands / seconds, ratio(statements, commands), operations, lockWaits);
+    }
+
+    /** Nearest-rank percentile of an ascending array; zero when nothing was recorded. */
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return denominator == 0 ? 0 : (double) numerator / denominator;
+    }
+
+    private static final class Samples {
+        long[] latencies = new long[1024];
+        int count;
+        long commands;
+        long statements;
+        long errors;
+
+        synchronized void add(long nanos, int commandCount, long statementCount) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+            commands += commandCount;
+            statements += statementCount;
+        }
+
+        synchronized void error() {
+            errors++;
+        }
+    }
+}
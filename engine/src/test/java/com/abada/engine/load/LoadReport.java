@@ -0,0 +1,40 @@
+package com.abada.engine.load;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of one load run, written as JSON for comparison across builds and rendered as a table
+ * for the console. Latencies are in milliseconds.
+ */
+record LoadReport(String database, int clients, double seconds, long commands, double commandsPerSecond,
+                  double statementsPerCommand, List<OperationStats> operations, List<LockWait> lockWaits) {
+
+    record OperationStats(String operation, int count, long errors, long commands, double p50Ms, double p95Ms,
+                          double p99Ms, double maxMs, double statementsPerCommand) {
+    }
+
+    /** Time spent acquiring pessimistic row locks during the measured window, per locked table. */
+    record LockWait(String resource, long acquisitions, double totalMs, double meanMs, double maxMs) {
+    }
+
+    String render() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Load run on %s: %d clients, %.1f s, %d commands, %.1f commands/s, "
+                + "%.2f statements/command%n", database, clients, seconds, commands, commandsPerSecond,
+                statementsPerCommand));
+        text.append(String.format(Locale.ROOT, "%-16s %8s %7s %9s %9s %9s %9s %10s%n",
+                "operation", "count", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms", "stmt/cmd"));
+        for (OperationStats operation : operations) {
+            text.append(String.format(Locale.ROOT, "%-16s %8d %7d %9.2f %9.2f %9.2f %9.2f %10.2f%n",
+                    operation.operation(), operation.count(), operation.errors(), operation.p50Ms(),
+                    operation.p95Ms(), operation.p99Ms(), operation.maxMs(), operation.statementsPerCommand()));
+        }
+        for (LockWait wait : lockWaits) {
+            text.append(String.format(Locale.ROOT, "lock wait %-16s %8d acquisitions, %.1f ms total, "
+                    + "%.3f ms mean, %.2f ms max%n", wait.resource(), wait.acquisitions(), wait.totalMs(),
+                    wait.meanMs(), wait.maxMs()));
+        }
+        return text.toString();
+    }
+}
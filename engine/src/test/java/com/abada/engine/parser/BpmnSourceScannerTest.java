@@ -0,0 +1,47 @@
+package com.abada.engine.parser;
+
+import com.abada.engine.bpmn.compatibility.BpmnCompatibilityDetector;
+import com.abada.engine.bpmn.compatibility.BpmnParseOptions;
+import com.abada.engine.bpmn.compatibility.BpmnValidationIssue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BpmnSourceScannerTest {
+    @Test void collectsNamespacesDirectivesAndOnlyUserTaskFragmentsInOnePass() {
+        String xml = """
+            <bpmn:definitions xmlns:bpmn="http://www.omg.org/spec/BPMN/20100524/MODEL"
+              xmlns:abada="https://abada.io/schema/bpmn" targetNamespace="test">
+              <bpmn:process id="p"><bpmn:startEvent id="s"/>
+                <bpmn:userTask id="approve"><bpmn:extensionElements><abada:assignment>
+                  <abada:candidateGroups><![CDATA[finance]]></abada:candidateGroups>
+                </abada:assignment></bpmn:extensionElements></bpmn:userTask>
+                <bpmn:serviceTask id="notify"><bpmn:extensionElements><abada:retries/></bpmn:extensionElements></bpmn:serviceTask>
+              </bpmn:process></bpmn:definitions>
+            """;
+        List<BpmnValidationIssue> issues = new ArrayList<>();
+
+        var scan = new BpmnSourceScanner().scan(xml.getBytes(StandardCharsets.UTF_8), BpmnParseOptions.defaults(), issues);
+
+        assertThat(scan.namespaces()).contains(BpmnCompatibilityDetector.ABADA_NAMESPACE);
+        assertThat(issues).extracting(BpmnValidationIssue::message)
+                .containsExactly("Unknown Abada execution extension 'retries'");
+        assertThat(scan.assignments().elementById("approve")).hasValueSatisfying(task ->
+                assertThat(task.getTextContent()).contains("finance"));
+        assertThat(scan.assignments().elementById("notify")).isEmpty();
+    }
+
+    @Test void rejectsDoctypeBeforeReadingAnyElement() {
+        String xml = "<?xml version=\"1.0\"?><!DOCTYPE d [<!ENTITY x SYSTEM \"file:///etc/passwd\">]><d>&x;</d>";
+
+        assertThatThrownBy(() -> new BpmnSourceScanner().scan(xml.getBytes(StandardCharsets.UTF_8),
+                BpmnParseOptions.defaults(), new ArrayList<>()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("DOCTYPE");
+    }
+}
@@ -117,7 +117,7 @@ public class AbadaEnginePersistenceReloadTest {
         var deployed = abadaEngine.deploy(BpmnTestUtils.loadBpmnStream("recipe-cook.bpmn"));
 
         assertEquals("canonical-1", deployed.getDefinitionFormatVersion());
-        assertEquals("1", deployed.getCompilerVersion());
+        assertEquals("2", deployed.getCompilerVersion());
         assertTrue(deployed.getCompatibilityProfiles().contains("standard-bpmn-2.0"));
         assertTrue(deployed.getCompatibilityProfiles().contains("camunda-7"));
         assertTrue(deployed.getDetectedNamespaces().contains("http://camunda.org/schema/1.0/bpmn"));
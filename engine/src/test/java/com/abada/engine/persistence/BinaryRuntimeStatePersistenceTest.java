@@ -0,0 +1,67 @@
+package com.abada.engine.persistence;
+
+import com.abada.engine.core.AbadaEngine;
+import com.abada.engine.core.ProcessInstance;
+import com.abada.engine.util.BpmnTestUtils;
+import com.abada.engine.util.DatabaseTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "abada.runtime-state.codec=binary")
+@ActiveProfiles("test")
+class BinaryRuntimeStatePersistenceTest {
+
+    @Autowired private AbadaEngine engine;
+    @Autowired private DatabaseTestHelper database;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void deploy() throws Exception {
+        database.cleanup();
+        try (InputStream bpmn = BpmnTestUtils.loadBpmnStream("script-task-test.bpmn")) {
+            engine.deploy(bpmn);
+        }
+    }
+
+    @Test
+    void storesRuntimeStateInBinaryColumnAndUpgradesLegacyJsonRows() {
+        ProcessInstance started = engine.startProcess("ScriptTaskProcess", "alice", Map.of("input", 21));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT state_codec, runtime_state, variables_json FROM process_instances WHERE id = ?",
+                started.getId());
+        assertThat(row.get("STATE_CODEC")).isEqualTo("binary");
+        assertThat(row.get("RUNTIME_STATE")).isNotNull();
+        assertThat(row.get("VARIABLES_JSON")).isNull();
+
+        engine.clearMemory();
+        ProcessInstance reloaded = engine.getProcessInstanceById(started.getId());
+        assertThat(reloaded.getVariable("scriptResult")).isEqualTo(42.0);
+        assertThat(reloaded.getActiveTokens()).containsExactly("review");
+
+        jdbcTemplate.update("UPDATE process_instances SET state_codec = 'json', runtime_state = NULL, "
+                + "variables_in_table = FALSE, "
+                + "variables_json = '{\"input\":21,\"legacy\":true}', active_tokens_json = '[\"review\"]', "
+                + "join_expected_tokens_json = '{}', join_arrived_tokens_json = '{}' WHERE id = ?", started.getId());
+        ProcessInstance legacy = engine.getProcessInstanceById(started.getId());
+        assertThat(legacy.getVariable("legacy")).isEqualTo(true);
+
+        String taskId = engine.getTaskManager().getTasksForProcessInstance(started.getId()).getFirst().getId();
+        engine.completeTask(taskId, "alice", List.of(), Map.of("reviewed", true));
+        assertThat(jdbcTemplate.queryForObject("SELECT state_codec FROM process_instances WHERE id = ?",
+                String.class, started.getId())).isEqualTo("binary");
+        assertThat(engine.getProcessInstanceById(started.getId()).getVariables())
+                .containsEntry("legacy", true)
+                .containsEntry("reviewed", true);
+    }
+}
@@ -0,0 +1,72 @@
+package com.abada.engine.persistence;
+
+import com.abada.engine.core.AbadaEngine;
+import com.abada.engine.core.ProcessInstance;
+import com.abada.engine.util.BpmnTestUtils;
+import com.abada.engine.util.DatabaseTestHelper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CommandUnitOfWorkTest {
+
+    @Autowired private AbadaEngine engine;
+    @Autowired private DatabaseTestHelper database;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void deploy() throws Exception {
+        database.cleanup();
+        engine.clearMemory();
+        try (InputStream bpmn = BpmnTestUtils.loadBpmnStream("recipe-cook.bpmn")) {
+            engine.deploy(bpmn);
+        }
+    }
+
+    @Test
+    void eachCommandWritesTheInstanceRowOnce() {
+        ProcessInstance instance = engine.startProcess("recipe-cook", "alice", Map.of("dish", "soup"));
+        // Inserted once, after advancing: no follow-up UPDATE bumped the version.
+        assertThat(instanceVersion(instance.getId())).isZero();
+        assertThat(instance.getEntityVersion()).isZero();
+
+        String taskId = engine.getTaskManager().getTasksForProcessInstance(instance.getId()).getFirst().getId();
+        engine.claim(taskId, "alice", List.of());
+        engine.completeTask(taskId, "alice", List.of(), Map.of("goodOne", true));
+
+        // completeTask writes the instance once, after advancing, and flushes a single UPDATE.
+        assertThat(instanceVersion(instance.getId())).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT entity_version FROM tasks WHERE id = ?",
+                Long.class, taskId)).isEqualTo(2);
+    }
+
+    @Test
+    void recordsStatementsPerCommand() {
+        engine.startProcess("recipe-cook", "alice", Map.of("dish", "soup"));
+
+        DistributionSummary statements = meterRegistry.find("abada.command.statements")
+                .tag("command", "AbadaEngine.startProcess")
+                .summary();
+        assertThat(statements).isNotNull();
+        assertThat(statements.count()).isGreaterThanOrEqualTo(1);
+        assertThat(statements.max()).isPositive();
+    }
+
+    private long instanceVersion(String id) {
+        return jdbcTemplate.queryForObject("SELECT entity_version FROM process_instances WHERE id = ?", Long.class, id);
+    }
+}
@@ -18,6 +18,7 @@ import com.abada.engine.persistence.entity.ExternalTaskEntity;
 import com.abada.engine.persistence.entity.TaskEntity;
 import com.abada.engine.persistence.repository.ActivityHistoryRepository;
 import com.abada.engine.persistence.repository.ProcessInstanceRepository;
+import com.abada.engine.persistence.repository.ProcessVariableRepository;
 import com.abada.engine.persistence.repository.TaskRepository;
 import com.abada.engine.persistence.repository.OutboxEventRepository;
 import com.abada.engine.persistence.repository.JobRepository;
@@ -313,9 +314,15 @@ class PostgresRestartRecoveryTest {
                     .isPresent()
                     .get()
                     .satisfies(entity -> {
-                        assertThat(entity.getVariablesJson()).contains("request-42");
+                        assertThat(entity.isVariablesInTable()).isTrue();
                         assertThat(entity.getActiveTokensJson()).contains("approval");
                     });
+            assertThat(firstContext.getBean(ProcessVariableRepository.class)
+                    .findByProcessInstanceId(processInstanceId))
+                    .filteredOn(variable -> variable.getName().equals("requestId"))
+                    .singleElement()
+                    .extracting(variable -> variable.getValueText())
+                    .isEqualTo("request-42");
             assertThat(firstContext.getBean(TaskRepository.class).findById(taskId))
                     .isPresent()
                     .get()
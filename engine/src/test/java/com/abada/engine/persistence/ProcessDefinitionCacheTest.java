@@ -1,25 +1,36 @@
 package com.abada.engine.persistence;
 
+import com.abada.engine.bpmn.compatibility.BpmnParseOptions;
 import com.abada.engine.core.AbadaEngine;
+import com.abada.engine.core.DeploymentFile;
+import com.abada.engine.core.DeploymentOutcome;
+import com.abada.engine.core.LatestDefinitionIndex;
+import com.abada.engine.core.ProcessDefinitionCache;
 import com.abada.engine.core.ProcessInstance;
+import com.abada.engine.core.exception.ProcessEngineException;
 import com.abada.engine.core.model.TaskInstance;
 import com.abada.engine.persistence.entity.ProcessDefinitionEntity;
 import com.abada.engine.persistence.repository.ProcessDefinitionRepository;
 import com.abada.engine.persistence.repository.ProcessInstanceRepository;
+import com.abada.engine.persistence.state.CompiledDefinitionCodec;
 import com.abada.engine.util.DatabaseTestHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -37,6 +48,15 @@ class ProcessDefinitionCacheTest {
     @Autowired
     private ProcessInstanceRepository instanceRepository;
 
+    @Autowired
+    private ProcessDefinitionCache definitionCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LatestDefinitionIndex latestDefinitions;
+
     @BeforeEach
     void cleanState() {
         databaseTestHelper.cleanup();
@@ -108,10 +128,153 @@ class ProcessDefinitionCacheTest {
                 .isEqualTo(secondDeployment.getDeploymentId());
     }
 
+    @Test
+    void warmUpParsesTheLatestVersionOfEachProcess() throws Exception {
+        String xml;
+        try (InputStream resource = getClass().getResourceAsStream("/bpmn/recipe-cook.bpmn")) {
+            xml = new String(resource.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        deploy(xml);
+        deploy(xml.replace("Choose Recipe", "Choose Recipe v2"));
+        engine.clearMemory();
+
+        assertThat(engine.warmUpDefinitionCache()).isEqualTo(1);
+        assertThat(definitionCache.size()).isEqualTo(1);
+
+        ProcessInstance instance = engine.startProcess("recipe-cook");
+        assertThat(definitionCache.size()).isEqualTo(1);
+        assertThat(instance.getDefinition().getTaskName("choose-recipe")).isEqualTo("Choose Recipe v2");
+    }
+
+    @Test
+    void loadsTheStoredCompiledDefinitionInsteadOfParsingXml() throws Exception {
+        String xml;
+        try (InputStream resource = getClass().getResourceAsStream("/bpmn/recipe-cook.bpmn")) {
+            xml = new String(resource.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        ProcessDefinitionEntity deployed = deploy(xml);
+        assertThat(deployed.getCompiledDefinition()).isNotEmpty();
+        assertThat(deployed.getCompilerVersion()).isEqualTo(CompiledDefinitionCodec.COMPILER_VERSION);
+
+        // Unparseable XML proves the load below never touches it.
+        jdbcTemplate.update("UPDATE process_definitions SET bpmn_xml = '<broken' WHERE deployment_id = ?",
+                deployed.getDeploymentId());
+        engine.clearMemory();
+        assertThat(engine.startProcess("recipe-cook").getDefinition().getTaskName("choose-recipe"))
+                .isEqualTo("Choose Recipe");
+
+        // A row from an older compiler is re-parsed from its XML.
+        jdbcTemplate.update("UPDATE process_definitions SET bpmn_xml = ?, compiler_version = '1' WHERE deployment_id = ?",
+                xml.replace("Choose Recipe", "Choose Recipe (reparsed)"), deployed.getDeploymentId());
+        engine.clearMemory();
+        assertThat(engine.startProcess("recipe-cook").getDefinition().getTaskName("choose-recipe"))
+                .isEqualTo("Choose Recipe (reparsed)");
+
+        // ...and its compiled form rewritten in the background, so the next load reads that instead of the XML.
+        awaitCompiledDefinition(deployed.getDeploymentId(), stored -> CompiledDefinitionCodec.COMPILER_VERSION
+                .equals(stored.getCompilerVersion()));
+        jdbcTemplate.update("UPDATE process_definitions SET bpmn_xml = '<broken' WHERE deployment_id = ?",
+                deployed.getDeploymentId());
+        engine.clearMemory();
+        assertThat(engine.startProcess("recipe-cook").getDefinition().getTaskName("choose-recipe"))
+                .isEqualTo("Choose Recipe (reparsed)");
+
+        // A stored form that no longer decodes is handled the same way.
+        jdbcTemplate.update("UPDATE process_definitions SET bpmn_xml = ?, compiled_definition = ? WHERE deployment_id = ?",
+                xml, new byte[] {1, 2, 3}, deployed.getDeploymentId());
+        engine.clearMemory();
+        assertThat(engine.startProcess("recipe-cook").getDefinition().getTaskName("choose-recipe"))
+                .isEqualTo("Choose Recipe");
+        awaitCompiledDefinition(deployed.getDeploymentId(), stored -> stored.getCompiledDefinition().length > 3);
+        assertThat(CompiledDefinitionCodec.decode(definitionRepository.findById(deployed.getDeploymentId())
+                .orElseThrow().getCompiledDefinition()).getTaskName("choose-recipe")).isEqualTo("Choose Recipe");
+    }
+
+    @Test
+    void storesADeploymentInAnotherEncodingAsText() throws Exception {
+        String xml;
+        try (InputStream resource = getClass().getResourceAsStream("/bpmn/recipe-cook.bpmn")) {
+            xml = new String(resource.readAllBytes(), StandardCharsets.UTF_8)
+                    .replace("encoding=\"UTF-8\"", "encoding=\"ISO-8859-1\"")
+                    .replace("Choose Recipe", "Choisir la recette préférée");
+        }
+        byte[] latin1 = xml.getBytes(StandardCharsets.ISO_8859_1);
+        ProcessDefinitionEntity deployed = engine.deploy(new ByteArrayInputStream(latin1));
+
+        assertThat(deployed.getBpmnXml()).startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .contains("Choisir la recette préférée");
+        assertThat(engine.deployAll(List.of(new DeploymentFile("recipe-cook.bpmn", latin1)),
+                BpmnParseOptions.defaults())).singleElement()
+                .extracting(DeploymentOutcome::version).isEqualTo(deployed.getVersion());
+
+        // Reparsed from the stored text rather than the compiled form.
+        jdbcTemplate.update("UPDATE process_definitions SET compiler_version = '1' WHERE deployment_id = ?",
+                deployed.getDeploymentId());
+        engine.clearMemory();
+        assertThat(engine.startProcess("recipe-cook").getDefinition().getTaskName("choose-recipe"))
+                .isEqualTo("Choisir la recette préférée");
+    }
+
+    @Test
+    void deploysAndReloadsAssignmentsOutsideTheElSubset() throws Exception {
+        String xml;
+        try (InputStream resource = getClass().getResourceAsStream("/bpmn/recipe-cook.bpmn")) {
+            xml = new String(resource.readAllBytes(), StandardCharsets.UTF_8)
+                    .replace("camunda:candidateUsers=\"alice, black, jeannot\"",
+                            "camunda:assignee=\"${fn:ownerOf(request)}\" camunda:candidateUsers=\"alice, black, jeannot\"");
+        }
+        ProcessDefinitionEntity deployed = deploy(xml);
+
+        jdbcTemplate.update("UPDATE process_definitions SET compiler_version = '1' WHERE deployment_id = ?",
+                deployed.getDeploymentId());
+        engine.clearMemory();
+        ProcessInstance instance = engine.startProcess("recipe-cook");
+
+        assertThat(engine.getTaskManager().getTasksForProcessInstance(instance.getId())).singleElement()
+                .satisfies(task -> {
+                    assertThat(task.getAssignee()).isNull();
+                    assertThat(task.getCandidateUsers()).containsExactly("alice", "black", "jeannot");
+                });
+    }
+
+    @Test
+    void startsFromTheLatestVersionIndexUntilTheCatalogRevisionMoves() throws Exception {
+        String xml;
+        try (InputStream resource = getClass().getResourceAsStream("/bpmn/recipe-cook.bpmn")) {
+            xml = new String(resource.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        ProcessDefinitionEntity deployed = deploy(xml);
+        latestDefinitions.refresh();
+        assertThat(engine.startProcess("recipe-cook").getProcessDefinitionDeploymentId())
+                .isEqualTo(deployed.getDeploymentId());
+
+        // Hide the row from key lookups: starts keep working because they never query it.
+        jdbcTemplate.update("UPDATE process_definitions SET process_key = 'renamed' WHERE deployment_id = ?",
+                deployed.getDeploymentId());
+        assertThat(engine.startProcess("recipe-cook").getProcessDefinitionDeploymentId())
+                .isEqualTo(deployed.getDeploymentId());
+
+        // Another node deploying bumps the revision; the next poll drops the index.
+        jdbcTemplate.update("UPDATE definition_catalog SET revision = revision + 1 WHERE id = 1");
+        latestDefinitions.refresh();
+        assertThatThrownBy(() -> engine.startProcess("recipe-cook"))
+                .isInstanceOf(ProcessEngineException.class)
+                .hasMessageContaining("Unknown process ID");
+    }
+
     private ProcessDefinitionEntity deploy(String xml) {
         return engine.deploy(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
     }
 
+    private void awaitCompiledDefinition(String deploymentId, Predicate<ProcessDefinitionEntity> rewritten)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!rewritten.test(definitionRepository.findById(deploymentId).orElseThrow())) {
+            assertThat(System.nanoTime()).as("compiled form rewritten in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
     private void completeInitialTask(String processInstanceId) {
         List<TaskInstance> tasks = engine.getTaskManager().getTasksForProcessInstance(processInstanceId);
         assertThat(tasks).singleElement();
@@ -0,0 +1,88 @@
+package com.abada.engine.persistence;
+
+import com.abada.engine.core.AbadaEngine;
+import com.abada.engine.core.ProcessInstance;
+import com.abada.engine.persistence.entity.ProcessVariableEntity;
+import com.abada.engine.persistence.repository.ProcessVariableRepository;
+import com.abada.engine.util.BpmnTestUtils;
+import com.abada.engine.util.DatabaseTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProcessVariablePersistenceTest {
+
+    @Autowired private AbadaEngine engine;
+    @Autowired private DatabaseTestHelper database;
+    @Autowired private ProcessVariableRepository variables;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void deploy() throws Exception {
+        database.cleanup();
+        engine.clearMemory();
+        try (InputStream bpmn = BpmnTestUtils.loadBpmnStream("recipe-cook.bpmn")) {
+            engine.deploy(bpmn);
+        }
+    }
+
+    @Test
+    void writesOnlyTheVariablesThatChanged() {
+        ProcessInstance instance = engine.startProcess("recipe-cook", "alice",
+                Map.of("dish", "soup", "guests", 4, "menu", Map.of("starter", "salad")));
+        Map<String, Long> before = versions(instance.getId());
+
+        engine.updateProcessVariables(instance.getId(), Map.of("guests", 6, "dish", "soup"));
+
+        Map<String, Long> after = versions(instance.getId());
+        assertThat(after.get("guests")).isEqualTo(before.get("guests") + 1);
+        assertThat(after.get("dish")).isEqualTo(before.get("dish"));
+        assertThat(after.get("menu")).isEqualTo(before.get("menu"));
+        assertThat(jdbcTemplate.queryForObject("SELECT variables_json FROM process_instances WHERE id = ?",
+                String.class, instance.getId())).isNull();
+
+        engine.clearMemory();
+        assertThat(engine.getProcessInstanceById(instance.getId()).getVariables())
+                .containsEntry("dish", "soup")
+                .containsEntry("guests", 6)
+                .containsEntry("menu", Map.of("starter", "salad"));
+    }
+
+    @Test
+    void movesLegacyBlobVariablesIntoTheTableOnTheNextWrite() {
+        ProcessInstance instance = engine.startProcess("recipe-cook", "alice", Map.of());
+        jdbcTemplate.update("DELETE FROM process_variables WHERE process_instance_id = ?", instance.getId());
+        jdbcTemplate.update("UPDATE process_instances SET variables_in_table = FALSE, state_codec = 'json', "
+                + "variables_json = '{\"legacy\":true,\"amount\":42}' WHERE id = ?", instance.getId());
+
+        assertThat(engine.getProcessInstanceById(instance.getId()).getVariable("amount")).isEqualTo(42);
+
+        engine.updateProcessVariables(instance.getId(), Map.of("note", "migrated"));
+
+        assertThat(versions(instance.getId())).containsOnlyKeys("legacy", "amount", "note");
+        assertThat(jdbcTemplate.queryForObject("SELECT variables_in_table FROM process_instances WHERE id = ?",
+                Boolean.class, instance.getId())).isTrue();
+        assertThat(engine.getProcessInstanceById(instance.getId()).getVariables())
+                .containsEntry("legacy", true)
+                .containsEntry("amount", 42)
+                .containsEntry("note", "migrated");
+    }
+
+    private Map<String, Long> versions(String processInstanceId) {
+        List<ProcessVariableEntity> rows = variables.findByProcessInstanceId(processInstanceId);
+        return rows.stream().collect(Collectors.toMap(ProcessVariableEntity::getName,
+                ProcessVariableEntity::getEntityVersion));
+    }
+}
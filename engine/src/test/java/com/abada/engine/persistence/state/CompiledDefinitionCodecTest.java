@@ -0,0 +1,76 @@
+package com.abada.engine.persistence.state;
+
+import com.abada.engine.core.model.ParsedProcessDefinition;
+import com.abada.engine.core.model.SequenceFlow;
+import com.abada.engine.util.BpmnTestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CompiledDefinitionCodecTest {
+
+    record Foreign(String value) implements Serializable {}
+
+    @Test
+    void roundTripsEveryElementWithoutTheSourceXml() {
+        for (String file : List.of("kitchen-sink-test.bpmn", "recipe-cook.bpmn", "script-task-test.bpmn")) {
+            ParsedProcessDefinition parsed = BpmnTestUtils.parse(file);
+
+            byte[] compiled = CompiledDefinitionCodec.encode(parsed);
+            ParsedProcessDefinition decoded = CompiledDefinitionCodec.decode(compiled);
+
+            assertThat(compiled.length).isLessThan(parsed.getRawXml().length());
+            assertThat(decoded.getRawXml()).isNull();
+            assertThat(decoded.getId()).isEqualTo(parsed.getId());
+            assertThat(decoded.getStartEventId()).isEqualTo(parsed.getStartEventId());
+            assertThat(decoded.getAllActivityIds()).isEqualTo(parsed.getAllActivityIds());
+            assertThat(decoded.getUserTasks().keySet()).isEqualTo(parsed.getUserTasks().keySet());
+            assertThat(decoded.getGateways()).isEqualTo(parsed.getGateways());
+            assertThat(decoded.getEvents()).isEqualTo(parsed.getEvents());
+            assertThat(decoded.getSequenceFlows()).extracting(SequenceFlow::getId, SequenceFlow::getConditionExpression)
+                    .containsExactlyElementsOf(parsed.getSequenceFlows().stream()
+                            .map(flow -> tuple(flow.getId(), flow.getConditionExpression()))
+                            .toList());
+            assertThat(decoded.getExecutionPlan()).isNotNull();
+        }
+    }
+
+    @Test
+    void decodedConditionsEvaluate() {
+        ParsedProcessDefinition decoded = CompiledDefinitionCodec.decode(
+                CompiledDefinitionCodec.encode(BpmnTestUtils.parse("recipe-cook.bpmn")));
+
+        SequenceFlow toCook = decoded.getOutgoing("gw_goodone").stream()
+                .filter(flow -> flow.getTargetRef().equals("cook-recipe"))
+                .findFirst().orElseThrow();
+        assertThat(toCook.getCompiledCondition().evaluate(Map.of("goodOne", true))).isTrue();
+        assertThat(toCook.getCompiledCondition().evaluate(Map.of("goodOne", false))).isFalse();
+    }
+
+    @Test
+    void refusesClassesOutsideTheModel() throws Exception {
+        assertThatThrownBy(() -> CompiledDefinitionCodec.decode(serialize(new Foreign("x"))))
+                .isInstanceOf(IllegalStateException.class);
+        // JDK types are only accepted if the model uses them.
+        assertThatThrownBy(() -> CompiledDefinitionCodec.decode(serialize(new ConcurrentHashMap<>(Map.of("a", "b")))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static byte[] serialize(Object value) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+}
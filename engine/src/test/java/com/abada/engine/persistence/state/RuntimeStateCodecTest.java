@@ -0,0 +1,121 @@
+package com.abada.engine.persistence.state;
+
+import com.abada.engine.persistence.entity.ProcessInstanceEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuntimeStateCodecTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final JsonRuntimeStateCodec json = new JsonRuntimeStateCodec(om);
+    private final BinaryRuntimeStateCodec binary = new BinaryRuntimeStateCodec(om);
+
+    record Address(String city, int zip) {}
+
+    @Test
+    void binaryCodecRoundTripsTypedVariablesAndTokenState() {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("count", 3);
+        variables.put("big", 9_000_000_000L);
+        variables.put("ratio", 0.25);
+        variables.put("name", "Zoë");
+        variables.put("approved", true);
+        variables.put("missing", null);
+        variables.put("amount", new BigDecimal("12.50"));
+        variables.put("items", List.of("a", 2, Map.of("nested", false)));
+        variables.put("address", new Address("Lyon", 69001));
+        Set<String> arrived = new HashSet<>();
+        arrived.add("taskA");
+        arrived.add(null);
+        RuntimeState state = new RuntimeState(variables, List.of("taskB", "join"), Map.of("join", 2),
+                Map.of("join", arrived));
+
+        RuntimeState decoded = binary.fromBytes(binary.toBytes(state));
+
+        assertThat(decoded.activeTokens()).containsExactly("taskB", "join");
+        assertThat(decoded.joinExpectedTokens()).containsEntry("join", 2);
+        assertThat(decoded.joinArrivedTokens().get("join")).containsExactlyInAnyOrder("taskA", null);
+        assertThat(decoded.variables())
+                .containsEntry("count", 3)
+                .containsEntry("big", 9_000_000_000L)
+                .containsEntry("ratio", 0.25)
+                .containsEntry("name", "Zoë")
+                .containsEntry("approved", true)
+                .containsEntry("missing", null)
+                .containsEntry("amount", new BigDecimal("12.50"))
+                .containsEntry("items", List.of("a", 2, Map.of("nested", false)))
+                .containsEntry("address", Map.of("city", "Lyon", "zip", 69001));
+    }
+
+    @Test
+    void binaryStateIsSmallerThanJsonColumns() {
+        RuntimeState state = new RuntimeState(Map.of("orderId", "A-1", "total", 125, "express", true),
+                List.of("approveOrder"), Map.of(), Map.of());
+        ProcessInstanceEntity entity = new ProcessInstanceEntity();
+        json.encode(state, entity);
+        int jsonSize = entity.getVariablesJson().length() + entity.getActiveTokensJson().length()
+                + entity.getJoinExpectedTokensJson().length() + entity.getJoinArrivedTokensJson().length();
+
+        binary.encode(state, entity);
+
+        assertThat(entity.getRuntimeState().length).isLessThan(jsonSize);
+        assertThat(entity.getVariablesJson()).isNull();
+    }
+
+    @Test
+    void registryReadsRowsByTheirCodecAndUpgradesThemOnTheNextWrite() {
+        RuntimeStateCodecRegistry registry = new RuntimeStateCodecRegistry(List.of(json, binary), "binary");
+        ProcessInstanceEntity legacy = new ProcessInstanceEntity();
+        legacy.setVariablesJson("{\"amount\":42}");
+        legacy.setActiveTokensJson("[\"review\"]");
+        legacy.setJoinExpectedTokensJson("{}");
+        legacy.setJoinArrivedTokensJson("{}");
+
+        RuntimeState state = registry.decode(legacy);
+        assertThat(state.variables()).containsEntry("amount", 42);
+        assertThat(state.activeTokens()).containsExactly("review");
+
+        registry.encode(state, legacy);
+        assertThat(legacy.getStateCodec()).isEqualTo("binary");
+        assertThat(legacy.getActiveTokensJson()).isNull();
+        assertThat(registry.decode(legacy)).isEqualTo(state);
+    }
+
+    @Test
+    void tokenDecodeLeavesVariablesToTheDeferredDecoder() {
+        RuntimeState state = new RuntimeState(Map.of("orderId", "A-1"), List.of("approveOrder"), Map.of(), Map.of());
+        for (RuntimeStateCodec codec : List.of(json, binary)) {
+            ProcessInstanceEntity entity = new ProcessInstanceEntity();
+            codec.encode(state, entity);
+
+            RuntimeState tokens = codec.decodeTokens(entity);
+            var variables = codec.variables(entity);
+            codec.encode(new RuntimeState(Map.of(), List.of(), Map.of(), Map.of()), entity);
+
+            assertThat(tokens.variables()).isNull();
+            assertThat(tokens.activeTokens()).containsExactly("approveOrder");
+            assertThat(variables.get()).containsExactly(Map.entry("orderId", "A-1"));
+        }
+    }
+
+    @Test
+    void rejectsUnknownCodecs() {
+        assertThatThrownBy(() -> new RuntimeStateCodecRegistry(List.of(json), "protobuf"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("protobuf");
+        ProcessInstanceEntity entity = new ProcessInstanceEntity();
+        entity.setStateCodec("protobuf");
+        assertThatThrownBy(() -> new RuntimeStateCodecRegistry(List.of(json), "json").decode(entity))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -80,6 +80,7 @@ class SecurityAuthorizationContractTest {
     @Test
     void enforcesEveryPermissionBoundary() throws Exception {
         assertForbidden(post("/v1/processes/deploy").contentType(MediaType.MULTIPART_FORM_DATA), "tasks");
+        assertForbidden(post("/v1/processes/deploy/bulk").contentType(MediaType.MULTIPART_FORM_DATA), "tasks");
         assertForbidden(post("/v1/processes/start").param("processId", "missing"), "tasks");
         assertForbidden(post("/v1/tasks/claim").param("taskId", "missing"), "operator");
         assertForbidden(get("/v1/process-instances/missing/history"), "tasks");
@@ -0,0 +1,66 @@
+package com.abada.engine.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionCompilerTest {
+
+    @Test
+    void evaluatesComparisonsAndBooleanLogicWithoutScriptEngine() {
+        CompiledCondition condition = ConditionCompiler.compile("${amount > 5 and (path == 'C' or !approved)}");
+
+        assertThat(condition.evaluate(Map.of("amount", 10, "path", "C", "approved", true))).isTrue();
+        assertThat(condition.evaluate(Map.of("amount", 10, "path", "D", "approved", false))).isTrue();
+        assertThat(condition.evaluate(Map.of("amount", 10, "path", "D", "approved", true))).isFalse();
+        assertThat(condition.evaluate(Map.of("amount", 3.5, "path", "C", "approved", true))).isFalse();
+    }
+
+    @Test
+    void walksNestedMapsAndTreatsUndefinedVariablesAsFalse() {
+        CompiledCondition condition = ConditionCompiler.compile("<![CDATA[${order.hasDigitalItems }]]>");
+
+        assertThat(condition.evaluate(Map.of("order", Map.of("hasDigitalItems", true)))).isTrue();
+        assertThat(condition.evaluate(Map.of("order", Map.of()))).isFalse();
+        assertThat(condition.evaluate(Map.of())).isFalse();
+        assertThat(ConditionCompiler.compile("${!missing}").evaluate(Map.of())).isFalse();
+    }
+
+    @Test
+    void followsLooseEqualityForMixedTypesAndNulls() {
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("count", 1);
+        vars.put("label", "1");
+        vars.put("empty", null);
+
+        assertThat(ConditionCompiler.compile("count eq label").evaluate(vars)).isTrue();
+        assertThat(ConditionCompiler.compile("empty == null").evaluate(vars)).isTrue();
+        assertThat(ConditionCompiler.compile("count ne 2").evaluate(vars)).isTrue();
+        assertThat(ConditionCompiler.compile("count >= 1.0 && count <= 1").evaluate(vars)).isTrue();
+    }
+
+    @Test
+    void fallsBackToScriptEngineForExpressionsOutsideTheFastPath() {
+        assertThat(ConditionCompiler.compile("${items.length > 1}")
+                .evaluate(Map.of("items", List.of("a", "b").toArray()))).isTrue();
+        assertThat(ConditionCompiler.compile("x === 3").evaluate(Map.of("x", 3))).isTrue();
+        assertThat(ConditionCompiler.compile("${(code * 2) != (code * 2)}").evaluate(Map.of("code", "A7"))).isTrue();
+    }
+
+    @Test
+    void concatenatesStringsOnTheFastPath() {
+        assertThat(ConditionCompiler.compile("${prefix + '-' + seq == 'INV-7'}")
+                .evaluate(Map.of("prefix", "INV", "seq", 7))).isTrue();
+    }
+
+    @Test
+    void blankOrMalformedConditionsAreFalse() {
+        assertThat(ConditionCompiler.compile(null).evaluate(Map.of())).isFalse();
+        assertThat(ConditionCompiler.compile("  ").evaluate(Map.of())).isFalse();
+        assertThat(ConditionCompiler.compile("${x >}").evaluate(Map.of("x", 1))).isFalse();
+    }
+}
@@ -0,0 +1,114 @@
+package com.abada.engine.util.el;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ElExpressionTest {
+
+    record Customer(String name, boolean vip) {}
+
+    @Test
+    void evaluatesArithmeticWithIntegralAndDecimalOperands() {
+        Map<String, Object> vars = Map.of("qty", 3, "price", 2.5, "total", 10);
+
+        assertThat(ElExpression.compile("${qty * 4 - 2}").evaluate(vars)).isEqualTo(10L);
+        assertThat(ElExpression.compile("${qty * price}").evaluate(vars)).isEqualTo(7.5);
+        assertThat(ElExpression.compile("${total / 4}").evaluate(vars)).isEqualTo(2.5);
+        assertThat(ElExpression.compile("${total mod 3 == 1 and -qty lt 0}").evaluate(vars)).isEqualTo(true);
+        assertThat(ElExpression.compile("${qty > 2 ? 'bulk' : 'single'}").evaluate(vars)).isEqualTo("bulk");
+    }
+
+    @Test
+    void concatenatesStringsLikeJavaScript() {
+        Map<String, Object> vars = new HashMap<>(Map.of("first", "Ada", "qty", 3, "price", 2.5, "vip", true));
+        vars.put("missing", null);
+
+        assertThat(ElExpression.compile("${first + ' ' + 'Lovelace'}").evaluate(vars)).isEqualTo("Ada Lovelace");
+        assertThat(ElExpression.compile("${'x' + qty + price + vip + missing}").evaluate(vars))
+                .isEqualTo("x32.5truenull");
+        assertThat(ElExpression.compile("${qty + price + ' each'}").evaluate(vars)).isEqualTo("5.5 each");
+        assertThat(ElExpression.compile("${first + 1 == 'Ada1'}").evaluate(vars)).isEqualTo(true);
+    }
+
+    @Test
+    void leavesNonNumericArithmeticToTheFallback() {
+        Map<String, Object> vars = Map.of("first", "Ada", "tags", List.of("a"));
+
+        assertThatThrownBy(() -> ElExpression.compile("${first * 2}").evaluate(vars))
+                .isInstanceOf(UnsupportedElException.class);
+        assertThatThrownBy(() -> ElExpression.compile("${tags + 'b'}").evaluate(vars))
+                .isInstanceOf(UnsupportedElException.class);
+        assertThatThrownBy(() -> ElExpression.compile("${tags - 1}").evaluate(vars))
+                .isInstanceOf(UnsupportedElException.class);
+    }
+
+    @Test
+    void readsOnlyPlainGettersOfAllowedTypes() {
+        Map<String, Object> vars = Map.of("customer", new Customer("Ada", true), "due", LocalDate.of(2026, 3, 1),
+                "lines", List.of(), "thread", Thread.currentThread());
+
+        assertThat(ElExpression.compile("${due.year == 2026 && lines.empty}").evaluate(vars)).isEqualTo(true);
+        assertThat(ElExpression.compile("${customer.hashCode}").evaluate(vars)).isNull();
+        assertThat(ElExpression.compile("${thread.name}").evaluate(vars)).isNull();
+        assertThat(ElExpression.compile("${customer.toString}").evaluate(vars)).isNull();
+        for (String reflective : List.of("${customer.class}", "${customer['class'].classLoader}", "${due.class}")) {
+            assertThatThrownBy(() -> ElExpression.compile(reflective).evaluate(vars))
+                    .isInstanceOf(ElException.class)
+                    .isNotInstanceOf(UnsupportedElException.class);
+        }
+    }
+
+    @Test
+    void resolvesNullSafePathsOverMapsListsAndBeans() {
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("order", Map.of("lines", List.of(Map.of("sku", "A-1")), "customer", new Customer("Ada", true)));
+        vars.put("missing", null);
+
+        assertThat(ElExpression.compile("${order.lines[0].sku}").evaluate(vars)).isEqualTo("A-1");
+        assertThat(ElExpression.compile("${order.customer.name}").evaluate(vars)).isEqualTo("Ada");
+        assertThat(ElExpression.compile("${order.customer.vip && !empty order.lines}").evaluate(vars))
+                .isEqualTo(true);
+        assertThat(ElExpression.compile("${missing.deeply.nested}").evaluate(vars)).isNull();
+        assertThat(ElExpression.compile("${order.lines[5].sku}").evaluate(vars)).isNull();
+        assertThat(ElExpression.compile("${order.customer.unknown}").evaluate(vars)).isNull();
+    }
+
+    @Test
+    void supportsCollectionContainsAndSize() {
+        Map<String, Object> vars = Map.of("roles", List.of("admin", "ops"), "ids", List.of(1, 2, 3),
+                "name", "abada");
+
+        assertThat(ElExpression.compile("${roles.contains('ops')}").evaluate(vars)).isEqualTo(true);
+        assertThat(ElExpression.compile("${ids.contains(2) and ids.size() == 3}").evaluate(vars)).isEqualTo(true);
+        assertThat(ElExpression.compile("${name.contains('bad') && name.length() > 4}").evaluate(vars))
+                .isEqualTo(true);
+    }
+
+    @Test
+    void strictEvaluationRejectsUndefinedVariables() {
+        ElExpression expression = ElExpression.compile("${!approved}");
+
+        assertThat(expression.evaluate(Map.of())).isEqualTo(true);
+        assertThatThrownBy(() -> expression.evaluateStrict(Map.of())).isInstanceOf(ElException.class);
+        assertThatThrownBy(() -> ElExpression.compile("${order.customer.unknown}")
+                .evaluateStrict(Map.of("order", Map.of("customer", new Customer("Ada", false)))))
+                .isInstanceOf(UnsupportedElException.class);
+    }
+
+    @Test
+    void rejectsUnsupportedOrMalformedSyntaxAtCompileTime() {
+        assertThatThrownBy(() -> ElExpression.compile("${a === b}")).isInstanceOf(UnsupportedElException.class);
+        assertThatThrownBy(() -> ElExpression.compile("${fn:length(x)}")).isInstanceOf(ElException.class);
+        assertThatThrownBy(() -> ElExpression.compile("${(a > 1}")).isInstanceOf(ElException.class);
+        assertThatThrownBy(() -> ElExpression.compile("${}")).isInstanceOf(ElException.class);
+        assertThatThrownBy(() -> ElExpression.compile("${roles.stream()}").evaluate(Map.of("roles", List.of())))
+                .isInstanceOf(UnsupportedElException.class);
+    }
+}
@@ -0,0 +1,458 @@
+package io.abada.worker;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Worker runtime for external tasks: fetches tasks for the registered topics, runs each handler on
+ * its own virtual thread and reports the outcome, so a worker needs no poll loop of its own.
+ *
+ * <ul>
+ *   <li>At most {@code maxTasks} tasks are in flight. A fetch asks only for the free capacity, and
+ *       the next fetch is sent while the handlers of the previous one still run; with no capacity
+ *       left the worker stops fetching until a task is done.</li>
+ *   <li>Fetches long-poll for {@code asyncResponseTimeout}, so an idle worker does not spin.</li>
+ *   <li>Each task's lock is renewed through {@code /heartbeat} every half {@code lockDuration} until
+ *       the engine has acknowledged its outcome.</li>
+ *   <li>Completions are sent in batches through {@code /complete-batch}, once {@code
+ *       completionBatchSize} are waiting or after {@code completionFlushInterval}, each with an
+ *       idempotency key so a batch lost on the network is retried safely.</li>
+ * </ul>
+ *
+ * <p>Requests go out with {@link AbadaWorkerClient}'s {@code Async} methods, so heartbeats and
+ * completions never wait for a long-polling fetch. {@link #metrics()} reports throughput and latency.
+ */
+public final class AbadaWorker implements AutoCloseable {
+    private static final System.Logger log = System.getLogger(AbadaWorker.class.getName());
+    private static final Duration IDLE_PAUSE = Duration.ofSeconds(1);
+    private static final Duration MAX_FETCH_BACKOFF = Duration.ofSeconds(30);
+    private static final int COMPLETION_ATTEMPTS = 3;
+
+    private final AbadaWorkerClient client;
+    private final String workerId;
+    private final Map<String, TaskHandler> handlers;
+    private final List<String> topics;
+    private final Map<String, List<String>> variables;
+    private final Duration lockDuration;
+    private final Duration asyncResponseTimeout;
+    private final int maxTasks;
+    private final int completionBatchSize;
+    private final Duration completionFlushInterval;
+    private final int retries;
+    private final Duration retryTimeout;
+    private final Duration shutdownTimeout;
+
+    private final Semaphore capacity;
+    private final ExecutorService handlerThreads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("abada-worker-handler-", 0).factory());
+    private final ScheduledExecutorService timers = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("abada-worker-timer").daemon().factory());
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final List<PendingCompletion> pendingCompletions = new ArrayList<>();
+    private final Counters counters = new Counters();
+    private volatile boolean running;
+    private boolean closed;
+    private volatile CompletableFuture<List<LockedExternalTask>> currentFetch;
+    private Thread poller;
+    private volatile long startedAt;
+
+    private AbadaWorker(Builder builder) {
+        this.client = builder.client;
+        this.workerId = builder.workerId;
+        this.handlers = Map.copyOf(builder.handlers);
+        this.topics = List.copyOf(builder.handlers.keySet());
+        this.variables = builder.variables.isEmpty() ? null : Map.copyOf(builder.variables);
+        this.lockDuration = builder.lockDuration;
+        this.asyncResponseTimeout = builder.asyncResponseTimeout;
+        this.maxTasks = builder.maxTasks;
+        this.completionBatchSize = builder.completionBatchSize;
+        this.completionFlushInterval = builder.completionFlushInterval;
+        this.retries = builder.retries;
+        this.retryTimeout = builder.retryTimeout;
+        this.shutdownTimeout = builder.shutdownTimeout;
+        this.capacity = new Semaphore(maxTasks);
+    }
+
+    public static Builder builder(AbadaWorkerClient client, String workerId) {
+        return new Builder(client, workerId);
+    }
+
+    /** Starts fetching; the worker runs until {@link #close()}. */
+    public synchronized AbadaWorker start() {
+        if (poller != null || closed) throw new IllegalStateException("Worker " + workerId + " was already started");
+        running = true;
+        startedAt = System.nanoTime();
+        long flushMillis = completionFlushInterval.toMillis();
+        timers.scheduleWithFixedDelay(this::flushCompletions, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        poller = Thread.ofVirtual().name("abada-worker-poller-" + workerId).start(this::poll);
+        return this;
+    }
+
+    /**
+     * Stops fetching and waits up to {@code shutdownTimeout} for running handlers and for the engine
+     * to acknowledge their outcomes. Tasks still unfinished after that keep their locks until expiry.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            running = false;
+        }
+        if (poller == null) {
+            handlerThreads.shutdownNow();
+            timers.shutdownNow();
+            return;
+        }
+        CompletableFuture<List<LockedExternalTask>> fetch = currentFetch;
+        if (fetch != null) fetch.cancel(true);
+        poller.interrupt();
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        poller.join(shutdownTimeout);
+        handlerThreads.shutdown();
+        handlerThreads.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        flushCompletions();
+        // Every permit is back once no task is in flight any more
+        if (capacity.tryAcquire(maxTasks, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            capacity.release(maxTasks);
+        } else {
+            log.log(System.Logger.Level.WARNING, "Worker {0} stopped with {1} tasks in flight; their locks will "
+                    + "expire and the engine will hand them out again", workerId, inFlight.size());
+        }
+        handlerThreads.shutdownNow();
+        timers.shutdownNow();
+    }
+
+    public WorkerMetrics metrics() {
+        return counters.snapshot(startedAt == 0 ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - startedAt),
+                inFlight.size());
+    }
+
+    private void poll() {
+        Duration backoff = Duration.ZERO;
+        while (running) {
+            try {
+                capacity.acquire();
+            } catch (InterruptedException stopping) {
+                return;
+            }
+            int requested = 1 + capacity.drainPermits();
+            List<LockedExternalTask> tasks;
+            try {
+                currentFetch = client.fetchAndLockAsync(workerId, topics, lockDuration, requested,
+                        asyncResponseTimeout, variables, RequestOptions.defaults());
+                tasks = currentFetch.get();
+                backoff = Duration.ZERO;
+            } catch (InterruptedException | CancellationException stopping) {
+                capacity.release(requested);
+                return;
+            } catch (ExecutionException failure) {
+                capacity.release(requested);
+                // close() cancels the fetch; the aborted request is how the loop learns it is stopping
+                if (!running || failure.getCause() instanceof CancellationException) return;
+                counters.fetchErrors.increment();
+                backoff = backoff.isZero() ? Duration.ofMillis(500) : min(backoff.multipliedBy(2), MAX_FETCH_BACKOFF);
+                log.log(System.Logger.Level.WARNING, "Fetch for worker {0} failed, retrying in {1} ms: {2}",
+                        workerId, backoff.toMillis(), failure.getCause().getMessage());
+                if (!pause(backoff)) return;
+                continue;
+            }
+            if (tasks.size() < requested) capacity.release(requested - tasks.size());
+            counters.fetched.add(tasks.size());
+            for (LockedExternalTask task : tasks) dispatch(task);
+            if (tasks.isEmpty() && asyncResponseTimeout.isZero() && !pause(IDLE_PAUSE)) return;
+        }
+    }
+
+    private void dispatch(LockedExternalTask task) {
+        InFlight entry = new InFlight(task, System.nanoTime());
+        inFlight.put(task.id(), entry);
+        long period = Math.max(1, lockDuration.toMillis() / 2);
+        entry.heartbeat = timers.scheduleAtFixedRate(() -> heartbeat(entry), period, period, TimeUnit.MILLISECONDS);
+        TaskHandler handler = handlers.get(task.topicName());
+        handlerThreads.execute(() -> handle(entry, handler));
+    }
+
+    private void handle(InFlight entry, TaskHandler handler) {
+        LockedExternalTask task = entry.task;
+        long started = System.nanoTime();
+        try {
+            if (handler == null) throw new IllegalStateException("No handler for topic " + task.topicName());
+            Map<String, Object> result = handler.handle(task);
+            counters.handlerTime.record(System.nanoTime() - started);
+            enqueueCompletion(new PendingCompletion(entry,
+                    new Completion(task.id(), result, workerId + "/" + task.id() + "/complete"), 1));
+        } catch (BpmnError error) {
+            counters.handlerTime.record(System.nanoTime() - started);
+            client.bpmnErrorAsync(task.id(), workerId, error.errorCode(), error.getMessage(), error.variables(),
+                    RequestOptions.defaults())
+                    .whenComplete((ignored, failure) -> finish(entry, failure == null ? counters.bpmnErrors : null));
+        } catch (Exception failure) {
+            counters.handlerTime.record(System.nanoTime() - started);
+            int remaining = task.retries() == null ? retries : Math.max(0, task.retries() - 1);
+            String message = failure.getMessage() == null ? failure.getClass().getName() : failure.getMessage();
+            client.failAsync(task.id(), workerId, message, stackTrace(failure),
+                    remaining, retryTimeout, RequestOptions.defaults())
+                    .whenComplete((ignored, reportFailure) -> finish(entry, reportFailure == null ? counters.failed : null));
+        }
+    }
+
+    private void heartbeat(InFlight entry) {
+        client.heartbeatAsync(entry.task.id(), workerId, lockDuration, RequestOptions.defaults())
+                .whenComplete((ignored, failure) -> {
+                    if (failure == null) {
+                        counters.heartbeats.increment();
+                    } else if (unwrap(failure) instanceof WorkerProtocolException protocol && protocol.status() != 0) {
+                        // The engine no longer gives this worker the lock; stop renewing it
+                        counters.lostLocks.increment();
+                        entry.heartbeat.cancel(false);
+                    }
+                });
+    }
+
+    private void enqueueCompletion(PendingCompletion completion) {
+        List<PendingCompletion> batch = null;
+        synchronized (pendingCompletions) {
+            pendingCompletions.add(completion);
+            if (pendingCompletions.size() >= completionBatchSize) batch = takePending();
+        }
+        if (batch != null) sendCompletions(batch);
+    }
+
+    private void flushCompletions() {
+        List<PendingCompletion> batch;
+        synchronized (pendingCompletions) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) sendCompletions(batch);
+    }
+
+    private List<PendingCompletion> takePending() {
+        List<PendingCompletion> batch = new ArrayList<>(pendingCompletions);
+        pendingCompletions.clear();
+        return batch;
+    }
+
+    private void sendCompletions(List<PendingCompletion> batch) {
+        client.completeBatchAsync(workerId, batch.stream().map(PendingCompletion::completion).toList(),
+                RequestOptions.defaults()).whenComplete((results, failure) -> {
+                    if (failure == null) {
+                        for (int i = 0; i < batch.size(); i++) {
+                            boolean completed = i < results.size() && results.get(i).completed();
+                            finish(batch.get(i).entry(), completed ? counters.completed : null);
+                        }
+                        return;
+                    }
+                    boolean network = unwrap(failure) instanceof WorkerProtocolException protocol
+                            && protocol.status() == 0;
+                    for (PendingCompletion completion : batch) {
+                        if (network && completion.attempt() < COMPLETION_ATTEMPTS) {
+                            enqueueCompletion(new PendingCompletion(completion.entry(), completion.completion(),
+                                    completion.attempt() + 1));
+                        } else {
+                            finish(completion.entry(), null);
+                        }
+                    }
+                });
+    }
+
+    /** Ends a task; {@code outcome} is the counter to bump, or null when the engine refused it. */
+    private void finish(InFlight entry, LongAdder outcome) {
+        if (inFlight.remove(entry.task.id()) == null) return;
+        entry.heartbeat.cancel(false);
+        (outcome == null ? counters.rejected : outcome).increment();
+        counters.taskLatency.record(System.nanoTime() - entry.fetchedAt);
+        capacity.release();
+    }
+
+    private boolean pause(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return running;
+        } catch (InterruptedException stopping) {
+            return false;
+        }
+    }
+
+    private static Duration min(Duration first, Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static String stackTrace(Throwable failure) {
+        StringWriter trace = new StringWriter();
+        failure.printStackTrace(new PrintWriter(trace));
+        return trace.toString();
+    }
+
+    private static final class InFlight {
+        final LockedExternalTask task;
+        final long fetchedAt;
+        volatile ScheduledFuture<?> heartbeat;
+
+        InFlight(LockedExternalTask task, long fetchedAt) {
+            this.task = task;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private record PendingCompletion(InFlight entry, Completion completion, int attempt) {}
+
+    private static final class Latency {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Duration mean() {
+            long samples = count.sum();
+            return samples == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / samples);
+        }
+
+        Duration max() {
+            return Duration.ofNanos(maxNanos.get());
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder fetched = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder bpmnErrors = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder heartbeats = new LongAdder();
+        final LongAdder lostLocks = new LongAdder();
+        final LongAdder fetchErrors = new LongAdder();
+        final Latency handlerTime = new Latency();
+        final Latency taskLatency = new Latency();
+
+        WorkerMetrics snapshot(Duration uptime, int inFlight) {
+            return new WorkerMetrics(uptime, fetched.sum(), completed.sum(), failed.sum(), bpmnErrors.sum(),
+                    rejected.sum(), heartbeats.sum(), lostLocks.sum(), fetchErrors.sum(), inFlight,
+                    handlerTime.mean(), handlerTime.max(), taskLatency.mean(), taskLatency.max());
+        }
+    }
+
+    public static final class Builder {
+        private final AbadaWorkerClient client;
+        private final String workerId;
+        private final Map<String, TaskHandler> handlers = new LinkedHashMap<>();
+        private final Map<String, List<String>> variables = new LinkedHashMap<>();
+        private Duration lockDuration = Duration.ofSeconds(30);
+        private Duration asyncResponseTimeout = Duration.ofSeconds(20);
+        private int maxTasks = 10;
+        private int completionBatchSize = 50;
+        private Duration completionFlushInterval = Duration.ofMillis(50);
+        private int retries = 3;
+        private Duration retryTimeout = Duration.ofSeconds(10);
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+        private Builder(AbadaWorkerClient client, String workerId) {
+            if (client == null || workerId == null || workerId.isBlank()) {
+                throw new IllegalArgumentException("A worker needs a client and a workerId");
+            }
+            this.client = client;
+            this.workerId = workerId;
+        }
+
+        /** Handles the tasks of {@code topic}, which are fetched with all process variables. */
+        public Builder topic(String topic, TaskHandler handler) {
+            if (topic == null || topic.isBlank() || handler == null) {
+                throw new IllegalArgumentException("A topic needs a name and a handler");
+            }
+            handlers.put(topic, handler);
+            variables.remove(topic);
+            return this;
+        }
+
+        /** Handles the tasks of {@code topic}, which are fetched with only the named variables. */
+        public Builder topic(String topic, List<String> variableNames, TaskHandler handler) {
+            topic(topic, handler);
+            variables.put(topic, List.copyOf(variableNames));
+            return this;
+        }
+
+        public Builder lockDuration(Duration lockDuration) {
+            this.lockDuration = lockDuration;
+            return this;
+        }
+
+        /** How long an idle fetch waits for a task; zero polls once a second instead. */
+        public Builder asyncResponseTimeout(Duration asyncResponseTimeout) {
+            this.asyncResponseTimeout = asyncResponseTimeout;
+            return this;
+        }
+
+        /** The most tasks fetched and not yet finished at any time. */
+        public Builder maxTasks(int maxTasks) {
+            this.maxTasks = maxTasks;
+            return this;
+        }
+
+        public Builder completionBatchSize(int completionBatchSize) {
+            this.completionBatchSize = completionBatchSize;
+            return this;
+        }
+
+        public Builder completionFlushInterval(Duration completionFlushInterval) {
+            this.completionFlushInterval = completionFlushInterval;
+            return this;
+        }
+
+        /**
+         * Retries left to a task after its first handler failure, when the engine has not set any, and
+         * the delay before each retry.
+         */
+        public Builder retries(int retries, Duration retryTimeout) {
+            this.retries = retries;
+            this.retryTimeout = retryTimeout;
+            return this;
+        }
+
+        public Builder shutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+            return this;
+        }
+
+        public AbadaWorker build() {
+            if (handlers.isEmpty()) throw new IllegalStateException("Register at least one topic handler");
+            if (maxTasks < 1 || completionBatchSize < 1 || retries < 0) {
+                throw new IllegalStateException("maxTasks and completionBatchSize must be positive and retries "
+                        + "must not be negative");
+            }
+            if (lockDuration.toMillis() < 1 || asyncResponseTimeout.isNegative()
+                    || completionFlushInterval.toMillis() < 1 || retryTimeout.isNegative()
+                    || shutdownTimeout.isNegative()) {
+                throw new IllegalStateException("lockDuration and completionFlushInterval must be positive and "
+                        + "timeouts must not be negative");
+            }
+            return new AbadaWorker(this);
+        }
+    }
+}
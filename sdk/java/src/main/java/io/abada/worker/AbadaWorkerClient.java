@@ -13,14 +13,27 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Supplier;
 
+/**
+ * Client for external-worker protocol v1. Every operation has a blocking form and an {@code Async}
+ * form built on {@link HttpClient#sendAsync}, which lets a worker keep a fetch, heartbeats and
+ * completions in flight at the same time; {@link AbadaWorker} builds on the latter.
+ */
 public final class AbadaWorkerClient {
     public static final String PROTOCOL_VERSION = "1";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final TypeReference<List<LockedExternalTask>> LOCKED_TASKS = new TypeReference<>() {};
     private final URI apiBase;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
     private final Supplier<String> bearerToken;
+    /** Headers shared by every request, copied rather than rebuilt per call. */
+    private final HttpRequest.Builder template;
 
     public AbadaWorkerClient(URI engineBaseUri, Supplier<String> bearerToken) {
         this(engineBaseUri, bearerToken, HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build(),
@@ -34,24 +47,41 @@ public final class AbadaWorkerClient {
         this.bearerToken = bearerToken;
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
+        this.template = HttpRequest.newBuilder().header("Content-Type", "application/json")
+                .header("Accept", "application/json").header("X-Abada-Worker-Protocol-Version", PROTOCOL_VERSION);
     }
 
     public List<LockedExternalTask> fetchAndLock(String workerId, List<String> topics, Duration lockDuration,
             int maxTasks, RequestOptions options) {
-        HttpResponse<String> response = send("/fetch-and-lock",
-                Map.of("workerId", workerId, "topics", topics, "lockDuration", lockDuration.toMillis(),
-                        "maxTasks", maxTasks), options);
-        String protocol = response.headers().firstValue("X-Abada-Worker-Protocol-Version").orElse(null);
-        if (!PROTOCOL_VERSION.equals(protocol)) {
-            throw new WorkerProtocolException(response.statusCode(), "UNSUPPORTED_PROTOCOL_VERSION",
-                    "Engine did not confirm worker protocol version " + PROTOCOL_VERSION);
-        }
-        try {
-            return objectMapper.readValue(response.body(), new TypeReference<>() {});
-        } catch (IOException exception) {
-            throw new WorkerProtocolException(response.statusCode(), "INVALID_RESPONSE",
-                    "Could not decode fetch-and-lock response");
-        }
+        return fetchAndLock(workerId, topics, lockDuration, maxTasks, Duration.ZERO, options);
+    }
+
+    /**
+     * Long-polling fetch: the engine holds the request for up to {@code asyncResponseTimeout} until a
+     * task on one of the topics is available, so an idle worker can call this in a loop without
+     * sleeping in between. Retries of a request with an idempotency key are answered at once.
+     */
+    public List<LockedExternalTask> fetchAndLock(String workerId, List<String> topics, Duration lockDuration,
+            int maxTasks, Duration asyncResponseTimeout, RequestOptions options) {
+        return fetchAndLock(workerId, topics, lockDuration, maxTasks, asyncResponseTimeout, null, options);
+    }
+
+    /**
+     * Fetch that returns only the listed process variables with the tasks of each topic in
+     * {@code variables}; topics left out receive all variables and an empty list returns none.
+     */
+    public List<LockedExternalTask> fetchAndLock(String workerId, List<String> topics, Duration lockDuration,
+            int maxTasks, Duration asyncResponseTimeout, Map<String, List<String>> variables,
+            RequestOptions options) {
+        return lockedTasks(send("/fetch-and-lock", fetchBody(workerId, topics, lockDuration, maxTasks,
+                asyncResponseTimeout, variables), options, REQUEST_TIMEOUT.plus(asyncResponseTimeout)));
+    }
+
+    public CompletableFuture<List<LockedExternalTask>> fetchAndLockAsync(String workerId, List<String> topics,
+            Duration lockDuration, int maxTasks, Duration asyncResponseTimeout, Map<String, List<String>> variables,
+            RequestOptions options) {
+        return sendAsync("/fetch-and-lock", fetchBody(workerId, topics, lockDuration, maxTasks, asyncResponseTimeout,
+                variables), options, REQUEST_TIMEOUT.plus(asyncResponseTimeout)).thenApply(this::lockedTasks);
     }
 
     public void complete(String taskId, String workerId, Map<String, Object> variables, RequestOptions options) {
@@ -59,52 +89,147 @@ public final class AbadaWorkerClient {
                 Map.of("workerId", workerId, "variables", variables == null ? Map.of() : variables), options);
     }
 
+    /**
+     * Completes several tasks in one request and returns one result per task, in order. The engine
+     * completes each task on its own, so a rejected task is reported in its result and the others
+     * still complete; only a rejected batch as a whole throws. Idempotency keys are given per task.
+     */
+    public List<CompletionResult> completeBatch(String workerId, List<Completion> completions,
+            RequestOptions options) {
+        return completionResults(send("/complete-batch", batchBody(workerId, completions), options),
+                completions.size());
+    }
+
+    public CompletableFuture<List<CompletionResult>> completeBatchAsync(String workerId, List<Completion> completions,
+            RequestOptions options) {
+        return sendAsync("/complete-batch", batchBody(workerId, completions), options, REQUEST_TIMEOUT)
+                .thenApply(response -> completionResults(response, completions.size()));
+    }
+
     public void heartbeat(String taskId, String workerId, Duration lockDuration, RequestOptions options) {
-        send("/" + segment(taskId) + "/heartbeat",
-                Map.of("workerId", workerId, "lockDuration", lockDuration.toMillis()), options);
+        send("/" + segment(taskId) + "/heartbeat", lockBody(workerId, lockDuration), options);
+    }
+
+    public CompletableFuture<Void> heartbeatAsync(String taskId, String workerId, Duration lockDuration,
+            RequestOptions options) {
+        return sendAsync("/" + segment(taskId) + "/heartbeat", lockBody(workerId, lockDuration), options,
+                REQUEST_TIMEOUT).thenApply(response -> null);
     }
 
     public void extendLock(String taskId, String workerId, Duration lockDuration, RequestOptions options) {
-        send("/" + segment(taskId) + "/extend-lock",
-                Map.of("workerId", workerId, "lockDuration", lockDuration.toMillis()), options);
+        send("/" + segment(taskId) + "/extend-lock", lockBody(workerId, lockDuration), options);
     }
 
     public void fail(String taskId, String workerId, String message, String details, Integer retries,
             Duration retryTimeout, RequestOptions options) {
+        send("/" + segment(taskId) + "/failure", failureBody(workerId, message, details, retries, retryTimeout),
+                options);
+    }
+
+    public CompletableFuture<Void> failAsync(String taskId, String workerId, String message, String details,
+            Integer retries, Duration retryTimeout, RequestOptions options) {
+        return sendAsync("/" + segment(taskId) + "/failure",
+                failureBody(workerId, message, details, retries, retryTimeout), options, REQUEST_TIMEOUT)
+                .thenApply(response -> null);
+    }
+
+    public void bpmnError(String taskId, String workerId, String errorCode, String errorMessage,
+            Map<String, Object> variables, RequestOptions options) {
+        send("/" + segment(taskId) + "/bpmn-error", bpmnErrorBody(workerId, errorCode, errorMessage, variables),
+                options);
+    }
+
+    public CompletableFuture<Void> bpmnErrorAsync(String taskId, String workerId, String errorCode,
+            String errorMessage, Map<String, Object> variables, RequestOptions options) {
+        return sendAsync("/" + segment(taskId) + "/bpmn-error",
+                bpmnErrorBody(workerId, errorCode, errorMessage, variables), options, REQUEST_TIMEOUT)
+                .thenApply(response -> null);
+    }
+
+    private static Map<String, Object> fetchBody(String workerId, List<String> topics, Duration lockDuration,
+            int maxTasks, Duration asyncResponseTimeout, Map<String, List<String>> variables) {
+        java.util.LinkedHashMap<String, Object> body = new java.util.LinkedHashMap<>();
+        body.put("workerId", workerId);
+        body.put("topics", topics);
+        body.put("lockDuration", lockDuration.toMillis());
+        body.put("maxTasks", maxTasks);
+        body.put("asyncResponseTimeout", asyncResponseTimeout.toMillis());
+        if (variables != null) body.put("variables", variables);
+        return body;
+    }
+
+    private static Map<String, Object> batchBody(String workerId, List<Completion> completions) {
+        List<Map<String, Object>> tasks = new java.util.ArrayList<>(completions.size());
+        for (Completion completion : completions) {
+            java.util.LinkedHashMap<String, Object> task = new java.util.LinkedHashMap<>();
+            task.put("id", completion.taskId());
+            task.put("variables", completion.variables() == null ? Map.of() : completion.variables());
+            if (completion.idempotencyKey() != null) task.put("idempotencyKey", completion.idempotencyKey());
+            tasks.add(task);
+        }
+        return Map.of("workerId", workerId, "tasks", tasks);
+    }
+
+    private static Map<String, Object> lockBody(String workerId, Duration lockDuration) {
+        return Map.of("workerId", workerId, "lockDuration", lockDuration.toMillis());
+    }
+
+    private static Map<String, Object> failureBody(String workerId, String message, String details, Integer retries,
+            Duration retryTimeout) {
         java.util.LinkedHashMap<String, Object> body = new java.util.LinkedHashMap<>();
         body.put("workerId", workerId);
         body.put("errorMessage", message);
         body.put("errorDetails", details);
         body.put("retries", retries);
         body.put("retryTimeout", retryTimeout == null ? null : retryTimeout.toMillis());
-        send("/" + segment(taskId) + "/failure", body, options);
+        return body;
     }
 
-    public void bpmnError(String taskId, String workerId, String errorCode, String errorMessage,
-            Map<String, Object> variables, RequestOptions options) {
-        send("/" + segment(taskId) + "/bpmn-error",
-                Map.of("workerId", workerId, "errorCode", errorCode,
-                        "errorMessage", errorMessage == null ? "" : errorMessage,
-                        "variables", variables == null ? Map.of() : variables), options);
+    private static Map<String, Object> bpmnErrorBody(String workerId, String errorCode, String errorMessage,
+            Map<String, Object> variables) {
+        return Map.of("workerId", workerId, "errorCode", errorCode,
+                "errorMessage", errorMessage == null ? "" : errorMessage,
+                "variables", variables == null ? Map.of() : variables);
     }
 
-    private HttpResponse<String> send(String path, Object body, RequestOptions suppliedOptions) {
-        RequestOptions options = suppliedOptions == null ? RequestOptions.defaults() : suppliedOptions;
+    private List<LockedExternalTask> lockedTasks(HttpResponse<byte[]> response) {
+        String protocol = response.headers().firstValue("X-Abada-Worker-Protocol-Version").orElse(null);
+        if (!PROTOCOL_VERSION.equals(protocol)) {
+            throw new WorkerProtocolException(response.statusCode(), "UNSUPPORTED_PROTOCOL_VERSION",
+                    "Engine did not confirm worker protocol version " + PROTOCOL_VERSION);
+        }
         try {
-            HttpRequest.Builder request = HttpRequest.newBuilder(apiBase.resolve(apiBase.getPath() + path))
-                    .timeout(Duration.ofSeconds(30)).header("Content-Type", "application/json")
-                    .header("Accept", "application/json").header("X-Abada-Worker-Protocol-Version", PROTOCOL_VERSION)
-                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
-            String token = bearerToken == null ? null : bearerToken.get();
-            if (token != null && !token.isBlank()) request.header("Authorization", "Bearer " + token);
-            if (options.idempotencyKey() != null) request.header("Idempotency-Key", options.idempotencyKey());
-            if (options.traceParent() != null) request.header("traceparent", options.traceParent());
-            if (options.traceState() != null) request.header("tracestate", options.traceState());
-            HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) throw protocolError(response);
-            return response;
-        } catch (WorkerProtocolException exception) {
-            throw exception;
+            return objectMapper.readValue(response.body(), LOCKED_TASKS);
+        } catch (IOException exception) {
+            throw new WorkerProtocolException(response.statusCode(), "INVALID_RESPONSE",
+                    "Could not decode fetch-and-lock response");
+        }
+    }
+
+    private List<CompletionResult> completionResults(HttpResponse<byte[]> response, int size) {
+        try {
+            List<CompletionResult> results = new java.util.ArrayList<>(size);
+            for (JsonNode result : objectMapper.readTree(response.body()).path("results")) {
+                JsonNode error = result.path("error");
+                results.add(new CompletionResult(result.path("id").asText(), error.isMissingNode() ? null
+                        : new WorkerProtocolException(error.path("status").asInt(), error.path("code").asText(),
+                                error.path("message").asText())));
+            }
+            return results;
+        } catch (IOException exception) {
+            throw new WorkerProtocolException(response.statusCode(), "INVALID_RESPONSE",
+                    "Could not decode complete-batch response");
+        }
+    }
+
+    private HttpResponse<byte[]> send(String path, Object body, RequestOptions options) {
+        return send(path, body, options, REQUEST_TIMEOUT);
+    }
+
+    private HttpResponse<byte[]> send(String path, Object body, RequestOptions options, Duration timeout) {
+        try {
+            return checked(httpClient.send(request(path, body, options, timeout),
+                    HttpResponse.BodyHandlers.ofByteArray()));
         } catch (IOException exception) {
             throw new WorkerProtocolException(0, "NETWORK_ERROR", exception.getMessage());
         } catch (InterruptedException exception) {
@@ -113,7 +238,49 @@ public final class AbadaWorkerClient {
         }
     }
 
-    private WorkerProtocolException protocolError(HttpResponse<String> response) {
+    /** Completes exceptionally with a {@link WorkerProtocolException}, as the blocking forms throw. */
+    private CompletableFuture<HttpResponse<byte[]>> sendAsync(String path, Object body, RequestOptions options,
+            Duration timeout) {
+        HttpRequest request;
+        try {
+            request = request(path, body, options, timeout);
+        } catch (WorkerProtocolException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    if (failure == null) return checked(response);
+                    Throwable cause = failure instanceof CompletionException || failure instanceof ExecutionException
+                            ? failure.getCause() : failure;
+                    if (cause instanceof CancellationException cancelled) throw cancelled;
+                    throw new WorkerProtocolException(0, "NETWORK_ERROR", cause.getMessage());
+                });
+    }
+
+    private HttpRequest request(String path, Object body, RequestOptions suppliedOptions, Duration timeout) {
+        RequestOptions options = suppliedOptions == null ? RequestOptions.defaults() : suppliedOptions;
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (IOException exception) {
+            throw new WorkerProtocolException(0, "INVALID_REQUEST", "Could not encode worker request");
+        }
+        HttpRequest.Builder request = template.copy().uri(apiBase.resolve(apiBase.getPath() + path))
+                .timeout(timeout).POST(HttpRequest.BodyPublishers.ofByteArray(json));
+        String token = bearerToken == null ? null : bearerToken.get();
+        if (token != null && !token.isBlank()) request.header("Authorization", "Bearer " + token);
+        if (options.idempotencyKey() != null) request.header("Idempotency-Key", options.idempotencyKey());
+        if (options.traceParent() != null) request.header("traceparent", options.traceParent());
+        if (options.traceState() != null) request.header("tracestate", options.traceState());
+        return request.build();
+    }
+
+    private HttpResponse<byte[]> checked(HttpResponse<byte[]> response) {
+        if (response.statusCode() < 200 || response.statusCode() >= 300) throw protocolError(response);
+        return response;
+    }
+
+    private WorkerProtocolException protocolError(HttpResponse<byte[]> response) {
         try {
             JsonNode error = objectMapper.readTree(response.body());
             return new WorkerProtocolException(response.statusCode(), error.path("code").asText("HTTP_ERROR"),
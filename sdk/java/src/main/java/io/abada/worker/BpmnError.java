@@ -0,0 +1,22 @@
+package io.abada.worker;
+
+import java.util.Map;
+
+/** Thrown by a {@link TaskHandler} to report a BPMN business error instead of completing the task. */
+public class BpmnError extends RuntimeException {
+    private final String errorCode;
+    private final Map<String, Object> variables;
+
+    public BpmnError(String errorCode, String message) {
+        this(errorCode, message, Map.of());
+    }
+
+    public BpmnError(String errorCode, String message, Map<String, Object> variables) {
+        super(message);
+        this.errorCode = errorCode;
+        this.variables = variables == null ? Map.of() : Map.copyOf(variables);
+    }
+
+    public String errorCode() { return errorCode; }
+    public Map<String, Object> variables() { return variables; }
+}
@@ -0,0 +1,13 @@
+package io.abada.worker;
+
+import java.util.Map;
+
+/**
+ * One task of a batch completion. {@code idempotencyKey} may be null; when set, it is interchangeable
+ * with the idempotency key of a single {@link AbadaWorkerClient#complete} of the same task.
+ */
+public record Completion(String taskId, Map<String, Object> variables, String idempotencyKey) {
+    public Completion(String taskId, Map<String, Object> variables) {
+        this(taskId, variables, null);
+    }
+}
@@ -0,0 +1,8 @@
+package io.abada.worker;
+
+/** Result of one task of a batch completion; {@code error} is null when the task was completed. */
+public record CompletionResult(String taskId, WorkerProtocolException error) {
+    public boolean completed() {
+        return error == null;
+    }
+}
@@ -0,0 +1,13 @@
+package io.abada.worker;
+
+import java.util.Map;
+
+/**
+ * Business logic for the tasks of one topic, run by {@link AbadaWorker} on a virtual thread. The
+ * returned variables complete the task. Throw {@link BpmnError} to report a business error; any other
+ * exception reports a technical failure, which the engine retries while retries remain.
+ */
+@FunctionalInterface
+public interface TaskHandler {
+    Map<String, Object> handle(LockedExternalTask task) throws Exception;
+}
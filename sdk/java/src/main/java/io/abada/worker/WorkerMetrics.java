@@ -0,0 +1,30 @@
+package io.abada.worker;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of an {@link AbadaWorker}'s counters since it started. {@code rejected} counts tasks whose
+ * completion, failure or BPMN error the engine refused, usually because the lock was lost; handler
+ * time covers the handler alone, task latency runs from fetch until the engine acknowledged the outcome.
+ */
+public record WorkerMetrics(
+        Duration uptime,
+        long fetched,
+        long completed,
+        long failed,
+        long bpmnErrors,
+        long rejected,
+        long heartbeats,
+        long lostLocks,
+        long fetchErrors,
+        int inFlight,
+        Duration meanHandlerTime,
+        Duration maxHandlerTime,
+        Duration meanTaskLatency,
+        Duration maxTaskLatency) {
+
+    public double completedPerSecond() {
+        long millis = uptime.toMillis();
+        return millis == 0 ? 0 : completed * 1000.0 / millis;
+    }
+}
@@ -58,6 +58,20 @@ class AbadaWorkerClientTest {
         assertTrue(requestBody.get().contains("\"workerId\":\"worker-1\""));
     }
 
+    @Test
+    void sendsLongPollTimeout() {
+        client.fetchAndLock("worker-1", List.of("payments"), Duration.ofSeconds(30), 4, Duration.ofSeconds(20),
+                RequestOptions.defaults());
+        assertTrue(requestBody.get().contains("\"asyncResponseTimeout\":20000"));
+    }
+
+    @Test
+    void sendsVariableWhitelistPerTopic() {
+        client.fetchAndLock("worker-1", List.of("payments"), Duration.ofSeconds(30), 4, Duration.ZERO,
+                Map.of("payments", List.of("amount")), RequestOptions.defaults());
+        assertTrue(requestBody.get().contains("\"variables\":{\"payments\":[\"amount\"]}"));
+    }
+
     @Test
     void sendsCanonicalCompletionBody() {
         client.complete("task 1", "worker-1", Map.of("approved", true), RequestOptions.defaults());
@@ -66,6 +80,29 @@ class AbadaWorkerClientTest {
         assertTrue(requestBody.get().contains("\"approved\":true"));
     }
 
+    @Test
+    void sendsBatchCompletionAndDecodesPerTaskResults() {
+        server.removeContext("/api/v1/external-tasks");
+        server.createContext("/api/v1/external-tasks", request -> {
+            exchange.set(request);
+            requestBody.set(new String(request.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] response = ("{\"completed\":1,\"failed\":1,\"results\":[{\"id\":\"task-1\",\"status\":\"COMPLETED\"},"
+                    + "{\"id\":\"task-2\",\"status\":\"FAILED\",\"error\":{\"status\":409,"
+                    + "\"code\":\"WORKER_LOCK_EXPIRED\",\"message\":\"expired\"}}]}").getBytes(StandardCharsets.UTF_8);
+            request.sendResponseHeaders(200, response.length);
+            request.getResponseBody().write(response);
+            request.close();
+        });
+        List<CompletionResult> results = client.completeBatch("worker-1", List.of(
+                new Completion("task-1", Map.of("approved", true), "complete-task-1"),
+                new Completion("task-2", Map.of())), RequestOptions.defaults());
+        assertEquals("/api/v1/external-tasks/complete-batch", exchange.get().getRequestURI().getPath());
+        assertTrue(requestBody.get().contains("\"idempotencyKey\":\"complete-task-1\""));
+        assertTrue(results.get(0).completed());
+        assertEquals(409, results.get(1).error().status());
+        assertEquals("WORKER_LOCK_EXPIRED", results.get(1).error().code());
+    }
+
     @Test
     void exposesTypedEngineErrors() {
         server.removeContext("/api/v1/external-tasks");
@@ -0,0 +1,186 @@
+package io.abada.worker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Runs workers against a fake engine that hands out queued tasks and records what comes back. */
+class AbadaWorkerTest {
+    private static final Pattern MAX_TASKS = Pattern.compile("\"maxTasks\":(\\d+)");
+    private static final Pattern TASK_ID = Pattern.compile("\"id\":\"([^\"]+)\"");
+
+    HttpServer server;
+    AbadaWorkerClient client;
+    ConcurrentLinkedQueue<String[]> available = new ConcurrentLinkedQueue<>();
+    List<Integer> fetchSizes = new CopyOnWriteArrayList<>();
+    List<String> completed = new CopyOnWriteArrayList<>();
+    AtomicInteger completionRequests = new AtomicInteger();
+    List<String> calls = new CopyOnWriteArrayList<>();
+    volatile long idleFetchMillis = 100;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/v1/external-tasks", this::engine);
+        server.start();
+        client = new AbadaWorkerClient(URI.create("http://localhost:" + server.getAddress().getPort() + "/api"),
+                () -> "token");
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void runsHandlersWithinCapacityAndBatchesCompletions() throws Exception {
+        for (int i = 0; i < 20; i++) available.add(new String[] {"task-" + i, "payments"});
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AbadaWorker worker = AbadaWorker.builder(client, "worker-1")
+                .topic("payments", task -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    running.decrementAndGet();
+                    return Map.of("paid", true);
+                })
+                .maxTasks(4).asyncResponseTimeout(Duration.ofMillis(100))
+                .completionBatchSize(4).completionFlushInterval(Duration.ofMillis(20))
+                .build().start();
+
+        awaitTrue(() -> worker.metrics().completed() == 20);
+        worker.close();
+
+        WorkerMetrics metrics = worker.metrics();
+        assertEquals(20, metrics.fetched());
+        assertEquals(0, metrics.inFlight());
+        assertTrue(metrics.meanHandlerTime().toMillis() >= 20);
+        assertTrue(metrics.completedPerSecond() > 0);
+        assertEquals(20, completed.size());
+        assertTrue(maxRunning.get() <= 4, "at most maxTasks handlers run at once");
+        assertTrue(fetchSizes.stream().allMatch(size -> size >= 1 && size <= 4));
+        assertTrue(completionRequests.get() < 20, "completions are batched");
+    }
+
+    @Test
+    void renewsLocksAndReportsFailuresAndBpmnErrors() throws Exception {
+        available.add(new String[] {"slow", "slow"});
+        available.add(new String[] {"broken", "broken"});
+        available.add(new String[] {"rejected", "rejected"});
+        AbadaWorker worker = AbadaWorker.builder(client, "worker-1")
+                .topic("slow", task -> {
+                    Thread.sleep(400);
+                    return Map.of();
+                })
+                .topic("broken", task -> {
+                    throw new IllegalStateException("boom");
+                })
+                .topic("rejected", List.of("amount"), task -> {
+                    throw new BpmnError("REJECTED", "Amount too high");
+                })
+                .lockDuration(Duration.ofMillis(100)).asyncResponseTimeout(Duration.ofMillis(100))
+                .build().start();
+
+        awaitTrue(() -> worker.metrics().completed() == 1 && worker.metrics().failed() == 1
+                && worker.metrics().bpmnErrors() == 1);
+        worker.close();
+
+        assertTrue(worker.metrics().heartbeats() >= 2, "the slow task's lock is renewed");
+        assertTrue(calls.contains("/broken/failure"));
+        assertTrue(calls.contains("/rejected/bpmn-error"));
+        assertEquals(List.of("slow"), completed);
+    }
+
+    @Test
+    void closingDuringALongPollIsNotAFetchError() throws Exception {
+        idleFetchMillis = 5_000;
+        AbadaWorker worker = AbadaWorker.builder(client, "worker-1")
+                .topic("payments", task -> Map.of())
+                .asyncResponseTimeout(Duration.ofSeconds(5))
+                .build().start();
+        awaitTrue(() -> calls.contains("/fetch-and-lock"));
+
+        long started = System.nanoTime();
+        worker.close();
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(2)) < 0,
+                "close does not wait for the long poll");
+        assertEquals(0, worker.metrics().fetchErrors());
+    }
+
+    private void engine(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        String path = exchange.getRequestURI().getPath().substring("/api/v1/external-tasks".length());
+        calls.add(path);
+        String response = "{}";
+        if (path.equals("/fetch-and-lock")) {
+            response = fetch(body);
+        } else if (path.equals("/complete-batch")) {
+            completionRequests.incrementAndGet();
+            List<String> results = new ArrayList<>();
+            Matcher ids = TASK_ID.matcher(body);
+            while (ids.find()) {
+                completed.add(ids.group(1));
+                results.add("{\"id\":\"" + ids.group(1) + "\",\"status\":\"COMPLETED\"}");
+            }
+            response = "{\"results\":[" + String.join(",", results) + "]}";
+        }
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("X-Abada-Worker-Protocol-Version", "1");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private String fetch(String body) {
+        Matcher matcher = MAX_TASKS.matcher(body);
+        matcher.find();
+        int maxTasks = Integer.parseInt(matcher.group(1));
+        fetchSizes.add(maxTasks);
+        List<String> tasks = new ArrayList<>();
+        String[] task;
+        while (tasks.size() < maxTasks && (task = available.poll()) != null) {
+            tasks.add("{\"id\":\"" + task[0] + "\",\"topicName\":\"" + task[1] + "\",\"variables\":{},"
+                    + "\"processInstanceId\":\"instance-" + task[0] + "\",\"activityId\":\"Work\",\"retries\":null,"
+                    + "\"protocolVersion\":\"1\"}");
+        }
+        if (tasks.isEmpty()) {
+            try {
+                Thread.sleep(idleFetchMillis);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return "[" + String.join(",", tasks) + "]";
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}